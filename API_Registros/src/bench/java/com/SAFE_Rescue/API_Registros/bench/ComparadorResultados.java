@@ -0,0 +1,106 @@
+package com.SAFE_Rescue.API_Registros.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compara los resultados JSON de JMH con una línea base guardada y termina con código 1 si algún
+ * benchmark empeoró más que la tolerancia.
+ * <p>
+ * Un benchmark empeora si su puntaje es peor que el de la base en más de la tolerancia relativa y,
+ * además, la diferencia supera la suma de los márgenes de error de ambas mediciones, para no
+ * fallar por el ruido de la máquina. En modo {@code thrpt} un puntaje mayor es mejor; en los demás
+ * modos (tiempos), uno menor.
+ * </p>
+ * <p>
+ * Uso: {@code ComparadorResultados <resultado.json> <base.json> <tolerancia> <propuesta.json>}. La línea
+ * base versionada nunca se modifica: el resultado se copia como propuesta de base (en {@code target/}),
+ * que se revisa y se copia a mano sobre la base cuando corresponde. Sin línea base no se compara nada.
+ * </p>
+ */
+public final class ComparadorResultados {
+
+    private ComparadorResultados() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path resultado = Path.of(args[0]);
+        Path base = Path.of(args[1]);
+        double tolerancia = Double.parseDouble(args[2]);
+        Path propuesta = Path.of(args[3]);
+
+        Files.createDirectories(propuesta.toAbsolutePath().getParent());
+        Files.copy(resultado, propuesta, StandardCopyOption.REPLACE_EXISTING);
+        System.out.println("Propuesta de línea base: " + propuesta + " (revisar y copiar a " + base + " para adoptarla)");
+        if (!Files.exists(base)) {
+            System.out.println("No hay línea base en " + base + "; no se compara.");
+            return;
+        }
+
+        List<String> regresiones = comparar(leer(base), leer(resultado), tolerancia);
+        if (!regresiones.isEmpty()) {
+            System.out.println();
+            System.out.println(regresiones.size() + " benchmark(s) empeoraron más de " + Math.round(tolerancia * 100) + "%:");
+            regresiones.forEach(r -> System.out.println("  " + r));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Imprime la comparación de cada benchmark y retorna la descripción de los que empeoraron.
+     */
+    static List<String> comparar(Map<String, Medicion> base, Map<String, Medicion> actual, double tolerancia) {
+        List<String> regresiones = new ArrayList<>();
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Base", "Actual", "Cambio");
+        for (Map.Entry<String, Medicion> entrada : actual.entrySet()) {
+            Medicion nueva = entrada.getValue();
+            Medicion anterior = base.get(entrada.getKey());
+            if (anterior == null) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entrada.getKey(), "-", nueva.puntaje(), "nuevo");
+                continue;
+            }
+            double cambio = (nueva.puntaje() - anterior.puntaje()) / anterior.puntaje();
+            double empeora = nueva.mayorEsMejor() ? -cambio : cambio;
+            boolean fueraDelRuido = Math.abs(nueva.puntaje() - anterior.puntaje()) > anterior.error() + nueva.error();
+            boolean regresion = empeora > tolerancia && fueraDelRuido;
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %s%n", entrada.getKey(), anterior.puntaje(), nueva.puntaje(),
+                    cambio * 100, nueva.unidad() + (regresion ? "  << REGRESIÓN" : ""));
+            if (regresion) {
+                regresiones.add(String.format("%s: %.3f -> %.3f %s", entrada.getKey(), anterior.puntaje(), nueva.puntaje(), nueva.unidad()));
+            }
+        }
+        return regresiones;
+    }
+
+    /**
+     * Lee un archivo de resultados de JMH ({@code -rf json}), indexado por benchmark, modo y parámetros.
+     */
+    static Map<String, Medicion> leer(Path archivo) throws IOException {
+        Map<String, Medicion> mediciones = new TreeMap<>();
+        for (JsonNode nodo : new ObjectMapper().readTree(archivo.toFile())) {
+            StringBuilder clave = new StringBuilder(nodo.path("benchmark").asText()).append(" [").append(nodo.path("mode").asText());
+            Map<String, String> parametros = new TreeMap<>();
+            for (Map.Entry<String, JsonNode> parametro : nodo.path("params").properties()) {
+                parametros.put(parametro.getKey(), parametro.getValue().asText());
+            }
+            parametros.forEach((nombre, valor) -> clave.append(", ").append(nombre).append('=').append(valor));
+            JsonNode metrica = nodo.path("primaryMetric");
+            double error = metrica.path("scoreError").asDouble(0);
+            mediciones.put(clave.append(']').toString(), new Medicion(metrica.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error, metrica.path("scoreUnit").asText(), "thrpt".equals(nodo.path("mode").asText())));
+        }
+        return mediciones;
+    }
+
+    record Medicion(double puntaje, double error, String unidad, boolean mayorEsMejor) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.SAFE_Rescue.API_Registros.bench;
+
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Foto;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datos de prueba compartidos por los benchmarks. Son deterministas para que los resultados de dos
+ * ejecuciones sean comparables.
+ */
+final class DatosBenchmark {
+
+    private DatosBenchmark() {
+    }
+
+    /**
+     * Crea historiales con todos los campos completos, el caso más costoso de validar y serializar.
+     *
+     * @param cantidad Cantidad de registros.
+     * @return Los historiales, con IDs desde 1.
+     */
+    static List<Historial> historiales(int cantidad) {
+        Estado estado = new Estado(1, "Activo", "Registro activo");
+        Categoria categoria = new Categoria(1, "Sistema", "Eventos del sistema");
+        LocalDateTime inicio = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<Historial> historiales = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            historiales.add(new Historial(i, estado, categoria, inicio.plusSeconds(i),
+                    "Cambio de estado del incidente " + i + " registrado por la central", i, i, i, i, i, i, null));
+        }
+        return historiales;
+    }
+
+    static Foto foto() {
+        return new Foto(1, "https://archivos.safe-rescue.cl/fotos/incidente-1.jpg", LocalDateTime.of(2025, 1, 1, 0, 0),
+                "Fachada del inmueble");
+    }
+
+    /**
+     * {@link ObjectMapper} con la misma configuración que aplica Spring Boot por defecto.
+     */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.SAFE_Rescue.API_Registros.bench;
+
+import com.SAFE_Rescue.API_Registros.ApiConfiguracionesApplication;
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.CategoriaRepository;
+import com.SAFE_Rescue.API_Registros.repository.EstadoRepository;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendimiento de {@code HistorialRepository.insertarEnLote} según la cantidad de sentencias por
+ * envío JDBC ({@code registros.historial.lote.tamano-jdbc}), contra H2 en memoria.
+ * <p>
+ * Cada operación inserta {@value #FILAS} registros en una transacción; el resultado se expresa en
+ * registros por segundo. Con un tamaño de 1 cada INSERT es un envío propio, como sin lotes. H2 en
+ * memoria no tiene ida y vuelta de red, por lo que la diferencia contra MySQL es mayor que la medida
+ * aquí: el benchmark muestra el costo de CPU del lote y detecta regresiones, no la ganancia en producción.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsercionLoteBenchmark {
+
+    private static final int FILAS = 1000;
+
+    @Param({"1", "100", "1000"})
+    public int tamanoLote;
+
+    private ConfigurableApplicationContext contexto;
+    private HistorialRepository historialRepository;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transaccion;
+    private List<Historial> historiales;
+
+    @Setup
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(ApiConfiguracionesApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=bench",
+                        "--spring.datasource.url=jdbc:h2:mem:bench-insercion;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.root=WARN");
+        historialRepository = contexto.getBean(HistorialRepository.class);
+        jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        transaccion = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+
+        Estado estado = contexto.getBean(EstadoRepository.class).save(new Estado(0, "Activo", null));
+        Categoria categoria = contexto.getBean(CategoriaRepository.class).save(new Categoria(0, "Sistema", null));
+        historiales = DatosBenchmark.historiales(FILAS);
+        for (Historial historial : historiales) {
+            historial.setEstado(estado);
+            historial.setCategoria(categoria);
+        }
+    }
+
+    /**
+     * Vacía las tablas entre iteraciones, para que el tamaño de los índices no distorsione la medición.
+     */
+    @TearDown(Level.Iteration)
+    public void vaciar() {
+        jdbcTemplate.execute("TRUNCATE TABLE historial");
+        jdbcTemplate.execute("TRUNCATE TABLE resumen_historial");
+    }
+
+    @TearDown
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public List<Historial> insertarEnLote() {
+        transaccion.executeWithoutResult(estado -> historialRepository.insertarEnLote(historiales, tamanoLote));
+        return historiales;
+    }
+}
@@ -0,0 +1,116 @@
+package com.SAFE_Rescue.API_Registros.bench;
+
+import com.SAFE_Rescue.API_Registros.ApiConfiguracionesApplication;
+import com.SAFE_Rescue.API_Registros.dto.FiltroHistorial;
+import com.SAFE_Rescue.API_Registros.dto.HistorialCompacto;
+import com.SAFE_Rescue.API_Registros.dto.PaginaCursor;
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.CategoriaRepository;
+import com.SAFE_Rescue.API_Registros.repository.EstadoRepository;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import com.SAFE_Rescue.API_Registros.service.HistorialService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lecturas de historial contra una base de datos H2 en memoria, con el contexto completo de la
+ * aplicación (repositorios, transacciones y consultas reales de Hibernate).
+ * <p>
+ * El costo absoluto no es el de MySQL, pero sí lo es la cantidad de sentencias y el trabajo de
+ * Hibernate por fila, que es lo que suele cambiar al modificar una consulta o una relación. La
+ * cantidad de filas de la tabla muestra si una lectura deja de ser independiente del tamaño.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositorioHistorialBenchmark {
+
+    private static final int TAMANO_PAGINA = 100;
+    private static final int INCIDENTES = 100;
+
+    @Param({"1000", "100000"})
+    public int filas;
+
+    private ConfigurableApplicationContext contexto;
+    private HistorialRepository historialRepository;
+    private HistorialService historialService;
+    private FiltroHistorial porIncidente;
+
+    @Setup
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(ApiConfiguracionesApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=bench",
+                        "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.root=WARN");
+        historialRepository = contexto.getBean(HistorialRepository.class);
+        historialService = contexto.getBean(HistorialService.class);
+
+        Estado estado = contexto.getBean(EstadoRepository.class).save(new Estado(0, "Activo", null));
+        Categoria categoria = contexto.getBean(CategoriaRepository.class).save(new Categoria(0, "Sistema", null));
+        List<Historial> historiales = DatosBenchmark.historiales(filas);
+        for (Historial historial : historiales) {
+            historial.setIdAsignacionIncidente(historial.getIdHistorial() % INCIDENTES);
+            historial.setIdHistorial(0);
+            historial.setEstado(estado);
+            historial.setCategoria(categoria);
+        }
+        for (int inicio = 0; inicio < filas; inicio += 5000) {
+            historialService.saveLote(historiales.subList(inicio, Math.min(inicio + 5000, filas)));
+        }
+
+        porIncidente = new FiltroHistorial();
+        porIncidente.setIdAsignacionIncidente(INCIDENTES / 2);
+    }
+
+    @TearDown
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Optional<Historial> findById() {
+        return historialRepository.findById(ThreadLocalRandom.current().nextInt(1, filas + 1));
+    }
+
+    @Benchmark
+    public PaginaCursor<Historial> primeraPagina() {
+        return historialService.findPagina(null, TAMANO_PAGINA);
+    }
+
+    @Benchmark
+    public PaginaCursor<HistorialCompacto> primeraPaginaCompacta() {
+        return historialService.findPaginaCompacta(null, TAMANO_PAGINA);
+    }
+
+    @Benchmark
+    public PaginaCursor<Historial> buscarPorIncidente() {
+        return historialService.buscar(porIncidente, null, TAMANO_PAGINA);
+    }
+}
@@ -0,0 +1,87 @@
+package com.SAFE_Rescue.API_Registros.bench;
+
+import com.SAFE_Rescue.API_Registros.dto.HistorialCompacto;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.protobuf.ConvertidorProtobuf;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización de listas de {@link Historial} en los formatos de respuesta de la API y conversión
+ * de la entidad a su vista compacta.
+ * <p>
+ * Los tamaños cubren una página pequeña, la página por defecto del listado (100) y el máximo de
+ * paginación y de un lote (1000 y 5000).
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacionHistorialBenchmark {
+
+    private static final Type LISTA_HISTORIAL = new ParameterizedTypeReference<List<Historial>>() { }.getType();
+
+    @Param({"10", "100", "1000", "5000"})
+    public int tamano;
+
+    private ObjectMapper objectMapper;
+    private ConvertidorProtobuf convertidorProtobuf;
+    private List<Historial> historiales;
+    private byte[] json;
+
+    @Setup
+    public void preparar() throws IOException {
+        objectMapper = DatosBenchmark.objectMapper();
+        convertidorProtobuf = new ConvertidorProtobuf();
+        historiales = DatosBenchmark.historiales(tamano);
+        json = objectMapper.writeValueAsBytes(historiales);
+    }
+
+    @Benchmark
+    public byte[] serializarJson() throws IOException {
+        return objectMapper.writerFor(new TypeReference<List<Historial>>() { }).writeValueAsBytes(historiales);
+    }
+
+    @Benchmark
+    public List<Historial> deserializarJson() throws IOException {
+        return objectMapper.readValue(json, new TypeReference<List<Historial>>() { });
+    }
+
+    @Benchmark
+    public byte[] serializarProtobuf() throws IOException {
+        MockHttpOutputMessage salida = new MockHttpOutputMessage();
+        convertidorProtobuf.write(historiales, LISTA_HISTORIAL, ConvertidorProtobuf.APPLICATION_PROTOBUF, salida);
+        return salida.getBodyAsBytes();
+    }
+
+    @Benchmark
+    public List<HistorialCompacto> mapearCompacto() {
+        return historiales.stream().map(HistorialCompacto::de).toList();
+    }
+
+    @Benchmark
+    public byte[] serializarJsonCompacto() throws IOException {
+        return objectMapper.writeValueAsBytes(historiales.stream().map(HistorialCompacto::de).toList());
+    }
+}
@@ -0,0 +1,58 @@
+package com.SAFE_Rescue.API_Registros.bench;
+
+import com.SAFE_Rescue.API_Registros.modelo.Foto;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.service.FotoService;
+import com.SAFE_Rescue.API_Registros.service.HistorialService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validaciones que se ejecutan en cada creación y en cada elemento de un lote o importación.
+ * <p>
+ * Los servicios se crean sin dependencias: la validación solo lee el objeto recibido.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacionBenchmark {
+
+    private HistorialService historialService;
+    private FotoService fotoService;
+    private Historial historial;
+    private Foto foto;
+
+    @Setup
+    public void preparar() {
+        historialService = new HistorialService();
+        fotoService = new FotoService(null, null, null, 600);
+        historial = DatosBenchmark.historiales(1).get(0);
+        foto = DatosBenchmark.foto();
+    }
+
+    @Benchmark
+    public Historial validarAtributosHistorial() {
+        historialService.validarAtributosHistorial(historial);
+        return historial;
+    }
+
+    @Benchmark
+    public Foto validarAtributosFoto() {
+        fotoService.validarAtributosFoto(foto);
+        return foto;
+    }
+}
@@ -0,0 +1,185 @@
+package com.SAFE_Rescue.API_Registros.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Datos iniciales de la prueba de carga y construcción de las solicitudes.
+ * <p>
+ * Los datos se crean a través de la propia API, por lo que la preparación también funciona contra
+ * una instancia externa. Los IDs se obtienen de las respuestas, sin suponer cómo los genera la base
+ * de datos.
+ * </p>
+ */
+class DatosCarga {
+
+    static final String BASE = "/api-registros/v1";
+
+    private static final int CATALOGOS = 20;
+    private static final int FOTOS = 200;
+    private static final int TAMANO_LOTE = 1000;
+    private static final int DIAS = 30;
+    static final int INCIDENTES = 1000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI servidor;
+    private final Duration espera;
+    private final String sufijo = Long.toString(System.currentTimeMillis(), 36);
+
+    final List<Integer> estados = new ArrayList<>();
+    final List<String> nombresEstados = new ArrayList<>();
+    final List<Integer> categorias = new ArrayList<>();
+    final List<Integer> fotos = new ArrayList<>();
+    final List<Integer> historiales = new ArrayList<>();
+    final LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    /**
+     * @param servidor URI base del servidor (ej. {@code http://localhost:8080}).
+     * @param espera   Tiempo máximo de espera de cada solicitud.
+     */
+    DatosCarga(URI servidor, Duration espera) {
+        this.servidor = servidor;
+        this.espera = espera;
+    }
+
+    /**
+     * Crea los catálogos, las fotos y los historiales iniciales.
+     *
+     * @param cliente El cliente HTTP.
+     * @param filas   Cantidad de historiales a crear.
+     */
+    void preparar(HttpClient cliente, int filas) throws IOException, InterruptedException {
+        SplittableRandom aleatorio = new SplittableRandom(1);
+        String prefijoEstado = "Estado carga " + sufijo + "-";
+        String prefijoCategoria = "Categoria carga " + sufijo + "-";
+        String prefijoFoto = "https://archivos.safe-rescue.cl/carga/" + sufijo + "/";
+        for (int i = 0; i < CATALOGOS; i++) {
+            crear(cliente, "/estados", catalogo(prefijoEstado + i));
+            crear(cliente, "/categorias", catalogo(prefijoCategoria + i));
+        }
+        for (int i = 0; i < FOTOS; i++) {
+            ObjectNode foto = objectMapper.createObjectNode()
+                    .put("url", prefijoFoto + i + ".jpg")
+                    .put("fechaSubida", ahora.toString())
+                    .put("descripcion", "Foto de carga " + i);
+            crear(cliente, "/fotos", foto.toString());
+        }
+        // Las creaciones de catálogos y fotos responden solo un mensaje: los IDs se leen del listado.
+        for (JsonNode estado : listar(cliente, "/estados")) {
+            if (estado.path("nombre").asText().startsWith(prefijoEstado)) {
+                estados.add(estado.path("idEstado").asInt());
+                nombresEstados.add(estado.path("nombre").asText());
+            }
+        }
+        for (JsonNode categoria : listar(cliente, "/categorias")) {
+            if (categoria.path("nombre").asText().startsWith(prefijoCategoria)) {
+                categorias.add(categoria.path("idCategoria").asInt());
+            }
+        }
+        for (JsonNode foto : listar(cliente, "/fotos")) {
+            if (foto.path("url").asText().startsWith(prefijoFoto)) {
+                fotos.add(foto.path("idFoto").asInt());
+            }
+        }
+        for (int creadas = 0; creadas < filas; creadas += TAMANO_LOTE) {
+            String resultado = crear(cliente, "/historiales/lote", lote(aleatorio, Math.min(TAMANO_LOTE, filas - creadas)));
+            objectMapper.readTree(resultado).path("ids").forEach(id -> historiales.add(id.asInt()));
+        }
+    }
+
+    /**
+     * Recorre todas las páginas de un listado siguiendo la cabecera {@code X-Siguiente-Cursor}.
+     */
+    private List<JsonNode> listar(HttpClient cliente, String ruta) throws IOException, InterruptedException {
+        List<JsonNode> elementos = new ArrayList<>();
+        String cursor = null;
+        do {
+            String consulta = ruta + "?tamano=1000" + (cursor == null ? "" : "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+            HttpResponse<String> respuesta = cliente.send(get(consulta), HttpResponse.BodyHandlers.ofString());
+            if (respuesta.statusCode() == 204) {
+                break;
+            }
+            if (respuesta.statusCode() != 200) {
+                throw new IllegalStateException("GET " + ruta + " respondió " + respuesta.statusCode() + ": " + respuesta.body());
+            }
+            objectMapper.readTree(respuesta.body()).forEach(elementos::add);
+            cursor = respuesta.headers().firstValue("X-Siguiente-Cursor").orElse(null);
+        } while (cursor != null);
+        return elementos;
+    }
+
+    private String catalogo(String nombre) {
+        return objectMapper.createObjectNode().put("nombre", nombre).put("descripcion", "Creado por la prueba de carga").toString();
+    }
+
+    private String crear(HttpClient cliente, String ruta, String cuerpo) throws IOException, InterruptedException {
+        HttpResponse<String> respuesta = cliente.send(post(ruta, cuerpo), HttpResponse.BodyHandlers.ofString());
+        if (respuesta.statusCode() != 201) {
+            throw new IllegalStateException("POST " + ruta + " respondió " + respuesta.statusCode() + ": " + respuesta.body());
+        }
+        return respuesta.body();
+    }
+
+    HttpRequest get(String rutaYConsulta) {
+        return HttpRequest.newBuilder(servidor.resolve(BASE + rutaYConsulta))
+                .timeout(espera)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    HttpRequest post(String ruta, String json) {
+        return HttpRequest.newBuilder(servidor.resolve(BASE + ruta))
+                .timeout(espera)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    /**
+     * Un historial con estado y categoría por ID, como lo envía un productor de eventos.
+     */
+    String historial(SplittableRandom aleatorio) {
+        return nuevoHistorial(aleatorio).toString();
+    }
+
+    String lote(SplittableRandom aleatorio, int cantidad) {
+        ArrayNode lote = objectMapper.createArrayNode();
+        for (int i = 0; i < cantidad; i++) {
+            lote.add(nuevoHistorial(aleatorio));
+        }
+        return lote.toString();
+    }
+
+    private ObjectNode nuevoHistorial(SplittableRandom aleatorio) {
+        int incidente = aleatorio.nextInt(INCIDENTES);
+        return objectMapper.createObjectNode()
+                .put("estadoId", elegir(estados, aleatorio))
+                .put("categoriaId", elegir(categorias, aleatorio))
+                .put("fechaHistorial", ahora.minusSeconds(aleatorio.nextLong(DIAS * 86_400L)).toString())
+                .put("detalle", "Cambio de estado del incidente " + incidente + " informado por la unidad " + aleatorio.nextInt(500))
+                .put("idAsignacionIncidente", incidente)
+                .put("idAsignacionUsuario", aleatorio.nextInt(5000));
+    }
+
+    static <T> T elegir(List<T> valores, SplittableRandom aleatorio) {
+        return valores.get(aleatorio.nextInt(valores.size()));
+    }
+}
@@ -0,0 +1,113 @@
+package com.SAFE_Rescue.API_Registros.carga;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga de modelo abierto: las solicitudes llegan a una tasa fija, sin esperar a que
+ * terminen las anteriores, como los clientes reales de la API.
+ * <p>
+ * Un generador de modelo cerrado (N usuarios que esperan cada respuesta) reduce su propia tasa
+ * cuando el servidor se degrada y oculta la latencia real (omisión coordinada). Aquí cada solicitud
+ * tiene un instante programado y su latencia se mide desde ese instante, no desde que se envió: si el
+ * generador o el servidor se atrasan, la espera se cuenta.
+ * </p>
+ */
+class GeneradorAbierto {
+
+    private static final Duration DRENADO = Duration.ofSeconds(30);
+
+    private final HttpClient cliente;
+    private final DatosCarga datos;
+    private final MezclaCarga mezcla;
+    private final boolean llegadasPoisson;
+    private final int maximoEnCurso;
+    private final SplittableRandom aleatorio;
+
+    /**
+     * @param llegadasPoisson {@code true} para intervalos exponenciales (llegadas independientes);
+     *                        {@code false} para intervalos constantes.
+     * @param maximoEnCurso   Solicitudes sin responder a partir de las cuales las nuevas se descartan
+     *                        (se cuentan como error) para no agotar la memoria del generador.
+     * @param semilla         Semilla de la elección de operaciones y datos, para repetir una ejecución.
+     */
+    GeneradorAbierto(HttpClient cliente, DatosCarga datos, MezclaCarga mezcla, boolean llegadasPoisson,
+                     int maximoEnCurso, long semilla) {
+        this.cliente = cliente;
+        this.datos = datos;
+        this.mezcla = mezcla;
+        this.llegadasPoisson = llegadasPoisson;
+        this.maximoEnCurso = maximoEnCurso;
+        this.aleatorio = new SplittableRandom(semilla);
+    }
+
+    /**
+     * Genera carga a la tasa indicada durante el tiempo indicado y espera las respuestas pendientes.
+     *
+     * @param tasa     Solicitudes por segundo.
+     * @param duracion Duración de la generación.
+     * @return Las latencias por operación, en el orden de la mezcla.
+     */
+    Map<String, Latencias> ejecutar(double tasa, Duration duracion) throws InterruptedException {
+        Map<String, Latencias> porOperacion = new LinkedHashMap<>();
+        mezcla.operaciones().forEach(operacion -> porOperacion.put(operacion.nombre(), new Latencias()));
+        AtomicInteger enCurso = new AtomicInteger();
+        double intervaloNs = 1e9 / tasa;
+
+        long inicio = System.nanoTime();
+        long fin = inicio + duracion.toNanos();
+        double siguiente = inicio;
+        while (true) {
+            siguiente += llegadasPoisson ? -Math.log(1 - aleatorio.nextDouble()) * intervaloNs : intervaloNs;
+            long programado = (long) siguiente;
+            if (programado - fin >= 0) {
+                break;
+            }
+            esperarHasta(programado);
+
+            MezclaCarga.Operacion operacion = mezcla.elegirOperacion(aleatorio);
+            Latencias latencias = porOperacion.get(operacion.nombre());
+            if (enCurso.get() >= maximoEnCurso) {
+                latencias.registrarDescarte();
+                continue;
+            }
+            HttpRequest solicitud = operacion.solicitud().apply(datos, aleatorio);
+            enCurso.incrementAndGet();
+            cliente.sendAsync(solicitud, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((respuesta, error) -> {
+                        long nanos = System.nanoTime() - programado;
+                        if (error != null) {
+                            latencias.registrarFallo(nanos);
+                        } else {
+                            latencias.registrar(nanos, respuesta.statusCode());
+                        }
+                        enCurso.decrementAndGet();
+                    });
+        }
+
+        long limite = System.nanoTime() + DRENADO.toNanos();
+        while (enCurso.get() > 0 && System.nanoTime() - limite < 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        return porOperacion;
+    }
+
+    private static void esperarHasta(long instante) {
+        long restante;
+        while ((restante = instante - System.nanoTime()) > 0) {
+            if (restante > 100_000) {
+                LockSupport.parkNanos(restante - 50_000);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
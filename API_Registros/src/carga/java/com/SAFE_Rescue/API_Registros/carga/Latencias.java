@@ -0,0 +1,113 @@
+package com.SAFE_Rescue.API_Registros.carga;
+
+import java.util.Arrays;
+
+/**
+ * Latencias y resultados de una operación durante una etapa de carga.
+ * <p>
+ * Se guardan todas las muestras: una etapa de algunos minutos a miles de solicitudes por segundo
+ * son pocos megabytes, y así los percentiles son exactos.
+ * </p>
+ */
+class Latencias {
+
+    private long[] muestras = new long[1024];
+    private int cantidad;
+    private long exitosas;
+    private long erroresCliente;
+    private long erroresServidor;
+    private long fallidas;
+    private long descartadas;
+
+    /**
+     * Registra una respuesta HTTP.
+     *
+     * @param nanos  Tiempo desde el instante programado de la solicitud hasta recibir la respuesta completa.
+     * @param estado El código de estado HTTP.
+     */
+    synchronized void registrar(long nanos, int estado) {
+        agregar(nanos);
+        if (estado >= 500) {
+            erroresServidor++;
+        } else if (estado >= 400) {
+            erroresCliente++;
+        } else {
+            exitosas++;
+        }
+    }
+
+    /**
+     * Registra una solicitud sin respuesta (conexión rechazada, tiempo de espera agotado).
+     */
+    synchronized void registrarFallo(long nanos) {
+        agregar(nanos);
+        fallidas++;
+    }
+
+    /**
+     * Registra una solicitud que no se envió porque el generador ya tenía demasiadas en curso.
+     */
+    synchronized void registrarDescarte() {
+        descartadas++;
+    }
+
+    /**
+     * Agrega las muestras y los conteos de otra operación.
+     */
+    synchronized void sumar(Latencias otra) {
+        synchronized (otra) {
+            for (int i = 0; i < otra.cantidad; i++) {
+                agregar(otra.muestras[i]);
+            }
+            exitosas += otra.exitosas;
+            erroresCliente += otra.erroresCliente;
+            erroresServidor += otra.erroresServidor;
+            fallidas += otra.fallidas;
+            descartadas += otra.descartadas;
+        }
+    }
+
+    private void agregar(long nanos) {
+        if (cantidad == muestras.length) {
+            muestras = Arrays.copyOf(muestras, cantidad * 2);
+        }
+        muestras[cantidad++] = nanos;
+    }
+
+    /**
+     * Calcula el resumen de la etapa.
+     *
+     * @param segundos Duración de la etapa medida.
+     * @return El resumen con los percentiles en milisegundos.
+     */
+    synchronized Resumen resumir(double segundos) {
+        long[] ordenadas = Arrays.copyOf(muestras, cantidad);
+        Arrays.sort(ordenadas);
+        long total = cantidad + descartadas;
+        long errores = erroresCliente + erroresServidor + fallidas + descartadas;
+        return new Resumen(total, cantidad / segundos, total == 0 ? 0 : (double) errores / total,
+                erroresCliente, erroresServidor, fallidas, descartadas,
+                percentil(ordenadas, 0.50), percentil(ordenadas, 0.90), percentil(ordenadas, 0.99),
+                percentil(ordenadas, 0.999), ordenadas.length == 0 ? 0 : ordenadas[ordenadas.length - 1] / 1e6);
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, indice)] / 1e6;
+    }
+
+    /**
+     * Resumen de una operación o del total de una etapa. Las latencias están en milisegundos.
+     *
+     * @param solicitudes     Solicitudes programadas (incluye las descartadas).
+     * @param porSegundo      Respuestas recibidas por segundo.
+     * @param tasaErrores     Fracción de solicitudes con error (4xx, 5xx, sin respuesta o descartadas).
+     */
+    record Resumen(long solicitudes, double porSegundo, double tasaErrores,
+                   long erroresCliente, long erroresServidor, long fallidas, long descartadas,
+                   double p50, double p90, double p99, double p999, double maximo) {
+    }
+}
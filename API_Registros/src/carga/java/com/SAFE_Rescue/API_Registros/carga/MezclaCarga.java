@@ -0,0 +1,86 @@
+package com.SAFE_Rescue.API_Registros.carga;
+
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+
+import static com.SAFE_Rescue.API_Registros.carga.DatosCarga.elegir;
+
+/**
+ * Mezclas de operaciones de la prueba de carga. Cada solicitud generada elige una operación al azar
+ * según su peso.
+ */
+enum MezclaCarga {
+
+    /**
+     * Productores de eventos: creaciones individuales y en lote, con algunas lecturas de control.
+     */
+    INGESTA(List.of(
+            new Operacion("POST /historiales", 70, (d, r) -> d.post("/historiales", d.historial(r))),
+            new Operacion("POST /historiales/lote (100)", 10, (d, r) -> d.post("/historiales/lote", d.lote(r, 100))),
+            new Operacion("GET /historiales/{id}", 10, (d, r) -> d.get("/historiales/" + elegir(d.historiales, r))),
+            new Operacion("GET /historiales", 10, (d, r) -> d.get("/historiales?tamano=100"))
+    )),
+
+    /**
+     * Paneles de seguimiento: listados, búsquedas por referencia y resúmenes, con poca escritura.
+     */
+    TABLERO(List.of(
+            new Operacion("GET /historiales", 20, (d, r) -> d.get("/historiales?tamano=100")),
+            new Operacion("GET /historiales?vista=compacta", 10, (d, r) -> d.get("/historiales?vista=compacta&tamano=500")),
+            new Operacion("GET /historiales/buscar?estadoId", 20, (d, r) -> d.get("/historiales/buscar?tamano=100&estadoId="
+                    + elegir(d.estados, r) + "&desde=" + d.ahora.minusDays(7))),
+            new Operacion("GET /historiales/buscar?idAsignacionIncidente", 15, (d, r) -> d.get(
+                    "/historiales/buscar?idAsignacionIncidente=" + r.nextInt(DatosCarga.INCIDENTES))),
+            new Operacion("GET /historiales/resumen", 15, (d, r) -> d.get("/historiales/resumen?granularidad=hora&desde="
+                    + d.ahora.minusDays(7) + "&hasta=" + d.ahora)),
+            new Operacion("GET /historiales/{id}", 15, (d, r) -> d.get("/historiales/" + elegir(d.historiales, r))),
+            new Operacion("POST /historiales", 5, (d, r) -> d.post("/historiales", d.historial(r)))
+    )),
+
+    /**
+     * Clientes que resuelven catálogos y fotos en cada pantalla.
+     */
+    CATALOGO(List.of(
+            new Operacion("GET /estados", 20, (d, r) -> d.get("/estados")),
+            new Operacion("GET /categorias", 20, (d, r) -> d.get("/categorias")),
+            new Operacion("GET /estados/{id}", 15, (d, r) -> d.get("/estados/" + elegir(d.estados, r))),
+            new Operacion("GET /categorias/{id}", 15, (d, r) -> d.get("/categorias/" + elegir(d.categorias, r))),
+            new Operacion("GET /estados/buscar?nombre", 10, (d, r) -> d.get("/estados/buscar?nombre="
+                    + URLEncoder.encode(elegir(d.nombresEstados, r), StandardCharsets.UTF_8))),
+            new Operacion("GET /fotos", 10, (d, r) -> d.get("/fotos?tamano=100")),
+            new Operacion("GET /fotos/{id}", 10, (d, r) -> d.get("/fotos/" + elegir(d.fotos, r)))
+    ));
+
+    private final List<Operacion> operaciones;
+    private final int pesoTotal;
+
+    MezclaCarga(List<Operacion> operaciones) {
+        this.operaciones = operaciones;
+        this.pesoTotal = operaciones.stream().mapToInt(Operacion::peso).sum();
+    }
+
+    List<Operacion> operaciones() {
+        return operaciones;
+    }
+
+    Operacion elegirOperacion(SplittableRandom aleatorio) {
+        int valor = aleatorio.nextInt(pesoTotal);
+        for (Operacion operacion : operaciones) {
+            valor -= operacion.peso();
+            if (valor < 0) {
+                return operacion;
+            }
+        }
+        throw new IllegalStateException("Pesos inconsistentes");
+    }
+
+    /**
+     * Una operación de la mezcla. El nombre es la plantilla de la ruta, para agrupar las latencias.
+     */
+    record Operacion(String nombre, int peso, BiFunction<DatosCarga, SplittableRandom, HttpRequest> solicitud) {
+    }
+}
@@ -0,0 +1,162 @@
+package com.SAFE_Rescue.API_Registros.carga;
+
+import com.SAFE_Rescue.API_Registros.ApiConfiguracionesApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Prueba de carga HTTP de {@code /api-registros/v1}: mide latencia (p50/p90/p99/p99.9), tasa de
+ * errores y throughput de una mezcla de operaciones a tasas crecientes.
+ * <p>
+ * Sin {@code carga.url}, levanta la aplicación en este mismo proceso con el perfil {@code carga}
+ * (H2 en memoria, puerto aleatorio), de modo que se ejecuta sin MySQL ni servicios externos:
+ * {@code mvn -Pcarga -Dcarga.mezcla=tablero -Dcarga.tasas=100,200,400}. Con
+ * {@code -Dcarga.hilosVirtuales=true} la aplicación atiende con hilos virtuales, para comparar ambos
+ * modos con la misma carga.
+ * </p>
+ * <p>
+ * Cada tasa es una etapa de {@code carga.duracion} segundos. Una etapa es sostenida si los errores
+ * son menos del 1% y el p99 no supera {@code carga.slo-p99-ms}: con llegadas de modelo abierto, un
+ * servidor saturado no reduce la tasa sino que acumula cola, y eso se ve en la latencia. La prueba
+ * se detiene en la primera etapa no sostenida. El generador
+ * comparte la máquina con el servidor: los resultados sirven para comparar versiones en la misma
+ * máquina, no como capacidad absoluta de producción.
+ * </p>
+ */
+public final class PruebaCarga {
+
+    private static final double ERRORES_SOSTENIDOS = 0.01;
+
+    private PruebaCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        MezclaCarga mezcla = MezclaCarga.valueOf(System.getProperty("carga.mezcla", "tablero").toUpperCase(Locale.ROOT));
+        double[] tasas = Arrays.stream(System.getProperty("carga.tasas", "50,100,200,400,800").split(","))
+                .mapToDouble(t -> Double.parseDouble(t.trim())).toArray();
+        Duration duracion = Duration.ofSeconds(Long.getLong("carga.duracion", 30));
+        Duration calentamiento = Duration.ofSeconds(Long.getLong("carga.calentamiento", 15));
+        int filas = Integer.getInteger("carga.filas", 50_000);
+        String url = System.getProperty("carga.url", "").trim();
+        boolean hilosVirtuales = Boolean.getBoolean("carga.hilosVirtuales");
+        boolean poisson = !"constante".equals(System.getProperty("carga.llegadas", "poisson"));
+        double sloP99Ms = Double.parseDouble(System.getProperty("carga.slo-p99-ms", "250"));
+        Path informe = Path.of(System.getProperty("carga.informe", "target/carga-informe.json"));
+
+        ConfigurableApplicationContext aplicacion = null;
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (url.isEmpty()) {
+                aplicacion = new SpringApplicationBuilder(ApiConfiguracionesApplication.class)
+                        .run("--spring.profiles.active=carga", "--server.port=0",
+                                "--spring.threads.virtual.enabled=" + hilosVirtuales);
+                url = "http://localhost:" + aplicacion.getEnvironment().getProperty("local.server.port");
+            }
+            HttpClient cliente = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(hilos)
+                    .build();
+
+            System.out.printf("Preparando %d historiales en %s%n", filas, url);
+            DatosCarga datos = new DatosCarga(URI.create(url), Duration.ofSeconds(10));
+            datos.preparar(cliente, filas);
+
+            GeneradorAbierto generador = new GeneradorAbierto(cliente, datos, mezcla, poisson,
+                    Integer.getInteger("carga.maximo-en-curso", 10_000), Long.getLong("carga.semilla", 42));
+            if (!calentamiento.isZero()) {
+                System.out.printf("Calentamiento: %.0f solicitudes/s durante %d s%n", tasas[0], calentamiento.toSeconds());
+                generador.ejecutar(tasas[0], calentamiento);
+            }
+
+            List<Map<String, Object>> etapas = new ArrayList<>();
+            double maximoSostenido = 0;
+            for (double tasa : tasas) {
+                Map<String, Latencias> porOperacion = generador.ejecutar(tasa, duracion);
+                Latencias total = new Latencias();
+                Map<String, Latencias.Resumen> resumenes = new LinkedHashMap<>();
+                porOperacion.forEach((nombre, latencias) -> {
+                    resumenes.put(nombre, latencias.resumir(duracion.toSeconds()));
+                    total.sumar(latencias);
+                });
+                Latencias.Resumen resumenTotal = total.resumir(duracion.toSeconds());
+                boolean sostenida = resumenTotal.tasaErrores() < ERRORES_SOSTENIDOS && resumenTotal.p99() <= sloP99Ms;
+                imprimirEtapa(mezcla, tasa, resumenes, resumenTotal, sostenida);
+
+                Map<String, Object> etapa = new LinkedHashMap<>();
+                etapa.put("tasa", tasa);
+                etapa.put("sostenida", sostenida);
+                etapa.put("total", resumenTotal);
+                etapa.put("operaciones", resumenes);
+                etapas.add(etapa);
+                if (!sostenida) {
+                    break;
+                }
+                maximoSostenido = tasa;
+            }
+
+            System.out.printf("%nMáximo sostenido (%s, %s): %.0f solicitudes/s con p99 <= %.0f ms y errores < %.0f%%%n",
+                    mezcla.name().toLowerCase(Locale.ROOT), hilosVirtuales ? "hilos virtuales" : "hilos de plataforma",
+                    maximoSostenido, sloP99Ms, ERRORES_SOSTENIDOS * 100);
+
+            Map<String, Object> resultado = new LinkedHashMap<>();
+            resultado.put("mezcla", mezcla.name().toLowerCase(Locale.ROOT));
+            resultado.put("hilosVirtuales", hilosVirtuales);
+            resultado.put("llegadas", poisson ? "poisson" : "constante");
+            resultado.put("filasIniciales", filas);
+            resultado.put("duracionEtapaSegundos", duracion.toSeconds());
+            resultado.put("sloP99Ms", sloP99Ms);
+            resultado.put("maximoSostenido", maximoSostenido);
+            resultado.put("etapas", etapas);
+            escribirInforme(informe, resultado);
+        } finally {
+            if (aplicacion != null) {
+                aplicacion.close();
+            }
+        }
+    }
+
+    private static void imprimirEtapa(MezclaCarga mezcla, double tasa, Map<String, Latencias.Resumen> resumenes,
+                                      Latencias.Resumen total, boolean sostenida) {
+        System.out.printf("%n== %s a %.0f solicitudes/s: %s ==%n", mezcla.name().toLowerCase(Locale.ROOT), tasa,
+                sostenida ? "sostenida" : "NO sostenida");
+        System.out.printf("%-48s %9s %9s %8s %9s %9s %9s %9s %9s%n",
+                "Operación", "Solic.", "Resp/s", "Errores", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "máx ms");
+        resumenes.forEach((nombre, resumen) -> imprimirFila(nombre, resumen));
+        imprimirFila("TOTAL", total);
+        if (total.erroresCliente() + total.erroresServidor() + total.fallidas() + total.descartadas() > 0) {
+            System.out.printf("Errores: %d 4xx, %d 5xx, %d sin respuesta, %d descartadas por el generador%n",
+                    total.erroresCliente(), total.erroresServidor(), total.fallidas(), total.descartadas());
+        }
+    }
+
+    private static void imprimirFila(String nombre, Latencias.Resumen resumen) {
+        System.out.printf("%-48s %9d %9.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n", nombre, resumen.solicitudes(),
+                resumen.porSegundo(), resumen.tasaErrores() * 100, resumen.p50(), resumen.p90(), resumen.p99(),
+                resumen.p999(), resumen.maximo());
+    }
+
+    private static void escribirInforme(Path informe, Map<String, Object> resultado) throws IOException {
+        if (informe.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(informe.toAbsolutePath().getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(informe.toFile(), resultado);
+        System.out.println("Informe: " + informe.toAbsolutePath());
+    }
+}
@@ -0,0 +1,285 @@
+package com.SAFE_Rescue.API_Registros.archivo;
+
+import com.SAFE_Rescue.API_Registros.dto.FiltroHistorial;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Almacén local de archivos de historial archivado (ver {@link FormatoArchivoHistorial}).
+ * <p>
+ * Mantiene en memoria el índice (mínimos y máximos de fecha e ID) de cada archivo, de modo que una
+ * búsqueda solo descomprime los archivos que pueden contener el ID o el rango solicitado. Los últimos
+ * archivos descomprimidos se conservan en una caché LRU, para que las búsquedas repetidas por ID
+ * (incluidas las que no encuentran el registro) no vuelvan a descomprimirlos.
+ * </p>
+ * <p>
+ * Un archivo nuevo se escribe completo con extensión {@code .tmp}, se fuerza a disco y se renombra
+ * atómicamente a {@code .pendiente}; solo se confirma
+ * ({@code .hca}) después de eliminar sus registros de la base de datos. Si la aplicación se detiene
+ * entre ambos pasos, al iniciar se revisa si los registros siguen en la base de datos: en ese caso
+ * el archivo pendiente se descarta, y si no, se confirma. Así un registro nunca queda duplicado
+ * ni perdido. Un {@code .tmp} que quedó a medio escribir se elimina al iniciar, ya que sus registros
+ * aún no se han tocado en la base de datos.
+ * </p>
+ */
+@Component
+public class AlmacenArchivoHistorial {
+
+    private static final Logger log = LoggerFactory.getLogger(AlmacenArchivoHistorial.class);
+
+    private static final String EXTENSION = ".hca";
+    private static final String EXTENSION_PENDIENTE = ".pendiente";
+    private static final String EXTENSION_TEMPORAL = ".tmp";
+
+    private final HistorialRepository historialRepository;
+    private final Path directorio;
+    private final List<FormatoArchivoHistorial.Indice> indices = new CopyOnWriteArrayList<>();
+    private final Map<Path, List<Historial>> descomprimidos;
+
+    /**
+     * Constructor para la inyección de dependencias (Inyección por Constructor).
+     *
+     * @param historialRepository El repositorio de historiales, para resolver archivos pendientes.
+     * @param directorio          Directorio donde se guardan los archivos.
+     * @param archivosEnCache     Cantidad de archivos descomprimidos que se mantienen en memoria.
+     */
+    public AlmacenArchivoHistorial(HistorialRepository historialRepository,
+                                   @Value("${registros.historial.archivo.directorio:./datos/archivo-historial}") String directorio,
+                                   @Value("${registros.historial.archivo.archivos-en-cache:2}") int archivosEnCache) {
+        this.historialRepository = historialRepository;
+        this.directorio = Paths.get(directorio);
+        this.descomprimidos = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, List<Historial>> eldest) {
+                return size() > archivosEnCache;
+            }
+        });
+    }
+
+    /**
+     * Resuelve los archivos pendientes y carga el índice de los archivos confirmados.
+     *
+     * @throws IOException Si el directorio no se puede leer.
+     */
+    @PostConstruct
+    public void cargar() throws IOException {
+        if (!Files.isDirectory(directorio)) {
+            return;
+        }
+        try (DirectoryStream<Path> temporales = Files.newDirectoryStream(directorio, "*" + EXTENSION_TEMPORAL)) {
+            for (Path temporal : temporales) {
+                Files.delete(temporal);
+                log.warn("Archivo incompleto {} eliminado", temporal.getFileName());
+            }
+        }
+        try (DirectoryStream<Path> pendientes = Files.newDirectoryStream(directorio, "*" + EXTENSION_PENDIENTE)) {
+            for (Path pendiente : pendientes) {
+                resolverPendiente(pendiente);
+            }
+        }
+        List<FormatoArchivoHistorial.Indice> cargados = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, "*" + EXTENSION)) {
+            for (Path archivo : archivos) {
+                cargados.add(FormatoArchivoHistorial.leerIndice(archivo));
+            }
+        }
+        cargados.sort(Comparator.comparing(FormatoArchivoHistorial.Indice::fechaMin));
+        indices.addAll(cargados);
+        if (!cargados.isEmpty()) {
+            log.info("Archivo de historial cargado: {} archivos, {} registros", cargados.size(),
+                    cargados.stream().mapToLong(FormatoArchivoHistorial.Indice::cantidad).sum());
+        }
+    }
+
+    /**
+     * Escribe un archivo pendiente con los registros indicados. El archivo aparece con su nombre
+     * definitivo de pendiente solo una vez escrito y forzado a disco por completo.
+     *
+     * @param historiales Los registros a archivar.
+     * @return El índice del archivo pendiente, que debe confirmarse con {@link #confirmar(FormatoArchivoHistorial.Indice)}.
+     * @throws IOException Si ocurre un error de escritura.
+     */
+    public FormatoArchivoHistorial.Indice escribirPendiente(List<Historial> historiales) throws IOException {
+        Files.createDirectories(directorio);
+        Historial primero = historiales.stream()
+                .min(Comparator.comparing(Historial::getFechaHistorial).thenComparingInt(Historial::getIdHistorial))
+                .orElseThrow();
+        String nombre = String.format("historial-%s-%d", primero.getFechaHistorial().toLocalDate(), primero.getIdHistorial());
+        Path temporal = directorio.resolve(nombre + EXTENSION_TEMPORAL);
+        Files.deleteIfExists(temporal);
+        FormatoArchivoHistorial.Indice escrito = FormatoArchivoHistorial.escribir(temporal, historiales);
+        Path pendiente = Files.move(temporal, directorio.resolve(nombre + EXTENSION_PENDIENTE), StandardCopyOption.ATOMIC_MOVE);
+        return new FormatoArchivoHistorial.Indice(pendiente, escrito.cantidad(), escrito.fechaMin(), escrito.fechaMax(),
+                escrito.idMin(), escrito.idMax());
+    }
+
+    /**
+     * Confirma un archivo pendiente una vez eliminados sus registros de la base de datos,
+     * y lo incorpora a las búsquedas.
+     *
+     * @param pendiente El índice retornado por {@link #escribirPendiente(List)}.
+     * @throws IOException Si el archivo no se puede renombrar.
+     */
+    public void confirmar(FormatoArchivoHistorial.Indice pendiente) throws IOException {
+        Path definitivo = Files.move(pendiente.archivo(), rutaDefinitiva(pendiente.archivo()), StandardCopyOption.ATOMIC_MOVE);
+        indices.add(new FormatoArchivoHistorial.Indice(definitivo, pendiente.cantidad(), pendiente.fechaMin(),
+                pendiente.fechaMax(), pendiente.idMin(), pendiente.idMax()));
+        indices.sort(Comparator.comparing(FormatoArchivoHistorial.Indice::fechaMin));
+    }
+
+    /**
+     * Descarta un archivo pendiente cuyos registros no pudieron eliminarse de la base de datos.
+     *
+     * @param pendiente El índice retornado por {@link #escribirPendiente(List)}.
+     * @throws IOException Si el archivo no se puede eliminar.
+     */
+    public void descartar(FormatoArchivoHistorial.Indice pendiente) throws IOException {
+        Files.deleteIfExists(pendiente.archivo());
+    }
+
+    /**
+     * Indica si el archivo puede contener registros con fecha igual o posterior a la indicada.
+     * Permite omitir la búsqueda en el archivo cuando el rango consultado es reciente.
+     *
+     * @param desde Fecha mínima del rango consultado, o {@code null} para un rango sin límite inferior.
+     * @return {@code true} si algún archivo tiene registros con fecha igual o posterior a {@code desde}.
+     */
+    public boolean alcanza(LocalDateTime desde) {
+        return indices.stream().anyMatch(i -> desde == null || !i.fechaMax().isBefore(desde));
+    }
+
+    /**
+     * Obtiene la fecha del registro archivado más reciente.
+     *
+     * @return La fecha, o {@code null} si no hay archivos confirmados.
+     */
+    public LocalDateTime fechaMaxima() {
+        return indices.stream().map(FormatoArchivoHistorial.Indice::fechaMax).max(Comparator.naturalOrder()).orElse(null);
+    }
+
+    /**
+     * Busca un registro archivado por su ID.
+     * <p>
+     * El registro retornado puede estar compartido con la caché de archivos descomprimidos, por lo
+     * que no debe modificarse.
+     * </p>
+     *
+     * @param id El ID del registro.
+     * @return El registro si está archivado.
+     */
+    public Optional<Historial> buscarPorId(int id) {
+        for (FormatoArchivoHistorial.Indice indice : indices) {
+            if (!indice.puedeContener(id)) {
+                continue;
+            }
+            for (Historial historial : leer(indice)) {
+                if (historial.getIdHistorial() == id) {
+                    return Optional.of(historial);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Busca registros archivados que cumplan el filtro y sean posteriores a la clave (fecha, ID)
+     * indicada, en orden de fecha e ID.
+     *
+     * @param filtro        Los criterios de búsqueda.
+     * @param fechaDespues  Fecha del último registro ya entregado, o {@code null} desde el inicio.
+     * @param idDespues     ID del último registro ya entregado.
+     * @param limite        Cantidad máxima de registros a retornar.
+     * @return Los registros coincidentes, ordenados por fecha e ID.
+     */
+    public List<Historial> buscar(FiltroHistorial filtro, LocalDateTime fechaDespues, int idDespues, int limite) {
+        List<Historial> resultados = new ArrayList<>();
+        for (FormatoArchivoHistorial.Indice indice : indices) {
+            if (!indice.solapa(filtro.getDesde(), filtro.getHasta())
+                    || (fechaDespues != null && indice.fechaMax().isBefore(fechaDespues))) {
+                continue;
+            }
+            // Los archivos están ordenados por fecha mínima: si ya se completó el límite con registros
+            // anteriores al inicio de este archivo, los siguientes no pueden aportar resultados.
+            if (resultados.size() >= limite && resultados.get(limite - 1).getFechaHistorial().isBefore(indice.fechaMin())) {
+                break;
+            }
+            for (Historial historial : leer(indice)) {
+                if (posterior(historial, fechaDespues, idDespues) && filtro.coincide(historial)) {
+                    resultados.add(historial);
+                }
+            }
+            resultados.sort(Comparator.comparing(Historial::getFechaHistorial).thenComparingInt(Historial::getIdHistorial));
+        }
+        return resultados.size() > limite ? new ArrayList<>(resultados.subList(0, limite)) : resultados;
+    }
+
+    private List<Historial> leer(FormatoArchivoHistorial.Indice indice) {
+        List<Historial> historiales = descomprimidos.get(indice.archivo());
+        if (historiales != null) {
+            return historiales;
+        }
+        try {
+            historiales = Collections.unmodifiableList(FormatoArchivoHistorial.leer(indice.archivo()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No fue posible leer el archivo de historial " + indice.archivo(), e);
+        }
+        descomprimidos.put(indice.archivo(), historiales);
+        return historiales;
+    }
+
+    private void resolverPendiente(Path pendiente) throws IOException {
+        List<Historial> historiales;
+        try {
+            historiales = FormatoArchivoHistorial.leer(pendiente);
+        } catch (IOException e) {
+            // Un pendiente ilegible no alcanzó a escribirse por completo (versiones que no usaban el
+            // archivo temporal): sus registros no se eliminaron de la base de datos.
+            Files.delete(pendiente);
+            log.warn("Archivo pendiente {} descartado por estar incompleto: {}", pendiente.getFileName(), e.getMessage());
+            return;
+        }
+        // La eliminación en la base de datos es atómica: basta con revisar un registro.
+        if (historialRepository.existsById(historiales.get(0).getIdHistorial())) {
+            Files.delete(pendiente);
+            log.warn("Archivo pendiente {} descartado: sus registros siguen en la base de datos", pendiente.getFileName());
+        } else {
+            Files.move(pendiente, rutaDefinitiva(pendiente), StandardCopyOption.ATOMIC_MOVE);
+            log.info("Archivo pendiente {} confirmado", pendiente.getFileName());
+        }
+    }
+
+    private static Path rutaDefinitiva(Path pendiente) {
+        String nombre = pendiente.getFileName().toString();
+        return pendiente.resolveSibling(nombre.substring(0, nombre.length() - EXTENSION_PENDIENTE.length()) + EXTENSION);
+    }
+
+    private static boolean posterior(Historial h, LocalDateTime fecha, int id) {
+        if (fecha == null) {
+            return true;
+        }
+        int comparacion = h.getFechaHistorial().compareTo(fecha);
+        return comparacion > 0 || (comparacion == 0 && h.getIdHistorial() > id);
+    }
+}
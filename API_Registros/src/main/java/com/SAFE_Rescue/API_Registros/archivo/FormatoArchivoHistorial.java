@@ -0,0 +1,378 @@
+package com.SAFE_Rescue.API_Registros.archivo;
+
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Formato de los archivos inmutables de historial archivado ({@code .hca}).
+ * <p>
+ * Cada archivo contiene un bloque de registros ordenados por fecha e ID, almacenados por columnas
+ * para que valores similares queden contiguos y se compriman mejor:
+ * </p>
+ * <ul>
+ *     <li>Encabezado sin comprimir: firma, cantidad de registros y los mínimos y máximos de fecha e ID,
+ *     que sirven de índice para descartar el archivo sin descomprimirlo.</li>
+ *     <li>Cuerpo comprimido con DEFLATE que incluye, en orden, los diccionarios de estados y
+ *     categorías (una sola vez por archivo), las fechas codificadas como diferencias respecto de la
+ *     anterior, los IDs como diferencias, los índices de diccionario de estado y categoría, los
+ *     detalles y las seis referencias opcionales.</li>
+ * </ul>
+ * <p>
+ * Los enteros se escriben con longitud variable (varint, zigzag para valores con signo), por lo que
+ * una diferencia de fecha pequeña o un índice de diccionario ocupan uno o dos bytes.
+ * </p>
+ */
+public final class FormatoArchivoHistorial {
+
+    private static final byte[] FIRMA = {'H', 'C', 'A', '1'};
+
+    private FormatoArchivoHistorial() {
+    }
+
+    /**
+     * Índice de un archivo: los datos del encabezado, leídos sin descomprimir el cuerpo.
+     *
+     * @param archivo   Ruta del archivo.
+     * @param cantidad  Cantidad de registros.
+     * @param fechaMin  Fecha del registro más antiguo.
+     * @param fechaMax  Fecha del registro más reciente.
+     * @param idMin     ID mínimo.
+     * @param idMax     ID máximo.
+     */
+    public record Indice(Path archivo, int cantidad, LocalDateTime fechaMin, LocalDateTime fechaMax, int idMin, int idMax) {
+
+        /**
+         * Indica si el archivo puede contener registros dentro del rango de fechas indicado.
+         *
+         * @param desde Fecha mínima (inclusiva), o {@code null}.
+         * @param hasta Fecha máxima (exclusiva), o {@code null}.
+         * @return {@code false} si el archivo seguro no contiene registros del rango.
+         */
+        public boolean solapa(LocalDateTime desde, LocalDateTime hasta) {
+            return (desde == null || !fechaMax.isBefore(desde)) && (hasta == null || fechaMin.isBefore(hasta));
+        }
+
+        /**
+         * Indica si el archivo puede contener el ID indicado.
+         *
+         * @param id El ID buscado.
+         * @return {@code false} si el archivo seguro no contiene el ID.
+         */
+        public boolean puedeContener(int id) {
+            return id >= idMin && id <= idMax;
+        }
+    }
+
+    /**
+     * Escribe un archivo con los registros indicados y fuerza su contenido a disco.
+     *
+     * @param destino     Ruta del archivo a crear; no debe existir.
+     * @param historiales Los registros a archivar (al menos uno); se ordenan por fecha e ID.
+     * @return El índice del archivo escrito.
+     * @throws IOException Si ocurre un error de escritura.
+     */
+    public static Indice escribir(Path destino, List<Historial> historiales) throws IOException {
+        if (historiales.isEmpty()) {
+            throw new IllegalArgumentException("No se puede escribir un archivo de historial vacío.");
+        }
+        List<Historial> filas = new ArrayList<>(historiales);
+        filas.sort(Comparator.comparing(Historial::getFechaHistorial).thenComparingInt(Historial::getIdHistorial));
+        Indice indice = new Indice(destino, filas.size(),
+                filas.get(0).getFechaHistorial(), filas.get(filas.size() - 1).getFechaHistorial(),
+                filas.stream().mapToInt(Historial::getIdHistorial).min().orElseThrow(),
+                filas.stream().mapToInt(Historial::getIdHistorial).max().orElseThrow());
+
+        try (FileChannel canal = FileChannel.open(destino, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            OutputStream salidaArchivo = new BufferedOutputStream(Channels.newOutputStream(canal), 64 * 1024);
+            DataOutputStream encabezado = new DataOutputStream(salidaArchivo);
+            encabezado.write(FIRMA);
+            encabezado.writeInt(indice.cantidad());
+            encabezado.writeLong(aMicros(indice.fechaMin()));
+            encabezado.writeLong(aMicros(indice.fechaMax()));
+            encabezado.writeInt(indice.idMin());
+            encabezado.writeInt(indice.idMax());
+            encabezado.flush();
+
+            Deflater compresor = new Deflater(Deflater.BEST_COMPRESSION);
+            try {
+                DeflaterOutputStream comprimido = new DeflaterOutputStream(salidaArchivo, compresor, 64 * 1024);
+                DataOutputStream cuerpo = new DataOutputStream(new BufferedOutputStream(comprimido, 64 * 1024));
+                escribirCuerpo(cuerpo, filas);
+                cuerpo.flush();
+                comprimido.finish();
+                salidaArchivo.flush();
+            } finally {
+                compresor.end();
+            }
+            canal.force(true);
+        }
+        return indice;
+    }
+
+    /**
+     * Lee solo el encabezado de un archivo.
+     *
+     * @param archivo La ruta del archivo.
+     * @return El índice del archivo.
+     * @throws IOException Si el archivo no se puede leer o no tiene el formato esperado.
+     */
+    public static Indice leerIndice(Path archivo) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(FileChannel.open(archivo, StandardOpenOption.READ)), 64))) {
+            return leerEncabezado(entrada, archivo);
+        }
+    }
+
+    /**
+     * Lee todos los registros de un archivo, en orden de fecha e ID.
+     *
+     * @param archivo La ruta del archivo.
+     * @return Los registros archivados.
+     * @throws IOException Si el archivo no se puede leer o no tiene el formato esperado.
+     */
+    public static List<Historial> leer(Path archivo) throws IOException {
+        try (InputStream entradaArchivo = new BufferedInputStream(
+                Channels.newInputStream(FileChannel.open(archivo, StandardOpenOption.READ)), 64 * 1024)) {
+            Indice indice = leerEncabezado(new DataInputStream(entradaArchivo), archivo);
+            try (DataInputStream cuerpo = new DataInputStream(new BufferedInputStream(
+                    new InflaterInputStream(entradaArchivo), 64 * 1024))) {
+                return leerCuerpo(cuerpo, indice.cantidad());
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // CUERPO POR COLUMNAS
+    // -------------------------------------------------------------------------
+
+    private static void escribirCuerpo(DataOutputStream salida, List<Historial> filas) throws IOException {
+        Map<Integer, Estado> estados = diccionario(filas, Historial::getEstado, Estado::getIdEstado);
+        Map<Integer, Categoria> categorias = diccionario(filas, Historial::getCategoria, Categoria::getIdCategoria);
+        Map<Integer, Integer> posicionEstado = posiciones(estados);
+        Map<Integer, Integer> posicionCategoria = posiciones(categorias);
+
+        escribirVarLong(salida, estados.size());
+        for (Estado estado : estados.values()) {
+            escribirVarLong(salida, zigzag(estado.getIdEstado()));
+            escribirTexto(salida, estado.getNombre());
+            escribirTexto(salida, estado.getDescripcion());
+        }
+        escribirVarLong(salida, categorias.size());
+        for (Categoria categoria : categorias.values()) {
+            escribirVarLong(salida, zigzag(categoria.getIdCategoria()));
+            escribirTexto(salida, categoria.getNombre());
+            escribirTexto(salida, categoria.getDescripcion());
+        }
+
+        // Fechas: ordenadas, por lo que cada diferencia es no negativa y normalmente pequeña.
+        long fechaAnterior = 0;
+        for (Historial h : filas) {
+            long micros = aMicros(h.getFechaHistorial());
+            escribirVarLong(salida, zigzag(micros - fechaAnterior));
+            fechaAnterior = micros;
+        }
+        long idAnterior = 0;
+        for (Historial h : filas) {
+            escribirVarLong(salida, zigzag(h.getIdHistorial() - idAnterior));
+            idAnterior = h.getIdHistorial();
+        }
+        for (Historial h : filas) {
+            escribirVarLong(salida, posicionEstado.get(h.getEstado().getIdEstado()));
+        }
+        for (Historial h : filas) {
+            escribirVarLong(salida, posicionCategoria.get(h.getCategoria().getIdCategoria()));
+        }
+        for (Historial h : filas) {
+            escribirTexto(salida, h.getDetalle());
+        }
+        for (Function<Historial, Integer> columna : COLUMNAS_OPCIONALES) {
+            for (Historial h : filas) {
+                Integer valor = columna.apply(h);
+                escribirVarLong(salida, valor == null ? 0 : zigzag(valor) + 1);
+            }
+        }
+    }
+
+    private static List<Historial> leerCuerpo(DataInputStream entrada, int cantidad) throws IOException {
+        Estado[] estados = new Estado[(int) leerVarLong(entrada)];
+        for (int i = 0; i < estados.length; i++) {
+            estados[i] = new Estado((int) deszigzag(leerVarLong(entrada)), leerTexto(entrada), leerTexto(entrada));
+        }
+        Categoria[] categorias = new Categoria[(int) leerVarLong(entrada)];
+        for (int i = 0; i < categorias.length; i++) {
+            categorias[i] = new Categoria((int) deszigzag(leerVarLong(entrada)), leerTexto(entrada), leerTexto(entrada));
+        }
+
+        Historial[] filas = new Historial[cantidad];
+        long fecha = 0;
+        for (int i = 0; i < cantidad; i++) {
+            fecha += deszigzag(leerVarLong(entrada));
+            filas[i] = new Historial();
+            filas[i].setFechaHistorial(desdeMicros(fecha));
+        }
+        long id = 0;
+        for (Historial h : filas) {
+            id += deszigzag(leerVarLong(entrada));
+            h.setIdHistorial((int) id);
+        }
+        for (Historial h : filas) {
+            h.setEstado(estados[(int) leerVarLong(entrada)]);
+        }
+        for (Historial h : filas) {
+            h.setCategoria(categorias[(int) leerVarLong(entrada)]);
+        }
+        for (Historial h : filas) {
+            h.setDetalle(leerTexto(entrada));
+        }
+        long[] valores = new long[cantidad];
+        for (int columna = 0; columna < COLUMNAS_OPCIONALES.size(); columna++) {
+            for (int i = 0; i < cantidad; i++) {
+                valores[i] = leerVarLong(entrada);
+            }
+            for (int i = 0; i < cantidad; i++) {
+                Integer valor = valores[i] == 0 ? null : (int) deszigzag(valores[i] - 1);
+                asignarOpcional(filas[i], columna, valor);
+            }
+        }
+        return Arrays.asList(filas);
+    }
+
+    private static final List<Function<Historial, Integer>> COLUMNAS_OPCIONALES = List.of(
+            Historial::getIdAsignacionIncidente,
+            Historial::getIdAsignacionUsuario,
+            Historial::getIdEnvioMensaje,
+            Historial::getIdDireccion,
+            Historial::getIdUsuarioReporte,
+            Historial::getIdAsignacionCurso);
+
+    private static void asignarOpcional(Historial h, int columna, Integer valor) {
+        switch (columna) {
+            case 0 -> h.setIdAsignacionIncidente(valor);
+            case 1 -> h.setIdAsignacionUsuario(valor);
+            case 2 -> h.setIdEnvioMensaje(valor);
+            case 3 -> h.setIdDireccion(valor);
+            case 4 -> h.setIdUsuarioReporte(valor);
+            default -> h.setIdAsignacionCurso(valor);
+        }
+    }
+
+    private static <T> Map<Integer, T> diccionario(List<Historial> filas, Function<Historial, T> valor, Function<T, Integer> id) {
+        Map<Integer, T> diccionario = new LinkedHashMap<>();
+        for (Historial h : filas) {
+            T elemento = valor.apply(h);
+            diccionario.putIfAbsent(id.apply(elemento), elemento);
+        }
+        return diccionario;
+    }
+
+    private static Map<Integer, Integer> posiciones(Map<Integer, ?> diccionario) {
+        Map<Integer, Integer> posiciones = new HashMap<>();
+        for (Integer id : diccionario.keySet()) {
+            posiciones.put(id, posiciones.size());
+        }
+        return posiciones;
+    }
+
+    // -------------------------------------------------------------------------
+    // CODIFICACIÓN DE VALORES
+    // -------------------------------------------------------------------------
+
+    private static Indice leerEncabezado(DataInputStream entrada, Path archivo) throws IOException {
+        byte[] firma = new byte[FIRMA.length];
+        entrada.readFully(firma);
+        if (!Arrays.equals(firma, FIRMA)) {
+            throw new IOException("El archivo " + archivo + " no es un archivo de historial válido.");
+        }
+        return new Indice(archivo, entrada.readInt(), desdeMicros(entrada.readLong()), desdeMicros(entrada.readLong()),
+                entrada.readInt(), entrada.readInt());
+    }
+
+    private static long aMicros(LocalDateTime fecha) {
+        return fecha.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + fecha.getNano() / 1_000;
+    }
+
+    private static LocalDateTime desdeMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), 0, ZoneOffset.UTC)
+                .plus(Math.floorMod(micros, 1_000_000L), ChronoUnit.MICROS);
+    }
+
+    private static long zigzag(long valor) {
+        return (valor << 1) ^ (valor >> 63);
+    }
+
+    private static long deszigzag(long valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    private static void escribirVarLong(DataOutputStream salida, long valor) throws IOException {
+        while ((valor & ~0x7FL) != 0) {
+            salida.writeByte((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        salida.writeByte((int) valor);
+    }
+
+    private static long leerVarLong(DataInputStream entrada) throws IOException {
+        long valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+            int b = entrada.read();
+            if (b < 0) {
+                throw new EOFException("Fin inesperado del archivo de historial.");
+            }
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Entero mal codificado en el archivo de historial.");
+    }
+
+    private static void escribirTexto(DataOutputStream salida, String texto) throws IOException {
+        if (texto == null) {
+            escribirVarLong(salida, 0);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        escribirVarLong(salida, bytes.length + 1L);
+        salida.write(bytes);
+    }
+
+    private static String leerTexto(DataInputStream entrada) throws IOException {
+        int longitud = (int) leerVarLong(entrada);
+        if (longitud == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[longitud - 1];
+        entrada.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
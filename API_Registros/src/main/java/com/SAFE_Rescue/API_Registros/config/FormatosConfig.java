@@ -0,0 +1,40 @@
+package com.SAFE_Rescue.API_Registros.config;
+
+import com.SAFE_Rescue.API_Registros.protobuf.ConvertidorProtobuf;
+import com.SAFE_Rescue.API_Registros.util.ConvertidorJsonMedido;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Formatos de los cuerpos HTTP de la API.
+ * <p>
+ * JSON sigue siendo el formato por defecto; su conversor se reemplaza por uno que mide el tiempo de
+ * serialización ({@code registros.json.serializacion}). Se agrega además {@code application/x-protobuf}
+ * para historiales, fotos y sus listas, que se usa solo cuando el cliente lo pide en {@code Accept}
+ * o {@code Content-Type}.
+ * </p>
+ */
+@Configuration
+public class FormatosConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+
+    public FormatosConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // El conversor JSON de Spring Boot se reemplaza por uno que mide la serialización, con el mismo ObjectMapper.
+        converters.replaceAll(conversor -> conversor.getClass() == MappingJackson2HttpMessageConverter.class
+                ? new ConvertidorJsonMedido(((MappingJackson2HttpMessageConverter) conversor).getObjectMapper(), meterRegistry)
+                : conversor);
+        // Al final de la lista: con Accept */* o sin Accept se sigue respondiendo JSON.
+        converters.add(new ConvertidorProtobuf());
+    }
+}
@@ -0,0 +1,59 @@
+package com.SAFE_Rescue.API_Registros.config;
+
+import com.SAFE_Rescue.API_Registros.util.DataSourceLimitado;
+import com.SAFE_Rescue.API_Registros.util.MonitorFijacionHilos;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Ajustes que se aplican cuando las solicitudes se atienden con hilos virtuales
+ * ({@code spring.threads.virtual.enabled=true}).
+ * <p>
+ * Spring Boot ya usa hilos virtuales para Tomcat, las tareas {@code @Scheduled} y las tareas
+ * asíncronas de MVC (como las exportaciones en flujo). Esta configuración agrega el límite de
+ * conexiones simultáneas a la base de datos y el diagnóstico de hilos virtuales fijados.
+ * </p>
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class HilosVirtualesConfig {
+
+    /**
+     * Envuelve el {@link DataSource} en un {@link DataSourceLimitado}. Con {@code maxima=0} el límite
+     * es el tamaño máximo del pool de Hikari ({@code spring.datasource.hikari.maximum-pool-size}).
+     * El bean resultante es también un {@code MeterBinder}, por lo que Spring Boot registra sus
+     * métricas sin configuración adicional.
+     */
+    @Bean
+    static BeanPostProcessor limitarConexionesBaseDatos(@Value("${registros.bd.concurrencia.maxima:0}") int maxima,
+                                                        @Value("${registros.bd.concurrencia.espera-ms:30000}") long esperaMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof DataSourceLimitado) {
+                    return bean;
+                }
+                int limite = maxima > 0 ? maxima
+                        : dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 0;
+                return limite > 0 ? new DataSourceLimitado(dataSource, limite, Duration.ofMillis(esperaMs)) : bean;
+            }
+        };
+    }
+
+    @Bean(initMethod = "iniciar", destroyMethod = "close")
+    @ConditionalOnProperty(name = "registros.hilos-virtuales.fijacion.habilitado", havingValue = "true", matchIfMissing = true)
+    MonitorFijacionHilos monitorFijacionHilos(@Value("${registros.hilos-virtuales.fijacion.umbral-ms:20}") long umbralMs,
+                                              MeterRegistry meterRegistry) {
+        return new MonitorFijacionHilos(Duration.ofMillis(umbralMs), meterRegistry);
+    }
+}
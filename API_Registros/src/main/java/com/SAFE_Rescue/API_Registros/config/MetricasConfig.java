@@ -0,0 +1,69 @@
+package com.SAFE_Rescue.API_Registros.config;
+
+import com.SAFE_Rescue.API_Registros.util.FormatoPrometheus;
+import com.SAFE_Rescue.API_Registros.util.MetricasHibernate;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Instrumentación de la API con Micrometer.
+ * <p>
+ * Spring Boot ya publica {@code http.server.requests} (por método, plantilla de URI, estado y
+ * resultado) y las métricas del pool de Hikari ({@code hikaricp.connections.*}). Esta configuración
+ * agrega los temporizadores {@code registros.servicio} de los métodos anotados con {@code @Timed},
+ * las estadísticas de Hibernate y la exposición en formato Prometheus en {@code /actuator/prometheus}.
+ * </p>
+ */
+@Configuration
+public class MetricasConfig {
+
+    /**
+     * Habilita {@code @Timed} en los beans de Spring. Las etiquetas son la clase, el método y la
+     * excepción lanzada, nunca los argumentos, para mantener acotada la cardinalidad.
+     */
+    @Bean
+    TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    MeterBinder metricasHibernate(EntityManagerFactory entityManagerFactory) {
+        return new MetricasHibernate(entityManagerFactory.unwrap(SessionFactory.class).getStatistics());
+    }
+
+    /**
+     * Solo si no está {@code micrometer-registry-prometheus}: con esa dependencia, Spring Boot
+     * registra su propio endpoint {@code prometheus} y este se descarta.
+     */
+    @Bean
+    @ConditionalOnMissingClass("io.micrometer.prometheusmetrics.PrometheusMeterRegistry")
+    ExposicionPrometheus exposicionPrometheus(MeterRegistry meterRegistry) {
+        return new ExposicionPrometheus(meterRegistry);
+    }
+
+    /**
+     * Endpoint de actuator con todas las métricas del registro en el formato de texto de Prometheus.
+     */
+    @WebEndpoint(id = "prometheus")
+    public static class ExposicionPrometheus {
+
+        private final MeterRegistry meterRegistry;
+
+        public ExposicionPrometheus(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @ReadOperation(produces = FormatoPrometheus.TIPO_CONTENIDO)
+        public String exponer() {
+            return FormatoPrometheus.escribir(meterRegistry);
+        }
+    }
+}
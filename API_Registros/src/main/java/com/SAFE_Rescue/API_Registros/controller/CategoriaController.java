@@ -1,7 +1,10 @@
 package com.SAFE_Rescue.API_Registros.controller;
 
+import com.SAFE_Rescue.API_Registros.dto.PaginaCursor;
 import com.SAFE_Rescue.API_Registros.modelo.Categoria;
 import com.SAFE_Rescue.API_Registros.service.CategoriaService;
+import com.SAFE_Rescue.API_Registros.util.EtiquetaVersion;
+import com.SAFE_Rescue.API_Registros.util.PaginacionKeyset;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -20,6 +24,11 @@ import java.util.NoSuchElementException;
 /**
  * Controlador REST para la gestión de categorías.
  * Proporciona endpoints para operaciones CRUD.
+ * <p>
+ * Las consultas incluyen las cabeceras {@code ETag} y {@code Last-Modified}, calculadas a partir de la
+ * versión del catálogo. Si el cliente envía {@code If-None-Match} o {@code If-Modified-Since} con la
+ * versión vigente, se responde 304 sin consultar la base de datos.
+ * </p>
  */
 @RestController
 @RequestMapping("/api-registros/v1/categorias")
@@ -33,7 +42,12 @@ public class CategoriaController {
 
     /**
      * Obtiene todas las categorías registradas en el sistema.
-     * @return ResponseEntity con lista de categorías o estado NO_CONTENT si no hay registros.
+     * Los resultados se entregan por páginas ordenadas por ID; el cursor de la página siguiente
+     * se informa en la cabecera {@code X-Siguiente-Cursor}.
+     * @param cursor Cursor de la página siguiente, o vacío para la primera página.
+     * @param tamano Cantidad de elementos por página.
+     * @param solicitud La solicitud, para evaluar las cabeceras condicionales.
+     * @return ResponseEntity con la página de categorías, estado NO_CONTENT si no hay registros o un mensaje de error.
      */
     @GetMapping
     @Operation(summary = "Obtener todas las categorías", description = "Obtiene una lista con todas las categorías.")
@@ -41,19 +55,38 @@ public class CategoriaController {
             @ApiResponse(responseCode = "200", description = "Lista de categorías obtenida exitosamente.",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = Categoria.class))),
-            @ApiResponse(responseCode = "204", description = "No hay categorías registradas.")
+            @ApiResponse(responseCode = "304", description = "El catálogo no cambió desde la versión indicada."),
+            @ApiResponse(responseCode = "204", description = "No hay categorías registradas."),
+            @ApiResponse(responseCode = "400", description = "Cursor o tamaño de página inválido.")
     })
-    public ResponseEntity<List<Categoria>> listar() {
-        List<Categoria> categorias = categoriaService.findAll();
-        if (categorias.isEmpty()) {
-            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    public ResponseEntity<?> listar(@Parameter(description = "Cursor de la página siguiente, recibido en la cabecera X-Siguiente-Cursor")
+                                    @RequestParam(required = false) String cursor,
+                                    @Parameter(description = "Cantidad de elementos por página (limitada al máximo configurado)")
+                                    @RequestParam(required = false) Integer tamano,
+                                    WebRequest solicitud) {
+        EtiquetaVersion etiqueta = EtiquetaVersion.de("categorias", null, categoriaService.getVersion());
+        if (etiqueta.noModificado(solicitud)) {
+            return null;
+        }
+        try {
+            PaginaCursor<Categoria> pagina = categoriaService.findPagina(cursor, tamano);
+            if (pagina.getElementos().isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            ResponseEntity.BodyBuilder respuesta = etiqueta.ok();
+            if (pagina.getSiguienteCursor() != null) {
+                respuesta.header(PaginacionKeyset.CABECERA_SIGUIENTE_CURSOR, pagina.getSiguienteCursor());
+            }
+            return respuesta.body(pagina.getElementos());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
-        return ResponseEntity.ok(categorias);
     }
 
     /**
      * Busca una categoría por su ID.
      * @param id ID de la categoría a buscar.
+     * @param solicitud La solicitud, para evaluar las cabeceras condicionales.
      * @return ResponseEntity con la categoría encontrada o un mensaje de error.
      */
     @GetMapping("/{id}")
@@ -62,13 +95,19 @@ public class CategoriaController {
             @ApiResponse(responseCode = "200", description = "Categoría encontrada.",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = Categoria.class))),
+            @ApiResponse(responseCode = "304", description = "La categoría no cambió desde la versión indicada."),
             @ApiResponse(responseCode = "404", description = "Categoría no encontrada.")
     })
     public ResponseEntity<?> buscarCategoria(@Parameter(description = "ID de la categoría a buscar", required = true)
-                                             @PathVariable int id) {
+                                             @PathVariable int id,
+                                             WebRequest solicitud) {
+        EtiquetaVersion etiqueta = EtiquetaVersion.de("categorias", id, categoriaService.getVersion());
+        if (etiqueta.noModificado(solicitud)) {
+            return null;
+        }
         try {
             Categoria categoria = categoriaService.findById(id);
-            return ResponseEntity.ok(categoria);
+            return etiqueta.ok().body(categoria);
         } catch (NoSuchElementException e) {
             return new ResponseEntity<>("Categoría no encontrada", HttpStatus.NOT_FOUND);
         }
@@ -77,13 +116,20 @@ public class CategoriaController {
     /**
      * Busca categorías por su nombre (parcial o exacto).
      * * @param nombre El nombre o parte del nombre de la categoría a buscar.
+     * @param solicitud La solicitud, para evaluar las cabeceras condicionales.
      * @return ResponseEntity con la lista de categorías coincidentes o NO_CONTENT.
      */
     @GetMapping("/buscar")
     @Operation(summary = "Buscar categorías por nombre", description = "Filtra la lista de categorías por el nombre proporcionado.")
     public ResponseEntity<List<Categoria>> buscarCategoriaPorNombre(
             @Parameter(description = "Nombre de la categoría a buscar", required = true)
-            @RequestParam String nombre) {
+            @RequestParam String nombre,
+            WebRequest solicitud) {
+
+        EtiquetaVersion etiqueta = EtiquetaVersion.de("categorias", null, categoriaService.getVersion());
+        if (etiqueta.noModificado(solicitud)) {
+            return null;
+        }
 
         List<Categoria> categorias = categoriaService.findByNombre(nombre);
 
@@ -93,7 +139,7 @@ public class CategoriaController {
         }
 
         // HTTP 200 OK con la lista de resultados.
-        return ResponseEntity.ok(categorias);
+        return etiqueta.ok().body(categorias);
     }
 
     /**
@@ -1,7 +1,10 @@
 package com.SAFE_Rescue.API_Registros.controller;
 
+import com.SAFE_Rescue.API_Registros.dto.PaginaCursor;
 import com.SAFE_Rescue.API_Registros.modelo.Estado;
 import com.SAFE_Rescue.API_Registros.service.EstadoService;
+import com.SAFE_Rescue.API_Registros.util.EtiquetaVersion;
+import com.SAFE_Rescue.API_Registros.util.PaginacionKeyset;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,12 +16,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 import java.util.NoSuchElementException;
 
 /**
  * Controlador REST para la gestión de estados.
  * Proporciona endpoints para operaciones CRUD.
+ * <p>
+ * Las consultas incluyen las cabeceras {@code ETag} y {@code Last-Modified}, calculadas a partir de la
+ * versión del catálogo. Si el cliente envía {@code If-None-Match} o {@code If-Modified-Since} con la
+ * versión vigente, se responde 304 sin consultar la base de datos.
+ * </p>
  */
 @RestController
 @RequestMapping("/api-registros/v1/estados")
@@ -32,7 +41,12 @@ public class EstadoController {
 
     /**
      * Obtiene todos los estados registrados en el sistema.
-     * @return ResponseEntity con lista de estados o estado NO_CONTENT si no hay registros.
+     * Los resultados se entregan por páginas ordenadas por ID; el cursor de la página siguiente
+     * se informa en la cabecera {@code X-Siguiente-Cursor}.
+     * @param cursor Cursor de la página siguiente, o vacío para la primera página.
+     * @param tamano Cantidad de elementos por página.
+     * @param solicitud La solicitud, para evaluar las cabeceras condicionales.
+     * @return ResponseEntity con la página de estados, estado NO_CONTENT si no hay registros o un mensaje de error.
      */
     @GetMapping
     @Operation(summary = "Obtener todos los estados", description = "Obtiene una lista con todos los estados.")
@@ -40,19 +54,38 @@ public class EstadoController {
             @ApiResponse(responseCode = "200", description = "Lista de estados obtenida exitosamente.",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = Estado.class))),
-            @ApiResponse(responseCode = "204", description = "No hay estados registrados.")
+            @ApiResponse(responseCode = "304", description = "El catálogo no cambió desde la versión indicada."),
+            @ApiResponse(responseCode = "204", description = "No hay estados registrados."),
+            @ApiResponse(responseCode = "400", description = "Cursor o tamaño de página inválido.")
     })
-    public ResponseEntity<List<Estado>> listar() {
-        List<Estado> estados = estadoService.findAll();
-        if (estados.isEmpty()) {
-            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    public ResponseEntity<?> listar(@Parameter(description = "Cursor de la página siguiente, recibido en la cabecera X-Siguiente-Cursor")
+                                    @RequestParam(required = false) String cursor,
+                                    @Parameter(description = "Cantidad de elementos por página (limitada al máximo configurado)")
+                                    @RequestParam(required = false) Integer tamano,
+                                    WebRequest solicitud) {
+        EtiquetaVersion etiqueta = EtiquetaVersion.de("estados", null, estadoService.getVersion());
+        if (etiqueta.noModificado(solicitud)) {
+            return null;
+        }
+        try {
+            PaginaCursor<Estado> pagina = estadoService.findPagina(cursor, tamano);
+            if (pagina.getElementos().isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            ResponseEntity.BodyBuilder respuesta = etiqueta.ok();
+            if (pagina.getSiguienteCursor() != null) {
+                respuesta.header(PaginacionKeyset.CABECERA_SIGUIENTE_CURSOR, pagina.getSiguienteCursor());
+            }
+            return respuesta.body(pagina.getElementos());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
-        return ResponseEntity.ok(estados);
     }
 
     /**
      * Busca un estado por su ID.
      * @param id ID del estado a buscar.
+     * @param solicitud La solicitud, para evaluar las cabeceras condicionales.
      * @return ResponseEntity con el estado encontrado o un mensaje de error.
      */
     @GetMapping("/{id}")
@@ -61,13 +94,19 @@ public class EstadoController {
             @ApiResponse(responseCode = "200", description = "Estado encontrado.",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = Estado.class))),
+            @ApiResponse(responseCode = "304", description = "El estado no cambió desde la versión indicada."),
             @ApiResponse(responseCode = "404", description = "Estado no encontrado.")
     })
     public ResponseEntity<?> buscarEstado(@Parameter(description = "ID del estado a buscar", required = true)
-                                          @PathVariable int id) {
+                                          @PathVariable int id,
+                                          WebRequest solicitud) {
+        EtiquetaVersion etiqueta = EtiquetaVersion.de("estados", id, estadoService.getVersion());
+        if (etiqueta.noModificado(solicitud)) {
+            return null;
+        }
         try {
             Estado estado = estadoService.findById(id);
-            return ResponseEntity.ok(estado);
+            return etiqueta.ok().body(estado);
         } catch (NoSuchElementException e) {
             return new ResponseEntity<>("Estado no encontrado", HttpStatus.NOT_FOUND);
         }
@@ -76,13 +115,20 @@ public class EstadoController {
     /**
      * Busca estados por su nombre (parcial o exacto).
      * * @param nombre El nombre o parte del nombre del estado a buscar.
+     * @param solicitud La solicitud, para evaluar las cabeceras condicionales.
      * @return ResponseEntity con la lista de estados coincidentes o NO_CONTENT.
      */
     @GetMapping("/buscar")
     @Operation(summary = "Buscar estados por nombre", description = "Filtra la lista de estados por el nombre proporcionado.")
     public ResponseEntity<List<Estado>> buscarEstadoPorNombre(
             @Parameter(description = "Nombre del estado a buscar", required = true)
-            @RequestParam String nombre) {
+            @RequestParam String nombre,
+            WebRequest solicitud) {
+
+        EtiquetaVersion etiqueta = EtiquetaVersion.de("estados", null, estadoService.getVersion());
+        if (etiqueta.noModificado(solicitud)) {
+            return null;
+        }
 
         List<Estado> estados = estadoService.findByNombre(nombre);
 
@@ -92,7 +138,7 @@ public class EstadoController {
         }
 
         // HTTP 200 OK con la lista de resultados.
-        return ResponseEntity.ok(estados);
+        return etiqueta.ok().body(estados);
     }
 
     /**
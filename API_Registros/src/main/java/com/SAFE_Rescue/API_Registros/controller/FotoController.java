@@ -1,7 +1,12 @@
 package com.SAFE_Rescue.API_Registros.controller;
 
+import com.SAFE_Rescue.API_Registros.dto.PaginaCursor;
 import com.SAFE_Rescue.API_Registros.modelo.Foto;
+import com.SAFE_Rescue.API_Registros.protobuf.FotoLista;
+import com.SAFE_Rescue.API_Registros.service.ClaveIdempotenciaReutilizadaException;
 import com.SAFE_Rescue.API_Registros.service.FotoService;
+import com.SAFE_Rescue.API_Registros.util.EtiquetaVersion;
+import com.SAFE_Rescue.API_Registros.util.PaginacionKeyset;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,6 +18,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -32,7 +38,11 @@ public class FotoController {
 
     /**
      * Obtiene todas las fotos registradas en el sistema.
-     * @return ResponseEntity con lista de fotos o estado NO_CONTENT si no hay registros.
+     * Los resultados se entregan por páginas ordenadas por ID; el cursor de la página siguiente
+     * se informa en la cabecera {@code X-Siguiente-Cursor}.
+     * @param cursor Cursor de la página siguiente, o vacío para la primera página.
+     * @param tamano Cantidad de elementos por página.
+     * @return ResponseEntity con la página de fotos, estado NO_CONTENT si no hay registros o un mensaje de error.
      */
     @GetMapping
     @Operation(summary = "Obtener todas las fotos", description = "Obtiene una lista con todas las fotos.")
@@ -40,19 +50,34 @@ public class FotoController {
             @ApiResponse(responseCode = "200", description = "Lista de fotos obtenida exitosamente.",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = Foto.class))),
-            @ApiResponse(responseCode = "204", description = "No hay fotos registradas.")
+            @ApiResponse(responseCode = "204", description = "No hay fotos registradas."),
+            @ApiResponse(responseCode = "400", description = "Cursor o tamaño de página inválido.")
     })
-    public ResponseEntity<List<Foto>> listar() {
-        List<Foto> fotos = fotoService.findAll();
-        if (fotos.isEmpty()) {
-            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    public ResponseEntity<?> listar(@Parameter(description = "Cursor de la página siguiente, recibido en la cabecera X-Siguiente-Cursor")
+                                    @RequestParam(required = false) String cursor,
+                                    @Parameter(description = "Cantidad de elementos por página (limitada al máximo configurado)")
+                                    @RequestParam(required = false) Integer tamano) {
+        try {
+            PaginaCursor<Foto> pagina = fotoService.findPagina(cursor, tamano);
+            if (pagina.getElementos().isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+            if (pagina.getSiguienteCursor() != null) {
+                respuesta.header(PaginacionKeyset.CABECERA_SIGUIENTE_CURSOR, pagina.getSiguienteCursor());
+            }
+            return respuesta.body(new FotoLista(pagina.getElementos()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
-        return ResponseEntity.ok(fotos);
     }
 
     /**
      * Busca una foto por su ID.
+     * Incluye las cabeceras {@code ETag} y {@code Last-Modified}; si el cliente ya tiene la versión
+     * vigente, se responde 304 sin consultar la base de datos.
      * @param id ID de la foto a buscar.
+     * @param solicitud La solicitud, para evaluar las cabeceras condicionales.
      * @return ResponseEntity con la foto encontrada o un mensaje de error.
      */
     @GetMapping("/{id}")
@@ -61,13 +86,19 @@ public class FotoController {
             @ApiResponse(responseCode = "200", description = "Foto encontrada.",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = Foto.class))),
+            @ApiResponse(responseCode = "304", description = "La foto no cambió desde la versión indicada."),
             @ApiResponse(responseCode = "404", description = "Foto no encontrada.")
     })
     public ResponseEntity<?> buscarFoto(@Parameter(description = "ID de la foto a buscar", required = true)
-                                        @PathVariable int id) {
+                                        @PathVariable int id,
+                                        WebRequest solicitud) {
+        EtiquetaVersion etiqueta = EtiquetaVersion.de("fotos", id, fotoService.getVersion());
+        if (etiqueta.noModificado(solicitud)) {
+            return null;
+        }
         try {
             Foto foto = fotoService.findById(id);
-            return ResponseEntity.ok(foto);
+            return etiqueta.ok().body(foto);
         } catch (NoSuchElementException e) {
             return new ResponseEntity<>("Foto no encontrada", HttpStatus.NOT_FOUND);
         }
@@ -75,7 +106,9 @@ public class FotoController {
 
     /**
      * Crea una nueva foto.
+     * Si se envía la cabecera {@code Idempotency-Key}, los reintentos con la misma clave no crean duplicados.
      * @param foto Datos de la foto a crear.
+     * @param claveIdempotencia Clave de idempotencia opcional.
      * @return ResponseEntity con mensaje de confirmación o error.
      */
     @PostMapping
@@ -83,13 +116,19 @@ public class FotoController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Foto creada con éxito."),
             @ApiResponse(responseCode = "400", description = "Error en la solicitud, la URL ya existe o los datos son inválidos."),
+            @ApiResponse(responseCode = "422", description = "La clave de idempotencia ya se utilizó con otra foto."),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
     })
     public ResponseEntity<String> agregarFoto(@RequestBody @Parameter(description = "Datos de la foto a crear", required = true)
-                                              Foto foto) {
+                                              Foto foto,
+                                              @RequestHeader(value = "Idempotency-Key", required = false)
+                                              @Parameter(description = "Clave para que los reintentos no creen fotos duplicadas")
+                                              String claveIdempotencia) {
         try {
-            fotoService.save(foto);
+            fotoService.save(foto, claveIdempotencia);
             return ResponseEntity.status(HttpStatus.CREATED).body("Foto creada con éxito.");
+        } catch (ClaveIdempotenciaReutilizadaException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
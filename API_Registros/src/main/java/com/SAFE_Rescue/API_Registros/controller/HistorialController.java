@@ -1,15 +1,51 @@
 package com.SAFE_Rescue.API_Registros.controller;
 
+import com.SAFE_Rescue.API_Registros.dto.FiltroHistorial;
+import com.SAFE_Rescue.API_Registros.dto.HistorialCompacto;
+import com.SAFE_Rescue.API_Registros.dto.PaginaCursor;
+import com.SAFE_Rescue.API_Registros.dto.PuntoResumen;
+import com.SAFE_Rescue.API_Registros.dto.ResultadoImportacion;
+import com.SAFE_Rescue.API_Registros.dto.ResultadoLote;
+import com.SAFE_Rescue.API_Registros.dto.ResultadoTextoHistorial;
 import com.SAFE_Rescue.API_Registros.modelo.Estado;
 import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.modelo.ResumenHistorial;
+import com.SAFE_Rescue.API_Registros.protobuf.HistorialLista;
+import com.SAFE_Rescue.API_Registros.service.BusquedaTextoService;
+import com.SAFE_Rescue.API_Registros.service.ClaveIdempotenciaReutilizadaException;
+import com.SAFE_Rescue.API_Registros.service.EventosHistorialService;
+import com.SAFE_Rescue.API_Registros.service.ExportacionHistorialService;
+import com.SAFE_Rescue.API_Registros.service.FlujoHistorialService;
 import com.SAFE_Rescue.API_Registros.service.HistorialService;
+import com.SAFE_Rescue.API_Registros.service.ImportacionHistorialService;
+import com.SAFE_Rescue.API_Registros.service.ResumenHistorialService;
+import com.SAFE_Rescue.API_Registros.util.EtiquetaVersion;
+import com.SAFE_Rescue.API_Registros.util.PaginacionKeyset;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -18,63 +54,506 @@ import java.util.NoSuchElementException;
 @Tag(name = "Historial", description = "Endpoints para la gestión de registros de historial")
 public class HistorialController {
 
+    private static final String VISTA_COMPLETA = "completa";
+    private static final String VISTA_COMPACTA = "compacta";
+
     @Autowired
     private HistorialService historialService;
 
+    @Autowired
+    private ImportacionHistorialService importacionHistorialService;
+
+    @Autowired
+    private ExportacionHistorialService exportacionHistorialService;
+
+    @Autowired
+    private ResumenHistorialService resumenHistorialService;
+
+    @Autowired
+    private EventosHistorialService eventosHistorialService;
+
+    @Autowired
+    private BusquedaTextoService busquedaTextoService;
+
+    @Autowired
+    private FlujoHistorialService flujoHistorialService;
+
+    /**
+     * Obtiene los registros de historial por páginas ordenadas por fecha e ID.
+     * El cursor de la página siguiente se informa en la cabecera {@code X-Siguiente-Cursor}.
+     * <p>
+     * Con {@code vista=compacta} cada registro incluye el ID del estado y de la categoría en lugar de
+     * los objetos completos; {@code fields} selecciona además qué campos de esa vista se retornan.
+     * </p>
+     * @param cursor Cursor de la página siguiente, o vacío para la primera página.
+     * @param tamano Cantidad de elementos por página.
+     * @param vista Representación de los registros: {@code completa} o {@code compacta}.
+     * @param fields Campos de la vista compacta a incluir, separados por comas.
+     * @return ResponseEntity con la página de historiales o un mensaje de error.
+     */
     @GetMapping
-    @Operation(summary = "Obtener todos los registros de historial")
-    public ResponseEntity<List<Historial>> getAllHistorial() {
-        List<Historial> historiales = historialService.findAll();
-        return ResponseEntity.ok(historiales);
+    @Operation(summary = "Obtener todos los registros de historial", description = "Retorna los registros por páginas ordenadas por fecha e ID, usando paginación por cursor.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de historiales obtenida exitosamente."),
+            @ApiResponse(responseCode = "400", description = "Cursor, tamaño de página, vista o campos inválidos.")
+    })
+    public ResponseEntity<?> getAllHistorial(@Parameter(description = "Cursor de la página siguiente, recibido en la cabecera X-Siguiente-Cursor")
+                                             @RequestParam(required = false) String cursor,
+                                             @Parameter(description = "Cantidad de elementos por página (limitada al máximo configurado)")
+                                             @RequestParam(required = false) Integer tamano,
+                                             @Parameter(description = "Representación de los registros: completa o compacta (estadoId/categoriaId)")
+                                             @RequestParam(defaultValue = VISTA_COMPLETA) String vista,
+                                             @Parameter(description = "Campos de la vista compacta a incluir, separados por comas (ej. idHistorial,fechaHistorial,detalle)")
+                                             @RequestParam(required = false) String fields) {
+        try {
+            if (esCompacta(vista, fields)) {
+                List<String> campos = fields != null ? HistorialCompacto.parsearCampos(fields) : null;
+                return responderPagina(seleccionarCampos(historialService.findPaginaCompacta(cursor, tamano), campos), false, true);
+            }
+            return responderPagina(historialService.findPagina(cursor, tamano), false);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
     }
 
+    /**
+     * Obtiene un registro de historial por su ID.
+     * <p>
+     * Incluye las cabeceras {@code ETag} y {@code Last-Modified}, que dependen de la versión de los
+     * historiales y de los catálogos de estados y categorías. Si el cliente ya tiene la versión vigente,
+     * se responde 304 sin consultar la base de datos.
+     * </p>
+     * @param id ID del historial.
+     * @param solicitud La solicitud, para evaluar las cabeceras condicionales.
+     * @return ResponseEntity con el historial, NOT_MODIFIED o NOT_FOUND.
+     */
     @GetMapping("/{id}")
     @Operation(summary = "Obtener un registro de historial por su ID")
-    public ResponseEntity<Historial> getHistorialById(@PathVariable Integer id) {
+    public ResponseEntity<Historial> getHistorialById(@PathVariable Integer id, WebRequest solicitud) {
+        EtiquetaVersion etiqueta = EtiquetaVersion.de("historiales", id, historialService.getVersiones());
+        if (etiqueta.noModificado(solicitud)) {
+            return null;
+        }
         try {
             Historial historial = historialService.findById(id);
-            return ResponseEntity.ok(historial);
+            return etiqueta.ok().body(historial);
         } catch (NoSuchElementException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     /**
-     * Busca historiales por el ID de su estado asociado.
-     * @param estadoId El ID del estado por el cual se desea filtrar el historial.
-     * @return ResponseEntity con la lista de historiales coincidentes o NO_CONTENT.
+     * Exporta los registros de historial como flujo NDJSON o CSV.
+     * <p>
+     * Las filas se escriben en la respuesta a medida que se leen desde la base de datos,
+     * sin construir la lista completa en memoria, por lo que admite tablas de millones de registros.
+     * </p>
+     * @param formato Formato de salida: {@code ndjson} o {@code csv}.
+     * @param desde Fecha mínima (inclusiva) del registro.
+     * @param hasta Fecha máxima (exclusiva) del registro.
+     * @param estadoId ID del estado por el cual filtrar.
+     * @param categoriaId ID de la categoría por la cual filtrar.
+     * @return ResponseEntity con el flujo de registros o un mensaje de error.
+     */
+    @GetMapping("/exportar")
+    @Operation(summary = "Exportar registros de historial", description = "Escribe los registros como flujo NDJSON o CSV, filtrando opcionalmente por rango de fechas, estado y categoría.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportación en curso."),
+            @ApiResponse(responseCode = "400", description = "Formato o rango de fechas inválido.")
+    })
+    public ResponseEntity<StreamingResponseBody> exportarHistorial(
+            @RequestParam(defaultValue = "ndjson") @Parameter(description = "Formato de salida: ndjson o csv") String formato,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @Parameter(description = "Fecha mínima (inclusiva)", example = "2025-01-01T00:00:00") LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @Parameter(description = "Fecha máxima (exclusiva)", example = "2025-02-01T00:00:00") LocalDateTime hasta,
+            @RequestParam(required = false) @Parameter(description = "ID del estado") Integer estadoId,
+            @RequestParam(required = false) @Parameter(description = "ID de la categoría") Integer categoriaId) {
+        try {
+            ExportacionHistorialService.Formato formatoSalida = ExportacionHistorialService.Formato.desde(formato);
+            exportacionHistorialService.validarFiltros(desde, hasta);
+
+            StreamingResponseBody cuerpo = salida ->
+                    exportacionHistorialService.exportar(salida, formatoSalida, desde, hasta, estadoId, categoriaId);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(formatoSalida.getTipoContenido() + ";charset=UTF-8"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename("historiales." + formatoSalida.getExtension()).build().toString())
+                    .body(cuerpo);
+        } catch (IllegalArgumentException e) {
+            byte[] mensaje = e.getMessage().getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                    .body(salida -> salida.write(mensaje));
+        }
+    }
+
+    /**
+     * Busca historiales combinando rango de fechas, estado, categoría y las referencias opcionales.
+     * <p>
+     * Todos los criterios son opcionales y se combinan con AND. Los resultados se ordenan por
+     * fecha e ID y se entregan por páginas; el cursor de la página siguiente se informa en la
+     * cabecera {@code X-Siguiente-Cursor}.
+     * </p>
+     * @param filtro Criterios de búsqueda.
+     * @param cursor Cursor de la página siguiente, o vacío para la primera página.
+     * @param tamano Cantidad de elementos por página.
+     * @param vista Representación de los registros: {@code completa} o {@code compacta}.
+     * @param fields Campos de la vista compacta a incluir, separados por comas.
+     * @return ResponseEntity con la página de historiales coincidentes, NO_CONTENT o un mensaje de error.
      */
     @GetMapping("/buscar")
-    @Operation(summary = "Buscar historiales por su estado", description = "Filtra la lista de historiales por el ID del estado proporcionado.")
-    public ResponseEntity<List<Historial>> buscarHistorialPorEstado(
-            @Parameter(description = "ID del estado a buscar", required = true)
-            @RequestParam Integer estadoId) {
+    @Operation(summary = "Buscar historiales por varios criterios", description = "Filtra los historiales por rango de fechas, estado, categoría y referencias opcionales (asignaciones, mensaje, dirección, reporte, curso).")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de historiales coincidentes."),
+            @ApiResponse(responseCode = "204", description = "No hay historiales que cumplan los criterios."),
+            @ApiResponse(responseCode = "400", description = "Rango de fechas, cursor, tamaño de página, vista o campos inválidos."),
+            @ApiResponse(responseCode = "404", description = "El estado o la categoría indicados no existen."),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
+    })
+    public ResponseEntity<?> buscarHistorial(@ParameterObject FiltroHistorial filtro,
+                                             @Parameter(description = "Cursor de la página siguiente, recibido en la cabecera X-Siguiente-Cursor")
+                                             @RequestParam(required = false) String cursor,
+                                             @Parameter(description = "Cantidad de elementos por página (limitada al máximo configurado)")
+                                             @RequestParam(required = false) Integer tamano,
+                                             @Parameter(description = "Representación de los registros: completa o compacta (estadoId/categoriaId)")
+                                             @RequestParam(defaultValue = VISTA_COMPLETA) String vista,
+                                             @Parameter(description = "Campos de la vista compacta a incluir, separados por comas (ej. idHistorial,fechaHistorial,detalle)")
+                                             @RequestParam(required = false) String fields) {
+        try {
+            if (esCompacta(vista, fields)) {
+                List<String> campos = fields != null ? HistorialCompacto.parsearCampos(fields) : null;
+                return responderPagina(seleccionarCampos(historialService.buscarCompacto(filtro, cursor, tamano), campos), true, true);
+            }
+            return responderPagina(historialService.buscar(filtro, cursor, tamano), true);
+
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.");
+        }
+    }
+
+    /**
+     * Entrega los historiales que cumplen los criterios como flujo NDJSON, un registro por línea.
+     * <p>
+     * A diferencia de {@code /buscar}, no hay páginas que pedir: el servidor recorre el resultado
+     * completo con contrapresión, consultando cada página interna recién cuando el cliente consumió la
+     * anterior. Mientras el cliente lee no se retiene ninguna conexión a la base de datos ni hilo de
+     * solicitud.
+     * </p>
+     * @param filtro Criterios de búsqueda.
+     * @return ResponseEntity con el flujo de historiales, BAD_REQUEST o NOT_FOUND.
+     */
+    @GetMapping(value = "/flujo", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Leer historiales como flujo", description = "Flujo NDJSON con todos los historiales que cumplen los criterios, ordenados por fecha e ID, leído por páginas a medida que el cliente consume.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Flujo de historiales abierto."),
+            @ApiResponse(responseCode = "400", description = "Rango de fechas inválido."),
+            @ApiResponse(responseCode = "404", description = "El estado o la categoría indicados no existen.")
+    })
+    public ResponseEntity<Flux<Historial>> flujoHistorial(@ParameterObject FiltroHistorial filtro) {
         try {
-            List<Historial> historiales = historialService.findByEstadoId(estadoId);
+            return ResponseEntity.ok(flujoHistorialService.flujo(filtro));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 
-            if (historiales.isEmpty()) {
-                return ResponseEntity.noContent().build();
+    /**
+     * Busca historiales por el texto de su detalle, ordenados por relevancia.
+     * <p>
+     * La consulta admite términos sueltos, frases entre comillas y prefijos terminados en {@code *};
+     * todos deben cumplirse. No distingue mayúsculas ni acentos. El total de coincidencias se
+     * informa en la cabecera {@code X-Total-Coincidencias}.
+     * </p>
+     * @param q Texto de la consulta.
+     * @param desde Fecha mínima (inclusiva).
+     * @param hasta Fecha máxima (exclusiva).
+     * @param estadoId ID del estado por el cual filtrar.
+     * @param categoriaId ID de la categoría por la cual filtrar.
+     * @param tamano Cantidad máxima de resultados.
+     * @return ResponseEntity con los historiales coincidentes, NO_CONTENT o un mensaje de error.
+     */
+    @GetMapping("/texto")
+    @Operation(summary = "Buscar historiales por texto", description = "Búsqueda de texto completo sobre el detalle, con términos, frases entre comillas y prefijos (palabra*), filtrable por fecha, estado y categoría.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Historiales coincidentes, de mayor a menor relevancia."),
+            @ApiResponse(responseCode = "204", description = "Ningún historial cumple la consulta."),
+            @ApiResponse(responseCode = "400", description = "Consulta, rango de fechas o tamaño inválido."),
+            @ApiResponse(responseCode = "503", description = "La búsqueda de texto no está habilitada."),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
+    })
+    public ResponseEntity<?> buscarHistorialPorTexto(
+            @RequestParam @Parameter(description = "Consulta de texto", example = "\"cambió su estado\" juan*") String q,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @Parameter(description = "Fecha mínima (inclusiva)", example = "2025-01-01T00:00:00") LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @Parameter(description = "Fecha máxima (exclusiva)", example = "2025-02-01T00:00:00") LocalDateTime hasta,
+            @RequestParam(required = false) @Parameter(description = "ID del estado") Integer estadoId,
+            @RequestParam(required = false) @Parameter(description = "ID de la categoría") Integer categoriaId,
+            @RequestParam(required = false) @Parameter(description = "Cantidad máxima de resultados (limitada al máximo configurado)") Integer tamano) {
+        try {
+            FiltroHistorial filtro = new FiltroHistorial();
+            filtro.setDesde(desde);
+            filtro.setHasta(hasta);
+            filtro.setEstadoId(estadoId);
+            filtro.setCategoriaId(categoriaId);
+            ResultadoTextoHistorial resultado = busquedaTextoService.buscar(q, filtro, tamano);
+            if (resultado.getHistoriales().isEmpty()) {
+                return ResponseEntity.noContent().header(BusquedaTextoService.CABECERA_TOTAL_COINCIDENCIAS, String.valueOf(resultado.getTotal())).build();
             }
+            return ResponseEntity.ok()
+                    .header(BusquedaTextoService.CABECERA_TOTAL_COINCIDENCIAS, String.valueOf(resultado.getTotal()))
+                    .body(new HistorialLista(resultado.getHistoriales()));
 
-            // Caso de éxito: Datos encontrados (HTTP 200 OK)
-            return ResponseEntity.ok(historiales);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
 
-        } catch (NoSuchElementException ex) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.");
+        }
+    }
 
+    /**
+     * Reconstruye en segundo plano el índice de texto desde la tabla de historiales.
+     * Mientras tanto, las búsquedas siguen usando el índice anterior.
+     * @return ResponseEntity con un mensaje de confirmación o de error.
+     */
+    @PostMapping("/texto/reconstruir")
+    @Operation(summary = "Reconstruir el índice de texto", description = "Vuelve a indexar todos los historiales de la base de datos en segundo plano.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Reconstrucción iniciada."),
+            @ApiResponse(responseCode = "503", description = "La búsqueda de texto no está habilitada o ya hay una reconstrucción en curso.")
+    })
+    public ResponseEntity<String> reconstruirIndiceTexto() {
+        try {
+            busquedaTextoService.reconstruir();
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body("Reconstrucción del índice de texto iniciada.");
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.");
         }
     }
 
+    /**
+     * Crea un nuevo registro de historial.
+     * <p>
+     * Responde 201 cuando el registro ya fue persistido, o 202 cuando el modo de ingesta por
+     * bitácora lo confirmó localmente y se persistirá de forma diferida. Si se envía la cabecera
+     * {@code Idempotency-Key}, los reintentos con la misma clave retornan el registro original.
+     * </p>
+     * @param historial Datos del registro de historial a crear.
+     * @param claveIdempotencia Clave de idempotencia opcional.
+     * @return ResponseEntity con el registro creado o aceptado, o un mensaje de error.
+     */
     @PostMapping
     @Operation(summary = "Crear un nuevo registro de historial")
-    public ResponseEntity<Historial> createHistorial(@RequestBody Historial historial) {
-        Historial nuevoHistorial = historialService.save(historial);
-        return new ResponseEntity<>(nuevoHistorial, HttpStatus.CREATED);
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Historial creado con éxito."),
+            @ApiResponse(responseCode = "202", description = "Historial aceptado, se persistirá de forma diferida."),
+            @ApiResponse(responseCode = "400", description = "Los datos del historial son inválidos."),
+            @ApiResponse(responseCode = "422", description = "La clave de idempotencia ya se utilizó con otro historial."),
+            @ApiResponse(responseCode = "503", description = "La ingesta de historiales está saturada o detenida.")
+    })
+    public ResponseEntity<?> createHistorial(@RequestBody Historial historial,
+                                             @RequestHeader(value = "Idempotency-Key", required = false)
+                                             @Parameter(description = "Clave para que los reintentos no creen historiales duplicados")
+                                             String claveIdempotencia) {
+        try {
+            Historial nuevoHistorial = historialService.save(historial, claveIdempotencia);
+            HttpStatus estado = historialService.isIngestaDiferida() ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+            return new ResponseEntity<>(nuevoHistorial, estado);
+        } catch (ClaveIdempotenciaReutilizadaException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
+
+
+    /**
+     * Crea varios registros de historial en una sola solicitud.
+     * <p>
+     * Los elementos válidos se insertan en lotes JDBC dentro de una única transacción;
+     * los inválidos se informan en la respuesta junto con su posición dentro del lote.
+     * </p>
+     * @param historiales Lista de registros de historial a crear.
+     * @return ResponseEntity con el resultado del lote o un mensaje de error.
+     */
+    @PostMapping("/lote")
+    @Operation(summary = "Crear registros de historial en lote", description = "Valida e inserta una lista de registros de historial en una única transacción.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Lote procesado, al menos un registro fue creado.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResultadoLote.class))),
+            @ApiResponse(responseCode = "400", description = "Lote vacío, demasiado grande o sin registros válidos."),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
+    })
+    public ResponseEntity<?> createHistorialLote(@RequestBody @Parameter(description = "Registros de historial a crear", required = true)
+                                                 List<Historial> historiales) {
+        try {
+            ResultadoLote resultado = historialService.saveLote(historiales);
+            if (resultado.getInsertados() == 0) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(resultado);
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.");
+        }
+    }
+
+    /**
+     * Importa registros de historial desde un cuerpo NDJSON (un objeto JSON por línea).
+     * <p>
+     * El cuerpo se lee como flujo y se guarda en bloques de tamaño fijo, por lo que admite
+     * archivos de varios GB. Las líneas rechazadas se informan con su número de línea.
+     * </p>
+     * @param contenido Flujo con el cuerpo de la solicitud.
+     * @param codificacion Cabecera {@code Content-Encoding}; con {@code gzip} el cuerpo se descomprime.
+     * @param gzip Alternativa a la cabecera para indicar que el cuerpo viene comprimido con gzip.
+     * @return ResponseEntity con el resultado de la importación o un mensaje de error.
+     */
+    @PostMapping(value = "/importar", consumes = {"application/x-ndjson", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @Operation(summary = "Importar registros de historial desde NDJSON", description = "Lee un archivo NDJSON, opcionalmente comprimido con gzip, y guarda sus registros en bloques.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importación finalizada.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResultadoImportacion.class))),
+            @ApiResponse(responseCode = "400", description = "El cuerpo no se pudo leer o descomprimir."),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
+    })
+    public ResponseEntity<?> importarHistorial(InputStream contenido,
+                                               @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String codificacion,
+                                               @RequestParam(defaultValue = "false")
+                                               @Parameter(description = "Indica que el cuerpo viene comprimido con gzip")
+                                               boolean gzip) {
+        try {
+            boolean comprimido = gzip || "gzip".equalsIgnoreCase(codificacion);
+            ResultadoImportacion resultado = importacionHistorialService.importar(contenido, comprimido);
+            return ResponseEntity.ok(resultado);
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("No fue posible leer el contenido: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.");
+        }
+    }
+
+    /**
+     * Abre un flujo Server-Sent Events con los registros de historial a medida que se guardan.
+     * <p>
+     * Cada evento {@code historial} lleva como ID el del registro. Al reconectarse, el navegador
+     * envía la cabecera {@code Last-Event-ID} y los registros posteriores se reenvían antes de
+     * continuar en vivo. Si el cliente no consume a tiempo o perdió demasiados eventos, recibe un
+     * evento {@code resincronizar} y el flujo termina.
+     * </p>
+     * @param filtro Criterios que deben cumplir los registros enviados.
+     * @param lastEventId ID del último evento recibido, enviado por el navegador al reconectarse.
+     * @param ultimoId ID del último registro recibido, para clientes que no envían la cabecera.
+     * @return ResponseEntity con el flujo de eventos.
+     */
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Suscribirse a los registros de historial nuevos", description = "Flujo Server-Sent Events con los registros guardados, filtrados opcionalmente por estado, categoría o referencias.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Flujo de eventos abierto."),
+            @ApiResponse(responseCode = "400", description = "ID de reanudación inválido.")
+    })
+    public ResponseEntity<Flux<ServerSentEvent<Object>>> suscribirHistorial(
+            @ParameterObject FiltroHistorial filtro,
+            @RequestHeader(value = "Last-Event-ID", required = false)
+            @Parameter(description = "ID del último evento recibido") Integer lastEventId,
+            @RequestParam(required = false)
+            @Parameter(description = "ID del último registro recibido (alternativa a Last-Event-ID)") Integer ultimoId) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(eventosHistorialService.suscribir(filtro, lastEventId != null ? lastEventId : ultimoId));
+    }
+
+    /**
+     * Obtiene la cantidad de registros de historial por intervalo de tiempo.
+     * <p>
+     * Se calcula sobre la tabla de resúmenes, por lo que el costo depende de la cantidad de
+     * intervalos del rango y no de la cantidad de registros.
+     * </p>
+     * @param granularidad Tamaño de los intervalos: {@code minuto}, {@code hora} o {@code dia}.
+     * @param desde Fecha mínima (inclusiva).
+     * @param hasta Fecha máxima (exclusiva).
+     * @param estadoId ID del estado por el cual filtrar.
+     * @param categoriaId ID de la categoría por la cual filtrar.
+     * @param porEstado Indica si se separan las cantidades por estado.
+     * @param porCategoria Indica si se separan las cantidades por categoría.
+     * @return ResponseEntity con los puntos del resumen o un mensaje de error.
+     */
+    @GetMapping("/resumen")
+    @Operation(summary = "Obtener la cantidad de registros por intervalo", description = "Retorna la cantidad de registros de historial por minuto, hora o día, separada opcionalmente por estado y categoría.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resumen obtenido exitosamente.",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = PuntoResumen.class))),
+            @ApiResponse(responseCode = "400", description = "Granularidad o rango de fechas inválido.")
+    })
+    public ResponseEntity<?> getResumenHistorial(
+            @RequestParam(defaultValue = "hora") @Parameter(description = "Tamaño de los intervalos: minuto, hora o dia") String granularidad,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @Parameter(description = "Fecha mínima (inclusiva)", example = "2025-01-01T00:00:00") LocalDateTime desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @Parameter(description = "Fecha máxima (exclusiva)", example = "2025-01-02T00:00:00") LocalDateTime hasta,
+            @RequestParam(required = false) @Parameter(description = "ID del estado") Integer estadoId,
+            @RequestParam(required = false) @Parameter(description = "ID de la categoría") Integer categoriaId,
+            @RequestParam(defaultValue = "true") @Parameter(description = "Separar las cantidades por estado") boolean porEstado,
+            @RequestParam(defaultValue = "true") @Parameter(description = "Separar las cantidades por categoría") boolean porCategoria) {
+        try {
+            List<PuntoResumen> puntos = resumenHistorialService.consultar(ResumenHistorial.Granularidad.desde(granularidad),
+                    desde, hasta, estadoId, categoriaId, porEstado, porCategoria);
+            return ResponseEntity.ok(puntos);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.");
+        }
     }
 
+    /**
+     * Recalcula la tabla de resúmenes a partir de los registros de historial.
+     * Se usa después de importaciones o depuraciones realizadas directamente en la base de datos.
+     * @param desde Fecha mínima; por defecto, la del registro más antiguo.
+     * @param hasta Fecha máxima; por defecto, la fecha actual.
+     * @return ResponseEntity con un mensaje de confirmación o de error.
+     */
+    @PostMapping("/resumen/reconstruir")
+    @Operation(summary = "Reconstruir los resúmenes de historial", description = "Recalcula por días completos los conteos del rango indicado.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resúmenes reconstruidos."),
+            @ApiResponse(responseCode = "400", description = "Rango de fechas inválido.")
+    })
+    public ResponseEntity<String> reconstruirResumenHistorial(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @Parameter(description = "Fecha mínima", example = "2025-01-01T00:00:00") LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @Parameter(description = "Fecha máxima", example = "2025-02-01T00:00:00") LocalDateTime hasta) {
+        try {
+            long contabilizados = resumenHistorialService.reconstruir(desde, hasta);
+            return ResponseEntity.ok("Resúmenes reconstruidos: " + contabilizados + " registros contabilizados.");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.");
+        }
+    }
 
     @DeleteMapping("/{id}")
     @Operation(summary = "Eliminar un registro de historial por su ID")
@@ -86,4 +565,58 @@ public class HistorialController {
             return ResponseEntity.badRequest().build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Determina si se solicitó la vista compacta. Indicar {@code fields} implica la vista compacta.
+     *
+     * @throws IllegalArgumentException Si la vista no existe.
+     */
+    private static boolean esCompacta(String vista, String fields) {
+        if (VISTA_COMPACTA.equalsIgnoreCase(vista)) {
+            return true;
+        }
+        if (!VISTA_COMPLETA.equalsIgnoreCase(vista)) {
+            throw new IllegalArgumentException("Vista no soportada: " + vista + ". Use completa o compacta.");
+        }
+        return fields != null;
+    }
+
+    /**
+     * Reduce cada registro compacto de la página a los campos indicados, o la deja igual si no se
+     * indicaron campos.
+     */
+    private static PaginaCursor<?> seleccionarCampos(PaginaCursor<HistorialCompacto> pagina, List<String> campos) {
+        if (campos == null) {
+            return pagina;
+        }
+        return new PaginaCursor<>(pagina.getElementos().stream().map(h -> h.seleccionar(campos)).toList(),
+                pagina.getSiguienteCursor());
+    }
+
+    /**
+     * Arma la respuesta de una página de historiales completos. Los elementos se entregan como
+     * {@link HistorialLista} para que también puedan responderse en Protobuf.
+     */
+    private static ResponseEntity<?> responderPagina(PaginaCursor<Historial> pagina, boolean vaciaSinContenido) {
+        return responderPagina(new PaginaCursor<>(new HistorialLista(pagina.getElementos()), pagina.getSiguienteCursor()),
+                vaciaSinContenido, false);
+    }
+
+    /**
+     * Arma la respuesta de una página, con el cursor de la página siguiente en la cabecera. La vista
+     * compacta no tiene mensaje Protobuf, por lo que se responde siempre en JSON.
+     */
+    private static ResponseEntity<?> responderPagina(PaginaCursor<?> pagina, boolean vaciaSinContenido, boolean compacta) {
+        if (vaciaSinContenido && pagina.getElementos().isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.getSiguienteCursor() != null) {
+            respuesta.header(PaginacionKeyset.CABECERA_SIGUIENTE_CURSOR, pagina.getSiguienteCursor());
+        }
+        if (compacta) {
+            respuesta.contentType(MediaType.APPLICATION_JSON);
+        }
+        return respuesta.body(pagina.getElementos());
+    }
+}
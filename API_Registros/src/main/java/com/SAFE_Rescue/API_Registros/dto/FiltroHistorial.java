@@ -0,0 +1,79 @@
+package com.SAFE_Rescue.API_Registros.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Criterios de búsqueda de registros de historial.
+ * <p>
+ * Todos los criterios son opcionales y se combinan con AND; los que vienen nulos se ignoran.
+ * Las referencias se comparan por ID, sin cargar las entidades relacionadas.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroHistorial {
+
+    @Schema(description = "Fecha mínima (inclusiva) del registro", example = "2025-01-01T00:00:00")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime desde;
+
+    @Schema(description = "Fecha máxima (exclusiva) del registro", example = "2025-02-01T00:00:00")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime hasta;
+
+    @Schema(description = "ID del estado asociado", example = "1")
+    private Integer estadoId;
+
+    @Schema(description = "ID de la categoría asociada", example = "1")
+    private Integer categoriaId;
+
+    @Schema(description = "ID de la asignación del incidente", example = "101")
+    private Integer idAsignacionIncidente;
+
+    @Schema(description = "ID de la asignación del usuario", example = "101")
+    private Integer idAsignacionUsuario;
+
+    @Schema(description = "ID del envío de mensaje", example = "205")
+    private Integer idEnvioMensaje;
+
+    @Schema(description = "ID de la dirección", example = "45")
+    private Integer idDireccion;
+
+    @Schema(description = "ID del usuario que realizó el reporte", example = "789")
+    private Integer idUsuarioReporte;
+
+    @Schema(description = "ID de la asignación del curso", example = "50")
+    private Integer idAsignacionCurso;
+
+    /**
+     * Evalúa el filtro sobre un registro ya cargado en memoria (ej. archivado o recién guardado).
+     *
+     * @param h El registro a evaluar.
+     * @return {@code true} si el registro cumple todos los criterios no nulos.
+     */
+    public boolean coincide(Historial h) {
+        return (desde == null || !h.getFechaHistorial().isBefore(desde))
+                && (hasta == null || h.getFechaHistorial().isBefore(hasta))
+                && (estadoId == null || estadoId == h.getEstado().getIdEstado())
+                && (categoriaId == null || categoriaId == h.getCategoria().getIdCategoria())
+                && igual(idAsignacionIncidente, h.getIdAsignacionIncidente())
+                && igual(idAsignacionUsuario, h.getIdAsignacionUsuario())
+                && igual(idEnvioMensaje, h.getIdEnvioMensaje())
+                && igual(idDireccion, h.getIdDireccion())
+                && igual(idUsuarioReporte, h.getIdUsuarioReporte())
+                && igual(idAsignacionCurso, h.getIdAsignacionCurso());
+    }
+
+    private static boolean igual(Integer filtro, Integer valor) {
+        return filtro == null || Objects.equals(filtro, valor);
+    }
+}
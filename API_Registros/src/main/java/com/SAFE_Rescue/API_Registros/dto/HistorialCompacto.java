@@ -0,0 +1,132 @@
+package com.SAFE_Rescue.API_Registros.dto;
+
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representación compacta de un registro de historial para los listados.
+ * <p>
+ * En lugar de los objetos {@code Estado} y {@code Categoria} completos incluye solo sus ID; los
+ * clientes obtienen los nombres de los catálogos ({@code /estados}, {@code /categorias}). Se obtiene
+ * con proyecciones de {@code HistorialRepository}, sin cargar las entidades.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Registro de historial con referencias por ID")
+public class HistorialCompacto {
+
+    /**
+     * Nombres de los campos que pueden solicitarse con el parámetro {@code fields}, en el orden de la respuesta.
+     */
+    public static final List<String> CAMPOS = List.of("idHistorial", "estadoId", "categoriaId", "fechaHistorial",
+            "detalle", "idAsignacionIncidente", "idAsignacionUsuario", "idEnvioMensaje", "idDireccion",
+            "idUsuarioReporte", "idAsignacionCurso");
+
+    @Schema(description = "Identificador único del registro de historial", example = "1")
+    private int idHistorial;
+
+    @Schema(description = "ID del estado asociado", example = "1")
+    private int estadoId;
+
+    @Schema(description = "ID de la categoría asociada", example = "1")
+    private int categoriaId;
+
+    @Schema(description = "Fecha y hora en que se registró el historial", example = "2025-09-09T10:30:00")
+    private LocalDateTime fechaHistorial;
+
+    @Schema(description = "Descripción detallada del evento del historial", example = "El usuario 'juan_perez' cambió su estado a 'Activo'")
+    private String detalle;
+
+    @Schema(description = "Identificador opcional de la asignación del incidente", example = "101")
+    private Integer idAsignacionIncidente;
+
+    @Schema(description = "Identificador opcional de la asignación del usuario", example = "101")
+    private Integer idAsignacionUsuario;
+
+    @Schema(description = "Identificador opcional del envío de mensaje", example = "205")
+    private Integer idEnvioMensaje;
+
+    @Schema(description = "Identificador opcional de la dirección", example = "45")
+    private Integer idDireccion;
+
+    @Schema(description = "Identificador opcional del usuario que realizó el reporte", example = "789")
+    private Integer idUsuarioReporte;
+
+    @Schema(description = "Identificador opcional de la asignación del curso", example = "50")
+    private Integer idAsignacionCurso;
+
+    /**
+     * Obtiene la representación compacta de un registro ya cargado (ej. archivado).
+     *
+     * @param h El registro.
+     * @return Su representación compacta.
+     */
+    public static HistorialCompacto de(Historial h) {
+        return new HistorialCompacto(h.getIdHistorial(), h.getEstado().getIdEstado(), h.getCategoria().getIdCategoria(),
+                h.getFechaHistorial(), h.getDetalle(), h.getIdAsignacionIncidente(), h.getIdAsignacionUsuario(),
+                h.getIdEnvioMensaje(), h.getIdDireccion(), h.getIdUsuarioReporte(), h.getIdAsignacionCurso());
+    }
+
+    /**
+     * Interpreta la lista de campos solicitada por el cliente.
+     *
+     * @param fields Nombres de campos separados por comas (ej. {@code "idHistorial,detalle"}).
+     * @return Los campos solicitados, sin repetir y en el orden de {@link #CAMPOS}.
+     * @throws IllegalArgumentException Si la lista está vacía o contiene un campo desconocido.
+     */
+    public static List<String> parsearCampos(String fields) {
+        List<String> solicitados = new ArrayList<>();
+        for (String campo : fields.split(",")) {
+            String nombre = campo.trim();
+            if (nombre.isEmpty()) {
+                continue;
+            }
+            if (!CAMPOS.contains(nombre)) {
+                throw new IllegalArgumentException("Campo desconocido: '" + nombre + "'. Campos disponibles: " + String.join(", ", CAMPOS) + ".");
+            }
+            solicitados.add(nombre);
+        }
+        if (solicitados.isEmpty()) {
+            throw new IllegalArgumentException("El parámetro 'fields' debe indicar al menos un campo.");
+        }
+        return CAMPOS.stream().filter(solicitados::contains).toList();
+    }
+
+    /**
+     * Obtiene solo los campos indicados, para las respuestas con el parámetro {@code fields}.
+     *
+     * @param campos Campos a incluir, obtenidos con {@link #parsearCampos(String)}.
+     * @return Un mapa con los campos en el orden indicado; los valores nulos se incluyen.
+     */
+    public Map<String, Object> seleccionar(List<String> campos) {
+        Map<String, Object> valores = new LinkedHashMap<>();
+        for (String campo : campos) {
+            valores.put(campo, switch (campo) {
+                case "idHistorial" -> idHistorial;
+                case "estadoId" -> estadoId;
+                case "categoriaId" -> categoriaId;
+                case "fechaHistorial" -> fechaHistorial;
+                case "detalle" -> detalle;
+                case "idAsignacionIncidente" -> idAsignacionIncidente;
+                case "idAsignacionUsuario" -> idAsignacionUsuario;
+                case "idEnvioMensaje" -> idEnvioMensaje;
+                case "idDireccion" -> idDireccion;
+                case "idUsuarioReporte" -> idUsuarioReporte;
+                case "idAsignacionCurso" -> idAsignacionCurso;
+                default -> throw new IllegalArgumentException("Campo desconocido: '" + campo + "'.");
+            });
+        }
+        return valores;
+    }
+}
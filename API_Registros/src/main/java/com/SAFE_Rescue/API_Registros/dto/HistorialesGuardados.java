@@ -0,0 +1,15 @@
+package com.SAFE_Rescue.API_Registros.dto;
+
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+
+import java.util.List;
+
+/**
+ * Evento de aplicación publicado al insertar registros de historial, dentro de la transacción
+ * que los inserta. Sus oyentes lo reciben una vez confirmada la transacción
+ * (ver {@code EventosHistorialService}).
+ *
+ * @param historiales Los registros insertados, con su ID ya asignado.
+ */
+public record HistorialesGuardados(List<Historial> historiales) {
+}
@@ -0,0 +1,32 @@
+package com.SAFE_Rescue.API_Registros.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de resultados obtenida con paginación por cursor (keyset).
+ * <p>
+ * El cursor siguiente es opaco para el cliente: solo debe reenviarse tal cual para obtener
+ * la página que sigue. Es {@code null} cuando no quedan más elementos.
+ * </p>
+ *
+ * @param <T> El tipo de los elementos de la página.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursor<T> {
+
+    /**
+     * Elementos de la página, en el orden de recorrido.
+     */
+    private List<T> elementos;
+
+    /**
+     * Cursor para solicitar la página siguiente, o {@code null} si esta es la última.
+     */
+    private String siguienteCursor;
+}
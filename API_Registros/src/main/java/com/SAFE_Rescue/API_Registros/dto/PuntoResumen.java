@@ -0,0 +1,34 @@
+package com.SAFE_Rescue.API_Registros.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cantidad de registros de historial en un intervalo de tiempo.
+ * <p>
+ * El estado y la categoría son {@code null} cuando la consulta no agrupa por esa dimensión,
+ * en cuyo caso la cantidad suma todos sus valores.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Cantidad de registros de historial en un intervalo")
+public class PuntoResumen {
+
+    @Schema(description = "Inicio del intervalo", example = "2025-01-01T10:00:00")
+    private LocalDateTime inicio;
+
+    @Schema(description = "ID del estado, o null si no se agrupa por estado", example = "1")
+    private Integer idEstado;
+
+    @Schema(description = "ID de la categoría, o null si no se agrupa por categoría", example = "1")
+    private Integer idCategoria;
+
+    @Schema(description = "Cantidad de registros", example = "42")
+    private long cantidad;
+}
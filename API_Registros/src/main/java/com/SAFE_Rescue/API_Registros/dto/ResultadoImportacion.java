@@ -0,0 +1,51 @@
+package com.SAFE_Rescue.API_Registros.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva en formato NDJSON.
+ * <p>
+ * Para mantener acotado el consumo de memoria, solo se conserva el detalle de los primeros
+ * rechazos; el resto se contabiliza en {@code rechazados}.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@Schema(description = "Resultado de una importación masiva de registros")
+public class ResultadoImportacion {
+
+    /**
+     * Cantidad de líneas no vacías leídas del archivo.
+     */
+    @Schema(description = "Cantidad de líneas leídas", example = "1000000")
+    private long lineasLeidas;
+
+    /**
+     * Cantidad de registros persistidos correctamente.
+     */
+    @Schema(description = "Cantidad de registros insertados", example = "999990")
+    private long insertados;
+
+    /**
+     * Cantidad total de líneas rechazadas.
+     */
+    @Schema(description = "Cantidad de líneas rechazadas", example = "10")
+    private long rechazados;
+
+    /**
+     * Duración total de la importación en milisegundos.
+     */
+    @Schema(description = "Duración de la importación en milisegundos", example = "42000")
+    private long duracionMs;
+
+    /**
+     * Detalle de las primeras líneas rechazadas; el índice corresponde al número de línea (base 1).
+     */
+    @Schema(description = "Detalle de las primeras líneas rechazadas")
+    private List<ResultadoLote.ErrorLote> errores = new ArrayList<>();
+}
@@ -0,0 +1,69 @@
+package com.SAFE_Rescue.API_Registros.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de una operación de ingesta en lote.
+ * <p>
+ * Informa cuántos elementos se recibieron y se insertaron, los identificadores generados
+ * y, para cada elemento rechazado, su posición dentro del lote junto con el motivo del rechazo.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado de una ingesta de registros en lote")
+public class ResultadoLote {
+
+    /**
+     * Cantidad total de elementos recibidos en la solicitud.
+     */
+    @Schema(description = "Cantidad de elementos recibidos", example = "100")
+    private int recibidos;
+
+    /**
+     * Cantidad de elementos persistidos correctamente.
+     */
+    @Schema(description = "Cantidad de elementos insertados", example = "98")
+    private int insertados;
+
+    /**
+     * Identificadores generados para los elementos insertados, en el mismo orden del lote.
+     */
+    @Schema(description = "Identificadores generados para los elementos insertados")
+    private List<Integer> ids = new ArrayList<>();
+
+    /**
+     * Detalle de los elementos rechazados por no cumplir las validaciones.
+     */
+    @Schema(description = "Elementos rechazados y su motivo")
+    private List<ErrorLote> errores = new ArrayList<>();
+
+    /**
+     * Representa un elemento rechazado dentro de un lote.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Elemento rechazado dentro de un lote")
+    public static class ErrorLote {
+
+        /**
+         * Posición (base 0) del elemento dentro del lote recibido.
+         */
+        @Schema(description = "Posición del elemento dentro del lote", example = "3")
+        private long indice;
+
+        /**
+         * Motivo por el cual el elemento fue rechazado.
+         */
+        @Schema(description = "Motivo del rechazo", example = "El detalle del historial es un campo obligatorio.")
+        private String mensaje;
+    }
+}
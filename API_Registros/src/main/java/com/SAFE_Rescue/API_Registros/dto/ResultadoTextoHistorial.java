@@ -0,0 +1,27 @@
+package com.SAFE_Rescue.API_Registros.dto;
+
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de una búsqueda de texto completo sobre el detalle de los historiales.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoTextoHistorial {
+
+    /**
+     * Registros coincidentes, de mayor a menor relevancia.
+     */
+    private List<Historial> historiales;
+
+    /**
+     * Cantidad total de registros indexados que cumplen la consulta y los filtros.
+     */
+    private long total;
+}
@@ -0,0 +1,221 @@
+package com.SAFE_Rescue.API_Registros.generador;
+
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Foto;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import net.datafaker.Faker;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Genera registros sintéticos de {@link Historial} y {@link Foto} con distribuciones sesgadas y
+ * reproducibles.
+ * <p>
+ * Cada bloque se genera con su propia semilla, derivada de la semilla general y del número de
+ * bloque: los mismos parámetros producen exactamente los mismos registros sin importar cuántos hilos
+ * los generen ni en qué orden. Los textos provienen de nombres, calles y ciudades de Datafaker,
+ * generados una sola vez al crear la instancia, porque generarlos por registro costaría más que la
+ * inserción.
+ * </p>
+ * <ul>
+ *     <li>Estados, categorías y referencias (incidente, usuario, mensaje, dirección, curso) siguen una
+ *     distribución de Zipf: pocos valores concentran la mayoría de los registros.</li>
+ *     <li>Las fechas se concentran en los días más recientes y en horario diurno.</li>
+ *     <li>Las referencias opcionales se omiten con la proporción habitual de cada una.</li>
+ * </ul>
+ */
+public class DatosSinteticos {
+
+    private static final int MAXIMO_DETALLE = 250;
+    private static final int MAXIMO_DESCRIPCION_FOTO = 100;
+    private static final int TAMANO_CATALOGO_TEXTOS = 2000;
+
+    private static final int INCIDENTES = 200_000;
+    private static final int USUARIOS = 50_000;
+    private static final int MENSAJES = 1_000_000;
+    private static final int DIRECCIONES = 100_000;
+    private static final int CURSOS = 2_000;
+
+    /**
+     * Peso relativo de cada hora del día: poca actividad de madrugada, máxima por la tarde.
+     */
+    private static final double[] PESO_HORA = {
+            2, 1.5, 1, 1, 1, 1.5, 3, 5, 7, 8, 8, 8, 8, 8, 8, 8, 9, 10, 10, 9, 7, 5, 4, 3
+    };
+
+    private static final String[] ACCIONES = {
+            "Se recibe llamada", "Se despacha unidad", "Unidad en camino", "Unidad llega al lugar",
+            "Se solicita apoyo", "Se controla la situación", "Se traslada a paciente", "Se cierra el procedimiento",
+            "Se actualiza el reporte", "Se notifica al responsable"
+    };
+
+    private final List<Estado> estados;
+    private final List<Categoria> categorias;
+    private final LocalDate hasta;
+    private final int dias;
+    private final long semilla;
+
+    private final DistribucionZipf distribucionEstados;
+    private final DistribucionZipf distribucionCategorias;
+    private final DistribucionZipf incidentes;
+    private final DistribucionZipf usuarios;
+    private final DistribucionZipf mensajes;
+    private final DistribucionZipf direcciones;
+    private final DistribucionZipf cursos;
+    private final double[] horaAcumulada = new double[24];
+
+    private final String[] nombres = new String[TAMANO_CATALOGO_TEXTOS];
+    private final String[] calles = new String[TAMANO_CATALOGO_TEXTOS];
+    private final String[] ciudades = new String[TAMANO_CATALOGO_TEXTOS / 10];
+
+    /**
+     * @param estados    Los estados existentes; el primero es el más frecuente.
+     * @param categorias Las categorías existentes; la primera es la más frecuente.
+     * @param hasta      Día (excluido) en que terminan las fechas generadas.
+     * @param dias       Cantidad de días hacia atrás que abarcan las fechas.
+     * @param sesgo      Exponente de Zipf de estados, categorías y referencias (0 = uniforme).
+     * @param semilla    Semilla de todos los valores generados.
+     */
+    public DatosSinteticos(List<Estado> estados, List<Categoria> categorias, LocalDate hasta, int dias,
+                           double sesgo, long semilla) {
+        if (estados.isEmpty() || categorias.isEmpty() || dias <= 0) {
+            throw new IllegalArgumentException("Se requieren estados, categorías y al menos un día de historial.");
+        }
+        this.estados = List.copyOf(estados);
+        this.categorias = List.copyOf(categorias);
+        this.hasta = hasta;
+        this.dias = dias;
+        this.semilla = semilla;
+        this.distribucionEstados = new DistribucionZipf(estados.size(), sesgo);
+        this.distribucionCategorias = new DistribucionZipf(categorias.size(), sesgo);
+        this.incidentes = new DistribucionZipf(INCIDENTES, sesgo);
+        this.usuarios = new DistribucionZipf(USUARIOS, sesgo);
+        this.mensajes = new DistribucionZipf(MENSAJES, sesgo);
+        this.direcciones = new DistribucionZipf(DIRECCIONES, sesgo);
+        this.cursos = new DistribucionZipf(CURSOS, sesgo);
+
+        double suma = 0;
+        for (int h = 0; h < 24; h++) {
+            suma += PESO_HORA[h];
+            horaAcumulada[h] = suma;
+        }
+        for (int h = 0; h < 24; h++) {
+            horaAcumulada[h] /= suma;
+        }
+
+        Faker faker = new Faker(Locale.forLanguageTag("es"), new Random(semilla));
+        for (int i = 0; i < nombres.length; i++) {
+            nombres[i] = faker.name().fullName();
+            calles[i] = faker.address().streetAddress();
+        }
+        for (int i = 0; i < ciudades.length; i++) {
+            ciudades[i] = faker.address().city();
+        }
+    }
+
+    /**
+     * Genera un bloque de historiales, sin ID.
+     *
+     * @param bloque   Número de bloque, que determina los valores generados.
+     * @param cantidad Cantidad de registros.
+     * @return Los historiales.
+     */
+    public List<Historial> historiales(long bloque, int cantidad) {
+        SplittableRandom aleatorio = aleatorio(bloque, 1);
+        List<Historial> historiales = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Estado estado = estados.get(distribucionEstados.muestrear(aleatorio));
+            Categoria categoria = categorias.get(distribucionCategorias.muestrear(aleatorio));
+            int incidente = referencia(incidentes, aleatorio);
+            String detalle = ACCIONES[aleatorio.nextInt(ACCIONES.length)] + " (" + categoria.getNombre() + ", "
+                    + estado.getNombre() + ") en " + elegir(calles, aleatorio) + ", " + elegir(ciudades, aleatorio)
+                    + ". Incidente " + incidente + ", informa " + elegir(nombres, aleatorio) + ".";
+
+            historiales.add(new Historial(0, estado, categoria, fecha(aleatorio), recortar(detalle, MAXIMO_DETALLE),
+                    opcional(0.9, incidente, aleatorio),
+                    opcional(0.7, referencia(usuarios, aleatorio), aleatorio),
+                    opcional(0.3, referencia(mensajes, aleatorio), aleatorio),
+                    opcional(0.6, referencia(direcciones, aleatorio), aleatorio),
+                    opcional(0.4, referencia(usuarios, aleatorio), aleatorio),
+                    opcional(0.05, referencia(cursos, aleatorio), aleatorio), null));
+        }
+        return historiales;
+    }
+
+    /**
+     * Genera un bloque de fotos de incidentes, sin ID. Las URL son únicas para cada bloque y posición.
+     *
+     * @param bloque   Número de bloque, que determina los valores generados.
+     * @param cantidad Cantidad de fotos.
+     * @return Las fotos.
+     */
+    public List<Foto> fotos(long bloque, int cantidad) {
+        SplittableRandom aleatorio = aleatorio(bloque, 2);
+        List<Foto> fotos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            String url = "https://archivos.safe-rescue.cl/incidentes/" + referencia(incidentes, aleatorio) + "/"
+                    + Long.toHexString(bloque) + "-" + i + "-" + Long.toHexString(aleatorio.nextLong() & 0xffffffffL) + ".jpg";
+            String descripcion = "Registro fotográfico en " + elegir(calles, aleatorio) + ", " + elegir(ciudades, aleatorio);
+            fotos.add(new Foto(0, url, fecha(aleatorio), recortar(descripcion, MAXIMO_DESCRIPCION_FOTO)));
+        }
+        return fotos;
+    }
+
+    /**
+     * Semilla propia de cada bloque y tipo de registro, mezclada para que bloques consecutivos no
+     * produzcan secuencias correlacionadas.
+     */
+    private SplittableRandom aleatorio(long bloque, int tipo) {
+        return new SplittableRandom(mezclar(semilla ^ mezclar(bloque * 31 + tipo)));
+    }
+
+    private static long mezclar(long valor) {
+        long z = valor + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Fecha sesgada hacia los días recientes (la densidad crece hacia {@code hasta}) y hacia las
+     * horas de mayor actividad.
+     */
+    private LocalDateTime fecha(SplittableRandom aleatorio) {
+        double u = aleatorio.nextDouble();
+        int diasAtras = (int) (dias * u * u);
+        double h = aleatorio.nextDouble();
+        int hora = 0;
+        while (horaAcumulada[hora] < h && hora < 23) {
+            hora++;
+        }
+        return hasta.minusDays(diasAtras + 1L).atTime(hora, aleatorio.nextInt(60), aleatorio.nextInt(60));
+    }
+
+    /**
+     * Convierte un rango de Zipf en un ID desde 1, dispersando los más frecuentes en todo el
+     * intervalo para que los IDs populares no sean siempre los más bajos.
+     */
+    private static int referencia(DistribucionZipf distribucion, SplittableRandom aleatorio) {
+        long n = distribucion.elementos();
+        return (int) ((distribucion.muestrear(aleatorio) * 7_919L) % n) + 1;
+    }
+
+    private static Integer opcional(double probabilidad, int valor, SplittableRandom aleatorio) {
+        return aleatorio.nextDouble() < probabilidad ? valor : null;
+    }
+
+    private static String elegir(String[] valores, SplittableRandom aleatorio) {
+        return valores[aleatorio.nextInt(valores.length)];
+    }
+
+    private static String recortar(String texto, int maximo) {
+        return texto.length() <= maximo ? texto : texto.substring(0, maximo);
+    }
+}
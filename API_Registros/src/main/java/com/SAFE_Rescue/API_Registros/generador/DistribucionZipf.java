@@ -0,0 +1,56 @@
+package com.SAFE_Rescue.API_Registros.generador;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Distribución de Zipf sobre {@code n} elementos: el elemento de rango {@code k} (desde 1) aparece
+ * con probabilidad proporcional a {@code 1 / k^s}.
+ * <p>
+ * Modela el sesgo de los datos reales: pocos estados, categorías, incidentes o usuarios concentran
+ * la mayoría de los registros. Con {@code s = 0} la distribución es uniforme.
+ * </p>
+ */
+public class DistribucionZipf {
+
+    private final double[] acumulada;
+
+    /**
+     * @param elementos Cantidad de elementos (mayor que cero).
+     * @param exponente Exponente {@code s} (cero o mayor).
+     * @throws IllegalArgumentException Si algún parámetro no es válido.
+     */
+    public DistribucionZipf(int elementos, double exponente) {
+        if (elementos <= 0 || exponente < 0) {
+            throw new IllegalArgumentException("La distribución requiere al menos un elemento y un exponente no negativo.");
+        }
+        acumulada = new double[elementos];
+        double suma = 0;
+        for (int k = 0; k < elementos; k++) {
+            suma += 1 / Math.pow(k + 1, exponente);
+            acumulada[k] = suma;
+        }
+        for (int k = 0; k < elementos; k++) {
+            acumulada[k] /= suma;
+        }
+        acumulada[elementos - 1] = 1;
+    }
+
+    /**
+     * Obtiene un rango al azar.
+     *
+     * @param aleatorio El generador de números aleatorios.
+     * @return El rango, desde 0 (el más frecuente) hasta {@code elementos - 1}.
+     */
+    public int muestrear(SplittableRandom aleatorio) {
+        int indice = Arrays.binarySearch(acumulada, aleatorio.nextDouble());
+        return indice >= 0 ? indice : -indice - 1;
+    }
+
+    /**
+     * @return La cantidad de elementos.
+     */
+    public int elementos() {
+        return acumulada.length;
+    }
+}
@@ -0,0 +1,195 @@
+package com.SAFE_Rescue.API_Registros.generador;
+
+import com.SAFE_Rescue.API_Registros.dto.ResultadoLote;
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.service.CategoriaService;
+import com.SAFE_Rescue.API_Registros.service.EstadoService;
+import com.SAFE_Rescue.API_Registros.service.FotoService;
+import com.SAFE_Rescue.API_Registros.service.HistorialService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * Genera datos sintéticos para pruebas de rendimiento: millones de historiales y sus fotos.
+ * Solo se ejecuta en el perfil 'generador', por ejemplo:
+ * {@code --spring.profiles.active=dev,generador --registros.generador.historiales=5000000}.
+ * <p>
+ * Los registros se generan con {@link DatosSinteticos} en bloques y se insertan en paralelo, cada
+ * bloque en su propia transacción con lotes JDBC, por el mismo camino que la importación masiva
+ * (se actualizan los resúmenes y el índice de texto si está habilitado). Con la misma semilla, la
+ * misma fecha final y los mismos catálogos, los datos generados son idénticos. Al terminar se
+ * informan las filas por segundo y, por defecto, la aplicación se detiene.
+ * </p>
+ */
+@Profile("generador")
+@Component
+public class GeneradorDatos implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneradorDatos.class);
+
+    private static final String[] ESTADOS = {"Abierto", "En curso", "Asignado", "En espera", "Escalado", "Resuelto", "Cerrado", "Cancelado"};
+    private static final String[] CATEGORIAS = {"Emergencia médica", "Incendio estructural", "Accidente de tránsito", "Rescate",
+            "Incendio forestal", "Materiales peligrosos", "Sistema", "Usuario"};
+
+    // INYECCIONES DE DEPENDENCIA
+    @Autowired
+    private HistorialService historialService;
+
+    @Autowired
+    private FotoService fotoService;
+
+    @Autowired
+    private EstadoService estadoService;
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private ConfigurableApplicationContext contexto;
+
+    @Value("${registros.generador.historiales:1000000}")
+    private long cantidadHistoriales;
+
+    @Value("${registros.generador.fotos:100000}")
+    private long cantidadFotos;
+
+    @Value("${registros.generador.hilos:4}")
+    private int hilos;
+
+    @Value("${registros.generador.tamano-bloque:5000}")
+    private int tamanoBloque;
+
+    @Value("${registros.generador.semilla:42}")
+    private long semilla;
+
+    @Value("${registros.generador.dias:365}")
+    private int dias;
+
+    /**
+     * Día (excluido) en que terminan las fechas generadas; vacío para el día actual.
+     */
+    @Value("${registros.generador.hasta:}")
+    private String hasta;
+
+    @Value("${registros.generador.sesgo:1.1}")
+    private double sesgo;
+
+    @Value("${registros.generador.salir-al-terminar:true}")
+    private boolean salirAlTerminar;
+
+    @Override
+    public void run(String... args) throws Exception {
+        LocalDate fin = hasta.isBlank() ? LocalDate.now() : LocalDate.parse(hasta);
+        DatosSinteticos datos = new DatosSinteticos(estados(), categorias(), fin, dias, sesgo, semilla);
+        log.info("Generando {} historiales y {} fotos con {} hilos (semilla {}, fechas hasta {})",
+                cantidadHistoriales, cantidadFotos, hilos, semilla, fin);
+
+        long inicio = System.nanoTime();
+        insertar("historiales", cantidadHistoriales, (bloque, cantidad) -> {
+            List<Historial> historiales = datos.historiales(bloque, cantidad);
+            List<Long> indices = LongStream.range(bloque * tamanoBloque, bloque * tamanoBloque + cantidad).boxed().toList();
+            List<ResultadoLote.ErrorLote> errores = new ArrayList<>();
+            int insertados = historialService.saveBloqueImportacion(historiales, indices, errores);
+            if (!errores.isEmpty()) {
+                log.warn("Bloque {}: {} historiales rechazados, el primero: {}", bloque, errores.size(), errores.get(0).getMensaje());
+            }
+            return insertados;
+        });
+        insertar("fotos", cantidadFotos, (bloque, cantidad) -> {
+            fotoService.saveBloque(datos.fotos(bloque, cantidad));
+            return cantidad;
+        });
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        log.info("Generación terminada: {} filas en {} s ({} filas/s)", cantidadHistoriales + cantidadFotos,
+                String.format("%.1f", segundos), Math.round((cantidadHistoriales + cantidadFotos) / segundos));
+
+        if (salirAlTerminar) {
+            System.exit(SpringApplication.exit(contexto));
+        }
+    }
+
+    /**
+     * Usa los estados existentes o, si no hay, crea un conjunto típico. El orden por ID define cuál
+     * es el más frecuente.
+     */
+    private List<Estado> estados() {
+        if (estadoService.findAll().isEmpty()) {
+            for (String nombre : ESTADOS) {
+                estadoService.save(new Estado(0, nombre, "Estado generado para pruebas de rendimiento"));
+            }
+        }
+        return estadoService.findAll().stream().sorted(Comparator.comparingInt(Estado::getIdEstado)).toList();
+    }
+
+    private List<Categoria> categorias() {
+        if (categoriaService.findAll().isEmpty()) {
+            for (String nombre : CATEGORIAS) {
+                categoriaService.save(new Categoria(0, nombre, "Categoría generada para pruebas de rendimiento"));
+            }
+        }
+        return categoriaService.findAll().stream().sorted(Comparator.comparingInt(Categoria::getIdCategoria)).toList();
+    }
+
+    /**
+     * Inserta {@code total} filas en bloques repartidos entre los hilos, informando el avance cada
+     * cinco segundos. Si un bloque falla se cancelan los pendientes y se propaga el error.
+     */
+    private void insertar(String tipo, long total, InsercionBloque insercion) throws Exception {
+        if (total <= 0) {
+            return;
+        }
+        AtomicLong insertadas = new AtomicLong();
+        long inicio = System.nanoTime();
+        ExecutorService trabajadores = Executors.newFixedThreadPool(hilos);
+        ScheduledExecutorService avance = Executors.newSingleThreadScheduledExecutor();
+        avance.scheduleAtFixedRate(() -> log.info("{}: {}/{} ({} filas/s)", tipo, insertadas.get(), total,
+                Math.round(insertadas.get() / ((System.nanoTime() - inicio) / 1e9))), 5, 5, TimeUnit.SECONDS);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            long bloques = (total + tamanoBloque - 1) / tamanoBloque;
+            for (long bloque = 0; bloque < bloques; bloque++) {
+                long numero = bloque;
+                int cantidad = (int) Math.min(tamanoBloque, total - bloque * tamanoBloque);
+                tareas.add(trabajadores.submit(() -> insertadas.addAndGet(insercion.insertar(numero, cantidad))));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } catch (Exception e) {
+            trabajadores.shutdownNow();
+            throw e;
+        } finally {
+            avance.shutdownNow();
+            trabajadores.shutdown();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        log.info("{}: {} filas en {} s ({} filas/s)", tipo, insertadas.get(), String.format("%.1f", segundos),
+                Math.round(insertadas.get() / segundos));
+    }
+
+    @FunctionalInterface
+    private interface InsercionBloque {
+        int insertar(long bloque, int cantidad) throws Exception;
+    }
+}
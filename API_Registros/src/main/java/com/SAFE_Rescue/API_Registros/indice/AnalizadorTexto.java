@@ -0,0 +1,62 @@
+package com.SAFE_Rescue.API_Registros.indice;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Separa un texto en términos para el índice de texto completo.
+ * <p>
+ * El texto se convierte a minúsculas y se eliminan los acentos y diacríticos, de modo que
+ * "Camión" y "camion" producen el mismo término. Un término es una secuencia de letras, dígitos
+ * o guiones bajos, por lo que identificadores como {@code juan_perez} se conservan completos.
+ * No se eliminan palabras vacías, para que las frases se comparen tal como fueron escritas.
+ * </p>
+ */
+public final class AnalizadorTexto {
+
+    /**
+     * Longitud máxima de un término; los más largos se truncan.
+     */
+    public static final int LONGITUD_MAXIMA_TERMINO = 64;
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Pattern TERMINO = Pattern.compile("[\\p{L}\\p{N}_]+");
+
+    private AnalizadorTexto() {
+    }
+
+    /**
+     * Normaliza un texto: minúsculas y sin diacríticos.
+     *
+     * @param texto El texto a normalizar.
+     * @return El texto normalizado.
+     */
+    public static String normalizar(String texto) {
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        return DIACRITICOS.matcher(descompuesto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Obtiene los términos de un texto en el orden en que aparecen; la posición de cada término
+     * en la lista es su posición dentro del texto.
+     *
+     * @param texto El texto a analizar; {@code null} equivale a un texto vacío.
+     * @return Los términos normalizados.
+     */
+    public static List<String> terminos(String texto) {
+        List<String> terminos = new ArrayList<>();
+        if (texto == null) {
+            return terminos;
+        }
+        Matcher m = TERMINO.matcher(normalizar(texto));
+        while (m.find()) {
+            String termino = m.group();
+            terminos.add(termino.length() > LONGITUD_MAXIMA_TERMINO ? termino.substring(0, LONGITUD_MAXIMA_TERMINO) : termino);
+        }
+        return terminos;
+    }
+}
@@ -0,0 +1,18 @@
+package com.SAFE_Rescue.API_Registros.indice;
+
+/**
+ * Documentos en los que aparece un término (lista de apariciones o <i>postings</i>).
+ *
+ * @param documentos  Posiciones de los documentos dentro de su segmento, en orden ascendente.
+ * @param frecuencias Cantidad de veces que aparece el término en cada documento.
+ * @param posiciones  Posiciones del término dentro de cada documento, o {@code null} si no se
+ *                    solicitaron.
+ */
+record Apariciones(int[] documentos, int[] frecuencias, int[][] posiciones) {
+
+    static final Apariciones VACIAS = new Apariciones(new int[0], new int[0], new int[0][]);
+
+    int cantidad() {
+        return documentos.length;
+    }
+}
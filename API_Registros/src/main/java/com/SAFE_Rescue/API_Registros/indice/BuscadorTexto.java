@@ -0,0 +1,298 @@
+package com.SAFE_Rescue.API_Registros.indice;
+
+import com.SAFE_Rescue.API_Registros.dto.FiltroHistorial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Evalúa una {@link ConsultaTexto} sobre un conjunto de fuentes del índice.
+ * <p>
+ * Todas las cláusulas deben cumplirse. Cada fuente se evalúa empezando por la cláusula con menos
+ * documentos, de modo que las siguientes solo se cruzan con los candidatos que quedan. Los
+ * resultados se ponderan con BM25 usando las estadísticas de todas las fuentes, para que el puntaje
+ * no dependa de cómo están repartidos los documentos entre segmentos.
+ * </p>
+ */
+final class BuscadorTexto {
+
+    /**
+     * Cantidad máxima de términos en que se expande un prefijo.
+     */
+    static final int MAXIMO_EXPANSION_PREFIJO = 64;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final Comparator<ResultadoBusquedaTexto.Coincidencia> POR_RELEVANCIA =
+            Comparator.comparingDouble(ResultadoBusquedaTexto.Coincidencia::puntaje).reversed()
+                    .thenComparing(Comparator.comparingInt(ResultadoBusquedaTexto.Coincidencia::idHistorial).reversed());
+
+    private BuscadorTexto() {
+    }
+
+    /**
+     * Busca los registros que cumplen la consulta y el filtro.
+     *
+     * @param fuentes  Las fuentes del índice.
+     * @param consulta La consulta.
+     * @param filtro   Filtro por fecha, estado y categoría; los demás criterios se ignoran.
+     * @param tamano   Cantidad máxima de coincidencias a retornar.
+     * @return Las coincidencias mejor ponderadas y el total.
+     */
+    static ResultadoBusquedaTexto buscar(List<? extends FuenteIndice> fuentes, ConsultaTexto consulta,
+                                         FiltroHistorial filtro, int tamano) {
+        long cantidadDocumentos = 0;
+        long totalTerminos = 0;
+        for (FuenteIndice fuente : fuentes) {
+            cantidadDocumentos += fuente.cantidadDocumentos();
+            totalTerminos += fuente.totalTerminos();
+        }
+        if (cantidadDocumentos == 0) {
+            return new ResultadoBusquedaTexto(List.of(), 0);
+        }
+
+        List<Clausula> clausulas = new ArrayList<>();
+        for (ConsultaTexto.Clausula clausula : consulta.clausulas()) {
+            List<String> terminos = clausula.tipo() == ConsultaTexto.Tipo.PREFIJO
+                    ? expandir(fuentes, clausula.terminos().get(0))
+                    : clausula.terminos();
+            double[] idf = new double[terminos.size()];
+            for (int i = 0; i < terminos.size(); i++) {
+                long frecuencia = 0;
+                for (FuenteIndice fuente : fuentes) {
+                    frecuencia += fuente.frecuenciaDocumentos(terminos.get(i));
+                }
+                idf[i] = Math.log(1 + (cantidadDocumentos - frecuencia + 0.5) / (frecuencia + 0.5));
+            }
+            clausulas.add(new Clausula(clausula.tipo(), terminos, idf));
+        }
+
+        Ponderacion ponderacion = new Ponderacion((double) totalTerminos / cantidadDocumentos);
+        Filtro enIndice = Filtro.de(filtro);
+        long total = 0;
+        List<ResultadoBusquedaTexto.Coincidencia> candidatas = new ArrayList<>();
+        for (FuenteIndice fuente : fuentes) {
+            Parcial parcial = evaluar(fuente, clausulas, ponderacion);
+            PriorityQueue<ResultadoBusquedaTexto.Coincidencia> mejores = new PriorityQueue<>(POR_RELEVANCIA.reversed());
+            for (int i = 0; i < parcial.cantidad(); i++) {
+                int documento = parcial.documentos[i];
+                if (!enIndice.cumple(fuente, documento)) {
+                    continue;
+                }
+                total++;
+                mejores.add(new ResultadoBusquedaTexto.Coincidencia(fuente.idHistorial(documento), parcial.puntajes[i]));
+                if (mejores.size() > tamano) {
+                    mejores.poll();
+                }
+            }
+            candidatas.addAll(mejores);
+        }
+
+        // Un registro puede estar en dos fuentes mientras se escribe o reconstruye un segmento.
+        Map<Integer, ResultadoBusquedaTexto.Coincidencia> unicas = new HashMap<>();
+        for (ResultadoBusquedaTexto.Coincidencia candidata : candidatas) {
+            unicas.merge(candidata.idHistorial(), candidata, (a, b) -> a.puntaje() >= b.puntaje() ? a : b);
+        }
+        List<ResultadoBusquedaTexto.Coincidencia> coincidencias = new ArrayList<>(unicas.values());
+        coincidencias.sort(POR_RELEVANCIA);
+        return new ResultadoBusquedaTexto(
+                coincidencias.size() > tamano ? List.copyOf(coincidencias.subList(0, tamano)) : coincidencias, total);
+    }
+
+    private static List<String> expandir(List<? extends FuenteIndice> fuentes, String prefijo) {
+        TreeSet<String> terminos = new TreeSet<>();
+        for (FuenteIndice fuente : fuentes) {
+            terminos.addAll(fuente.terminosConPrefijo(prefijo, MAXIMO_EXPANSION_PREFIJO));
+        }
+        return terminos.stream().limit(MAXIMO_EXPANSION_PREFIJO).toList();
+    }
+
+    private static Parcial evaluar(FuenteIndice fuente, List<Clausula> clausulas, Ponderacion ponderacion) {
+        List<Clausula> ordenadas = new ArrayList<>(clausulas);
+        ordenadas.sort(Comparator.comparingLong(c -> c.costo(fuente)));
+        Parcial acumulado = null;
+        for (Clausula clausula : ordenadas) {
+            Parcial parcial = switch (clausula.tipo) {
+                case TERMINO -> termino(fuente, clausula, 0, ponderacion);
+                case PREFIJO -> prefijo(fuente, clausula, ponderacion);
+                case FRASE -> frase(fuente, clausula, ponderacion);
+            };
+            acumulado = acumulado == null ? parcial : Parcial.interseccion(acumulado, parcial);
+            if (acumulado.cantidad() == 0) {
+                break;
+            }
+        }
+        return acumulado;
+    }
+
+    private static Parcial termino(FuenteIndice fuente, Clausula clausula, int indice, Ponderacion ponderacion) {
+        Apariciones apariciones = fuente.apariciones(clausula.terminos.get(indice), false);
+        double[] puntajes = new double[apariciones.cantidad()];
+        for (int i = 0; i < puntajes.length; i++) {
+            puntajes[i] = ponderacion.bm25(clausula.idf[indice], apariciones.frecuencias()[i],
+                    fuente.longitud(apariciones.documentos()[i]));
+        }
+        return new Parcial(apariciones.documentos(), puntajes, puntajes.length);
+    }
+
+    private static Parcial prefijo(FuenteIndice fuente, Clausula clausula, Ponderacion ponderacion) {
+        Parcial acumulado = Parcial.VACIO;
+        for (int i = 0; i < clausula.terminos.size(); i++) {
+            acumulado = Parcial.union(acumulado, termino(fuente, clausula, i, ponderacion));
+        }
+        return acumulado;
+    }
+
+    /**
+     * Documentos donde los términos aparecen seguidos y en orden. La frecuencia usada en la
+     * ponderación es la cantidad de veces que aparece la frase completa.
+     */
+    private static Parcial frase(FuenteIndice fuente, Clausula clausula, Ponderacion ponderacion) {
+        Apariciones primera = fuente.apariciones(clausula.terminos.get(0), true);
+        int[] documentos = primera.documentos();
+        int[][] inicios = primera.posiciones();
+        int cantidad = primera.cantidad();
+        for (int t = 1; t < clausula.terminos.size() && cantidad > 0; t++) {
+            Apariciones siguiente = fuente.apariciones(clausula.terminos.get(t), true);
+            int[] nuevosDocumentos = new int[Math.min(cantidad, siguiente.cantidad())];
+            int[][] nuevosInicios = new int[nuevosDocumentos.length][];
+            int n = 0;
+            for (int i = 0, j = 0; i < cantidad && j < siguiente.cantidad(); ) {
+                if (documentos[i] < siguiente.documentos()[j]) {
+                    i++;
+                } else if (documentos[i] > siguiente.documentos()[j]) {
+                    j++;
+                } else {
+                    int[] alineados = alinear(inicios[i], siguiente.posiciones()[j], t);
+                    if (alineados.length > 0) {
+                        nuevosDocumentos[n] = documentos[i];
+                        nuevosInicios[n++] = alineados;
+                    }
+                    i++;
+                    j++;
+                }
+            }
+            documentos = nuevosDocumentos;
+            inicios = nuevosInicios;
+            cantidad = n;
+        }
+        double[] puntajes = new double[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            int longitud = fuente.longitud(documentos[i]);
+            for (double idf : clausula.idf) {
+                puntajes[i] += ponderacion.bm25(idf, inicios[i].length, longitud);
+            }
+        }
+        return new Parcial(documentos, puntajes, cantidad);
+    }
+
+    /**
+     * Conserva los inicios de frase {@code p} tales que el término siguiente aparece en {@code p + desplazamiento}.
+     */
+    private static int[] alinear(int[] inicios, int[] posiciones, int desplazamiento) {
+        int[] alineados = new int[inicios.length];
+        int n = 0;
+        for (int inicio : inicios) {
+            if (Arrays.binarySearch(posiciones, inicio + desplazamiento) >= 0) {
+                alineados[n++] = inicio;
+            }
+        }
+        return Arrays.copyOf(alineados, n);
+    }
+
+    private record Clausula(ConsultaTexto.Tipo tipo, List<String> terminos, double[] idf) {
+
+        /**
+         * Documentos de la cláusula en la fuente, para evaluar primero la más selectiva.
+         */
+        long costo(FuenteIndice fuente) {
+            long costo = tipo == ConsultaTexto.Tipo.PREFIJO ? 0 : Long.MAX_VALUE;
+            for (String termino : terminos) {
+                long frecuencia = fuente.frecuenciaDocumentos(termino);
+                costo = tipo == ConsultaTexto.Tipo.PREFIJO ? costo + frecuencia : Math.min(costo, frecuencia);
+            }
+            return costo;
+        }
+    }
+
+    private record Ponderacion(double longitudPromedio) {
+
+        double bm25(double idf, int frecuencia, int longitud) {
+            return idf * frecuencia * (K1 + 1) / (frecuencia + K1 * (1 - B + B * longitud / longitudPromedio));
+        }
+    }
+
+    private record Filtro(long desde, long hasta, Integer estadoId, Integer categoriaId) {
+
+        static Filtro de(FiltroHistorial filtro) {
+            return new Filtro(
+                    filtro.getDesde() == null ? Long.MIN_VALUE : DocumentoTexto.aMicros(filtro.getDesde()),
+                    filtro.getHasta() == null ? Long.MAX_VALUE : DocumentoTexto.aMicros(filtro.getHasta()),
+                    filtro.getEstadoId(), filtro.getCategoriaId());
+        }
+
+        boolean cumple(FuenteIndice fuente, int documento) {
+            if (desde != Long.MIN_VALUE || hasta != Long.MAX_VALUE) {
+                long fecha = fuente.fechaMicros(documento);
+                if (fecha < desde || fecha >= hasta) {
+                    return false;
+                }
+            }
+            return (estadoId == null || estadoId == fuente.idEstado(documento))
+                    && (categoriaId == null || categoriaId == fuente.idCategoria(documento));
+        }
+    }
+
+    /**
+     * Documentos de una fuente, en orden ascendente, con su puntaje acumulado.
+     */
+    private record Parcial(int[] documentos, double[] puntajes, int cantidad) {
+
+        static final Parcial VACIO = new Parcial(new int[0], new double[0], 0);
+
+        static Parcial interseccion(Parcial a, Parcial b) {
+            int[] documentos = new int[Math.min(a.cantidad, b.cantidad)];
+            double[] puntajes = new double[documentos.length];
+            int n = 0;
+            for (int i = 0, j = 0; i < a.cantidad && j < b.cantidad; ) {
+                if (a.documentos[i] < b.documentos[j]) {
+                    i++;
+                } else if (a.documentos[i] > b.documentos[j]) {
+                    j++;
+                } else {
+                    documentos[n] = a.documentos[i];
+                    puntajes[n++] = a.puntajes[i++] + b.puntajes[j++];
+                }
+            }
+            return new Parcial(documentos, puntajes, n);
+        }
+
+        static Parcial union(Parcial a, Parcial b) {
+            int[] documentos = new int[a.cantidad + b.cantidad];
+            double[] puntajes = new double[documentos.length];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < a.cantidad || j < b.cantidad) {
+                if (j == b.cantidad || (i < a.cantidad && a.documentos[i] < b.documentos[j])) {
+                    documentos[n] = a.documentos[i];
+                    puntajes[n++] = a.puntajes[i++];
+                } else if (i == a.cantidad || a.documentos[i] > b.documentos[j]) {
+                    documentos[n] = b.documentos[j];
+                    puntajes[n++] = b.puntajes[j++];
+                } else {
+                    documentos[n] = a.documentos[i];
+                    puntajes[n++] = a.puntajes[i++] + b.puntajes[j++];
+                }
+            }
+            return new Parcial(documentos, puntajes, n);
+        }
+    }
+}
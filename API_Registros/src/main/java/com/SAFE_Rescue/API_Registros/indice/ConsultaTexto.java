@@ -0,0 +1,103 @@
+package com.SAFE_Rescue.API_Registros.indice;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consulta de texto completo: una lista de cláusulas que deben cumplirse todas.
+ * <p>
+ * Sintaxis: las palabras sueltas son términos ({@code alerta}), el texto entre comillas es una
+ * frase ({@code "cambió el estado"}) y una palabra terminada en {@code *} es un prefijo
+ * ({@code juan*}). Una palabra que el analizador separa en varios términos (ej. {@code juan-perez})
+ * se trata como frase.
+ * </p>
+ *
+ * @param clausulas Las cláusulas de la consulta.
+ */
+public record ConsultaTexto(List<Clausula> clausulas) {
+
+    /**
+     * Cantidad máxima de cláusulas por consulta.
+     */
+    public static final int MAXIMO_CLAUSULAS = 16;
+
+    /**
+     * Longitud mínima de un prefijo, para acotar la cantidad de términos que abarca.
+     */
+    public static final int LONGITUD_MINIMA_PREFIJO = 2;
+
+    /**
+     * Tipo de cláusula.
+     */
+    public enum Tipo {
+        TERMINO, FRASE, PREFIJO
+    }
+
+    /**
+     * Cláusula de una consulta.
+     *
+     * @param tipo     El tipo de cláusula.
+     * @param terminos Los términos normalizados; uno solo salvo en las frases.
+     */
+    public record Clausula(Tipo tipo, List<String> terminos) {
+    }
+
+    /**
+     * Interpreta el texto de una consulta.
+     *
+     * @param texto El texto ingresado por el usuario.
+     * @return La consulta interpretada.
+     * @throws IllegalArgumentException Si la consulta está vacía, tiene comillas sin cerrar,
+     * un prefijo demasiado corto o demasiadas cláusulas.
+     */
+    public static ConsultaTexto parsear(String texto) {
+        List<Clausula> clausulas = new ArrayList<>();
+        String entrada = texto == null ? "" : texto.trim();
+        int i = 0;
+        while (i < entrada.length()) {
+            char c = entrada.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"') {
+                int cierre = entrada.indexOf('"', i + 1);
+                if (cierre < 0) {
+                    throw new IllegalArgumentException("La consulta tiene comillas sin cerrar.");
+                }
+                agregar(clausulas, AnalizadorTexto.terminos(entrada.substring(i + 1, cierre)));
+                i = cierre + 1;
+            } else {
+                int fin = i;
+                while (fin < entrada.length() && !Character.isWhitespace(entrada.charAt(fin)) && entrada.charAt(fin) != '"') {
+                    fin++;
+                }
+                String palabra = entrada.substring(i, fin);
+                if (palabra.endsWith("*")) {
+                    List<String> terminos = AnalizadorTexto.terminos(palabra.substring(0, palabra.length() - 1));
+                    if (terminos.size() != 1 || terminos.get(0).length() < LONGITUD_MINIMA_PREFIJO) {
+                        throw new IllegalArgumentException("El prefijo '" + palabra + "' debe tener al menos "
+                                + LONGITUD_MINIMA_PREFIJO + " letras o dígitos.");
+                    }
+                    clausulas.add(new Clausula(Tipo.PREFIJO, terminos));
+                } else {
+                    agregar(clausulas, AnalizadorTexto.terminos(palabra));
+                }
+                i = fin;
+            }
+        }
+        if (clausulas.isEmpty()) {
+            throw new IllegalArgumentException("La consulta no contiene términos.");
+        }
+        if (clausulas.size() > MAXIMO_CLAUSULAS) {
+            throw new IllegalArgumentException("La consulta no puede tener más de " + MAXIMO_CLAUSULAS + " cláusulas.");
+        }
+        return new ConsultaTexto(List.copyOf(clausulas));
+    }
+
+    private static void agregar(List<Clausula> clausulas, List<String> terminos) {
+        if (terminos.size() == 1) {
+            clausulas.add(new Clausula(Tipo.TERMINO, terminos));
+        } else if (terminos.size() > 1) {
+            clausulas.add(new Clausula(Tipo.FRASE, List.copyOf(terminos)));
+        }
+    }
+}
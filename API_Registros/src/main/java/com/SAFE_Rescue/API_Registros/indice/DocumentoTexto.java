@@ -0,0 +1,41 @@
+package com.SAFE_Rescue.API_Registros.indice;
+
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Datos de un registro de historial que se incorporan al índice de texto completo: el detalle
+ * y los campos por los que se puede filtrar una búsqueda.
+ *
+ * @param idHistorial    El ID del registro.
+ * @param fechaHistorial La fecha del registro.
+ * @param idEstado       El ID del estado asociado.
+ * @param idCategoria    El ID de la categoría asociada.
+ * @param detalle        El texto indexado.
+ */
+public record DocumentoTexto(int idHistorial, LocalDateTime fechaHistorial, int idEstado, int idCategoria, String detalle) {
+
+    /**
+     * Obtiene el documento de un registro de historial.
+     *
+     * @param historial El registro, con su estado y categoría asignados.
+     * @return El documento a indexar.
+     */
+    public static DocumentoTexto de(Historial historial) {
+        return new DocumentoTexto(historial.getIdHistorial(), historial.getFechaHistorial(),
+                historial.getEstado().getIdEstado(), historial.getCategoria().getIdCategoria(), historial.getDetalle());
+    }
+
+    /**
+     * Convierte una fecha a microsegundos desde la época, la representación usada en los segmentos.
+     *
+     * @param fecha La fecha a convertir.
+     * @return Los microsegundos desde 1970-01-01T00:00 UTC.
+     */
+    static long aMicros(LocalDateTime fecha) {
+        return ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), fecha);
+    }
+}
@@ -0,0 +1,57 @@
+package com.SAFE_Rescue.API_Registros.indice;
+
+import java.util.List;
+
+/**
+ * Conjunto de documentos indexados que se puede consultar: un segmento en disco
+ * ({@link SegmentoIndice}) o el búfer en memoria de los registros recientes ({@link SegmentoMemoria}).
+ * Los documentos se identifican por su posición dentro de la fuente.
+ */
+interface FuenteIndice {
+
+    int cantidadDocumentos();
+
+    /**
+     * Suma de las longitudes de todos los documentos, para calcular la longitud promedio.
+     */
+    long totalTerminos();
+
+    int idHistorial(int documento);
+
+    long fechaMicros(int documento);
+
+    int idEstado(int documento);
+
+    int idCategoria(int documento);
+
+    int longitud(int documento);
+
+    /**
+     * Todos los términos de la fuente, en orden alfabético.
+     */
+    List<String> terminos();
+
+    /**
+     * Cantidad de documentos que contienen el término.
+     */
+    int frecuenciaDocumentos(String termino);
+
+    /**
+     * Apariciones del término, o {@link Apariciones#VACIAS} si no está en la fuente.
+     *
+     * @param conPosiciones Si deben incluirse las posiciones, necesarias para las frases.
+     */
+    Apariciones apariciones(String termino, boolean conPosiciones);
+
+    /**
+     * Términos de la fuente que comienzan con el prefijo, en orden alfabético.
+     *
+     * @param maximo Cantidad máxima de términos a retornar.
+     */
+    List<String> terminosConPrefijo(String prefijo, int maximo);
+
+    /**
+     * Indica si la fuente contiene el registro con el ID indicado.
+     */
+    boolean contiene(int idHistorial);
+}
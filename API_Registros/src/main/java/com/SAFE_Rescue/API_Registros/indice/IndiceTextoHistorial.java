@@ -0,0 +1,480 @@
+package com.SAFE_Rescue.API_Registros.indice;
+
+import com.SAFE_Rescue.API_Registros.dto.FiltroHistorial;
+import com.SAFE_Rescue.API_Registros.dto.HistorialesGuardados;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Índice de texto completo sobre el detalle de los registros de {@link Historial}, guardado en disco local.
+ * <p>
+ * Solo existe si {@code registros.historial.texto.habilitado=true}. Los registros confirmados se
+ * agregan a un búfer en memoria que se consulta de inmediato; cuando el búfer alcanza
+ * {@code documentos-por-segmento} se escribe como un {@link SegmentoIndice} inmutable. Si hay más de
+ * {@code maximo-segmentos} segmentos, los más pequeños se combinan en uno.
+ * </p>
+ * <p>
+ * Un archivo {@code manifiesto} enumera los segmentos vigentes y el último ID indexado; se reemplaza
+ * de forma atómica, y los segmentos que no figuran en él se eliminan al iniciar. Al iniciar también
+ * se indexan los registros posteriores a ese ID, por lo que el índice se completa solo después de una
+ * detención abrupta o la primera vez que se habilita. Las escrituras a disco, combinaciones y
+ * reconstrucciones se ejecutan en un único hilo de fondo.
+ * </p>
+ * <p>
+ * El índice es un dato derivado: {@link #reconstruir()} lo vuelve a generar desde la tabla
+ * {@code historial}. Los registros eliminados se descartan al recuperar los resultados.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "registros.historial.texto.habilitado", havingValue = "true")
+public class IndiceTextoHistorial {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceTextoHistorial.class);
+
+    private static final String MANIFIESTO = "manifiesto";
+    private static final String EXTENSION = ".hix";
+    private static final String PREFIJO_ULTIMO_ID = "ultimoId=";
+    private static final String PREFIJO_SEGMENTO = "segmento=";
+    private static final int FILAS_POR_LECTURA = 1000;
+
+    private final HistorialRepository historialRepository;
+    private final Path directorio;
+    private final int documentosPorSegmento;
+    private final int maximoSegmentos;
+    private final ExecutorService tareas = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "historial-indice-texto");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private final AtomicBoolean reconstruyendo = new AtomicBoolean();
+
+    /**
+     * Fuentes vigentes. Se reemplaza completo en cada cambio, de modo que una búsqueda trabaja
+     * siempre sobre una combinación coherente.
+     */
+    private volatile Estado estado = new Estado(List.of(), List.of(), new SegmentoMemoria());
+    private long ultimoSegmento;
+
+    /**
+     * Constructor para la inyección de dependencias (Inyección por Constructor).
+     *
+     * @param historialRepository   El repositorio de historiales, para completar y reconstruir el índice.
+     * @param directorio            Directorio donde se guardan los segmentos.
+     * @param documentosPorSegmento Cantidad de registros del búfer en memoria antes de escribirlo a disco.
+     * @param maximoSegmentos       Cantidad de segmentos a partir de la cual se combinan.
+     */
+    public IndiceTextoHistorial(HistorialRepository historialRepository,
+                                @Value("${registros.historial.texto.directorio:./datos/indice-historial}") String directorio,
+                                @Value("${registros.historial.texto.documentos-por-segmento:100000}") int documentosPorSegmento,
+                                @Value("${registros.historial.texto.maximo-segmentos:10}") int maximoSegmentos) {
+        this.historialRepository = historialRepository;
+        this.directorio = Paths.get(directorio);
+        this.documentosPorSegmento = documentosPorSegmento;
+        this.maximoSegmentos = Math.max(2, maximoSegmentos);
+    }
+
+    /**
+     * Abre los segmentos del manifiesto, elimina los archivos huérfanos y programa la indexación
+     * de los registros posteriores al último ID indexado.
+     *
+     * @throws IOException Si el directorio o algún segmento no se puede leer.
+     */
+    @PostConstruct
+    public void abrir() throws IOException {
+        Files.createDirectories(directorio);
+        int ultimoId = 0;
+        Set<String> vigentes = new HashSet<>();
+        Path manifiesto = directorio.resolve(MANIFIESTO);
+        if (Files.exists(manifiesto)) {
+            for (String linea : Files.readAllLines(manifiesto, StandardCharsets.UTF_8)) {
+                if (linea.startsWith(PREFIJO_ULTIMO_ID)) {
+                    ultimoId = Integer.parseInt(linea.substring(PREFIJO_ULTIMO_ID.length()));
+                } else if (linea.startsWith(PREFIJO_SEGMENTO)) {
+                    vigentes.add(linea.substring(PREFIJO_SEGMENTO.length()));
+                }
+            }
+        }
+
+        List<SegmentoIndice> segmentos = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio)) {
+            for (Path archivo : archivos) {
+                String nombre = archivo.getFileName().toString();
+                if (nombre.endsWith(EXTENSION) && vigentes.contains(nombre)) {
+                    segmentos.add(SegmentoIndice.abrir(archivo));
+                    ultimoSegmento = Math.max(ultimoSegmento, numero(nombre));
+                } else if (nombre.endsWith(EXTENSION) || nombre.endsWith(".tmp")) {
+                    Files.delete(archivo);
+                }
+            }
+        }
+        estado = new Estado(List.copyOf(segmentos), List.of(), new SegmentoMemoria());
+        log.info("Índice de texto de historial abierto: {} segmentos, {} registros", segmentos.size(),
+                segmentos.stream().mapToLong(SegmentoIndice::cantidadDocumentos).sum());
+
+        int desde = ultimoId;
+        tareas.execute(() -> ponerAlDia(desde));
+    }
+
+    /**
+     * Agrega al índice los registros insertados, una vez confirmada su transacción.
+     *
+     * @param evento Los registros insertados.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void indexar(HistorialesGuardados evento) {
+        for (Historial historial : evento.historiales()) {
+            agregar(DocumentoTexto.de(historial));
+        }
+    }
+
+    /**
+     * Busca registros por el texto de su detalle.
+     *
+     * @param consulta La consulta de texto.
+     * @param filtro   Filtro por fecha, estado y categoría; los demás criterios se ignoran.
+     * @param tamano   Cantidad máxima de coincidencias a retornar.
+     * @return Los ID de los registros más relevantes y el total de coincidencias.
+     */
+    public ResultadoBusquedaTexto buscar(ConsultaTexto consulta, FiltroHistorial filtro, int tamano) {
+        return BuscadorTexto.buscar(estado.fuentes(), consulta, filtro, tamano);
+    }
+
+    /**
+     * Cantidad de registros indexados, incluidos los que aún están en memoria.
+     *
+     * @return La cantidad de registros.
+     */
+    public long getCantidadDocumentos() {
+        return estado.fuentes().stream().mapToLong(FuenteIndice::cantidadDocumentos).sum();
+    }
+
+    /**
+     * Indica si hay una reconstrucción en curso.
+     *
+     * @return {@code true} mientras se reconstruye el índice.
+     */
+    public boolean isReconstruyendo() {
+        return reconstruyendo.get();
+    }
+
+    /**
+     * Programa la reconstrucción completa del índice desde la tabla {@code historial}.
+     * <p>
+     * Mientras se reconstruye, las búsquedas siguen usando el índice anterior junto con los registros
+     * nuevos. Al terminar, los segmentos anteriores se reemplazan por los reconstruidos.
+     * </p>
+     *
+     * @throws IllegalStateException Si ya hay una reconstrucción en curso.
+     */
+    public void reconstruir() {
+        if (!reconstruyendo.compareAndSet(false, true)) {
+            throw new IllegalStateException("Ya hay una reconstrucción del índice de texto en curso.");
+        }
+        if (tareas.isShutdown()) {
+            reconstruyendo.set(false);
+            throw new IllegalStateException("El índice de texto se está cerrando.");
+        }
+        tareas.execute(() -> {
+            Estado inicial = congelar();
+            try {
+                reemplazarPorReconstruccion(inicial);
+            } catch (IOException | RuntimeException e) {
+                log.error("No fue posible reconstruir el índice de texto de historial", e);
+                inicial.pendientes().forEach(memoria -> tareas.execute(() -> escribir(memoria)));
+            } finally {
+                reconstruyendo.set(false);
+            }
+        });
+    }
+
+    /**
+     * Espera las tareas pendientes y escribe a disco los registros que aún están en memoria.
+     *
+     * @throws InterruptedException Si el hilo que detiene la aplicación es interrumpido mientras espera.
+     */
+    @PreDestroy
+    public void cerrar() throws InterruptedException {
+        tareas.shutdown();
+        if (!tareas.awaitTermination(30, TimeUnit.SECONDS)) {
+            tareas.shutdownNow();
+            tareas.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        synchronized (this) {
+            List<SegmentoMemoria> memoria = new ArrayList<>(estado.pendientes());
+            memoria.add(estado.activo());
+            memoria.removeIf(m -> m.cantidadDocumentos() == 0);
+            if (memoria.isEmpty()) {
+                return;
+            }
+            try {
+                SegmentoIndice segmento = SegmentoIndice.fusionar(nuevoArchivo(), memoria);
+                estado = new Estado(con(estado.segmentos(), segmento), List.of(), new SegmentoMemoria());
+                guardarManifiesto();
+            } catch (IOException e) {
+                log.error("No fue posible guardar el índice de texto de historial; se completará al iniciar", e);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // INDEXACIÓN
+    // -------------------------------------------------------------------------
+
+    private synchronized void agregar(DocumentoTexto documento) {
+        for (FuenteIndice fuente : estado.fuentes()) {
+            if (fuente.contiene(documento.idHistorial())) {
+                return;
+            }
+        }
+        estado.activo().agregar(documento);
+        if (estado.activo().cantidadDocumentos() >= documentosPorSegmento) {
+            rotar();
+        }
+    }
+
+    /**
+     * Reemplaza el búfer activo por uno vacío y programa su escritura a disco.
+     */
+    private synchronized void rotar() {
+        SegmentoMemoria lleno = estado.activo();
+        if (lleno.cantidadDocumentos() == 0) {
+            return;
+        }
+        estado = new Estado(estado.segmentos(), con(estado.pendientes(), lleno), new SegmentoMemoria());
+        if (!tareas.isShutdown()) {
+            tareas.execute(() -> escribir(lleno));
+        }
+    }
+
+    /**
+     * Pasa el búfer activo a la lista de pendientes sin programar su escritura, para que una
+     * reconstrucción lo reemplace.
+     *
+     * @return El estado con todos los registros indexados hasta ahora fuera del búfer activo.
+     */
+    private synchronized Estado congelar() {
+        if (estado.activo().cantidadDocumentos() > 0) {
+            estado = new Estado(estado.segmentos(), con(estado.pendientes(), estado.activo()), new SegmentoMemoria());
+        }
+        return estado;
+    }
+
+    /**
+     * Indexa los registros con ID mayor al indicado que todavía no están en el índice.
+     */
+    private void ponerAlDia(int ultimoId) {
+        int desde = ultimoId;
+        long agregados = 0;
+        List<DocumentoTexto> bloque;
+        try {
+            while (!Thread.currentThread().isInterrupted()
+                    && !(bloque = historialRepository.findParaIndexar(desde, Limit.of(FILAS_POR_LECTURA))).isEmpty()) {
+                for (DocumentoTexto documento : bloque) {
+                    agregar(documento);
+                }
+                agregados += bloque.size();
+                desde = bloque.get(bloque.size() - 1).idHistorial();
+            }
+        } catch (RuntimeException e) {
+            log.error("No fue posible completar el índice de texto de historial desde el ID {}", desde, e);
+        }
+        if (agregados > 0) {
+            log.info("Índice de texto de historial: {} registros posteriores al ID {} revisados", agregados, ultimoId);
+        }
+    }
+
+    private void escribir(SegmentoMemoria memoria) {
+        if (!estado.pendientes().contains(memoria)) {
+            return;
+        }
+        try {
+            SegmentoIndice segmento = SegmentoIndice.fusionar(nuevoArchivo(), List.of(memoria));
+            synchronized (this) {
+                if (!estado.pendientes().contains(memoria)) {
+                    Files.deleteIfExists(segmento.getArchivo());
+                    return;
+                }
+                estado = new Estado(con(estado.segmentos(), segmento), sin(estado.pendientes(), List.of(memoria)), estado.activo());
+                guardarManifiesto();
+            }
+            combinar();
+        } catch (IOException e) {
+            // El búfer sigue en memoria y se intentará guardar nuevamente al detener la aplicación.
+            log.error("No fue posible escribir un segmento del índice de texto de historial", e);
+        }
+    }
+
+    /**
+     * Combina los segmentos más pequeños mientras haya más que el máximo configurado.
+     */
+    private void combinar() throws IOException {
+        while (estado.segmentos().size() > maximoSegmentos) {
+            List<SegmentoIndice> ordenados = new ArrayList<>(estado.segmentos());
+            ordenados.sort(Comparator.comparingInt(SegmentoIndice::cantidadDocumentos));
+            List<SegmentoIndice> elegidos = new ArrayList<>();
+            long documentos = 0;
+            int cantidad = ordenados.size() - maximoSegmentos + 1;
+            for (SegmentoIndice segmento : ordenados) {
+                if (elegidos.size() >= Math.max(2, cantidad)
+                        || documentos + segmento.cantidadDocumentos() > SegmentoIndice.MAXIMO_DOCUMENTOS) {
+                    break;
+                }
+                elegidos.add(segmento);
+                documentos += segmento.cantidadDocumentos();
+            }
+            if (elegidos.size() < 2) {
+                return;
+            }
+            SegmentoIndice combinado = SegmentoIndice.fusionar(nuevoArchivo(), elegidos);
+            synchronized (this) {
+                estado = new Estado(con(sin(estado.segmentos(), elegidos), combinado), estado.pendientes(), estado.activo());
+                guardarManifiesto();
+            }
+            for (SegmentoIndice segmento : elegidos) {
+                Files.deleteIfExists(segmento.getArchivo());
+            }
+        }
+    }
+
+    /**
+     * Genera los segmentos desde la tabla y reemplaza con ellos los segmentos y búferes que existían
+     * al iniciar la reconstrucción. Los registros agregados después siguen en el índice; los búferes
+     * reemplazados ya no se escriben porque dejan de figurar entre los pendientes.
+     */
+    private void reemplazarPorReconstruccion(Estado inicial) throws IOException {
+        List<SegmentoIndice> reconstruidos = new ArrayList<>();
+        SegmentoMemoria bloque = new SegmentoMemoria();
+        int desde = 0;
+        List<DocumentoTexto> filas;
+        try {
+            while (!(filas = historialRepository.findParaIndexar(desde, Limit.of(FILAS_POR_LECTURA))).isEmpty()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IOException("Reconstrucción del índice de texto interrumpida.");
+                }
+                for (DocumentoTexto fila : filas) {
+                    bloque.agregar(fila);
+                }
+                desde = filas.get(filas.size() - 1).idHistorial();
+                if (bloque.cantidadDocumentos() >= documentosPorSegmento) {
+                    reconstruidos.add(SegmentoIndice.fusionar(nuevoArchivo(), List.of(bloque)));
+                    bloque = new SegmentoMemoria();
+                }
+            }
+            if (bloque.cantidadDocumentos() > 0) {
+                reconstruidos.add(SegmentoIndice.fusionar(nuevoArchivo(), List.of(bloque)));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (SegmentoIndice segmento : reconstruidos) {
+                Files.deleteIfExists(segmento.getArchivo());
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            List<SegmentoIndice> segmentos = new ArrayList<>(reconstruidos);
+            segmentos.addAll(sin(estado.segmentos(), inicial.segmentos()));
+            estado = new Estado(List.copyOf(segmentos), sin(estado.pendientes(), inicial.pendientes()), estado.activo());
+            guardarManifiesto();
+        }
+        for (SegmentoIndice segmento : inicial.segmentos()) {
+            Files.deleteIfExists(segmento.getArchivo());
+        }
+        log.info("Índice de texto de historial reconstruido: {} registros en {} segmentos",
+                reconstruidos.stream().mapToLong(SegmentoIndice::cantidadDocumentos).sum(), reconstruidos.size());
+        combinar();
+    }
+
+    // -------------------------------------------------------------------------
+    // ARCHIVOS
+    // -------------------------------------------------------------------------
+
+    private synchronized Path nuevoArchivo() {
+        return directorio.resolve(String.format("segmento-%010d%s", ++ultimoSegmento, EXTENSION));
+    }
+
+    /**
+     * Reemplaza el manifiesto con los segmentos vigentes. El último ID indexado es el mayor ID en
+     * disco, salvo que algún registro anterior siga solo en memoria.
+     */
+    private synchronized void guardarManifiesto() throws IOException {
+        int ultimoId = 0;
+        List<String> lineas = new ArrayList<>();
+        for (SegmentoIndice segmento : estado.segmentos()) {
+            ultimoId = Math.max(ultimoId, segmento.idMaximo());
+            lineas.add(PREFIJO_SEGMENTO + segmento.getArchivo().getFileName());
+        }
+        for (SegmentoMemoria memoria : estado.memoria()) {
+            if (memoria.cantidadDocumentos() > 0) {
+                ultimoId = Math.min(ultimoId, memoria.idMinimo() - 1);
+            }
+        }
+        lineas.add(0, PREFIJO_ULTIMO_ID + Math.max(0, ultimoId));
+        Path temporal = directorio.resolve(MANIFIESTO + ".tmp");
+        Files.write(temporal, lineas, StandardCharsets.UTF_8);
+        Files.move(temporal, directorio.resolve(MANIFIESTO), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static long numero(String nombre) {
+        try {
+            return Long.parseLong(nombre.substring(nombre.indexOf('-') + 1, nombre.length() - EXTENSION.length()));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private static <T> List<T> con(List<T> lista, T elemento) {
+        List<T> resultado = new ArrayList<>(lista);
+        resultado.add(elemento);
+        return List.copyOf(resultado);
+    }
+
+    private static <T> List<T> sin(List<T> lista, List<T> quitar) {
+        List<T> resultado = new ArrayList<>(lista);
+        resultado.removeIf(elemento -> quitar.stream().anyMatch(q -> q == elemento));
+        return List.copyOf(resultado);
+    }
+
+    /**
+     * Segmentos en disco, búferes llenos en espera de escribirse y búfer activo.
+     */
+    private record Estado(List<SegmentoIndice> segmentos, List<SegmentoMemoria> pendientes, SegmentoMemoria activo) {
+
+        List<SegmentoMemoria> memoria() {
+            return con(pendientes, activo);
+        }
+
+        List<FuenteIndice> fuentes() {
+            List<FuenteIndice> fuentes = new ArrayList<>(segmentos);
+            fuentes.addAll(pendientes);
+            fuentes.add(activo);
+            return fuentes;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.SAFE_Rescue.API_Registros.indice;
+
+import java.util.List;
+
+/**
+ * Resultado de una búsqueda en el índice de texto completo.
+ *
+ * @param coincidencias Los registros mejor ponderados, de mayor a menor puntaje.
+ * @param total         Cantidad total de registros que cumplen la consulta y los filtros.
+ */
+public record ResultadoBusquedaTexto(List<Coincidencia> coincidencias, long total) {
+
+    /**
+     * Registro que cumple la consulta.
+     *
+     * @param idHistorial El ID del registro.
+     * @param puntaje     La relevancia del registro (BM25); mayor es más relevante.
+     */
+    public record Coincidencia(int idHistorial, double puntaje) {
+    }
+}
@@ -0,0 +1,453 @@
+package com.SAFE_Rescue.API_Registros.indice;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Segmento inmutable del índice de texto completo, guardado en un archivo local.
+ * <p>
+ * Estructura del archivo:
+ * </p>
+ * <ol>
+ *     <li><b>Encabezado</b>: firma {@code HIX1}, cantidad de documentos, cantidad de términos, suma de
+ *     las longitudes y posiciones de inicio de las apariciones y del diccionario.</li>
+ *     <li><b>Documentos</b>: 24 bytes por documento, ordenados por ID de historial: ID, fecha en
+ *     microsegundos, ID de estado, ID de categoría y cantidad de términos. Permiten filtrar y
+ *     ponderar sin consultar la base de datos.</li>
+ *     <li><b>Apariciones</b>: por cada término, los documentos que lo contienen como diferencias
+ *     sucesivas, la frecuencia y las posiciones, todo en enteros de longitud variable.</li>
+ *     <li><b>Diccionario</b>: los términos en orden alfabético con su frecuencia de documentos y la
+ *     posición de sus apariciones. Es lo único que se carga en memoria al abrir el segmento.</li>
+ * </ol>
+ * <p>
+ * El resto del archivo se proyecta en memoria ({@link MappedByteBuffer}), por lo que una consulta
+ * solo lee las páginas de los términos que utiliza. Un segmento no puede superar los 2 GB.
+ * </p>
+ */
+public final class SegmentoIndice implements FuenteIndice {
+
+    /**
+     * Cantidad máxima de documentos de un segmento.
+     */
+    public static final int MAXIMO_DOCUMENTOS = 0xFFFFFF;
+
+    private static final int MAXIMO_FUENTES = 0xFF;
+    private static final byte[] FIRMA = {'H', 'I', 'X', '1'};
+    private static final int TAMANO_ENCABEZADO = 36;
+    private static final int TAMANO_DOCUMENTO = 24;
+
+    private final Path archivo;
+    private final ByteBuffer contenido;
+    private final int cantidadDocumentos;
+    private final long totalTerminos;
+    private final String[] terminos;
+    private final int[] frecuencias;
+    private final int[] inicios;
+
+    private SegmentoIndice(Path archivo, ByteBuffer contenido, int cantidadDocumentos, long totalTerminos,
+                           String[] terminos, int[] frecuencias, int[] inicios) {
+        this.archivo = archivo;
+        this.contenido = contenido;
+        this.cantidadDocumentos = cantidadDocumentos;
+        this.totalTerminos = totalTerminos;
+        this.terminos = terminos;
+        this.frecuencias = frecuencias;
+        this.inicios = inicios;
+    }
+
+    /**
+     * Abre un segmento existente.
+     *
+     * @param archivo El archivo del segmento.
+     * @return El segmento abierto.
+     * @throws IOException Si el archivo no se puede leer o no es un segmento válido.
+     */
+    public static SegmentoIndice abrir(Path archivo) throws IOException {
+        MappedByteBuffer contenido;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("El segmento " + archivo + " supera el tamaño máximo.");
+            }
+            contenido = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        byte[] firma = new byte[FIRMA.length];
+        contenido.get(0, firma);
+        if (!Arrays.equals(firma, FIRMA)) {
+            throw new IOException("El archivo " + archivo + " no es un segmento de índice de texto.");
+        }
+        int cantidadDocumentos = contenido.getInt(4);
+        int cantidadTerminos = contenido.getInt(8);
+        long totalTerminos = contenido.getLong(12);
+        int inicioDiccionario = (int) contenido.getLong(28);
+
+        String[] terminos = new String[cantidadTerminos];
+        int[] frecuencias = new int[cantidadTerminos];
+        int[] inicios = new int[cantidadTerminos];
+        ByteBuffer diccionario = contenido.duplicate().position(inicioDiccionario);
+        for (int i = 0; i < cantidadTerminos; i++) {
+            byte[] texto = new byte[leerVarInt(diccionario)];
+            diccionario.get(texto);
+            terminos[i] = new String(texto, StandardCharsets.UTF_8);
+            frecuencias[i] = leerVarInt(diccionario);
+            inicios[i] = leerVarInt(diccionario);
+        }
+        return new SegmentoIndice(archivo, contenido, cantidadDocumentos, totalTerminos, terminos, frecuencias, inicios);
+    }
+
+    /**
+     * Escribe un segmento con los documentos indicados.
+     *
+     * @param destino    El archivo a crear.
+     * @param documentos Los documentos; los ID repetidos se indexan una sola vez.
+     * @return El segmento escrito, ya abierto.
+     * @throws IOException Si ocurre un error de escritura.
+     */
+    public static SegmentoIndice escribir(Path destino, List<DocumentoTexto> documentos) throws IOException {
+        SegmentoMemoria memoria = new SegmentoMemoria();
+        documentos.forEach(memoria::agregar);
+        return fusionar(destino, List.of(memoria));
+    }
+
+    /**
+     * Escribe un segmento con el contenido de varias fuentes. Si un ID de historial aparece en más de
+     * una, se conserva el de la primera.
+     * <p>
+     * El archivo se escribe con extensión {@code .tmp} y se renombra al terminar, por lo que nunca
+     * queda un segmento incompleto con el nombre definitivo.
+     * </p>
+     *
+     * @param destino El archivo a crear.
+     * @param fuentes Las fuentes a combinar.
+     * @return El segmento escrito, ya abierto.
+     * @throws IOException Si ocurre un error de escritura o el resultado supera el tamaño máximo.
+     */
+    static SegmentoIndice fusionar(Path destino, List<? extends FuenteIndice> fuentes) throws IOException {
+        // Nueva numeración de los documentos, ordenada por ID de historial.
+        if (fuentes.size() > MAXIMO_FUENTES) {
+            throw new IllegalArgumentException("No se pueden combinar más de " + MAXIMO_FUENTES + " fuentes.");
+        }
+        int total = 0;
+        for (FuenteIndice fuente : fuentes) {
+            if (fuente.cantidadDocumentos() > MAXIMO_DOCUMENTOS) {
+                throw new IllegalArgumentException("Una fuente no puede tener más de " + MAXIMO_DOCUMENTOS + " documentos.");
+            }
+            total += fuente.cantidadDocumentos();
+        }
+        long[] claves = new long[total];
+        int k = 0;
+        for (int f = 0; f < fuentes.size(); f++) {
+            for (int d = 0; d < fuentes.get(f).cantidadDocumentos(); d++) {
+                // ID en los 32 bits altos y la fuente en los bajos: al ordenar, a igual ID queda primero la primera fuente.
+                claves[k++] = ((long) fuentes.get(f).idHistorial(d) << 32) | ((long) f << 24) | d;
+            }
+        }
+        Arrays.sort(claves);
+        int[][] renumeracion = new int[fuentes.size()][];
+        for (int f = 0; f < fuentes.size(); f++) {
+            renumeracion[f] = new int[fuentes.get(f).cantidadDocumentos()];
+            Arrays.fill(renumeracion[f], -1);
+        }
+
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try (DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temporal, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), 64 * 1024))) {
+            salida.write(new byte[TAMANO_ENCABEZADO]);
+
+            int cantidadDocumentos = 0;
+            long totalTerminos = 0;
+            int anterior = 0;
+            for (int i = 0; i < claves.length; i++) {
+                int id = (int) (claves[i] >> 32);
+                if (i > 0 && id == anterior) {
+                    continue;
+                }
+                anterior = id;
+                FuenteIndice fuente = fuentes.get((int) ((claves[i] >> 24) & 0xFF));
+                int documento = (int) (claves[i] & 0xFFFFFF);
+                renumeracion[(int) ((claves[i] >> 24) & 0xFF)][documento] = cantidadDocumentos++;
+                salida.writeInt(id);
+                salida.writeLong(fuente.fechaMicros(documento));
+                salida.writeInt(fuente.idEstado(documento));
+                salida.writeInt(fuente.idCategoria(documento));
+                salida.writeInt(fuente.longitud(documento));
+                totalTerminos += fuente.longitud(documento);
+            }
+
+            int inicioApariciones = salida.size();
+            List<String> terminos = new ArrayList<>();
+            List<int[]> datosTerminos = new ArrayList<>();
+            for (String termino : unirTerminos(fuentes)) {
+                int inicio = salida.size();
+                int frecuencia = escribirApariciones(salida, termino, fuentes, renumeracion);
+                if (frecuencia > 0) {
+                    terminos.add(termino);
+                    datosTerminos.add(new int[]{frecuencia, inicio});
+                }
+            }
+
+            int inicioDiccionario = salida.size();
+            for (int i = 0; i < terminos.size(); i++) {
+                byte[] texto = terminos.get(i).getBytes(StandardCharsets.UTF_8);
+                escribirVarInt(salida, texto.length);
+                salida.write(texto);
+                escribirVarInt(salida, datosTerminos.get(i)[0]);
+                escribirVarInt(salida, datosTerminos.get(i)[1]);
+            }
+            salida.flush();
+            if (salida.size() == Integer.MAX_VALUE) {
+                throw new IOException("El segmento " + destino + " supera el tamaño máximo.");
+            }
+
+            try (RandomAccessFile acceso = new RandomAccessFile(temporal.toFile(), "rw")) {
+                acceso.write(FIRMA);
+                acceso.writeInt(cantidadDocumentos);
+                acceso.writeInt(terminos.size());
+                acceso.writeLong(totalTerminos);
+                acceso.writeLong(inicioApariciones);
+                acceso.writeLong(inicioDiccionario);
+                acceso.getFD().sync();
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+        Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+        return abrir(destino);
+    }
+
+    /**
+     * Escribe las apariciones de un término en todas las fuentes, con la nueva numeración.
+     *
+     * @return La cantidad de documentos escritos.
+     */
+    private static int escribirApariciones(DataOutputStream salida, String termino, List<? extends FuenteIndice> fuentes,
+                                           int[][] renumeracion) throws IOException {
+        List<long[]> entradas = new ArrayList<>();
+        List<int[]> posiciones = new ArrayList<>();
+        for (int f = 0; f < fuentes.size(); f++) {
+            Apariciones apariciones = fuentes.get(f).apariciones(termino, true);
+            for (int i = 0; i < apariciones.cantidad(); i++) {
+                int nuevo = renumeracion[f][apariciones.documentos()[i]];
+                if (nuevo >= 0) {
+                    entradas.add(new long[]{nuevo, posiciones.size()});
+                    posiciones.add(apariciones.posiciones()[i]);
+                }
+            }
+        }
+        entradas.sort(Comparator.comparingLong(e -> e[0]));
+        int anterior = 0;
+        for (long[] entrada : entradas) {
+            int documento = (int) entrada[0];
+            int[] posicionesDocumento = posiciones.get((int) entrada[1]);
+            escribirVarInt(salida, documento - anterior);
+            escribirVarInt(salida, posicionesDocumento.length);
+            int posicionAnterior = 0;
+            for (int posicion : posicionesDocumento) {
+                escribirVarInt(salida, posicion - posicionAnterior);
+                posicionAnterior = posicion;
+            }
+            anterior = documento;
+        }
+        return entradas.size();
+    }
+
+    /**
+     * Une los términos de todas las fuentes en orden alfabético, sin repetir.
+     */
+    private static List<String> unirTerminos(List<? extends FuenteIndice> fuentes) {
+        List<String> unidos = new ArrayList<>();
+        PriorityQueue<Cursor> cola = new PriorityQueue<>(Comparator.comparing(Cursor::actual));
+        for (FuenteIndice fuente : fuentes) {
+            List<String> terminos = fuente.terminos();
+            if (!terminos.isEmpty()) {
+                cola.add(new Cursor(terminos));
+            }
+        }
+        while (!cola.isEmpty()) {
+            Cursor cursor = cola.poll();
+            String termino = cursor.actual();
+            if (unidos.isEmpty() || !unidos.get(unidos.size() - 1).equals(termino)) {
+                unidos.add(termino);
+            }
+            if (cursor.avanzar()) {
+                cola.add(cursor);
+            }
+        }
+        return unidos;
+    }
+
+    private static final class Cursor {
+        private final List<String> terminos;
+        private int posicion;
+
+        Cursor(List<String> terminos) {
+            this.terminos = terminos;
+        }
+
+        String actual() {
+            return terminos.get(posicion);
+        }
+
+        boolean avanzar() {
+            return ++posicion < terminos.size();
+        }
+    }
+
+    /**
+     * El archivo del segmento.
+     */
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    @Override
+    public int cantidadDocumentos() {
+        return cantidadDocumentos;
+    }
+
+    @Override
+    public long totalTerminos() {
+        return totalTerminos;
+    }
+
+    @Override
+    public int idHistorial(int documento) {
+        return contenido.getInt(TAMANO_ENCABEZADO + documento * TAMANO_DOCUMENTO);
+    }
+
+    @Override
+    public long fechaMicros(int documento) {
+        return contenido.getLong(TAMANO_ENCABEZADO + documento * TAMANO_DOCUMENTO + 4);
+    }
+
+    @Override
+    public int idEstado(int documento) {
+        return contenido.getInt(TAMANO_ENCABEZADO + documento * TAMANO_DOCUMENTO + 12);
+    }
+
+    @Override
+    public int idCategoria(int documento) {
+        return contenido.getInt(TAMANO_ENCABEZADO + documento * TAMANO_DOCUMENTO + 16);
+    }
+
+    @Override
+    public int longitud(int documento) {
+        return contenido.getInt(TAMANO_ENCABEZADO + documento * TAMANO_DOCUMENTO + 20);
+    }
+
+    @Override
+    public List<String> terminos() {
+        return Arrays.asList(terminos);
+    }
+
+    @Override
+    public int frecuenciaDocumentos(String termino) {
+        int i = Arrays.binarySearch(terminos, termino);
+        return i < 0 ? 0 : frecuencias[i];
+    }
+
+    @Override
+    public Apariciones apariciones(String termino, boolean conPosiciones) {
+        int t = Arrays.binarySearch(terminos, termino);
+        if (t < 0) {
+            return Apariciones.VACIAS;
+        }
+        int cantidad = frecuencias[t];
+        int[] documentos = new int[cantidad];
+        int[] frecuenciasTermino = new int[cantidad];
+        int[][] posiciones = conPosiciones ? new int[cantidad][] : null;
+        ByteBuffer lectura = contenido.duplicate().position(inicios[t]);
+        int documento = 0;
+        for (int i = 0; i < cantidad; i++) {
+            documento += leerVarInt(lectura);
+            documentos[i] = documento;
+            int frecuencia = leerVarInt(lectura);
+            frecuenciasTermino[i] = frecuencia;
+            int posicion = 0;
+            int[] posicionesDocumento = conPosiciones ? new int[frecuencia] : null;
+            for (int p = 0; p < frecuencia; p++) {
+                posicion += leerVarInt(lectura);
+                if (conPosiciones) {
+                    posicionesDocumento[p] = posicion;
+                }
+            }
+            if (conPosiciones) {
+                posiciones[i] = posicionesDocumento;
+            }
+        }
+        return new Apariciones(documentos, frecuenciasTermino, posiciones);
+    }
+
+    @Override
+    public List<String> terminosConPrefijo(String prefijo, int maximo) {
+        int i = Arrays.binarySearch(terminos, prefijo);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        List<String> encontrados = new ArrayList<>();
+        while (i < terminos.length && terminos[i].startsWith(prefijo) && encontrados.size() < maximo) {
+            encontrados.add(terminos[i++]);
+        }
+        return encontrados;
+    }
+
+    @Override
+    public boolean contiene(int idHistorial) {
+        int bajo = 0;
+        int alto = cantidadDocumentos - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int id = idHistorial(medio);
+            if (id < idHistorial) {
+                bajo = medio + 1;
+            } else if (id > idHistorial) {
+                alto = medio - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * ID de historial más alto del segmento, o 0 si está vacío.
+     */
+    public int idMaximo() {
+        return cantidadDocumentos == 0 ? 0 : idHistorial(cantidadDocumentos - 1);
+    }
+
+    private static void escribirVarInt(OutputStream salida, int valor) throws IOException {
+        while ((valor & ~0x7F) != 0) {
+            salida.write((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        salida.write(valor);
+    }
+
+    private static int leerVarInt(ByteBuffer entrada) {
+        int valor = 0;
+        for (int desplazamiento = 0; ; desplazamiento += 7) {
+            byte b = entrada.get();
+            valor |= (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.SAFE_Rescue.API_Registros.indice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Búfer en memoria con los registros indexados desde la última escritura a disco.
+ * <p>
+ * Los documentos se consultan apenas se agregan. Cuando el búfer se llena, se escribe como un
+ * {@link SegmentoIndice} y se reemplaza por uno vacío. Todos los métodos están sincronizados
+ * porque las búsquedas lo leen mientras se agregan registros.
+ * </p>
+ */
+class SegmentoMemoria implements FuenteIndice {
+
+    private final List<DocumentoTexto> documentos = new ArrayList<>();
+    private long[] fechas = new long[64];
+    private int[] longitudes = new int[64];
+    private final Set<Integer> ids = new HashSet<>();
+    private final TreeMap<String, ListaApariciones> terminos = new TreeMap<>();
+    private long totalTerminos;
+    private int idMinimo = Integer.MAX_VALUE;
+
+    /**
+     * Agrega un documento, salvo que ya esté en el búfer.
+     *
+     * @param documento El documento a agregar.
+     * @return {@code true} si se agregó.
+     */
+    synchronized boolean agregar(DocumentoTexto documento) {
+        if (!ids.add(documento.idHistorial())) {
+            return false;
+        }
+        int posicion = documentos.size();
+        if (posicion == fechas.length) {
+            fechas = Arrays.copyOf(fechas, posicion * 2);
+            longitudes = Arrays.copyOf(longitudes, posicion * 2);
+        }
+        List<String> analizados = AnalizadorTexto.terminos(documento.detalle());
+        documentos.add(documento);
+        fechas[posicion] = DocumentoTexto.aMicros(documento.fechaHistorial());
+        longitudes[posicion] = analizados.size();
+        totalTerminos += analizados.size();
+        idMinimo = Math.min(idMinimo, documento.idHistorial());
+
+        Map<String, List<Integer>> posicionesPorTermino = new HashMap<>();
+        for (int i = 0; i < analizados.size(); i++) {
+            posicionesPorTermino.computeIfAbsent(analizados.get(i), t -> new ArrayList<>()).add(i);
+        }
+        posicionesPorTermino.forEach((termino, posiciones) -> terminos
+                .computeIfAbsent(termino, t -> new ListaApariciones())
+                .agregar(posicion, posiciones.stream().mapToInt(Integer::intValue).toArray()));
+        return true;
+    }
+
+    /**
+     * Copia de los documentos del búfer, para escribirlos en disco.
+     */
+    synchronized List<DocumentoTexto> documentos() {
+        return new ArrayList<>(documentos);
+    }
+
+    /**
+     * ID de historial más bajo del búfer, o {@link Integer#MAX_VALUE} si está vacío.
+     */
+    synchronized int idMinimo() {
+        return idMinimo;
+    }
+
+    @Override
+    public synchronized int cantidadDocumentos() {
+        return documentos.size();
+    }
+
+    @Override
+    public synchronized long totalTerminos() {
+        return totalTerminos;
+    }
+
+    @Override
+    public synchronized int idHistorial(int documento) {
+        return documentos.get(documento).idHistorial();
+    }
+
+    @Override
+    public synchronized long fechaMicros(int documento) {
+        return fechas[documento];
+    }
+
+    @Override
+    public synchronized int idEstado(int documento) {
+        return documentos.get(documento).idEstado();
+    }
+
+    @Override
+    public synchronized int idCategoria(int documento) {
+        return documentos.get(documento).idCategoria();
+    }
+
+    @Override
+    public synchronized int longitud(int documento) {
+        return longitudes[documento];
+    }
+
+    @Override
+    public synchronized List<String> terminos() {
+        return new ArrayList<>(terminos.keySet());
+    }
+
+    @Override
+    public synchronized int frecuenciaDocumentos(String termino) {
+        ListaApariciones lista = terminos.get(termino);
+        return lista == null ? 0 : lista.cantidad;
+    }
+
+    @Override
+    public synchronized Apariciones apariciones(String termino, boolean conPosiciones) {
+        ListaApariciones lista = terminos.get(termino);
+        if (lista == null) {
+            return Apariciones.VACIAS;
+        }
+        return new Apariciones(Arrays.copyOf(lista.documentos, lista.cantidad),
+                Arrays.copyOf(lista.frecuencias, lista.cantidad),
+                conPosiciones ? Arrays.copyOf(lista.posiciones, lista.cantidad) : null);
+    }
+
+    @Override
+    public synchronized List<String> terminosConPrefijo(String prefijo, int maximo) {
+        List<String> encontrados = new ArrayList<>();
+        for (String termino : terminos.tailMap(prefijo, true).keySet()) {
+            if (!termino.startsWith(prefijo) || encontrados.size() == maximo) {
+                break;
+            }
+            encontrados.add(termino);
+        }
+        return encontrados;
+    }
+
+    @Override
+    public synchronized boolean contiene(int idHistorial) {
+        return ids.contains(idHistorial);
+    }
+
+    /**
+     * Apariciones de un término, ampliables a medida que se agregan documentos.
+     */
+    private static final class ListaApariciones {
+        private int[] documentos = new int[4];
+        private int[] frecuencias = new int[4];
+        private int[][] posiciones = new int[4][];
+        private int cantidad;
+
+        void agregar(int documento, int[] posicionesDocumento) {
+            if (cantidad == documentos.length) {
+                documentos = Arrays.copyOf(documentos, cantidad * 2);
+                frecuencias = Arrays.copyOf(frecuencias, cantidad * 2);
+                posiciones = Arrays.copyOf(posiciones, cantidad * 2);
+            }
+            documentos[cantidad] = documento;
+            frecuencias[cantidad] = posicionesDocumento.length;
+            posiciones[cantidad] = posicionesDocumento;
+            cantidad++;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.SAFE_Rescue.API_Registros.ingesta;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Bitácora local de solo-anexado (write-ahead log) dividida en segmentos mapeados en memoria.
+ * <p>
+ * Cada segmento es un archivo de tamaño fijo mapeado con {@link MappedByteBuffer}. Un registro
+ * ocupa {@code [longitud:int][crc32:int][datos]}; la longitud se escribe en último lugar para que
+ * un lector nunca observe un registro incompleto. Cuando un registro no cabe en el segmento actual
+ * se escribe la marca {@link #FIN_SEGMENTO} y se abre el siguiente.
+ * </p>
+ * <p>
+ * El avance del consumidor se guarda en el archivo {@code checkpoint}; los segmentos anteriores
+ * al checkpoint ya fueron aplicados y se eliminan. Al reiniciar, la lectura continúa desde el
+ * checkpoint, de modo que los registros no aplicados se reproducen (semántica al-menos-una-vez).
+ * Un solo hilo puede escribir a la vez (método sincronizado) y un solo hilo debe consumir.
+ * </p>
+ */
+public class BitacoraSegmentada implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BitacoraSegmentada.class);
+
+    /**
+     * Bytes ocupados por la cabecera de cada registro (longitud + CRC32).
+     */
+    static final int CABECERA = 8;
+
+    /**
+     * Marca que indica que el resto del segmento no contiene registros.
+     */
+    static final int FIN_SEGMENTO = -1;
+
+    private static final String EXTENSION = ".seg";
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Path directorio;
+    private final int tamanoSegmento;
+    private final boolean sincronizar;
+
+    private long segmentoEscritura;
+    private MappedByteBuffer bufferEscritura;
+
+    /**
+     * Posición inmediatamente posterior al último registro completo escrito.
+     */
+    private volatile Posicion publicada;
+
+    /**
+     * Posición hasta la cual los registros ya fueron aplicados por el consumidor.
+     */
+    private volatile Posicion confirmada;
+
+    private long segmentoLectura = -1;
+    private MappedByteBuffer bufferLectura;
+
+    /**
+     * Abre (o crea) la bitácora en el directorio indicado.
+     * <p>
+     * La escritura siempre continúa en un segmento nuevo; los existentes quedan pendientes
+     * de reproducción a partir del checkpoint.
+     * </p>
+     *
+     * @param directorio     Directorio local donde se guardan los segmentos y el checkpoint.
+     * @param tamanoSegmento Tamaño en bytes de cada segmento.
+     * @param sincronizar    Si es {@code true}, cada registro se fuerza a disco antes de confirmarse.
+     * @throws IOException Si no se puede leer o crear la bitácora.
+     */
+    public BitacoraSegmentada(Path directorio, int tamanoSegmento, boolean sincronizar) throws IOException {
+        this.directorio = directorio;
+        this.tamanoSegmento = tamanoSegmento;
+        this.sincronizar = sincronizar;
+        Files.createDirectories(directorio);
+
+        List<Long> segmentos = listarSegmentos();
+        Posicion checkpoint = leerCheckpoint();
+        if (checkpoint == null) {
+            checkpoint = new Posicion(segmentos.isEmpty() ? 1 : segmentos.get(0), 0);
+        }
+        for (Long segmento : segmentos) {
+            if (segmento < checkpoint.segmento()) {
+                Files.deleteIfExists(ruta(segmento));
+            }
+        }
+        this.confirmada = checkpoint;
+
+        long ultimo = segmentos.isEmpty() ? 0 : segmentos.get(segmentos.size() - 1);
+        abrirSegmentoEscritura(Math.max(ultimo, checkpoint.segmento()) + 1);
+        if (!segmentos.isEmpty()) {
+            log.info("Bitácora {}: se reproducirán {} segmento(s) pendiente(s) desde {}", directorio, segmentos.size(), checkpoint);
+        }
+    }
+
+    /**
+     * Agrega un registro al final de la bitácora.
+     *
+     * @param datos El contenido del registro.
+     * @throws IOException              Si no se puede abrir un nuevo segmento.
+     * @throws IllegalArgumentException Si el registro no cabe en un segmento.
+     */
+    public synchronized void agregar(byte[] datos) throws IOException {
+        int requerido = CABECERA + datos.length;
+        if (requerido + Integer.BYTES > tamanoSegmento) {
+            throw new IllegalArgumentException("El registro excede el tamaño de segmento de la bitácora.");
+        }
+        if (bufferEscritura.remaining() < requerido + Integer.BYTES) {
+            bufferEscritura.putInt(bufferEscritura.position(), FIN_SEGMENTO);
+            if (sincronizar) {
+                bufferEscritura.force();
+            }
+            abrirSegmentoEscritura(segmentoEscritura + 1);
+        }
+
+        int posicion = bufferEscritura.position();
+        CRC32 crc = new CRC32();
+        crc.update(datos);
+        bufferEscritura.put(posicion + CABECERA, datos);
+        bufferEscritura.putInt(posicion + Integer.BYTES, (int) crc.getValue());
+        bufferEscritura.putInt(posicion, datos.length);
+        bufferEscritura.position(posicion + requerido);
+        if (sincronizar) {
+            bufferEscritura.force(posicion, requerido);
+        }
+        publicada = new Posicion(segmentoEscritura, posicion + requerido);
+    }
+
+    /**
+     * Lee hasta {@code maximo} registros a partir del checkpoint, sin avanzarlo.
+     * <p>
+     * Debe invocarse siempre desde el mismo hilo consumidor.
+     * </p>
+     *
+     * @param maximo Cantidad máxima de registros a leer.
+     * @return Los registros leídos y la posición que debe confirmarse una vez aplicados.
+     * @throws IOException Si no se puede mapear algún segmento.
+     */
+    public Lectura leer(int maximo) throws IOException {
+        List<byte[]> registros = new ArrayList<>();
+        Posicion posicion = confirmada;
+        while (registros.size() < maximo) {
+            Posicion limite = publicada;
+            boolean segmentoActivo = posicion.segmento() == limite.segmento();
+            MappedByteBuffer buffer = bufferLectura(posicion.segmento());
+            int fin = segmentoActivo ? limite.desplazamiento() : (buffer == null ? 0 : buffer.capacity());
+            int desplazamiento = posicion.desplazamiento();
+            int longitud = desplazamiento + CABECERA > fin ? 0 : buffer.getInt(desplazamiento);
+
+            // Fin de datos del segmento: marca explícita, zona sin escribir o registro truncado.
+            if (longitud <= 0 || desplazamiento + CABECERA + longitud > fin) {
+                if (segmentoActivo) {
+                    break;
+                }
+                posicion = new Posicion(posicion.segmento() + 1, 0);
+                continue;
+            }
+
+            byte[] datos = new byte[longitud];
+            buffer.get(desplazamiento + CABECERA, datos);
+            CRC32 crc = new CRC32();
+            crc.update(datos);
+            if ((int) crc.getValue() != buffer.getInt(desplazamiento + Integer.BYTES)) {
+                log.error("Registro corrupto en la bitácora {} (segmento {}, posición {}); se descarta el resto del segmento",
+                        directorio, posicion.segmento(), desplazamiento);
+                if (segmentoActivo) {
+                    break;
+                }
+                posicion = new Posicion(posicion.segmento() + 1, 0);
+                continue;
+            }
+            registros.add(datos);
+            posicion = new Posicion(posicion.segmento(), desplazamiento + CABECERA + longitud);
+        }
+        return new Lectura(registros, posicion);
+    }
+
+    /**
+     * Marca como aplicados todos los registros anteriores a la posición indicada.
+     * <p>
+     * El checkpoint se reemplaza de forma atómica y los segmentos completamente aplicados se eliminan.
+     * </p>
+     *
+     * @param posicion La posición devuelta por {@link #leer(int)} tras aplicar sus registros.
+     * @throws IOException Si no se puede guardar el checkpoint.
+     */
+    public void confirmar(Posicion posicion) throws IOException {
+        Path temporal = directorio.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(temporal, posicion.segmento() + ":" + posicion.desplazamiento(), StandardCharsets.US_ASCII);
+        Files.move(temporal, directorio.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        long anterior = confirmada.segmento();
+        confirmada = posicion;
+        for (long segmento = anterior; segmento < posicion.segmento(); segmento++) {
+            if (segmento == segmentoLectura) {
+                segmentoLectura = -1;
+                bufferLectura = null;
+            }
+            Files.deleteIfExists(ruta(segmento));
+        }
+    }
+
+    /**
+     * Indica si existen registros escritos que aún no han sido confirmados como aplicados.
+     *
+     * @return {@code true} si el consumidor tiene trabajo pendiente.
+     */
+    public boolean hayPendientes() {
+        return !confirmada.equals(publicada);
+    }
+
+    /**
+     * Cantidad de segmentos, incluido el activo, que contienen registros sin aplicar.
+     *
+     * @return La cantidad de segmentos pendientes.
+     */
+    public long segmentosPendientes() {
+        return publicada.segmento() - confirmada.segmento() + 1;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (sincronizar && bufferEscritura != null) {
+            bufferEscritura.force();
+        }
+        bufferEscritura = null;
+        bufferLectura = null;
+    }
+
+    private void abrirSegmentoEscritura(long segmento) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta(segmento),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            bufferEscritura = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanoSegmento);
+        }
+        segmentoEscritura = segmento;
+        publicada = new Posicion(segmento, 0);
+    }
+
+    private MappedByteBuffer bufferLectura(long segmento) throws IOException {
+        if (segmento != segmentoLectura) {
+            Path ruta = ruta(segmento);
+            if (!Files.exists(ruta)) {
+                return null;
+            }
+            try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+                bufferLectura = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            }
+            segmentoLectura = segmento;
+        }
+        return bufferLectura;
+    }
+
+    private List<Long> listarSegmentos() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.map(p -> p.getFileName().toString())
+                    .filter(nombre -> nombre.endsWith(EXTENSION))
+                    .map(nombre -> Long.parseLong(nombre.substring(0, nombre.length() - EXTENSION.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Posicion leerCheckpoint() throws IOException {
+        Path ruta = directorio.resolve(CHECKPOINT);
+        if (!Files.exists(ruta)) {
+            return null;
+        }
+        String[] partes = Files.readString(ruta, StandardCharsets.US_ASCII).trim().split(":");
+        return new Posicion(Long.parseLong(partes[0]), Integer.parseInt(partes[1]));
+    }
+
+    private Path ruta(long segmento) {
+        return directorio.resolve(String.format("%020d%s", segmento, EXTENSION));
+    }
+
+    /**
+     * Posición dentro de la bitácora.
+     *
+     * @param segmento       Número del segmento.
+     * @param desplazamiento Desplazamiento en bytes dentro del segmento.
+     */
+    public record Posicion(long segmento, int desplazamiento) {
+    }
+
+    /**
+     * Resultado de una lectura de la bitácora.
+     *
+     * @param registros Los registros leídos, en orden de escritura.
+     * @param siguiente La posición a confirmar cuando los registros hayan sido aplicados.
+     */
+    public record Lectura(List<byte[]> registros, Posicion siguiente) {
+    }
+}
@@ -0,0 +1,285 @@
+package com.SAFE_Rescue.API_Registros.ingesta;
+
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Modo de ingesta "agrupado" (group commit) para los registros de {@link Historial}.
+ * <p>
+ * Cada solicitud individual, una vez validada, se deposita en una cola acotada en memoria.
+ * Un hilo confirmador vacía la cola en grupos y los persiste en una única transacción cuando
+ * se alcanzan {@code tamano-maximo} registros o transcurren {@code espera-ms} milisegundos.
+ * Quien llama recibe su respuesta solo después de que su grupo fue confirmado, por lo que la
+ * semántica de durabilidad es la misma que en el modo directo, pero con muchos menos commits.
+ * </p>
+ * <p>
+ * Si el tiempo de espera se agota mientras el registro sigue en la cola, se retira y no se
+ * persiste, por lo que el cliente puede reintentar sin duplicarlo. Si su grupo ya se está
+ * confirmando, el llamador espera el resultado de esa transacción hasta otro {@code timeout-ms};
+ * si tampoco llega, responde un error que indica que no se sabe si el registro fue persistido.
+ * </p>
+ * <p>
+ * Si un grupo falla por integridad de datos, cada registro se reintenta en su propia transacción
+ * para aislar al inválido. Cualquier otro error (base de datos caída, bloqueo agotado) se informa
+ * a todo el grupo de una vez, sin más transacciones que también fallarían.
+ * </p>
+ * <p>
+ * Se activa con {@code registros.historial.ingesta.modo=agrupado} y publica las métricas
+ * {@code registros.historial.ingesta.cola} (profundidad de la cola),
+ * {@code registros.historial.ingesta.confirmacion} (latencia de cada commit de grupo) y
+ * {@code registros.historial.ingesta.grupo} (tamaño de cada grupo).
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "registros.historial.ingesta.modo", havingValue = "agrupado")
+public class IngestaAgrupadaHistorial {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestaAgrupadaHistorial.class);
+
+    private final HistorialRepository historialRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Pendiente> cola;
+    private final int tamanoMaximo;
+    private final long esperaNanos;
+    private final long timeoutMs;
+
+    private final Timer tiempoConfirmacion;
+    private final DistributionSummary tamanoGrupo;
+
+    private volatile boolean activo;
+    private Thread confirmador;
+
+    /**
+     * Constructor para la inyección de dependencias y la configuración del modo agrupado.
+     *
+     * @param historialRepository El repositorio utilizado para insertar cada grupo.
+     * @param transactionManager  El gestor de transacciones con el que se confirma cada grupo.
+     * @param meterRegistry       El registro de métricas donde se publican los indicadores de la cola.
+     * @param capacidad           Cantidad máxima de registros pendientes en la cola.
+     * @param tamanoMaximo        Cantidad máxima de registros por grupo.
+     * @param esperaMs            Tiempo máximo que un grupo espera a completarse antes de confirmarse.
+     * @param timeoutMs           Tiempo máximo que un llamador espera para encolar o para recibir su confirmación.
+     */
+    public IngestaAgrupadaHistorial(HistorialRepository historialRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${registros.historial.ingesta.agrupado.capacidad:10000}") int capacidad,
+                                    @Value("${registros.historial.ingesta.agrupado.tamano-maximo:500}") int tamanoMaximo,
+                                    @Value("${registros.historial.ingesta.agrupado.espera-ms:10}") long esperaMs,
+                                    @Value("${registros.historial.ingesta.agrupado.timeout-ms:5000}") long timeoutMs) {
+        this.historialRepository = historialRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.tamanoMaximo = tamanoMaximo;
+        this.esperaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMs);
+        this.timeoutMs = timeoutMs;
+
+        Gauge.builder("registros.historial.ingesta.cola", cola, BlockingQueue::size)
+                .description("Registros de historial pendientes de confirmación")
+                .register(meterRegistry);
+        this.tiempoConfirmacion = Timer.builder("registros.historial.ingesta.confirmacion")
+                .description("Latencia de confirmación de cada grupo de historiales")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.tamanoGrupo = DistributionSummary.builder("registros.historial.ingesta.grupo")
+                .description("Cantidad de historiales confirmados por grupo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inicia el hilo confirmador.
+     */
+    @PostConstruct
+    public void iniciar() {
+        activo = true;
+        confirmador = new Thread(this::ejecutar, "historial-group-commit");
+        confirmador.setDaemon(true);
+        confirmador.start();
+    }
+
+    /**
+     * Detiene la recepción de nuevos registros y confirma los que aún quedan en la cola.
+     *
+     * @throws InterruptedException Si el hilo que detiene la aplicación es interrumpido mientras espera.
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        if (confirmador != null) {
+            confirmador.join(timeoutMs);
+        }
+    }
+
+    /**
+     * Encola un registro de historial ya validado y espera a que su grupo sea confirmado.
+     *
+     * @param historial El registro de historial a persistir.
+     * @return El mismo registro, con el identificador generado por la base de datos.
+     * @throws IllegalArgumentException Si el registro viola la integridad de datos.
+     * @throws IllegalStateException    Si la cola está llena, el modo está detenido o el registro no llegó a
+     *                                  confirmarse a tiempo; el mensaje indica si fue descartado o si se
+     *                                  desconoce el resultado de su transacción.
+     */
+    public Historial registrar(Historial historial) {
+        if (!activo) {
+            throw new IllegalStateException("La ingesta agrupada de historiales está detenida.");
+        }
+        Pendiente pendiente = new Pendiente(historial, new CompletableFuture<>(), new AtomicBoolean());
+        try {
+            if (!cola.offer(pendiente, timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("La cola de ingesta de historiales está llena. Intente nuevamente.");
+            }
+            try {
+                return pendiente.resultado().get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (pendiente.reclamar()) {
+                    cola.remove(pendiente);
+                    throw new IllegalStateException("Tiempo de espera agotado al confirmar el historial. El historial no fue registrado.");
+                }
+                // El confirmador ya tomó el registro: el resultado llega al terminar su transacción.
+                try {
+                    return pendiente.resultado().get(timeoutMs, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException enCurso) {
+                    throw new IllegalStateException("Tiempo de espera agotado mientras se confirmaba el historial. "
+                            + "Se desconoce si fue registrado; verifique antes de reintentar.");
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Error al confirmar el historial.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ingesta de historial interrumpida.");
+        }
+    }
+
+    /**
+     * Bucle del hilo confirmador: arma grupos por tamaño o por tiempo y los confirma.
+     */
+    private void ejecutar() {
+        while (activo || !cola.isEmpty()) {
+            try {
+                Pendiente primero = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                List<Pendiente> grupo = new ArrayList<>(tamanoMaximo);
+                grupo.add(primero);
+                long limite = System.nanoTime() + esperaNanos;
+                while (grupo.size() < tamanoMaximo) {
+                    cola.drainTo(grupo, tamanoMaximo - grupo.size());
+                    long restante = limite - System.nanoTime();
+                    if (grupo.size() >= tamanoMaximo || restante <= 0) {
+                        break;
+                    }
+                    Pendiente siguiente = cola.poll(restante, TimeUnit.NANOSECONDS);
+                    if (siguiente == null) {
+                        break;
+                    }
+                    grupo.add(siguiente);
+                }
+                // Se descartan los registros cuyo llamador ya desistió por tiempo de espera.
+                grupo.removeIf(p -> !p.reclamar());
+                if (!grupo.isEmpty()) {
+                    confirmar(grupo);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en el confirmador de historiales", e);
+            }
+        }
+    }
+
+    /**
+     * Persiste un grupo en una única transacción y notifica a cada llamador.
+     * <p>
+     * Si el grupo falla por integridad de datos, se reintenta cada registro en su propia transacción
+     * para que un único registro inválido no provoque el rechazo de los demás. Ante cualquier otro
+     * error, todo el grupo recibe ese error.
+     * </p>
+     *
+     * @param grupo Los registros pendientes que forman el grupo.
+     */
+    private void confirmar(List<Pendiente> grupo) {
+        List<Historial> historiales = grupo.stream().map(Pendiente::historial).toList();
+        long inicio = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(estado -> historialRepository.insertarEnLote(historiales, tamanoMaximo));
+            tiempoConfirmacion.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            tamanoGrupo.record(grupo.size());
+            grupo.forEach(p -> p.resultado().complete(p.historial()));
+        } catch (RuntimeException e) {
+            if (!(e instanceof DataIntegrityViolationException)) {
+                log.error("Falló la confirmación de un grupo de {} historiales", grupo.size(), e);
+                grupo.forEach(p -> p.resultado().completeExceptionally(e));
+                return;
+            }
+            if (grupo.size() == 1) {
+                grupo.get(0).resultado().completeExceptionally(traducir(e));
+                return;
+            }
+            log.warn("Falló la confirmación de un grupo de {} historiales, se reintenta individualmente", grupo.size());
+            grupo.forEach(p -> confirmar(List.of(p)));
+        }
+    }
+
+    /**
+     * Traduce una excepción de persistencia a la excepción que espera la capa de servicio.
+     *
+     * @param e La excepción original.
+     * @return La excepción que recibirá el llamador.
+     */
+    private RuntimeException traducir(RuntimeException e) {
+        if (e instanceof DataIntegrityViolationException) {
+            return new IllegalArgumentException("Error de integridad de datos. El historial contiene datos inválidos o referencias inexistentes.");
+        }
+        return e;
+    }
+
+    /**
+     * Registro a la espera de ser confirmado junto con el resultado que recibirá su llamador.
+     *
+     * @param historial El registro de historial pendiente.
+     * @param resultado El resultado que se completa al confirmar el grupo.
+     * @param reclamado Indica si el confirmador o el llamador (al agotar su espera) ya decidió su destino.
+     */
+    private record Pendiente(Historial historial, CompletableFuture<Historial> resultado, AtomicBoolean reclamado) {
+
+        /**
+         * Reclama el registro para confirmarlo o para descartarlo; solo el primero en hacerlo lo consigue.
+         *
+         * @return {@code true} si el registro no había sido reclamado.
+         */
+        boolean reclamar() {
+            return reclamado.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.SAFE_Rescue.API_Registros.ingesta;
+
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modo de ingesta "bitacora" para los registros de {@link Historial}.
+ * <p>
+ * Cada solicitud se confirma en cuanto su registro queda escrito en una {@link BitacoraSegmentada}
+ * local, sin esperar a la base de datos. Un hilo reproductor aplica la bitácora en orden sobre
+ * {@link HistorialRepository} mediante lotes JDBC, avanza el checkpoint y elimina los segmentos
+ * ya aplicados. Si MySQL no está disponible, el reproductor reintenta sin perder registros; al
+ * reiniciar la aplicación, los segmentos pendientes se reproducen automáticamente.
+ * </p>
+ * <p>
+ * Se activa con {@code registros.historial.ingesta.modo=bitacora}. Por defecto la confirmación
+ * ocurre al escribir en la memoria mapeada (sobrevive a la caída del proceso); con
+ * {@code sincronizar=true} se fuerza además a disco (sobrevive a la caída del sistema).
+ * </p>
+ * <p>
+ * Cada registro se escribe con una clave única ({@link Historial#getClaveBitacora()}) que se guarda
+ * con la fila. Al reproducir se omiten las claves que ya existen en la tabla, por lo que un tramo
+ * reaplicado tras una caída entre el INSERT y el checkpoint, o tras un error con parte del tramo ya
+ * confirmada, no genera duplicados.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "registros.historial.ingesta.modo", havingValue = "bitacora")
+public class IngestaBitacoraHistorial {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestaBitacoraHistorial.class);
+
+    private final HistorialRepository historialRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final BitacoraSegmentada bitacora;
+    private final int tamanoLote;
+    private final long esperaMs;
+    private final long timeoutDetencionMs;
+
+    private final Timer tiempoEscritura;
+    private final Timer tiempoReproduccion;
+
+    private volatile boolean activo;
+    private Thread reproductor;
+
+    /**
+     * Constructor para la inyección de dependencias y la apertura de la bitácora.
+     *
+     * @param historialRepository El repositorio sobre el cual se reproduce la bitácora.
+     * @param transactionManager  El gestor de transacciones de cada lote reproducido.
+     * @param objectMapper        El serializador de los registros escritos en la bitácora.
+     * @param meterRegistry       El registro de métricas.
+     * @param directorio          Directorio local de la bitácora.
+     * @param tamanoSegmentoMb    Tamaño de cada segmento en megabytes.
+     * @param sincronizar         Si cada registro se fuerza a disco antes de confirmarse.
+     * @param tamanoLote          Cantidad máxima de registros aplicados por transacción.
+     * @param esperaMs            Pausa del reproductor cuando no hay registros o la base de datos falla.
+     * @param timeoutDetencionMs  Tiempo máximo para aplicar lo pendiente al detener la aplicación.
+     * @throws IOException Si la bitácora no puede abrirse.
+     */
+    public IngestaBitacoraHistorial(HistorialRepository historialRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${registros.historial.ingesta.bitacora.directorio:./datos/bitacora-historial}") Path directorio,
+                                    @Value("${registros.historial.ingesta.bitacora.tamano-segmento-mb:64}") int tamanoSegmentoMb,
+                                    @Value("${registros.historial.ingesta.bitacora.sincronizar:false}") boolean sincronizar,
+                                    @Value("${registros.historial.ingesta.bitacora.tamano-lote:500}") int tamanoLote,
+                                    @Value("${registros.historial.ingesta.bitacora.espera-ms:50}") long esperaMs,
+                                    @Value("${registros.historial.ingesta.bitacora.timeout-detencion-ms:10000}") long timeoutDetencionMs) throws IOException {
+        this.historialRepository = historialRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.bitacora = new BitacoraSegmentada(directorio, tamanoSegmentoMb * 1024 * 1024, sincronizar);
+        this.tamanoLote = tamanoLote;
+        this.esperaMs = esperaMs;
+        this.timeoutDetencionMs = timeoutDetencionMs;
+
+        this.tiempoEscritura = Timer.builder("registros.historial.bitacora.escritura")
+                .description("Latencia de confirmación de un historial escrito en la bitácora")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.tiempoReproduccion = Timer.builder("registros.historial.bitacora.reproduccion")
+                .description("Latencia de aplicación de cada lote de la bitácora en la base de datos")
+                .register(meterRegistry);
+        Gauge.builder("registros.historial.bitacora.segmentos.pendientes", bitacora, BitacoraSegmentada::segmentosPendientes)
+                .description("Segmentos de la bitácora con registros aún no aplicados")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inicia el hilo reproductor, que comienza aplicando los segmentos pendientes de ejecuciones anteriores.
+     */
+    @PostConstruct
+    public void iniciar() {
+        activo = true;
+        reproductor = new Thread(this::reproducir, "historial-bitacora");
+        reproductor.setDaemon(true);
+        reproductor.start();
+    }
+
+    /**
+     * Detiene la recepción, intenta aplicar lo pendiente y cierra la bitácora.
+     * Lo que no alcance a aplicarse se reproducirá en el próximo inicio.
+     *
+     * @throws InterruptedException Si el hilo que detiene la aplicación es interrumpido mientras espera.
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        if (reproductor != null) {
+            reproductor.join(timeoutDetencionMs);
+            reproductor.interrupt();
+            reproductor.join(timeoutDetencionMs);
+        }
+        bitacora.close();
+    }
+
+    /**
+     * Escribe un registro de historial ya validado en la bitácora local.
+     *
+     * @param historial El registro de historial a confirmar.
+     * @throws IllegalStateException Si la bitácora está detenida o no se puede escribir.
+     */
+    public void registrar(Historial historial) {
+        if (!activo) {
+            throw new IllegalStateException("La ingesta de historiales por bitácora está detenida.");
+        }
+        long inicio = System.nanoTime();
+        try {
+            bitacora.agregar(objectMapper.writeValueAsBytes(new EntradaBitacora(UUID.randomUUID().toString(), historial)));
+        } catch (IOException e) {
+            throw new IllegalStateException("No fue posible registrar el historial en la bitácora local.", e);
+        }
+        tiempoEscritura.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Bucle del hilo reproductor.
+     */
+    private void reproducir() {
+        while (activo || bitacora.hayPendientes()) {
+            try {
+                BitacoraSegmentada.Lectura lectura = bitacora.leer(tamanoLote);
+                if (lectura.registros().isEmpty()) {
+                    // Avanza el checkpoint sobre segmentos vacíos o descartados antes de esperar.
+                    if (bitacora.hayPendientes()) {
+                        bitacora.confirmar(lectura.siguiente());
+                    }
+                    Thread.sleep(esperaMs);
+                    continue;
+                }
+                long inicio = System.nanoTime();
+                aplicar(deserializar(lectura.registros()));
+                bitacora.confirmar(lectura.siguiente());
+                tiempoReproduccion.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("No fue posible aplicar la bitácora de historiales, se reintentará: {}", e.getMessage());
+                try {
+                    Thread.sleep(esperaMs * 20);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Aplica un lote en una única transacción. Si el lote viola la integridad de datos,
+     * se aplica registro por registro y se descartan (registrándolos en el log) los inválidos,
+     * para que un único registro no bloquee la reproducción. Cualquier otro error se propaga sin
+     * avanzar el checkpoint, y el tramo completo se vuelve a aplicar en el siguiente intento.
+     *
+     * @param historiales Los registros a aplicar, en orden.
+     */
+    private void aplicar(List<Historial> historiales) {
+        try {
+            transactionTemplate.executeWithoutResult(estado -> insertarNoAplicados(historiales, tamanoLote));
+        } catch (DataIntegrityViolationException e) {
+            for (Historial historial : historiales) {
+                try {
+                    transactionTemplate.executeWithoutResult(estado -> insertarNoAplicados(List.of(historial), 1));
+                } catch (DataIntegrityViolationException ex) {
+                    log.error("Se descarta un historial de la bitácora por integridad de datos: {}", historial);
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserta los registros cuya clave de bitácora todavía no existe en la tabla.
+     */
+    private void insertarNoAplicados(List<Historial> historiales, int tamano) {
+        List<String> claves = historiales.stream().map(Historial::getClaveBitacora).toList();
+        Set<String> aplicadas = claves.isEmpty() ? Set.of() : new HashSet<>(historialRepository.findClavesBitacora(claves));
+        List<Historial> pendientes = historiales.stream().filter(h -> !aplicadas.contains(h.getClaveBitacora())).toList();
+        if (!pendientes.isEmpty()) {
+            historialRepository.insertarEnLote(pendientes, tamano);
+        }
+    }
+
+    /**
+     * Lee los registros de un tramo. Los ilegibles o sin clave de deduplicación se descartan
+     * (registrándolos en el log), ya que no se podrían reproducir sin riesgo de duplicarlos.
+     */
+    private List<Historial> deserializar(List<byte[]> registros) {
+        List<Historial> historiales = new ArrayList<>(registros.size());
+        for (byte[] registro : registros) {
+            EntradaBitacora entrada;
+            try {
+                entrada = objectMapper.readValue(registro, EntradaBitacora.class);
+            } catch (IOException e) {
+                log.error("Se descarta un registro ilegible de la bitácora de historiales", new UncheckedIOException(e));
+                continue;
+            }
+            if (entrada.clave() == null || entrada.clave().isBlank() || entrada.historial() == null) {
+                log.error("Se descarta un registro de la bitácora de historiales sin clave de deduplicación: {}",
+                        new String(registro, StandardCharsets.UTF_8));
+                continue;
+            }
+            entrada.historial().setClaveBitacora(entrada.clave());
+            historiales.add(entrada.historial());
+        }
+        return historiales;
+    }
+
+    /**
+     * Registro tal como se escribe en la bitácora: la clave de deduplicación y el historial.
+     *
+     * @param clave     La clave única del registro.
+     * @param historial El registro de historial.
+     */
+    private record EntradaBitacora(String clave, Historial historial) {
+    }
+}
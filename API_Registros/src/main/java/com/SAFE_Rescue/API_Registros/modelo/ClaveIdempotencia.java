@@ -0,0 +1,52 @@
+package com.SAFE_Rescue.API_Registros.modelo;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que almacena las claves de idempotencia ({@code Idempotency-Key}) ya procesadas.
+ * <p>
+ * Permite que un reintento de una misma solicitud de creación retorne el resultado original
+ * en lugar de insertar un registro duplicado. Es el respaldo persistente del filtro en memoria
+ * y se mapea a la tabla "clave_idempotencia" en la base de datos.
+ * </p>
+ */
+@Entity
+@Table(name = "clave_idempotencia", indexes = @Index(name = "idx_clave_idempotencia_fecha", columnList = "fecha_creacion"))
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ClaveIdempotencia {
+
+    /**
+     * Clave compuesta por el recurso y la clave enviada por el cliente (ej. "historial:3f2a...").
+     */
+    @Id
+    @Column(name = "clave", length = 130)
+    private String clave;
+
+    /**
+     * Resultado original de la operación, serializado en JSON. Queda vacío mientras la operación
+     * reservada con esta clave sigue en curso.
+     */
+    @Lob
+    @Column(name = "respuesta", nullable = false)
+    private String respuesta;
+
+    /**
+     * Fecha y hora en que se procesó la solicitud original. Se utiliza para aplicar el TTL.
+     */
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    /**
+     * Huella (SHA-256 en hexadecimal) de la solicitud original. Una repetición con la misma clave y
+     * otra huella se rechaza en lugar de retornar este resultado.
+     */
+    @Column(name = "huella_solicitud", length = 64)
+    private String huellaSolicitud;
+}
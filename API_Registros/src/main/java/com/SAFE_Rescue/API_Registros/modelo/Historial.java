@@ -1,5 +1,7 @@
 package com.SAFE_Rescue.API_Registros.modelo;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonSetter;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -16,10 +18,28 @@ import java.time.LocalDateTime;
  * relevantes para fines de trazabilidad, depuración o cumplimiento.
  * Se mapea a la tabla "historial" en la base de datos.
  * </p>
+ * <p>
+ * Cada columna de búsqueda tiene un índice compuesto con {@code fecha_historial} como segunda
+ * columna, de modo que una línea de tiempo (ej. todos los eventos de un incidente ordenados por
+ * fecha) se resuelve con un rango sobre un único índice. InnoDB agrega la clave primaria al final
+ * de cada índice secundario, lo que también cubre el desempate por ID de la paginación.
+ * </p>
  *
  */
 @Entity
-@Table(name = "historial")
+@Table(name = "historial", indexes = {
+        @Index(name = "idx_historial_fecha_id", columnList = "fecha_historial, id_historial"),
+        @Index(name = "idx_historial_estado_fecha", columnList = "id_estado, fecha_historial"),
+        @Index(name = "idx_historial_categoria_fecha", columnList = "id_categoria, fecha_historial"),
+        @Index(name = "idx_historial_asig_incidente_fecha", columnList = "id_asignacion_incidente, fecha_historial"),
+        @Index(name = "idx_historial_asig_usuario_fecha", columnList = "id_asignacion_usuario, fecha_historial"),
+        @Index(name = "idx_historial_envio_mensaje_fecha", columnList = "id_envio_mensaje, fecha_historial"),
+        @Index(name = "idx_historial_direccion_fecha", columnList = "id_direccion, fecha_historial"),
+        @Index(name = "idx_historial_usuario_reporte_fecha", columnList = "id_usuario_reporte, fecha_historial"),
+        @Index(name = "idx_historial_asig_curso_fecha", columnList = "id_asignacion_curso, fecha_historial")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_historial_clave_bitacora", columnNames = {"clave_bitacora", "fecha_historial"})
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
@@ -43,9 +63,18 @@ public class Historial {
      * Relación Muchos-a-Uno con la entidad {@code Estado}.
      * Representa el estado que se registró en el momento del evento del historial
      * (e.g., "Incidente Abierto", "Usuario Bloqueado").
+     * <p>
+     * Se carga de forma diferida: cada consulta de {@code HistorialRepository} indica explícitamente
+     * si obtiene el estado en la misma sentencia (join fetch o grafo de entidad).
+     * </p>
+     * <p>
+     * Hibernate no genera la clave foránea, porque MySQL no la admite en la tabla particionada: la
+     * referencia se valida en la aplicación. Sin particionado, las claves foráneas de {@code estado}
+     * y {@code categoria} se agregan con {@code db/claves-foraneas-historial.sql}.
+     * </p>
      */
-    @ManyToOne
-    @JoinColumn(name = "id_estado", nullable = false)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_estado", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @Schema(description = "Estado asociado a este registro de historial")
     private Estado estado;
 
@@ -58,9 +87,12 @@ public class Historial {
      * de {@code id_estado} a **{@code id_categoria}** para que apunte
      * a la tabla correcta.
      * </p>
+     * <p>
+     * Se carga de forma diferida y sin clave foránea generada, igual que {@link #estado}.
+     * </p>
      */
-    @ManyToOne
-    @JoinColumn(name = "id_categoria", nullable = false)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_categoria", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @Schema(description = "Categoría asociada a este registro de historial")
     private Categoria categoria;
 
@@ -137,4 +169,48 @@ public class Historial {
     @Column(name = "id_asignacion_curso", nullable = true)
     @Schema(description = "Identificador opcional de la asignación del curso", example = "50")
     private Integer idAsignacionCurso;
-}
\ No newline at end of file
+
+    /**
+     * Clave asignada al escribir el registro en la bitácora de ingesta local. Al reproducir la
+     * bitácora, los registros cuya clave ya existe se omiten, por lo que reaplicar un tramo no
+     * confirmado no los duplica. Es {@code null} para los registros ingresados por otras vías.
+     * <p>
+     * La restricción única incluye {@code fecha_historial} porque en una tabla particionada toda
+     * clave única debe contener la columna de partición; la fecha de un registro reproducido no cambia.
+     * </p>
+     */
+    @JsonIgnore
+    @Column(name = "clave_bitacora", length = 36)
+    @Schema(hidden = true)
+    private String claveBitacora;
+
+    // -------------------------------------------------------------------------
+    // REFERENCIAS POR ID (SOLO ENTRADA)
+    // -------------------------------------------------------------------------
+
+    /**
+     * Permite indicar el estado solo con su ID al crear un historial (ej. {@code "estadoId": 1}),
+     * en lugar del objeto completo. El servicio lo reemplaza por la entidad del catálogo antes de persistir.
+     *
+     * @param estadoId El ID del estado.
+     */
+    @JsonSetter("estadoId")
+    @Schema(description = "ID del estado; alternativa a enviar el objeto 'estado' al crear", example = "1",
+            accessMode = Schema.AccessMode.WRITE_ONLY)
+    public void referenciarEstado(Integer estadoId) {
+        this.estado = estadoId == null ? null : new Estado(estadoId, null, null);
+    }
+
+    /**
+     * Permite indicar la categoría solo con su ID al crear un historial (ej. {@code "categoriaId": 2}),
+     * en lugar del objeto completo. El servicio lo reemplaza por la entidad del catálogo antes de persistir.
+     *
+     * @param categoriaId El ID de la categoría.
+     */
+    @JsonSetter("categoriaId")
+    @Schema(description = "ID de la categoría; alternativa a enviar el objeto 'categoria' al crear", example = "2",
+            accessMode = Schema.AccessMode.WRITE_ONLY)
+    public void referenciarCategoria(Integer categoriaId) {
+        this.categoria = categoriaId == null ? null : new Categoria(categoriaId, null, null);
+    }
+}
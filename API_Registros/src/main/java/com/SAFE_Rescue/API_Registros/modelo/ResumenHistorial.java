@@ -0,0 +1,113 @@
+package com.SAFE_Rescue.API_Registros.modelo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Conteo precalculado de registros de {@link Historial} por intervalo de tiempo, estado y categoría.
+ * <p>
+ * Cada fila acumula la cantidad de eventos de un intervalo (minuto, hora o día) para una combinación
+ * de estado y categoría. Se actualiza en la misma transacción que inserta los historiales, por lo que
+ * una consulta de totales lee una fila por intervalo en lugar de contar los registros.
+ * Se mapea a la tabla "resumen_historial" en la base de datos.
+ * </p>
+ * <p>
+ * No tiene claves foráneas: es un dato derivado que puede recalcularse desde la tabla {@code historial}.
+ * </p>
+ */
+@Entity
+@Table(name = "resumen_historial")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Schema(description = "Cantidad de registros de historial por intervalo, estado y categoría")
+public class ResumenHistorial {
+
+    /**
+     * Clave compuesta: granularidad, inicio del intervalo, estado y categoría.
+     */
+    @EmbeddedId
+    private Clave clave;
+
+    /**
+     * Cantidad de registros de historial dentro del intervalo.
+     */
+    @Column(name = "cantidad", nullable = false)
+    @Schema(description = "Cantidad de registros", example = "42")
+    private long cantidad;
+
+    /**
+     * Tamaño de los intervalos de un resumen.
+     */
+    public enum Granularidad {
+        MINUTO(ChronoUnit.MINUTES),
+        HORA(ChronoUnit.HOURS),
+        DIA(ChronoUnit.DAYS);
+
+        private final ChronoUnit unidad;
+
+        Granularidad(ChronoUnit unidad) {
+            this.unidad = unidad;
+        }
+
+        public ChronoUnit getUnidad() {
+            return unidad;
+        }
+
+        /**
+         * Obtiene el inicio del intervalo que contiene la fecha indicada.
+         *
+         * @param fecha La fecha a truncar.
+         * @return La fecha truncada a la granularidad.
+         */
+        public LocalDateTime truncar(LocalDateTime fecha) {
+            return fecha.truncatedTo(unidad);
+        }
+
+        /**
+         * Obtiene la granularidad a partir de su nombre, sin distinguir mayúsculas.
+         *
+         * @param nombre El nombre de la granularidad (ej. "hora").
+         * @return La granularidad correspondiente.
+         * @throws IllegalArgumentException Si la granularidad no existe.
+         */
+        public static Granularidad desde(String nombre) {
+            for (Granularidad granularidad : values()) {
+                if (granularidad.name().equalsIgnoreCase(nombre)) {
+                    return granularidad;
+                }
+            }
+            throw new IllegalArgumentException("Granularidad no soportada: " + nombre + ". Use minuto, hora o dia.");
+        }
+    }
+
+    /**
+     * Clave compuesta de {@link ResumenHistorial}.
+     */
+    @Embeddable
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Data
+    public static class Clave implements Serializable {
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "granularidad", length = 6, nullable = false)
+        private Granularidad granularidad;
+
+        @Column(name = "inicio_periodo", nullable = false)
+        private LocalDateTime inicioPeriodo;
+
+        @Column(name = "id_estado", nullable = false)
+        private int idEstado;
+
+        @Column(name = "id_categoria", nullable = false)
+        private int idCategoria;
+    }
+}
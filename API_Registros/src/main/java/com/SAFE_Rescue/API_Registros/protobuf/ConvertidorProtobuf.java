@@ -0,0 +1,159 @@
+package com.SAFE_Rescue.API_Registros.protobuf;
+
+import com.SAFE_Rescue.API_Registros.modelo.Foto;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Convertidor HTTP para {@code application/x-protobuf}, según los mensajes de
+ * {@code src/main/resources/proto/registros.proto}.
+ * <p>
+ * Lee y escribe {@link Historial}, {@link Foto} y listas de ambos (mensajes {@code HistorialLista}
+ * y {@code FotoLista}). Solo se usa cuando el cliente lo pide con {@code Accept} o
+ * {@code Content-Type}; JSON sigue siendo el formato por defecto. Otros cuerpos, como la vista
+ * compacta o los resultados de lote, no tienen mensaje Protobuf y se responden en JSON.
+ * </p>
+ */
+public class ConvertidorProtobuf extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType(APPLICATION_PROTOBUF_VALUE);
+
+    public ConvertidorProtobuf() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Historial.class.isAssignableFrom(clazz) || Foto.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return tipoSoportado(type, true) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        // Con ResponseEntity<?> el tipo declarado es Object: se decide por la clase del valor.
+        Type declarado = type != null && ResolvableType.forType(type).resolve(Object.class) != Object.class ? type : clazz;
+        return tipoSoportado(declarado, false) && canWrite(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+        return canWrite(null, clazz, mediaType);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        Class<?> clase = ResolvableType.forType(type).resolve(Object.class);
+        return leer(clase, type, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        return leer(clazz, clazz, inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object objeto, @Nullable Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        SalidaProtobuf salida = new SalidaProtobuf(256);
+        if (objeto instanceof Historial historial) {
+            MensajesProtobuf.escribirHistorial(salida, historial);
+        } else if (objeto instanceof Foto foto) {
+            MensajesProtobuf.escribirFoto(salida, foto);
+        } else if (objeto instanceof Collection<?> coleccion) {
+            Class<?> elemento = claseElemento(coleccion);
+            if (elemento == Historial.class) {
+                MensajesProtobuf.escribirHistoriales(salida, (Collection<Historial>) coleccion);
+            } else if (elemento == Foto.class) {
+                MensajesProtobuf.escribirFotos(salida, (Collection<Foto>) coleccion);
+            } else if (elemento != null) {
+                throw new HttpMessageNotWritableException("No existe un mensaje Protobuf para listas de " + elemento.getSimpleName() + ".");
+            }
+        } else {
+            throw new HttpMessageNotWritableException("No existe un mensaje Protobuf para " + objeto.getClass().getSimpleName() + ".");
+        }
+        outputMessage.getHeaders().setContentLength(salida.tamano());
+        salida.copiarEn(outputMessage.getBody());
+    }
+
+    private Object leer(Class<?> clase, Type type, HttpInputMessage inputMessage) throws IOException {
+        EntradaProtobuf entrada = new EntradaProtobuf(inputMessage.getBody().readAllBytes());
+        try {
+            if (Historial.class.isAssignableFrom(clase)) {
+                return MensajesProtobuf.leerHistorial(entrada);
+            }
+            if (Foto.class.isAssignableFrom(clase)) {
+                return MensajesProtobuf.leerFoto(entrada);
+            }
+            Class<?> elemento = ResolvableType.forType(type).asCollection().resolveGeneric(0);
+            if (elemento == Historial.class) {
+                return MensajesProtobuf.leerHistoriales(entrada);
+            }
+            if (elemento == Foto.class) {
+                return MensajesProtobuf.leerFotos(entrada);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+        }
+        throw new HttpMessageNotReadableException("No existe un mensaje Protobuf para " + type.getTypeName() + ".", inputMessage);
+    }
+
+    /**
+     * Indica si el tipo declarado tiene un mensaje Protobuf. Las colecciones cuyo tipo de elemento no
+     * se puede resolver (ej. una lista dentro de {@code ResponseEntity<?>}) no se aceptan, para que el
+     * cliente reciba 406 y no un error al escribir; los controladores usan {@link HistorialLista} y
+     * {@link FotoLista} para conservar el tipo.
+     */
+    private boolean tipoSoportado(Type type, boolean lectura) {
+        ResolvableType tipo = ResolvableType.forType(type);
+        Class<?> clase = tipo.resolve();
+        if (clase == null) {
+            return false;
+        }
+        if (supports(clase)) {
+            return true;
+        }
+        if (lectura ? !List.class.isAssignableFrom(clase) && clase != Collection.class : !Collection.class.isAssignableFrom(clase)) {
+            return false;
+        }
+        Class<?> elemento = tipo.asCollection().resolveGeneric(0);
+        return elemento == Historial.class || elemento == Foto.class;
+    }
+
+    /**
+     * Obtiene la clase de los elementos de una colección a partir del primero.
+     *
+     * @return La clase, o {@code null} si la colección está vacía.
+     */
+    private static Class<?> claseElemento(Collection<?> coleccion) {
+        for (Object elemento : coleccion) {
+            if (elemento instanceof Historial) {
+                return Historial.class;
+            }
+            if (elemento instanceof Foto) {
+                return Foto.class;
+            }
+            return elemento == null ? Object.class : elemento.getClass();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,139 @@
+package com.SAFE_Rescue.API_Registros.protobuf;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lector del formato binario de Protocol Buffers (proto3) sobre un arreglo en memoria.
+ * <p>
+ * Los campos desconocidos se saltan según su tipo, de modo que un cliente con una versión más
+ * nueva de {@code registros.proto} puede seguir enviando mensajes. Un mensaje mal formado produce
+ * {@link IllegalArgumentException}.
+ * </p>
+ */
+final class EntradaProtobuf {
+
+    private static final int TIPO_64_BITS = 1;
+    private static final int TIPO_32_BITS = 5;
+
+    private final byte[] datos;
+    private final int limite;
+    private int posicion;
+
+    EntradaProtobuf(byte[] datos) {
+        this(datos, 0, datos.length);
+    }
+
+    private EntradaProtobuf(byte[] datos, int desde, int hasta) {
+        this.datos = datos;
+        this.posicion = desde;
+        this.limite = hasta;
+    }
+
+    boolean hayMas() {
+        return posicion < limite;
+    }
+
+    /**
+     * Lee la etiqueta del campo siguiente.
+     *
+     * @return La etiqueta: número de campo desplazado 3 bits y tipo en los 3 bits bajos.
+     */
+    int etiqueta() {
+        int etiqueta = (int) varint();
+        if ((etiqueta >>> 3) == 0) {
+            throw new IllegalArgumentException("Mensaje Protobuf inválido: número de campo 0.");
+        }
+        return etiqueta;
+    }
+
+    static int campo(int etiqueta) {
+        return etiqueta >>> 3;
+    }
+
+    static int tipo(int etiqueta) {
+        return etiqueta & 0x7;
+    }
+
+    int int32() {
+        return (int) varint();
+    }
+
+    long int64() {
+        return varint();
+    }
+
+    String texto() {
+        int longitud = longitud();
+        String texto = new String(datos, posicion, longitud, StandardCharsets.UTF_8);
+        posicion += longitud;
+        return texto;
+    }
+
+    /**
+     * Lee un mensaje anidado.
+     *
+     * @return Un lector limitado al contenido del mensaje.
+     */
+    EntradaProtobuf mensaje() {
+        int longitud = longitud();
+        EntradaProtobuf contenido = new EntradaProtobuf(datos, posicion, posicion + longitud);
+        posicion += longitud;
+        return contenido;
+    }
+
+    /**
+     * Salta el valor de un campo desconocido.
+     *
+     * @param etiqueta La etiqueta del campo.
+     */
+    void saltar(int etiqueta) {
+        switch (tipo(etiqueta)) {
+            case SalidaProtobuf.TIPO_VARINT -> varint();
+            case TIPO_64_BITS -> avanzar(8);
+            case SalidaProtobuf.TIPO_LONGITUD -> avanzar(longitud());
+            case TIPO_32_BITS -> avanzar(4);
+            default -> throw new IllegalArgumentException("Mensaje Protobuf inválido: tipo de campo " + tipo(etiqueta) + " no soportado.");
+        }
+    }
+
+    /**
+     * Verifica que el campo tenga el tipo esperado.
+     *
+     * @throws IllegalArgumentException Si el tipo no coincide.
+     */
+    static void exigirTipo(int etiqueta, int tipo) {
+        if (tipo(etiqueta) != tipo) {
+            throw new IllegalArgumentException("Mensaje Protobuf inválido: el campo " + campo(etiqueta) + " tiene un tipo inesperado.");
+        }
+    }
+
+    private long varint() {
+        long valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+            if (posicion >= limite) {
+                throw new IllegalArgumentException("Mensaje Protobuf inválido: varint truncado.");
+            }
+            byte b = datos[posicion++];
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IllegalArgumentException("Mensaje Protobuf inválido: varint demasiado largo.");
+    }
+
+    private int longitud() {
+        long longitud = varint();
+        if (longitud < 0 || longitud > limite - posicion) {
+            throw new IllegalArgumentException("Mensaje Protobuf inválido: longitud fuera del mensaje.");
+        }
+        return (int) longitud;
+    }
+
+    private void avanzar(int cantidad) {
+        if (cantidad > limite - posicion) {
+            throw new IllegalArgumentException("Mensaje Protobuf inválido: campo truncado.");
+        }
+        posicion += cantidad;
+    }
+}
@@ -0,0 +1,18 @@
+package com.SAFE_Rescue.API_Registros.protobuf;
+
+import com.SAFE_Rescue.API_Registros.modelo.Foto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Lista de {@link Foto} usada como cuerpo de respuesta, equivalente al mensaje {@code FotoLista}.
+ *
+ * @see HistorialLista
+ */
+public class FotoLista extends ArrayList<Foto> {
+
+    public FotoLista(Collection<Foto> fotos) {
+        super(fotos);
+    }
+}
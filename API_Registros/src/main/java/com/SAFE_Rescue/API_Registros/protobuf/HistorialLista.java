@@ -0,0 +1,21 @@
+package com.SAFE_Rescue.API_Registros.protobuf;
+
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Lista de {@link Historial} usada como cuerpo de respuesta, equivalente al mensaje {@code HistorialLista}.
+ * <p>
+ * Los controladores que responden {@code ResponseEntity<?>} pierden el tipo de los elementos; con
+ * esta clase {@link ConvertidorProtobuf} lo obtiene de la clase del cuerpo y puede ofrecer
+ * {@code application/x-protobuf}. En JSON se serializa como cualquier lista.
+ * </p>
+ */
+public class HistorialLista extends ArrayList<Historial> {
+
+    public HistorialLista(Collection<Historial> historiales) {
+        super(historiales);
+    }
+}
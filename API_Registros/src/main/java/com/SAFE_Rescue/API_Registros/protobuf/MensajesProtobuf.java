@@ -0,0 +1,205 @@
+package com.SAFE_Rescue.API_Registros.protobuf;
+
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Foto;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.SAFE_Rescue.API_Registros.protobuf.EntradaProtobuf.campo;
+import static com.SAFE_Rescue.API_Registros.protobuf.EntradaProtobuf.exigirTipo;
+import static com.SAFE_Rescue.API_Registros.protobuf.SalidaProtobuf.TIPO_LONGITUD;
+import static com.SAFE_Rescue.API_Registros.protobuf.SalidaProtobuf.TIPO_VARINT;
+
+/**
+ * Codificación de las entidades según los mensajes de {@code src/main/resources/proto/registros.proto}.
+ * <p>
+ * Los números de campo de este archivo y del esquema deben mantenerse iguales. Las fechas se envían
+ * como microsegundos desde 1970-01-01T00:00, sin zona horaria, igual que el valor JSON.
+ * </p>
+ */
+final class MensajesProtobuf {
+
+    private static final LocalDateTime EPOCA = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+
+    private MensajesProtobuf() {
+    }
+
+    // -------------------------------------------------------------------------
+    // ESCRITURA
+    // -------------------------------------------------------------------------
+
+    static void escribirHistoriales(SalidaProtobuf salida, Collection<Historial> historiales) {
+        salida.repetido(1, historiales, MensajesProtobuf::escribirHistorial);
+    }
+
+    static void escribirFotos(SalidaProtobuf salida, Collection<Foto> fotos) {
+        salida.repetido(1, fotos, MensajesProtobuf::escribirFoto);
+    }
+
+    static void escribirHistorial(SalidaProtobuf salida, Historial historial) {
+        salida.int32(1, historial.getIdHistorial());
+        salida.mensaje(2, historial.getEstado(), MensajesProtobuf::escribirEstado);
+        salida.mensaje(3, historial.getCategoria(), MensajesProtobuf::escribirCategoria);
+        salida.int64Opcional(4, aMicros(historial.getFechaHistorial()));
+        salida.texto(5, historial.getDetalle());
+        salida.int32Opcional(6, historial.getIdAsignacionIncidente());
+        salida.int32Opcional(7, historial.getIdAsignacionUsuario());
+        salida.int32Opcional(8, historial.getIdEnvioMensaje());
+        salida.int32Opcional(9, historial.getIdDireccion());
+        salida.int32Opcional(10, historial.getIdUsuarioReporte());
+        salida.int32Opcional(11, historial.getIdAsignacionCurso());
+    }
+
+    static void escribirFoto(SalidaProtobuf salida, Foto foto) {
+        salida.int32(1, foto.getIdFoto());
+        salida.texto(2, foto.getUrl());
+        salida.int64Opcional(3, aMicros(foto.getFechaSubida()));
+        salida.textoOpcional(4, foto.getDescripcion());
+    }
+
+    private static void escribirEstado(SalidaProtobuf salida, Estado estado) {
+        salida.int32(1, estado.getIdEstado());
+        salida.texto(2, estado.getNombre());
+        salida.textoOpcional(3, estado.getDescripcion());
+    }
+
+    private static void escribirCategoria(SalidaProtobuf salida, Categoria categoria) {
+        salida.int32(1, categoria.getIdCategoria());
+        salida.texto(2, categoria.getNombre());
+        salida.textoOpcional(3, categoria.getDescripcion());
+    }
+
+    // -------------------------------------------------------------------------
+    // LECTURA
+    // -------------------------------------------------------------------------
+
+    static List<Historial> leerHistoriales(EntradaProtobuf entrada) {
+        List<Historial> historiales = new ArrayList<>();
+        while (entrada.hayMas()) {
+            int etiqueta = entrada.etiqueta();
+            if (campo(etiqueta) == 1) {
+                exigirTipo(etiqueta, TIPO_LONGITUD);
+                historiales.add(leerHistorial(entrada.mensaje()));
+            } else {
+                entrada.saltar(etiqueta);
+            }
+        }
+        return historiales;
+    }
+
+    static List<Foto> leerFotos(EntradaProtobuf entrada) {
+        List<Foto> fotos = new ArrayList<>();
+        while (entrada.hayMas()) {
+            int etiqueta = entrada.etiqueta();
+            if (campo(etiqueta) == 1) {
+                exigirTipo(etiqueta, TIPO_LONGITUD);
+                fotos.add(leerFoto(entrada.mensaje()));
+            } else {
+                entrada.saltar(etiqueta);
+            }
+        }
+        return fotos;
+    }
+
+    static Historial leerHistorial(EntradaProtobuf entrada) {
+        Historial historial = new Historial();
+        while (entrada.hayMas()) {
+            int etiqueta = entrada.etiqueta();
+            switch (campo(etiqueta)) {
+                case 1 -> historial.setIdHistorial(leerInt32(entrada, etiqueta));
+                case 2 -> {
+                    exigirTipo(etiqueta, TIPO_LONGITUD);
+                    historial.setEstado(leerEstado(entrada.mensaje()));
+                }
+                case 3 -> {
+                    exigirTipo(etiqueta, TIPO_LONGITUD);
+                    historial.setCategoria(leerCategoria(entrada.mensaje()));
+                }
+                case 4 -> historial.setFechaHistorial(leerFecha(entrada, etiqueta));
+                case 5 -> historial.setDetalle(leerTexto(entrada, etiqueta));
+                case 6 -> historial.setIdAsignacionIncidente(leerInt32(entrada, etiqueta));
+                case 7 -> historial.setIdAsignacionUsuario(leerInt32(entrada, etiqueta));
+                case 8 -> historial.setIdEnvioMensaje(leerInt32(entrada, etiqueta));
+                case 9 -> historial.setIdDireccion(leerInt32(entrada, etiqueta));
+                case 10 -> historial.setIdUsuarioReporte(leerInt32(entrada, etiqueta));
+                case 11 -> historial.setIdAsignacionCurso(leerInt32(entrada, etiqueta));
+                case 12 -> historial.referenciarEstado(leerInt32(entrada, etiqueta));
+                case 13 -> historial.referenciarCategoria(leerInt32(entrada, etiqueta));
+                default -> entrada.saltar(etiqueta);
+            }
+        }
+        return historial;
+    }
+
+    static Foto leerFoto(EntradaProtobuf entrada) {
+        Foto foto = new Foto();
+        while (entrada.hayMas()) {
+            int etiqueta = entrada.etiqueta();
+            switch (campo(etiqueta)) {
+                case 1 -> foto.setIdFoto(leerInt32(entrada, etiqueta));
+                case 2 -> foto.setUrl(leerTexto(entrada, etiqueta));
+                case 3 -> foto.setFechaSubida(leerFecha(entrada, etiqueta));
+                case 4 -> foto.setDescripcion(leerTexto(entrada, etiqueta));
+                default -> entrada.saltar(etiqueta);
+            }
+        }
+        return foto;
+    }
+
+    private static Estado leerEstado(EntradaProtobuf entrada) {
+        Estado estado = new Estado();
+        while (entrada.hayMas()) {
+            int etiqueta = entrada.etiqueta();
+            switch (campo(etiqueta)) {
+                case 1 -> estado.setIdEstado(leerInt32(entrada, etiqueta));
+                case 2 -> estado.setNombre(leerTexto(entrada, etiqueta));
+                case 3 -> estado.setDescripcion(leerTexto(entrada, etiqueta));
+                default -> entrada.saltar(etiqueta);
+            }
+        }
+        return estado;
+    }
+
+    private static Categoria leerCategoria(EntradaProtobuf entrada) {
+        Categoria categoria = new Categoria();
+        while (entrada.hayMas()) {
+            int etiqueta = entrada.etiqueta();
+            switch (campo(etiqueta)) {
+                case 1 -> categoria.setIdCategoria(leerInt32(entrada, etiqueta));
+                case 2 -> categoria.setNombre(leerTexto(entrada, etiqueta));
+                case 3 -> categoria.setDescripcion(leerTexto(entrada, etiqueta));
+                default -> entrada.saltar(etiqueta);
+            }
+        }
+        return categoria;
+    }
+
+    private static int leerInt32(EntradaProtobuf entrada, int etiqueta) {
+        exigirTipo(etiqueta, TIPO_VARINT);
+        return entrada.int32();
+    }
+
+    private static String leerTexto(EntradaProtobuf entrada, int etiqueta) {
+        exigirTipo(etiqueta, TIPO_LONGITUD);
+        return entrada.texto();
+    }
+
+    private static LocalDateTime leerFecha(EntradaProtobuf entrada, int etiqueta) {
+        exigirTipo(etiqueta, TIPO_VARINT);
+        return EPOCA.plus(entrada.int64(), ChronoUnit.MICROS);
+    }
+
+    /**
+     * Convierte una fecha a microsegundos desde 1970-01-01T00:00. Los nanosegundos restantes se descartan.
+     */
+    private static Long aMicros(LocalDateTime fecha) {
+        return fecha == null ? null : ChronoUnit.MICROS.between(EPOCA, fecha);
+    }
+}
@@ -0,0 +1,147 @@
+package com.SAFE_Rescue.API_Registros.protobuf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Escritor del formato binario de Protocol Buffers (proto3) sobre un arreglo en memoria.
+ * <p>
+ * Solo implementa los tipos que usan los mensajes de {@code registros.proto}: varint, int64 y
+ * cadenas/mensajes con prefijo de longitud. Los campos con valor por defecto se omiten, salvo los
+ * declarados {@code optional}, que se escriben siempre que no sean nulos.
+ * </p>
+ */
+final class SalidaProtobuf {
+
+    static final int TIPO_VARINT = 0;
+    static final int TIPO_LONGITUD = 2;
+
+    private byte[] datos;
+    private int tamano;
+
+    /**
+     * Escritor reutilizado para los mensajes anidados, de modo que cada nivel no reserve un arreglo
+     * nuevo por elemento.
+     */
+    private SalidaProtobuf anidado;
+
+    SalidaProtobuf(int capacidad) {
+        this.datos = new byte[Math.max(capacidad, 16)];
+    }
+
+    void int32(int campo, int valor) {
+        if (valor != 0) {
+            etiqueta(campo, TIPO_VARINT);
+            varint(valor);
+        }
+    }
+
+    void int32Opcional(int campo, Integer valor) {
+        if (valor != null) {
+            etiqueta(campo, TIPO_VARINT);
+            varint(valor);
+        }
+    }
+
+    void int64Opcional(int campo, Long valor) {
+        if (valor != null) {
+            etiqueta(campo, TIPO_VARINT);
+            varint(valor);
+        }
+    }
+
+    void texto(int campo, String valor) {
+        if (valor != null && !valor.isEmpty()) {
+            textoOpcional(campo, valor);
+        }
+    }
+
+    void textoOpcional(int campo, String valor) {
+        if (valor != null) {
+            byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+            etiqueta(campo, TIPO_LONGITUD);
+            varint(bytes.length);
+            bytes(bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Escribe un mensaje anidado. El contenido se escribe primero en el escritor anidado para conocer
+     * su longitud.
+     */
+    <T> void mensaje(int campo, T valor, Escritura<T> escritura) {
+        if (valor == null) {
+            return;
+        }
+        if (anidado == null) {
+            anidado = new SalidaProtobuf(128);
+        }
+        SalidaProtobuf contenido = anidado;
+        contenido.tamano = 0;
+        escritura.escribir(contenido, valor);
+        etiqueta(campo, TIPO_LONGITUD);
+        varint(contenido.tamano);
+        bytes(contenido.datos, 0, contenido.tamano);
+    }
+
+    /**
+     * Escribe cada elemento como un campo repetido del mensaje.
+     */
+    <T> void repetido(int campo, Iterable<? extends T> valores, Escritura<T> escritura) {
+        for (T valor : valores) {
+            mensaje(campo, valor, escritura);
+        }
+    }
+
+    int tamano() {
+        return tamano;
+    }
+
+    byte[] aBytes() {
+        return Arrays.copyOf(datos, tamano);
+    }
+
+    void copiarEn(OutputStream salida) throws IOException {
+        salida.write(datos, 0, tamano);
+    }
+
+    private void etiqueta(int campo, int tipo) {
+        varint((campo << 3) | tipo);
+    }
+
+    /**
+     * Escribe un varint. Los enteros negativos se escriben con 10 bytes, como indica proto3 para int32/int64.
+     */
+    private void varint(long valor) {
+        asegurar(10);
+        while ((valor & ~0x7FL) != 0) {
+            datos[tamano++] = (byte) ((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        datos[tamano++] = (byte) valor;
+    }
+
+    private void bytes(byte[] origen, int desde, int cantidad) {
+        asegurar(cantidad);
+        System.arraycopy(origen, desde, datos, tamano, cantidad);
+        tamano += cantidad;
+    }
+
+    private void asegurar(int adicional) {
+        if (tamano + adicional > datos.length) {
+            datos = Arrays.copyOf(datos, Math.max(datos.length * 2, tamano + adicional));
+        }
+    }
+
+    /**
+     * Escribe los campos de un mensaje.
+     *
+     * @param <T> El tipo del valor representado por el mensaje.
+     */
+    @FunctionalInterface
+    interface Escritura<T> {
+        void escribir(SalidaProtobuf salida, T valor);
+    }
+}
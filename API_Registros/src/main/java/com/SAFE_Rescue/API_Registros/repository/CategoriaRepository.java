@@ -1,6 +1,7 @@
 package com.SAFE_Rescue.API_Registros.repository;
 
 import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -32,4 +33,13 @@ public interface CategoriaRepository extends JpaRepository<Categoria, Integer> {
      * Retorna una lista vacía si no se encuentra ninguna categoría con ese nombre.
      */
     List<Categoria> findByNombre(String nombre);
-}
\ No newline at end of file
+
+    /**
+     * Recupera una página de categorías con ID mayor al indicado, ordenada por ID (paginación keyset).
+     *
+     * @param idCategoria El ID del último elemento de la página anterior.
+     * @param limite La cantidad máxima de elementos a retornar.
+     * @return Una {@code List} con las categorías siguientes.
+     */
+    List<Categoria> findByIdCategoriaGreaterThanOrderByIdCategoriaAsc(int idCategoria, Limit limite);
+}
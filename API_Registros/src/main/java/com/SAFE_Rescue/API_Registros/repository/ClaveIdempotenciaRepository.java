@@ -0,0 +1,83 @@
+package com.SAFE_Rescue.API_Registros.repository;
+
+import com.SAFE_Rescue.API_Registros.modelo.ClaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de Spring Data JPA para la entidad {@link ClaveIdempotencia}.
+ *
+ * @see ClaveIdempotencia
+ */
+@Repository
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, String> {
+
+    /**
+     * Recupera las claves registradas a partir de la fecha indicada, sin cargar sus respuestas.
+     *
+     * @param desde Fecha mínima de creación.
+     * @return Una lista con las claves vigentes.
+     */
+    @Query("select c.clave from ClaveIdempotencia c where c.fechaCreacion >= :desde")
+    List<String> findClavesDesde(@Param("desde") LocalDateTime desde);
+
+    /**
+     * Elimina las claves creadas antes de la fecha indicada.
+     *
+     * @param limite Fecha a partir de la cual las claves siguen vigentes.
+     * @return La cantidad de claves eliminadas.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from ClaveIdempotencia c where c.fechaCreacion < :limite")
+    int deleteByFechaCreacionBefore(@Param("limite") LocalDateTime limite);
+
+    /**
+     * Reserva una clave antes de ejecutar su operación, con la respuesta vacía y la huella de la solicitud.
+     * <p>
+     * Es una inserción explícita (no un {@code merge}), de modo que falla con
+     * {@link org.springframework.dao.DataIntegrityViolationException} si la clave ya existe.
+     * </p>
+     *
+     * @param clave  La clave a reservar.
+     * @param huella Huella de la solicitud que reserva la clave.
+     * @param fecha  Fecha de creación de la reserva.
+     * @return La cantidad de filas insertadas.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into clave_idempotencia (clave, respuesta, huella_solicitud, fecha_creacion)"
+            + " values (:clave, '', :huella, :fecha)", nativeQuery = true)
+    int reservar(@Param("clave") String clave, @Param("huella") String huella, @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Guarda el resultado de una clave reservada.
+     *
+     * @param clave     La clave reservada.
+     * @param respuesta El resultado de la operación, serializado en JSON.
+     * @return La cantidad de filas actualizadas.
+     */
+    @Modifying
+    @Transactional
+    @Query("update ClaveIdempotencia c set c.respuesta = :respuesta where c.clave = :clave")
+    int completar(@Param("clave") String clave, @Param("respuesta") String respuesta);
+
+    /**
+     * Elimina una clave solo si fue creada antes de la fecha indicada.
+     *
+     * @param clave  La clave a eliminar.
+     * @param limite Fecha a partir de la cual la clave sigue vigente.
+     * @return La cantidad de claves eliminadas (0 o 1).
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from ClaveIdempotencia c where c.clave = :clave and c.fechaCreacion < :limite")
+    int deleteVencida(@Param("clave") String clave, @Param("limite") LocalDateTime limite);
+}
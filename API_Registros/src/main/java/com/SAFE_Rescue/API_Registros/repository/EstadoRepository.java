@@ -1,6 +1,7 @@
 package com.SAFE_Rescue.API_Registros.repository;
 
 import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -31,4 +32,13 @@ public interface EstadoRepository extends JpaRepository<Estado, Integer> {
      * Retorna una lista vacía si no se encuentra ninguna coincidencia.
      */
     List<Estado> findByNombre(String nombre);
-}
\ No newline at end of file
+
+    /**
+     * Recupera una página de estados con ID mayor al indicado, ordenada por ID (paginación keyset).
+     *
+     * @param idEstado El ID del último elemento de la página anterior.
+     * @param limite La cantidad máxima de elementos a retornar.
+     * @return Una {@code List} con los estados siguientes.
+     */
+    List<Estado> findByIdEstadoGreaterThanOrderByIdEstadoAsc(int idEstado, Limit limite);
+}
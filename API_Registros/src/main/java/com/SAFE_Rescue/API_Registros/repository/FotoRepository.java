@@ -1,6 +1,7 @@
 package com.SAFE_Rescue.API_Registros.repository;
 
 import com.SAFE_Rescue.API_Registros.modelo.Foto;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -16,6 +17,14 @@ import java.util.List;
  * @see Foto
  */
 @Repository
-public interface FotoRepository extends JpaRepository<Foto, Integer> {
+public interface FotoRepository extends JpaRepository<Foto, Integer>, FotoRepositoryCustom {
 
-}
\ No newline at end of file
+    /**
+     * Recupera una página de fotos con ID mayor al indicado, ordenada por ID (paginación keyset).
+     *
+     * @param idFoto El ID del último elemento de la página anterior.
+     * @param limite La cantidad máxima de elementos a retornar.
+     * @return Una {@code List} con las fotos siguientes.
+     */
+    List<Foto> findByIdFotoGreaterThanOrderByIdFotoAsc(int idFoto, Limit limite);
+}
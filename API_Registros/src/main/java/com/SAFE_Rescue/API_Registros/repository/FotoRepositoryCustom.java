@@ -0,0 +1,27 @@
+package com.SAFE_Rescue.API_Registros.repository;
+
+import com.SAFE_Rescue.API_Registros.modelo.Foto;
+
+import java.util.List;
+
+/**
+ * Fragmento personalizado del repositorio de {@link Foto}.
+ *
+ * @see FotoRepository
+ */
+public interface FotoRepositoryCustom {
+
+    /**
+     * Inserta una lista de fotos utilizando lotes JDBC reales.
+     * <p>
+     * Igual que en {@link HistorialRepositoryCustom#insertarEnLote(List, int)}, la estrategia
+     * {@code GenerationType.IDENTITY} impide que Hibernate agrupe los INSERT, por lo que se envían
+     * directamente sobre la conexión de la transacción en curso. Los identificadores generados no
+     * se asignan de vuelta.
+     * </p>
+     *
+     * @param fotos      Las fotos, ya validadas, que se desean insertar.
+     * @param tamanoLote Cantidad máxima de sentencias por cada envío JDBC.
+     */
+    void insertarEnLote(List<Foto> fotos, int tamanoLote);
+}
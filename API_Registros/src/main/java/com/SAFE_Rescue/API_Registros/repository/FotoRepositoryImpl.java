@@ -0,0 +1,34 @@
+package com.SAFE_Rescue.API_Registros.repository;
+
+import com.SAFE_Rescue.API_Registros.modelo.Foto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Implementación del fragmento {@link FotoRepositoryCustom}.
+ * <p>
+ * Utiliza {@link JdbcTemplate}, que comparte la conexión de la transacción JPA activa.
+ * </p>
+ */
+public class FotoRepositoryImpl implements FotoRepositoryCustom {
+
+    private static final String SQL_INSERTAR = "INSERT INTO foto (url, fecha_subida, descripcion) VALUES (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertarEnLote(List<Foto> fotos, int tamanoLote) {
+        if (fotos.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERTAR, fotos, tamanoLote, (ps, foto) -> {
+            ps.setString(1, foto.getUrl());
+            ps.setTimestamp(2, Timestamp.valueOf(foto.getFechaSubida()));
+            ps.setString(3, foto.getDescripcion());
+        });
+    }
+}
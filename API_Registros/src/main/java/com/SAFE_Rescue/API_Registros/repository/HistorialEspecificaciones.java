@@ -0,0 +1,93 @@
+package com.SAFE_Rescue.API_Registros.repository;
+
+import com.SAFE_Rescue.API_Registros.dto.FiltroHistorial;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Especificaciones JPA para la búsqueda de registros de {@link Historial}.
+ * <p>
+ * Los criterios se traducen a una única consulta que compara las columnas de clave foránea
+ * directamente por ID, de modo que cada filtro puede resolverse con los índices compuestos
+ * declarados en la entidad ({@code columna, fecha_historial}).
+ * </p>
+ */
+public final class HistorialEspecificaciones {
+
+    private HistorialEspecificaciones() {
+    }
+
+    /**
+     * Construye la especificación que combina todos los criterios no nulos del filtro.
+     * <p>
+     * Cuando la consulta retorna entidades, el estado y la categoría se obtienen en la misma consulta
+     * (join fetch); en los conteos y las proyecciones se comparan solo sus ID.
+     * </p>
+     *
+     * @param filtro Los criterios de búsqueda.
+     * @return La especificación correspondiente.
+     */
+    public static Specification<Historial> segun(FiltroHistorial filtro) {
+        return (root, query, cb) -> {
+            if (query != null && Historial.class.equals(query.getResultType())) {
+                root.fetch("estado", JoinType.INNER);
+                root.fetch("categoria", JoinType.INNER);
+            }
+            List<Predicate> condiciones = new ArrayList<>();
+            Path<LocalDateTime> fecha = root.get("fechaHistorial");
+            if (filtro.getDesde() != null) {
+                condiciones.add(cb.greaterThanOrEqualTo(fecha, filtro.getDesde()));
+            }
+            if (filtro.getHasta() != null) {
+                condiciones.add(cb.lessThan(fecha, filtro.getHasta()));
+            }
+            if (filtro.getEstadoId() != null) {
+                condiciones.add(cb.equal(root.get("estado").get("idEstado"), filtro.getEstadoId()));
+            }
+            if (filtro.getCategoriaId() != null) {
+                condiciones.add(cb.equal(root.get("categoria").get("idCategoria"), filtro.getCategoriaId()));
+            }
+            agregarIgualdad(condiciones, cb, root.get("idAsignacionIncidente"), filtro.getIdAsignacionIncidente());
+            agregarIgualdad(condiciones, cb, root.get("idAsignacionUsuario"), filtro.getIdAsignacionUsuario());
+            agregarIgualdad(condiciones, cb, root.get("idEnvioMensaje"), filtro.getIdEnvioMensaje());
+            agregarIgualdad(condiciones, cb, root.get("idDireccion"), filtro.getIdDireccion());
+            agregarIgualdad(condiciones, cb, root.get("idUsuarioReporte"), filtro.getIdUsuarioReporte());
+            agregarIgualdad(condiciones, cb, root.get("idAsignacionCurso"), filtro.getIdAsignacionCurso());
+            return cb.and(condiciones.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Restringe los resultados a los registros posteriores a la clave (fecha, ID) indicada,
+     * para la paginación por cursor.
+     *
+     * @param fechaHistorial La fecha del último registro de la página anterior.
+     * @param idHistorial    El ID del último registro de la página anterior.
+     * @return La especificación correspondiente.
+     */
+    public static Specification<Historial> despuesDe(LocalDateTime fechaHistorial, int idHistorial) {
+        return (root, query, cb) -> {
+            Path<LocalDateTime> fecha = root.get("fechaHistorial");
+            // La condición redundante sobre la fecha permite el descarte de particiones (partition pruning).
+            return cb.and(
+                    cb.greaterThanOrEqualTo(fecha, fechaHistorial),
+                    cb.or(
+                            cb.greaterThan(fecha, fechaHistorial),
+                            cb.and(cb.equal(fecha, fechaHistorial), cb.greaterThan(root.get("idHistorial"), idHistorial))));
+        };
+    }
+
+    private static void agregarIgualdad(List<Predicate> condiciones, CriteriaBuilder cb, Path<Integer> columna, Integer valor) {
+        if (valor != null) {
+            condiciones.add(cb.equal(columna, valor));
+        }
+    }
+}
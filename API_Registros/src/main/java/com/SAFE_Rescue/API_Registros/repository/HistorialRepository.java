@@ -1,35 +1,268 @@
 package com.SAFE_Rescue.API_Registros.repository;
 
-import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.dto.HistorialCompacto;
+import com.SAFE_Rescue.API_Registros.indice.DocumentoTexto;
 import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio de Spring Data JPA para la entidad {@link Historial}.
  * <p>
  * Proporciona automáticamente las operaciones CRUD (Crear, Leer, Actualizar, Eliminar)
  * básicas para la entidad {@code Historial}, donde la clave primaria es de tipo {@code Integer}.
+ * Las operaciones masivas se incorporan a través del fragmento {@link HistorialRepositoryCustom}
+ * y las búsquedas por varios criterios a través de {@link HistorialEspecificaciones}.
+ * </p>
+ * <p>
+ * El estado y la categoría de {@code Historial} se cargan de forma diferida, por lo que toda consulta
+ * que retorna historiales debe obtenerlos en la misma sentencia (join fetch o {@link EntityGraph}).
+ * Así la cantidad de consultas no depende de la cantidad de filas y los resultados se pueden
+ * serializar después de cerrar la sesión ({@code spring.jpa.open-in-view=false}).
  * </p>
  *
  * @see Historial
+ * @see HistorialRepositoryCustom
  */
 @Repository
-public interface HistorialRepository extends JpaRepository<Historial, Integer> {
+public interface HistorialRepository extends JpaRepository<Historial, Integer>, JpaSpecificationExecutor<Historial>,
+        HistorialRepositoryCustom {
+
+    /**
+     * Selección de la proyección {@link HistorialCompacto}: solo columnas de la tabla {@code historial},
+     * con el estado y la categoría como ID, sin uniones ni entidades administradas.
+     */
+    String SELECCION_COMPACTA = "select new com.SAFE_Rescue.API_Registros.dto.HistorialCompacto("
+            + "h.idHistorial, h.estado.idEstado, h.categoria.idCategoria, h.fechaHistorial, h.detalle,"
+            + " h.idAsignacionIncidente, h.idAsignacionUsuario, h.idEnvioMensaje, h.idDireccion,"
+            + " h.idUsuarioReporte, h.idAsignacionCurso) from Historial h";
+
+    /**
+     * Recupera todos los registros de historial, con su estado y categoría.
+     *
+     * @return Una {@code List} con todos los historiales.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"estado", "categoria"})
+    List<Historial> findAll();
+
+    /**
+     * Recupera un registro de historial por su ID, con su estado y categoría.
+     *
+     * @param id El ID del registro.
+     * @return El historial, si existe.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"estado", "categoria"})
+    Optional<Historial> findById(Integer id);
+
+    /**
+     * Recorre los registros de historial que cumplen los filtros indicados, ordenados por ID,
+     * sin cargarlos todos en memoria.
+     * <p>
+     * Las filas se leen desde un cursor del servidor en bloques de tamaño fijo (fetch size), y el
+     * estado y la categoría se obtienen en la misma consulta. Debe invocarse dentro de una
+     * transacción y el {@code Stream} retornado debe cerrarse al terminar. Los filtros nulos
+     * se ignoran.
+     * </p>
+     *
+     * @param desde       Fecha mínima (inclusiva) del registro.
+     * @param hasta       Fecha máxima (exclusiva) del registro.
+     * @param estadoId    ID del estado asociado.
+     * @param categoriaId ID de la categoría asociada.
+     * @return Un {@code Stream} con los registros coincidentes.
+     */
+    @Query("select h from Historial h join fetch h.estado join fetch h.categoria"
+            + " where (:desde is null or h.fechaHistorial >= :desde)"
+            + " and (:hasta is null or h.fechaHistorial < :hasta)"
+            + " and (:estadoId is null or h.estado.idEstado = :estadoId)"
+            + " and (:categoriaId is null or h.categoria.idCategoria = :categoriaId)"
+            + " order by h.idHistorial")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Historial> streamParaExportar(@Param("desde") LocalDateTime desde,
+                                         @Param("hasta") LocalDateTime hasta,
+                                         @Param("estadoId") Integer estadoId,
+                                         @Param("categoriaId") Integer categoriaId);
+
+    /**
+     * Recupera la primera página de historiales, ordenada por fecha e ID (paginación keyset).
+     *
+     * @param limite La cantidad máxima de elementos a retornar.
+     * @return Una {@code List} con los primeros historiales.
+     */
+    @Query("select h from Historial h join fetch h.estado join fetch h.categoria"
+            + " order by h.fechaHistorial, h.idHistorial")
+    List<Historial> findPrimeraPagina(Limit limite);
+
+    /**
+     * Recupera la página de historiales que sigue a la clave (fecha, ID) indicada.
+     * <p>
+     * La comparación por tupla permite que la base de datos resuelva la búsqueda como un rango
+     * sobre el índice {@code idx_historial_fecha_id}, sin recorrer las filas anteriores. La condición
+     * redundante sobre la fecha permite además descartar las particiones anteriores cuando la tabla
+     * está particionada (ver {@code ParticionHistorialService}).
+     * </p>
+     *
+     * @param fechaHistorial La fecha del último elemento de la página anterior.
+     * @param idHistorial    El ID del último elemento de la página anterior.
+     * @param limite         La cantidad máxima de elementos a retornar.
+     * @return Una {@code List} con los historiales siguientes.
+     */
+    @Query("select h from Historial h join fetch h.estado join fetch h.categoria"
+            + " where h.fechaHistorial >= :fechaHistorial"
+            + " and (h.fechaHistorial, h.idHistorial) > (:fechaHistorial, :idHistorial)"
+            + " order by h.fechaHistorial, h.idHistorial")
+    List<Historial> findPaginaDespuesDe(@Param("fechaHistorial") LocalDateTime fechaHistorial,
+                                        @Param("idHistorial") int idHistorial,
+                                        Limit limite);
+
+    /**
+     * Recupera la primera página de historiales en su representación compacta (ver {@link #findPrimeraPagina(Limit)}).
+     *
+     * @param limite La cantidad máxima de elementos a retornar.
+     * @return Una {@code List} con los primeros historiales.
+     */
+    @Query(SELECCION_COMPACTA + " order by h.fechaHistorial, h.idHistorial")
+    List<HistorialCompacto> findPrimeraPaginaCompacta(Limit limite);
+
+    /**
+     * Recupera en su representación compacta la página de historiales que sigue a la clave (fecha, ID)
+     * indicada (ver {@link #findPaginaDespuesDe(LocalDateTime, int, Limit)}).
+     *
+     * @param fechaHistorial La fecha del último elemento de la página anterior.
+     * @param idHistorial    El ID del último elemento de la página anterior.
+     * @param limite         La cantidad máxima de elementos a retornar.
+     * @return Una {@code List} con los historiales siguientes.
+     */
+    @Query(SELECCION_COMPACTA
+            + " where h.fechaHistorial >= :fechaHistorial"
+            + " and (h.fechaHistorial, h.idHistorial) > (:fechaHistorial, :idHistorial)"
+            + " order by h.fechaHistorial, h.idHistorial")
+    List<HistorialCompacto> findPaginaCompactaDespuesDe(@Param("fechaHistorial") LocalDateTime fechaHistorial,
+                                                        @Param("idHistorial") int idHistorial,
+                                                        Limit limite);
+
+    /**
+     * Recupera los registros más antiguos con fecha anterior a la indicada, ordenados por fecha e ID.
+     * Se usa para trasladar los registros vencidos al archivo local (ver {@code RetencionHistorialService}).
+     *
+     * @param fechaLimite Fecha límite (exclusiva).
+     * @param limite      La cantidad máxima de elementos a retornar.
+     * @return Una {@code List} con los historiales más antiguos que la fecha límite.
+     */
+    @Query("select h from Historial h join fetch h.estado join fetch h.categoria"
+            + " where h.fechaHistorial < :fechaLimite"
+            + " order by h.fechaHistorial, h.idHistorial")
+    List<Historial> findAnterioresA(@Param("fechaLimite") LocalDateTime fechaLimite, Limit limite);
+
+    /**
+     * Recupera los registros con ID mayor al indicado, ordenados por ID.
+     * Se usa para reenviar los eventos perdidos al reconectarse al flujo de eventos.
+     *
+     * @param idHistorial El ID del último registro recibido.
+     * @param limite      La cantidad máxima de elementos a retornar.
+     * @return Una {@code List} con los historiales siguientes.
+     */
+    @Query("select h from Historial h join fetch h.estado join fetch h.categoria"
+            + " where h.idHistorial > :idHistorial order by h.idHistorial")
+    List<Historial> findDespuesDeId(@Param("idHistorial") int idHistorial, Limit limite);
+
+    /**
+     * Recupera, ordenados por ID, los datos que se indexan para la búsqueda de texto de los registros
+     * con ID mayor al indicado. Solo lee las columnas necesarias, sin cargar el estado ni la categoría.
+     *
+     * @param idHistorial El ID a partir del cual (exclusivo) se leen los registros.
+     * @param limite      La cantidad máxima de registros a retornar.
+     * @return Una {@code List} con los documentos a indexar.
+     */
+    @Query("select new com.SAFE_Rescue.API_Registros.indice.DocumentoTexto("
+            + "h.idHistorial, h.fechaHistorial, h.estado.idEstado, h.categoria.idCategoria, h.detalle)"
+            + " from Historial h where h.idHistorial > :idHistorial order by h.idHistorial")
+    List<DocumentoTexto> findParaIndexar(@Param("idHistorial") int idHistorial, Limit limite);
+
+    /**
+     * Recupera en una sola consulta los registros con los ID indicados, con su estado y categoría.
+     * Los ID inexistentes se omiten y el orden del resultado no está definido.
+     *
+     * @param ids Los ID de los registros.
+     * @return Una {@code List} con los registros encontrados.
+     */
+    @Query("select h from Historial h join fetch h.estado join fetch h.categoria where h.idHistorial in :ids")
+    List<Historial> findAllConRelacionesById(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Obtiene cuáles de las claves de bitácora indicadas ya fueron aplicadas. La consulta usa el
+     * índice único {@code uk_historial_clave_bitacora}.
+     *
+     * @param claves Las claves de los registros leídos de la bitácora.
+     * @return Las claves que ya existen en la tabla.
+     */
+    @Query("select h.claveBitacora from Historial h where h.claveBitacora in :claves")
+    List<String> findClavesBitacora(@Param("claves") Collection<String> claves);
+
+    /**
+     * Cuenta los registros de un rango agrupados por minuto, estado y categoría.
+     * Se usa para recalcular {@code resumen_historial}.
+     *
+     * @param desde Fecha mínima (inclusiva).
+     * @param hasta Fecha máxima (exclusiva).
+     * @return Una fila por grupo: año, mes, día, hora, minuto, ID de estado, ID de categoría y cantidad.
+     */
+    @Query("select year(h.fechaHistorial), month(h.fechaHistorial), day(h.fechaHistorial),"
+            + " hour(h.fechaHistorial), minute(h.fechaHistorial), h.estado.idEstado, h.categoria.idCategoria, count(h)"
+            + " from Historial h where h.fechaHistorial >= :desde and h.fechaHistorial < :hasta"
+            + " group by year(h.fechaHistorial), month(h.fechaHistorial), day(h.fechaHistorial),"
+            + " hour(h.fechaHistorial), minute(h.fechaHistorial), h.estado.idEstado, h.categoria.idCategoria")
+    List<Object[]> contarPorMinuto(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Obtiene la fecha del registro de historial más antiguo.
+     *
+     * @return La fecha mínima, o {@code null} si la tabla está vacía.
+     */
+    @Query("select min(h.fechaHistorial) from Historial h")
+    LocalDateTime findFechaMinima();
+
+    /**
+     * Indica si existe al menos un registro de historial asociado con el estado indicado.
+     * <p>
+     * Reemplaza a la clave foránea, que el esquema generado no declara (ver {@link Historial}). Se
+     * resuelve con el índice {@code idx_historial_estado_fecha} leyendo solo la primera entrada; como
+     * la consulta no acota la fecha, en una tabla particionada revisa ese índice en cada partición, un
+     * costo aceptable para una eliminación de catálogo poco frecuente.
+     * </p>
+     *
+     * @param idEstado El ID del estado.
+     * @return {@code true} si el estado está siendo utilizado por algún historial.
+     */
+    boolean existsByEstadoIdEstado(int idEstado);
 
     /**
-     * Recupera una lista de todos los registros de historial que están asociados
-     * con un {@link Estado} específico.
+     * Indica si existe al menos un registro de historial asociado con la categoría indicada.
      * <p>
-     * Este método se genera automáticamente por Spring Data JPA siguiendo
-     * la convención de nombres {@code findBy[NombreCampo]}.
+     * Al igual que {@link #existsByEstadoIdEstado(int)}, se resuelve con un índice
+     * ({@code idx_historial_categoria_fecha}).
      * </p>
      *
-     * @param estado El objeto {@code Estado} por el cual se desea filtrar el historial.
-     * @return Una {@code List} de objetos {@code Historial} que coinciden con el estado proporcionado.
-     * Retorna una lista vacía si no se encuentra ninguna coincidencia.
+     * @param idCategoria El ID de la categoría.
+     * @return {@code true} si la categoría está siendo utilizada por algún historial.
      */
-    List<Historial> findByEstado(Estado estado);
-}
\ No newline at end of file
+    boolean existsByCategoriaIdCategoria(int idCategoria);
+}
@@ -0,0 +1,50 @@
+package com.SAFE_Rescue.API_Registros.repository;
+
+import com.SAFE_Rescue.API_Registros.dto.HistorialCompacto;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Fragmento personalizado del repositorio de {@link Historial}.
+ * <p>
+ * Agrupa las operaciones que no pueden expresarse de forma eficiente con los métodos
+ * generados por Spring Data JPA, como la inserción masiva mediante lotes JDBC o las búsquedas
+ * por especificación con proyección.
+ * </p>
+ *
+ * @see HistorialRepository
+ */
+public interface HistorialRepositoryCustom {
+
+    /**
+     * Inserta una lista de registros de historial utilizando lotes JDBC reales.
+     * <p>
+     * La estrategia {@code GenerationType.IDENTITY} impide que Hibernate agrupe los INSERT,
+     * por lo que este método los envía directamente con {@code addBatch}/{@code executeBatch}
+     * sobre la conexión de la transacción en curso. Los identificadores generados por la
+     * base de datos se asignan de vuelta a cada objeto {@code Historial}, y los registros se
+     * suman a los conteos de {@code resumen_historial}.
+     * </p>
+     *
+     * @param historiales Los registros de historial, ya validados, que se desean insertar.
+     * @param tamanoLote  Cantidad máxima de sentencias por cada envío JDBC; debe ser mayor que cero.
+     * @throws IllegalArgumentException Si {@code tamanoLote} no es mayor que cero.
+     */
+    void insertarEnLote(List<Historial> historiales, int tamanoLote);
+
+    /**
+     * Busca registros de historial que cumplen la especificación y los retorna en su representación
+     * compacta, ordenados por fecha e ID.
+     * <p>
+     * La consulta selecciona solo las columnas de la proyección, por lo que no se cargan ni
+     * administran entidades.
+     * </p>
+     *
+     * @param especificacion Los criterios de búsqueda (ver {@link HistorialEspecificaciones}).
+     * @param limite         Cantidad máxima de registros a retornar.
+     * @return Los registros coincidentes.
+     */
+    List<HistorialCompacto> buscarCompacto(Specification<Historial> especificacion, int limite);
+}
@@ -0,0 +1,120 @@
+package com.SAFE_Rescue.API_Registros.repository;
+
+import com.SAFE_Rescue.API_Registros.dto.HistorialCompacto;
+import com.SAFE_Rescue.API_Registros.dto.HistorialesGuardados;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Implementación del fragmento {@link HistorialRepositoryCustom}.
+ * <p>
+ * Spring Data JPA la detecta por convención de nombres (sufijo {@code Impl}) y la combina
+ * con {@link HistorialRepository}. Utiliza {@link JdbcTemplate}, que comparte la conexión
+ * de la transacción JPA activa, por lo que los INSERT forman parte de la misma transacción.
+ * Los conteos de {@code resumen_historial} se actualizan en esa misma transacción, y se publica
+ * {@link HistorialesGuardados} para los oyentes que actúan tras la confirmación.
+ * </p>
+ */
+public class HistorialRepositoryImpl implements HistorialRepositoryCustom {
+
+    private static final String SQL_INSERTAR = "INSERT INTO historial (id_estado, id_categoria, fecha_historial, detalle, "
+            + "id_asignacion_incidente, id_asignacion_usuario, id_envio_mensaje, id_direccion, id_usuario_reporte, "
+            + "id_asignacion_curso, clave_bitacora) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ResumenHistorialRepository resumenHistorialRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertarEnLote(List<Historial> historiales, int tamanoLote) {
+        if (tamanoLote <= 0) {
+            throw new IllegalArgumentException("El tamaño del lote JDBC debe ser mayor que cero.");
+        }
+        if (historiales.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) conexion -> {
+            try (PreparedStatement ps = conexion.prepareStatement(SQL_INSERTAR, Statement.RETURN_GENERATED_KEYS)) {
+                for (int inicio = 0; inicio < historiales.size(); inicio += tamanoLote) {
+                    List<Historial> bloque = historiales.subList(inicio, Math.min(inicio + tamanoLote, historiales.size()));
+                    for (Historial historial : bloque) {
+                        asignarParametros(ps, historial);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+
+                    // Las claves generadas llegan en el mismo orden en que se agregaron al lote.
+                    try (ResultSet claves = ps.getGeneratedKeys()) {
+                        int indice = 0;
+                        while (claves.next() && indice < bloque.size()) {
+                            bloque.get(indice++).setIdHistorial(claves.getInt(1));
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+        resumenHistorialRepository.acumular(historiales, 1);
+        eventPublisher.publishEvent(new HistorialesGuardados(List.copyOf(historiales)));
+    }
+
+    @Override
+    public List<HistorialCompacto> buscarCompacto(Specification<Historial> especificacion, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<HistorialCompacto> consulta = cb.createQuery(HistorialCompacto.class);
+        Root<Historial> h = consulta.from(Historial.class);
+        consulta.select(cb.construct(HistorialCompacto.class,
+                        h.get("idHistorial"), h.get("estado").get("idEstado"), h.get("categoria").get("idCategoria"),
+                        h.get("fechaHistorial"), h.get("detalle"), h.get("idAsignacionIncidente"),
+                        h.get("idAsignacionUsuario"), h.get("idEnvioMensaje"), h.get("idDireccion"),
+                        h.get("idUsuarioReporte"), h.get("idAsignacionCurso")))
+                .where(especificacion.toPredicate(h, consulta, cb))
+                .orderBy(cb.asc(h.get("fechaHistorial")), cb.asc(h.get("idHistorial")));
+        return entityManager.createQuery(consulta).setMaxResults(limite).getResultList();
+    }
+
+    /**
+     * Asigna los valores de un {@code Historial} a los parámetros de la sentencia de inserción.
+     *
+     * @param ps        La sentencia preparada de inserción.
+     * @param historial El registro de historial cuyos valores se asignan.
+     * @throws SQLException Si ocurre un error al asignar algún parámetro.
+     */
+    private void asignarParametros(PreparedStatement ps, Historial historial) throws SQLException {
+        ps.setInt(1, historial.getEstado().getIdEstado());
+        ps.setInt(2, historial.getCategoria().getIdCategoria());
+        ps.setObject(3, historial.getFechaHistorial());
+        ps.setString(4, historial.getDetalle());
+        ps.setObject(5, historial.getIdAsignacionIncidente(), Types.INTEGER);
+        ps.setObject(6, historial.getIdAsignacionUsuario(), Types.INTEGER);
+        ps.setObject(7, historial.getIdEnvioMensaje(), Types.INTEGER);
+        ps.setObject(8, historial.getIdDireccion(), Types.INTEGER);
+        ps.setObject(9, historial.getIdUsuarioReporte(), Types.INTEGER);
+        ps.setObject(10, historial.getIdAsignacionCurso(), Types.INTEGER);
+        ps.setString(11, historial.getClaveBitacora());
+    }
+}
@@ -0,0 +1,58 @@
+package com.SAFE_Rescue.API_Registros.repository;
+
+import com.SAFE_Rescue.API_Registros.modelo.ResumenHistorial;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de Spring Data JPA para la entidad {@link ResumenHistorial}.
+ * <p>
+ * Las consultas de totales se resuelven aquí; la acumulación de conteos se incorpora a través
+ * del fragmento {@link ResumenHistorialRepositoryCustom}.
+ * </p>
+ *
+ * @see ResumenHistorial
+ */
+@Repository
+public interface ResumenHistorialRepository extends JpaRepository<ResumenHistorial, ResumenHistorial.Clave>,
+        ResumenHistorialRepositoryCustom {
+
+    /**
+     * Recupera los conteos de una granularidad dentro de un rango, ordenados por intervalo.
+     * Los filtros nulos se ignoran.
+     *
+     * @param granularidad La granularidad de los intervalos.
+     * @param desde        Inicio mínimo (inclusivo) del intervalo.
+     * @param hasta        Inicio máximo (exclusivo) del intervalo.
+     * @param estadoId     ID del estado.
+     * @param categoriaId  ID de la categoría.
+     * @return Una {@code List} con los conteos coincidentes.
+     */
+    @Query("select r from ResumenHistorial r where r.clave.granularidad = :granularidad"
+            + " and r.clave.inicioPeriodo >= :desde and r.clave.inicioPeriodo < :hasta"
+            + " and (:estadoId is null or r.clave.idEstado = :estadoId)"
+            + " and (:categoriaId is null or r.clave.idCategoria = :categoriaId)"
+            + " order by r.clave.inicioPeriodo, r.clave.idEstado, r.clave.idCategoria")
+    List<ResumenHistorial> buscar(@Param("granularidad") ResumenHistorial.Granularidad granularidad,
+                                  @Param("desde") LocalDateTime desde,
+                                  @Param("hasta") LocalDateTime hasta,
+                                  @Param("estadoId") Integer estadoId,
+                                  @Param("categoriaId") Integer categoriaId);
+
+    /**
+     * Elimina los conteos de todas las granularidades cuyo intervalo comienza dentro del rango.
+     *
+     * @param desde Inicio mínimo (inclusivo) del intervalo.
+     * @param hasta Inicio máximo (exclusivo) del intervalo.
+     * @return La cantidad de filas eliminadas.
+     */
+    @Modifying
+    @Query("delete from ResumenHistorial r where r.clave.inicioPeriodo >= :desde and r.clave.inicioPeriodo < :hasta")
+    int eliminarEntre(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+}
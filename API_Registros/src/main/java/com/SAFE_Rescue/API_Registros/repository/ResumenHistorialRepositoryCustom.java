@@ -0,0 +1,43 @@
+package com.SAFE_Rescue.API_Registros.repository;
+
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.modelo.ResumenHistorial;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fragmento personalizado del repositorio de {@link ResumenHistorial}.
+ * <p>
+ * Agrupa las actualizaciones incrementales, que requieren un {@code INSERT ... ON DUPLICATE KEY UPDATE}
+ * por fila para no leer el conteo antes de modificarlo.
+ * </p>
+ *
+ * @see ResumenHistorialRepository
+ */
+public interface ResumenHistorialRepositoryCustom {
+
+    /**
+     * Suma (o resta) los registros indicados a los conteos de todas las granularidades.
+     * <p>
+     * Los registros se agrupan primero en memoria, por lo que cada intervalo, estado y categoría
+     * recibe una sola sentencia por llamada. Debe invocarse dentro de la transacción que inserta
+     * o elimina los registros.
+     * </p>
+     *
+     * @param historiales Los registros insertados o eliminados.
+     * @param signo       {@code 1} para registros insertados, {@code -1} para eliminados.
+     */
+    void acumular(List<Historial> historiales, int signo);
+
+    /**
+     * Suma las cantidades indicadas a los conteos existentes (o los crea).
+     * <p>
+     * Las claves se envían ordenadas, de modo que dos transacciones concurrentes bloquean
+     * las filas en el mismo orden y no pueden interbloquearse.
+     * </p>
+     *
+     * @param incrementos Cantidad a sumar por clave.
+     */
+    void sumar(Map<ResumenHistorial.Clave, Long> incrementos);
+}
@@ -0,0 +1,65 @@
+package com.SAFE_Rescue.API_Registros.repository;
+
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.modelo.ResumenHistorial;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación del fragmento {@link ResumenHistorialRepositoryCustom}.
+ * <p>
+ * Utiliza {@link JdbcTemplate}, que comparte la conexión de la transacción activa, por lo que
+ * los conteos se confirman o revierten junto con los registros de historial.
+ * </p>
+ */
+public class ResumenHistorialRepositoryImpl implements ResumenHistorialRepositoryCustom {
+
+    private static final String SQL_SUMAR = "INSERT INTO resumen_historial (granularidad, inicio_periodo, id_estado, "
+            + "id_categoria, cantidad) VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE cantidad = cantidad + VALUES(cantidad)";
+
+    private static final Comparator<ResumenHistorial.Clave> ORDEN_CLAVES =
+            Comparator.comparing(ResumenHistorial.Clave::getGranularidad)
+                    .thenComparing(ResumenHistorial.Clave::getInicioPeriodo)
+                    .thenComparingInt(ResumenHistorial.Clave::getIdEstado)
+                    .thenComparingInt(ResumenHistorial.Clave::getIdCategoria);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void acumular(List<Historial> historiales, int signo) {
+        Map<ResumenHistorial.Clave, Long> incrementos = new HashMap<>();
+        for (Historial historial : historiales) {
+            for (ResumenHistorial.Granularidad granularidad : ResumenHistorial.Granularidad.values()) {
+                ResumenHistorial.Clave clave = new ResumenHistorial.Clave(granularidad,
+                        granularidad.truncar(historial.getFechaHistorial()),
+                        historial.getEstado().getIdEstado(), historial.getCategoria().getIdCategoria());
+                incrementos.merge(clave, (long) signo, Long::sum);
+            }
+        }
+        sumar(incrementos);
+    }
+
+    @Override
+    public void sumar(Map<ResumenHistorial.Clave, Long> incrementos) {
+        if (incrementos.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<ResumenHistorial.Clave, Long>> filas = new ArrayList<>(incrementos.entrySet());
+        filas.sort(Map.Entry.comparingByKey(ORDEN_CLAVES));
+        jdbcTemplate.batchUpdate(SQL_SUMAR, filas, 500, (ps, fila) -> {
+            ps.setString(1, fila.getKey().getGranularidad().name());
+            ps.setTimestamp(2, Timestamp.valueOf(fila.getKey().getInicioPeriodo()));
+            ps.setInt(3, fila.getKey().getIdEstado());
+            ps.setInt(4, fila.getKey().getIdCategoria());
+            ps.setLong(5, fila.getValue());
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+import com.SAFE_Rescue.API_Registros.archivo.AlmacenArchivoHistorial;
+import com.SAFE_Rescue.API_Registros.dto.FiltroHistorial;
+import com.SAFE_Rescue.API_Registros.dto.ResultadoTextoHistorial;
+import com.SAFE_Rescue.API_Registros.indice.ConsultaTexto;
+import com.SAFE_Rescue.API_Registros.indice.IndiceTextoHistorial;
+import com.SAFE_Rescue.API_Registros.indice.ResultadoBusquedaTexto;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import com.SAFE_Rescue.API_Registros.util.PaginacionKeyset;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Capa de servicio responsable de la búsqueda de texto completo sobre el detalle de los registros
+ * de {@link Historial} ({@link IndiceTextoHistorial}).
+ * <p>
+ * El índice resuelve la consulta y los filtros por fecha, estado y categoría, y entrega los ID más
+ * relevantes; los registros se recuperan luego en una sola consulta y se retornan en el orden de
+ * relevancia. Los que ya no están en la base de datos se buscan en el archivo local, y los
+ * eliminados se omiten.
+ * </p>
+ */
+@Service
+@Timed("registros.servicio")
+public class BusquedaTextoService {
+
+    /**
+     * Cabecera de respuesta con la cantidad total de coincidencias.
+     */
+    public static final String CABECERA_TOTAL_COINCIDENCIAS = "X-Total-Coincidencias";
+
+    private final ObjectProvider<IndiceTextoHistorial> indice;
+    private final HistorialRepository historialRepository;
+    private final AlmacenArchivoHistorial archivoHistorial;
+    private final PaginacionKeyset paginacion;
+
+    /**
+     * Constructor para la inyección de dependencias (Inyección por Constructor).
+     *
+     * @param indice              El índice de texto, que solo existe si está habilitado.
+     * @param historialRepository El repositorio de historiales.
+     * @param archivoHistorial    El almacén de historiales archivados.
+     * @param paginacion          Límites de tamaño de los resultados.
+     */
+    public BusquedaTextoService(ObjectProvider<IndiceTextoHistorial> indice,
+                                HistorialRepository historialRepository,
+                                AlmacenArchivoHistorial archivoHistorial,
+                                PaginacionKeyset paginacion) {
+        this.indice = indice;
+        this.historialRepository = historialRepository;
+        this.archivoHistorial = archivoHistorial;
+        this.paginacion = paginacion;
+    }
+
+    /**
+     * Busca los registros cuyo detalle cumple la consulta, ordenados por relevancia.
+     *
+     * @param texto  La consulta: términos, frases entre comillas y prefijos terminados en {@code *}.
+     * @param filtro Filtro por fecha, estado y categoría; los demás criterios se ignoran.
+     * @param tamano Cantidad máxima de registros, o {@code null} para el tamaño por defecto.
+     * @return Los registros más relevantes y el total de coincidencias.
+     * @throws IllegalArgumentException Si la consulta, el rango de fechas o el tamaño no son válidos.
+     * @throws IllegalStateException    Si la búsqueda de texto no está habilitada.
+     */
+    public ResultadoTextoHistorial buscar(String texto, FiltroHistorial filtro, Integer tamano) {
+        if (filtro.getDesde() != null && filtro.getHasta() != null && !filtro.getDesde().isBefore(filtro.getHasta())) {
+            throw new IllegalArgumentException("La fecha 'desde' debe ser anterior a la fecha 'hasta'.");
+        }
+        ConsultaTexto consulta = ConsultaTexto.parsear(texto);
+        int limite = paginacion.resolverTamano(tamano);
+        ResultadoBusquedaTexto resultado = obtenerIndice().buscar(consulta, filtro, limite);
+
+        List<Integer> ids = resultado.coincidencias().stream().map(ResultadoBusquedaTexto.Coincidencia::idHistorial).toList();
+        Map<Integer, Historial> encontrados = ids.isEmpty() ? Map.of() : historialRepository.findAllConRelacionesById(ids).stream()
+                .collect(Collectors.toMap(Historial::getIdHistorial, Function.identity()));
+        List<Historial> historiales = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Historial historial = encontrados.get(id);
+            if (historial == null) {
+                historial = archivoHistorial.buscarPorId(id).orElse(null);
+            }
+            if (historial != null) {
+                historiales.add(historial);
+            }
+        }
+        return new ResultadoTextoHistorial(historiales, resultado.total());
+    }
+
+    /**
+     * Programa la reconstrucción del índice de texto desde la tabla {@code historial}.
+     *
+     * @throws IllegalStateException Si la búsqueda de texto no está habilitada o ya hay una reconstrucción en curso.
+     */
+    public void reconstruir() {
+        obtenerIndice().reconstruir();
+    }
+
+    private IndiceTextoHistorial obtenerIndice() {
+        IndiceTextoHistorial disponible = indice.getIfAvailable();
+        if (disponible == null) {
+            throw new IllegalStateException("La búsqueda de texto no está habilitada (registros.historial.texto.habilitado).");
+        }
+        return disponible;
+    }
+}
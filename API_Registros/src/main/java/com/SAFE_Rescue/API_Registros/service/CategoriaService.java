@@ -1,11 +1,22 @@
 package com.SAFE_Rescue.API_Registros.service;
 
+import com.SAFE_Rescue.API_Registros.dto.PaginaCursor;
 import com.SAFE_Rescue.API_Registros.modelo.Categoria;
 import com.SAFE_Rescue.API_Registros.repository.CategoriaRepository;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import com.SAFE_Rescue.API_Registros.util.CacheCatalogo;
+import com.SAFE_Rescue.API_Registros.util.ContadorVersion;
+import com.SAFE_Rescue.API_Registros.util.PaginacionKeyset;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service; // Agregando la anotación @Service
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -15,21 +26,39 @@ import java.util.NoSuchElementException;
  * Actúa como intermediario entre la capa de controlador (Controller) y la capa de acceso a datos (Repository),
  * asegurando la aplicación de validaciones y reglas de negocio.
  * </p>
+ * <p>
+ * Las búsquedas por ID y por nombre se sirven desde una caché en memoria ({@link CacheCatalogo}),
+ * que se invalida al guardar, actualizar o eliminar; el listado paginado siempre consulta la base de datos.
+ * </p>
  *
  */
 @Service
+@Timed("registros.servicio")
 public class CategoriaService {
 
     private final CategoriaRepository categoriaRepository;
+    private final HistorialRepository historialRepository;
+    private final PaginacionKeyset paginacion;
+    private final CacheCatalogo<Categoria> cache;
 
     /**
      * Constructor para inyección de dependencias (Inyección por Constructor).
      *
      * @param categoriaRepository El repositorio de datos para la entidad Categoria.
+     * @param historialRepository El repositorio de historiales, para verificar el uso antes de eliminar.
+     * @param paginacion La configuración de la paginación por cursor de los listados.
+     * @param meterRegistry El registro de métricas donde se publican los aciertos y fallos de la caché.
+     * @param vigenciaSegundos Segundos tras los cuales se descarta la caché del catálogo; 0 para no descartarla.
      */
     @Autowired
-    public CategoriaService(CategoriaRepository categoriaRepository) {
+    public CategoriaService(CategoriaRepository categoriaRepository, HistorialRepository historialRepository, PaginacionKeyset paginacion,
+                            MeterRegistry meterRegistry,
+                            @Value("${registros.catalogo.cache.vigencia-segundos:600}") long vigenciaSegundos) {
         this.categoriaRepository = categoriaRepository;
+        this.historialRepository = historialRepository;
+        this.paginacion = paginacion;
+        this.cache = new CacheCatalogo<>("categoria", categoriaRepository::findById, categoriaRepository::findByNombre, categoriaRepository::findAllById,
+                Categoria::getIdCategoria, Duration.ofSeconds(vigenciaSegundos), meterRegistry);
     }
 
     // -------------------------------------------------------------------------
@@ -45,6 +74,21 @@ public class CategoriaService {
         return categoriaRepository.findAll();
     }
 
+    /**
+     * Recupera una página de categorías ordenada por ID, usando paginación por cursor (keyset).
+     *
+     * @param cursor El cursor entregado con la página anterior, o {@code null} para la primera página.
+     * @param tamano El tamaño de página solicitado, o {@code null} para el tamaño por defecto.
+     * @return La página de categorías junto con el cursor de la página siguiente.
+     * @throws IllegalArgumentException Si el cursor o el tamaño de página no son válidos.
+     */
+    public PaginaCursor<Categoria> findPagina(String cursor, Integer tamano) {
+        int tamanoPagina = paginacion.resolverTamano(tamano);
+        int ultimoId = cursor == null || cursor.isBlank() ? Integer.MIN_VALUE : paginacion.decodificarEntero(cursor);
+        List<Categoria> resultados = categoriaRepository.findByIdCategoriaGreaterThanOrderByIdCategoriaAsc(ultimoId, Limit.of(tamanoPagina + 1));
+        return paginacion.armarPagina(resultados, tamanoPagina, c -> paginacion.codificar(c.getIdCategoria()));
+    }
+
     /**
      * Busca y recupera un registro de {@code Categoria} por su identificador único.
      *
@@ -53,10 +97,24 @@ public class CategoriaService {
      * @throws NoSuchElementException Si la categoría no es encontrada con el ID proporcionado.
      */
     public Categoria findById(Integer id) {
-        return categoriaRepository.findById(id)
+        return cache.porId(id)
                 .orElseThrow(() -> new NoSuchElementException("Categoria no encontrada con ID: " + id));
     }
 
+    /**
+     * Recupera las categorías cuyos identificadores se encuentran en la colección indicada.
+     * <p>
+     * Permite resolver en una sola consulta todas las referencias de un lote, en lugar de
+     * buscar cada identificador por separado.
+     * </p>
+     *
+     * @param ids Los identificadores de las categorías a recuperar.
+     * @return Una lista con las categorías encontradas; los identificadores inexistentes se omiten.
+     */
+    public List<Categoria> findAllById(Collection<Integer> ids) {
+        return cache.porIds(ids);
+    }
+
     /**
      * Busca y recupera categorías que coinciden con el nombre.
      *
@@ -64,7 +122,7 @@ public class CategoriaService {
      * @return Una lista de {@code Categoria}s.
      */
     public List<Categoria> findByNombre(String nombre) {
-        return categoriaRepository.findByNombre(nombre);
+        return cache.porNombre(nombre);
     }
 
     /**
@@ -81,7 +139,9 @@ public class CategoriaService {
     public Categoria save(Categoria categoria) {
         validarAtributosCategoria(categoria);
         try {
-            return categoriaRepository.save(categoria);
+            Categoria guardada = categoriaRepository.save(categoria);
+            cache.invalidar();
+            return guardada;
         } catch (DataIntegrityViolationException e) { // Se usa la excepción JPA específica para duplicados
             throw new IllegalArgumentException("Ya existe una categoría con ese nombre. Error de integridad de datos.");
         }
@@ -116,6 +176,7 @@ public class CategoriaService {
 
         try {
             categoriaRepository.save(existenteCategoria);
+            cache.invalidar();
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("Ya existe una categoría con ese nombre. Error de integridad de datos.");
         }
@@ -133,13 +194,28 @@ public class CategoriaService {
         Categoria categoria = categoriaRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Categoria no encontrada con ID: " + id));
 
+        // Se verifica en la aplicación porque la tabla historial particionada no tiene claves foráneas.
+        if (historialRepository.existsByCategoriaIdCategoria(id)) {
+            throw new IllegalArgumentException("No se puede eliminar Categoria porque está siendo referenciada por otros registros.");
+        }
         try {
             categoriaRepository.delete(categoria);
+            cache.invalidar();
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("No se puede eliminar Categoria porque está siendo referenciada por otros registros.");
         }
     }
 
+    /**
+     * Obtiene la versión del catálogo, que avanza cada vez que se guarda, actualiza o elimina
+     * un registro. Permite responder solicitudes condicionales sin consultar la base de datos.
+     *
+     * @return La versión vigente de las categorías.
+     */
+    public ContadorVersion.Version getVersion() {
+        return cache.version();
+    }
+
     // -------------------------------------------------------------------------
     // MÉTODOS DE VALIDACIÓN
     // -------------------------------------------------------------------------
@@ -0,0 +1,15 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+/**
+ * Indica que una clave {@code Idempotency-Key} ya se utilizó con una solicitud distinta.
+ * <p>
+ * Los controladores la responden con {@code 422 Unprocessable Entity}: el cliente reutilizó la clave
+ * para otra operación, y retornar el resultado original ocultaría que la nueva no se ejecutó.
+ * </p>
+ */
+public class ClaveIdempotenciaReutilizadaException extends RuntimeException {
+
+    public ClaveIdempotenciaReutilizadaException(String message) {
+        super(message);
+    }
+}
@@ -1,12 +1,23 @@
 package com.SAFE_Rescue.API_Registros.service;
 
+import com.SAFE_Rescue.API_Registros.dto.PaginaCursor;
 import com.SAFE_Rescue.API_Registros.modelo.Categoria;
 import com.SAFE_Rescue.API_Registros.modelo.Estado;
 import com.SAFE_Rescue.API_Registros.repository.EstadoRepository;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import com.SAFE_Rescue.API_Registros.util.CacheCatalogo;
+import com.SAFE_Rescue.API_Registros.util.ContadorVersion;
+import com.SAFE_Rescue.API_Registros.util.PaginacionKeyset;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -16,20 +27,38 @@ import java.util.NoSuchElementException;
  * Gestiona las operaciones CRUD y las validaciones de negocio, actuando como
  * intermediario entre la capa de controlador y el repositorio de datos.
  * </p>
+ * <p>
+ * Las búsquedas por ID y por nombre se sirven desde una caché en memoria ({@link CacheCatalogo}),
+ * que se invalida al guardar, actualizar o eliminar; el listado paginado siempre consulta la base de datos.
+ * </p>
  *
  */
 @Service
+@Timed("registros.servicio")
 public class EstadoService {
 
     private final EstadoRepository estadoRepository;
+    private final HistorialRepository historialRepository;
+    private final PaginacionKeyset paginacion;
+    private final CacheCatalogo<Estado> cache;
 
     /**
      * Constructor para la inyección de dependencias (Inyección por Constructor).
      *
      * @param estadoRepository El repositorio de datos para la entidad Estado.
+     * @param historialRepository El repositorio de historiales, para verificar el uso antes de eliminar.
+     * @param paginacion La configuración de la paginación por cursor de los listados.
+     * @param meterRegistry El registro de métricas donde se publican los aciertos y fallos de la caché.
+     * @param vigenciaSegundos Segundos tras los cuales se descarta la caché del catálogo; 0 para no descartarla.
      */
-    public EstadoService(EstadoRepository estadoRepository) {
+    public EstadoService(EstadoRepository estadoRepository, HistorialRepository historialRepository, PaginacionKeyset paginacion,
+                         MeterRegistry meterRegistry,
+                         @Value("${registros.catalogo.cache.vigencia-segundos:600}") long vigenciaSegundos) {
         this.estadoRepository = estadoRepository;
+        this.historialRepository = historialRepository;
+        this.paginacion = paginacion;
+        this.cache = new CacheCatalogo<>("estado", estadoRepository::findById, estadoRepository::findByNombre, estadoRepository::findAllById,
+                Estado::getIdEstado, Duration.ofSeconds(vigenciaSegundos), meterRegistry);
     }
 
     // -------------------------------------------------------------------------
@@ -45,6 +74,21 @@ public class EstadoService {
         return estadoRepository.findAll();
     }
 
+    /**
+     * Recupera una página de estados ordenada por ID, usando paginación por cursor (keyset).
+     *
+     * @param cursor El cursor entregado con la página anterior, o {@code null} para la primera página.
+     * @param tamano El tamaño de página solicitado, o {@code null} para el tamaño por defecto.
+     * @return La página de estados junto con el cursor de la página siguiente.
+     * @throws IllegalArgumentException Si el cursor o el tamaño de página no son válidos.
+     */
+    public PaginaCursor<Estado> findPagina(String cursor, Integer tamano) {
+        int tamanoPagina = paginacion.resolverTamano(tamano);
+        int ultimoId = cursor == null || cursor.isBlank() ? Integer.MIN_VALUE : paginacion.decodificarEntero(cursor);
+        List<Estado> resultados = estadoRepository.findByIdEstadoGreaterThanOrderByIdEstadoAsc(ultimoId, Limit.of(tamanoPagina + 1));
+        return paginacion.armarPagina(resultados, tamanoPagina, e -> paginacion.codificar(e.getIdEstado()));
+    }
+
     /**
      * Busca y recupera un registro de {@code Estado} por su identificador único.
      *
@@ -53,10 +97,24 @@ public class EstadoService {
      * @throws NoSuchElementException Si el estado no es encontrado con el ID proporcionado.
      */
     public Estado findById(Integer id) {
-        return estadoRepository.findById(id)
+        return cache.porId(id)
                 .orElseThrow(() -> new NoSuchElementException("Estado no encontrado con ID: " + id));
     }
 
+    /**
+     * Recupera los estados cuyos identificadores se encuentran en la colección indicada.
+     * <p>
+     * Permite resolver en una sola consulta todas las referencias de un lote, en lugar de
+     * buscar cada identificador por separado.
+     * </p>
+     *
+     * @param ids Los identificadores de los estados a recuperar.
+     * @return Una lista con los estados encontrados; los identificadores inexistentes se omiten.
+     */
+    public List<Estado> findAllById(Collection<Integer> ids) {
+        return cache.porIds(ids);
+    }
+
     /**
      * Busca y recupera estados que coinciden con el nombre.
      *
@@ -64,7 +122,7 @@ public class EstadoService {
      * @return Una lista de {@code Estado}s.
      */
     public List<Estado> findByNombre(String nombre) {
-        return estadoRepository.findByNombre(nombre);
+        return cache.porNombre(nombre);
     }
 
     /**
@@ -81,7 +139,9 @@ public class EstadoService {
     public Estado save(Estado estado) {
         validarAtributosEstado(estado);
         try {
-            return estadoRepository.save(estado);
+            Estado guardado = estadoRepository.save(estado);
+            cache.invalidar();
+            return guardado;
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("Error de integridad de datos. El nombre del estado ya existe o los datos son inválidos.");
         }
@@ -110,6 +170,7 @@ public class EstadoService {
 
         try {
             estadoRepository.save(estadoExistente);
+            cache.invalidar();
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("Error de integridad de datos. El nombre del estado ya existe.");
         }
@@ -127,13 +188,28 @@ public class EstadoService {
         Estado estado = estadoRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Estado no encontrado con ID: " + id));
 
+        // Se verifica en la aplicación porque la tabla historial particionada no tiene claves foráneas.
+        if (historialRepository.existsByEstadoIdEstado(id)) {
+            throw new IllegalArgumentException("No se puede eliminar el estado. Está siendo utilizado por otros registros.");
+        }
         try {
             estadoRepository.delete(estado);
+            cache.invalidar();
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("No se puede eliminar el estado. Está siendo utilizado por otros registros.");
         }
     }
 
+    /**
+     * Obtiene la versión del catálogo, que avanza cada vez que se guarda, actualiza o elimina
+     * un registro. Permite responder solicitudes condicionales sin consultar la base de datos.
+     *
+     * @return La versión vigente de los estados.
+     */
+    public ContadorVersion.Version getVersion() {
+        return cache.version();
+    }
+
     // -------------------------------------------------------------------------
     // MÉTODOS DE VALIDACIÓN
     // -------------------------------------------------------------------------
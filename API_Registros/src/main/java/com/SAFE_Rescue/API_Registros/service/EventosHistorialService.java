@@ -0,0 +1,174 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+import com.SAFE_Rescue.API_Registros.dto.FiltroHistorial;
+import com.SAFE_Rescue.API_Registros.dto.HistorialesGuardados;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Capa de servicio responsable del flujo en vivo de registros de {@link Historial} (Server-Sent Events).
+ * <p>
+ * Cada registro confirmado se publica una sola vez en un emisor compartido. Cada suscriptor lo recibe
+ * en su propio búfer acotado, de modo que un cliente lento no retrasa a los demás: si su búfer se
+ * llena, recibe los eventos pendientes seguidos de un evento {@value #EVENTO_RESINCRONIZAR} y su flujo
+ * termina. El cliente debe entonces volver a consultar el listado o reconectarse con el último ID recibido.
+ * </p>
+ * <p>
+ * El ID de cada evento es el ID del historial. Al reconectarse con {@code Last-Event-ID}, los registros
+ * posteriores se reenvían desde la base de datos antes de continuar con los eventos en vivo.
+ * </p>
+ */
+@Service
+@Timed("registros.servicio")
+public class EventosHistorialService {
+
+    /**
+     * Nombre de los eventos que transportan un registro de historial.
+     */
+    public static final String EVENTO_HISTORIAL = "historial";
+
+    /**
+     * Nombre del evento que indica al cliente que perdió eventos y debe resincronizarse.
+     */
+    public static final String EVENTO_RESINCRONIZAR = "resincronizar";
+
+    private final HistorialRepository historialRepository;
+    private final int capacidadSuscriptor;
+    private final int maximoReenvio;
+    private final Duration latido;
+
+    /**
+     * Emisor compartido. Nunca descarta elementos porque cada suscriptor interno los solicita sin
+     * límite y los traslada a su búfer acotado.
+     */
+    private final Sinks.Many<Historial> emisor = Sinks.many().multicast().directBestEffort();
+
+    /**
+     * Constructor para la inyección de dependencias (Inyección por Constructor).
+     *
+     * @param historialRepository El repositorio de historiales, para reenviar eventos perdidos.
+     * @param capacidadSuscriptor Cantidad máxima de eventos pendientes de envío por suscriptor.
+     * @param maximoReenvio       Cantidad máxima de registros reenviados al reconectarse.
+     * @param latidoSegundos      Intervalo de los comentarios que mantienen abierta la conexión.
+     */
+    public EventosHistorialService(HistorialRepository historialRepository,
+                                   @Value("${registros.historial.eventos.capacidad-suscriptor:1000}") int capacidadSuscriptor,
+                                   @Value("${registros.historial.eventos.maximo-reenvio:1000}") int maximoReenvio,
+                                   @Value("${registros.historial.eventos.latido-segundos:15}") int latidoSegundos) {
+        this.historialRepository = historialRepository;
+        this.capacidadSuscriptor = capacidadSuscriptor;
+        this.maximoReenvio = maximoReenvio;
+        this.latido = Duration.ofSeconds(latidoSegundos);
+    }
+
+    /**
+     * Publica a los suscriptores los registros insertados, una vez confirmada su transacción.
+     *
+     * @param evento Los registros insertados.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void publicar(HistorialesGuardados evento) {
+        if (emisor.currentSubscriberCount() == 0) {
+            return;
+        }
+        for (Historial historial : evento.historiales()) {
+            emisor.tryEmitNext(historial);
+        }
+    }
+
+    /**
+     * Cantidad de suscriptores conectados.
+     *
+     * @return La cantidad de suscriptores.
+     */
+    public int getSuscriptores() {
+        return emisor.currentSubscriberCount();
+    }
+
+    /**
+     * Crea el flujo de eventos de un suscriptor.
+     *
+     * @param filtro   Criterios que deben cumplir los registros enviados; los nulos se ignoran.
+     * @param ultimoId ID del último evento recibido antes de reconectarse, o {@code null} para recibir
+     *                 solo los registros nuevos.
+     * @return El flujo de eventos, con comentarios periódicos para mantener la conexión abierta.
+     */
+    public Flux<ServerSentEvent<Object>> suscribir(FiltroHistorial filtro, Integer ultimoId) {
+        Flux<ServerSentEvent<Object>> eventos = Flux.defer(() -> {
+            // La suscripción en vivo comienza antes de consultar los registros perdidos, para que
+            // los insertados durante el reenvío queden en el búfer y no se pierdan.
+            Sinks.Many<Historial> bufer = Sinks.many().unicast().onBackpressureBuffer(Queues.<Historial>get(capacidadSuscriptor).get());
+            Disposable enVivo = emisor.asFlux().subscribe(
+                    historial -> {
+                        if (bufer.tryEmitNext(historial).isFailure()) {
+                            bufer.tryEmitError(Exceptions.failWithOverflow());
+                        }
+                    },
+                    bufer::tryEmitError,
+                    bufer::tryEmitComplete);
+
+            Set<Integer> reenviados = new HashSet<>();
+            Flux<Historial> reenvio = Flux.empty();
+            if (ultimoId != null) {
+                List<Historial> perdidos = historialRepository.findDespuesDeId(ultimoId, Limit.of(maximoReenvio + 1));
+                if (perdidos.size() > maximoReenvio) {
+                    enVivo.dispose();
+                    return Flux.just(resincronizar("Se perdieron más de " + maximoReenvio + " eventos desde el ID " + ultimoId + "."));
+                }
+                perdidos.forEach(historial -> reenviados.add(historial.getIdHistorial()));
+                reenvio = Flux.fromIterable(perdidos);
+            }
+
+            return Flux.concat(reenvio, bufer.asFlux().filter(historial -> !reenviados.contains(historial.getIdHistorial())))
+                    .filter(filtro::coincide)
+                    .map(EventosHistorialService::evento)
+                    .onErrorResume(Exceptions::isOverflow,
+                            e -> Flux.just(resincronizar("El cliente no consumió los eventos a tiempo.")))
+                    .doFinally(senal -> enVivo.dispose());
+        });
+
+        Sinks.Empty<Void> fin = Sinks.empty();
+        Flux<ServerSentEvent<Object>> latidos = Flux.interval(latido, latido)
+                .map(i -> ServerSentEvent.builder().comment("latido").build())
+                .takeUntilOther(fin.asMono());
+        return Flux.merge(eventos.doFinally(senal -> fin.tryEmitEmpty()), latidos);
+    }
+
+    /**
+     * Termina los flujos abiertos al detener la aplicación.
+     */
+    @PreDestroy
+    public void cerrar() {
+        emisor.tryEmitComplete();
+    }
+
+    private static ServerSentEvent<Object> evento(Historial historial) {
+        return ServerSentEvent.builder()
+                .id(String.valueOf(historial.getIdHistorial()))
+                .event(EVENTO_HISTORIAL)
+                .data(historial)
+                .build();
+    }
+
+    private static ServerSentEvent<Object> resincronizar(String motivo) {
+        return ServerSentEvent.builder().event(EVENTO_RESINCRONIZAR).data(motivo).build();
+    }
+}
@@ -0,0 +1,224 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Capa de servicio responsable de la exportación masiva de registros de {@link Historial}
+ * en formato NDJSON o CSV.
+ * <p>
+ * Los registros se leen desde un cursor del servidor y se escriben directamente en el flujo de
+ * salida a medida que llegan; cada entidad se desvincula del contexto de persistencia una vez
+ * escrita, de modo que el consumo de memoria no depende de la cantidad de filas exportadas.
+ * </p>
+ */
+@Service
+@Timed("registros.servicio")
+public class ExportacionHistorialService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportacionHistorialService.class);
+
+    private static final String ENCABEZADO_CSV = "idHistorial,fechaHistorial,idEstado,estado,idCategoria,categoria,detalle,"
+            + "idAsignacionIncidente,idAsignacionUsuario,idEnvioMensaje,idDireccion,idUsuarioReporte,idAsignacionCurso";
+
+    /**
+     * Formatos de exportación soportados.
+     */
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String tipoContenido;
+        private final String extension;
+
+        Formato(String tipoContenido, String extension) {
+            this.tipoContenido = tipoContenido;
+            this.extension = extension;
+        }
+
+        public String getTipoContenido() {
+            return tipoContenido;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Obtiene el formato a partir de su nombre, sin distinguir mayúsculas.
+         *
+         * @param nombre El nombre del formato (ej. "ndjson" o "csv").
+         * @return El formato correspondiente.
+         * @throws IllegalArgumentException Si el formato no está soportado.
+         */
+        public static Formato desde(String nombre) {
+            try {
+                return Formato.valueOf(nombre.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Formato de exportación no soportado: " + nombre + ". Use ndjson o csv.");
+            }
+        }
+    }
+
+    private final HistorialRepository historialRepository;
+    private final TransactionTemplate transaccionLectura;
+    private final ObjectWriter escritorJson;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Constructor para la inyección de dependencias (Inyección por Constructor).
+     *
+     * @param historialRepository El repositorio de historiales.
+     * @param transactionManager  El administrador de transacciones, para abrir una transacción de solo lectura.
+     * @param objectMapper        El serializador de cada registro en formato NDJSON.
+     */
+    public ExportacionHistorialService(HistorialRepository historialRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       ObjectMapper objectMapper) {
+        this.historialRepository = historialRepository;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.escritorJson = objectMapper.writerFor(Historial.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Valida los filtros de una exportación antes de comenzar a escribir la respuesta.
+     *
+     * @param desde Fecha mínima (inclusiva).
+     * @param hasta Fecha máxima (exclusiva).
+     * @throws IllegalArgumentException Si el rango de fechas es inválido.
+     */
+    public void validarFiltros(LocalDateTime desde, LocalDateTime hasta) {
+        if (desde != null && hasta != null && !desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("La fecha 'desde' debe ser anterior a la fecha 'hasta'.");
+        }
+    }
+
+    /**
+     * Escribe en el flujo de salida los registros de historial que cumplen los filtros indicados.
+     * Los filtros nulos se ignoran.
+     *
+     * @param salida      El flujo donde se escriben los registros.
+     * @param formato     El formato de salida.
+     * @param desde       Fecha mínima (inclusiva) del registro.
+     * @param hasta       Fecha máxima (exclusiva) del registro.
+     * @param estadoId    ID del estado asociado.
+     * @param categoriaId ID de la categoría asociada.
+     * @return La cantidad de registros exportados.
+     * @throws IOException Si ocurre un error al escribir, por ejemplo si el cliente cierra la conexión.
+     */
+    public long exportar(OutputStream salida, Formato formato, LocalDateTime desde, LocalDateTime hasta,
+                         Integer estadoId, Integer categoriaId) throws IOException {
+        validarFiltros(desde, hasta);
+        long inicio = System.currentTimeMillis();
+        try {
+            Long exportados = transaccionLectura.execute(estado -> {
+                try (Stream<Historial> historiales = historialRepository.streamParaExportar(desde, hasta, estadoId, categoriaId)) {
+                    return formato == Formato.CSV
+                            ? escribirCsv(historiales.iterator(), salida)
+                            : escribirNdjson(historiales.iterator(), salida);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Exportación de historiales en {}: {} registros en {} ms", formato, exportados, System.currentTimeMillis() - inicio);
+            return exportados == null ? 0 : exportados;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long escribirNdjson(Iterator<Historial> historiales, OutputStream salida) throws IOException {
+        long cantidad = 0;
+        try (JsonGenerator generador = escritorJson.createGenerator(salida)) {
+            generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // El salto de línea se escribe explícitamente; se omite el separador por defecto entre valores raíz.
+            generador.setRootValueSeparator(null);
+            while (historiales.hasNext()) {
+                Historial historial = historiales.next();
+                escritorJson.writeValue(generador, historial);
+                generador.writeRaw('\n');
+                entityManager.detach(historial);
+                cantidad++;
+            }
+        }
+        return cantidad;
+    }
+
+    private long escribirCsv(Iterator<Historial> historiales, OutputStream salida) throws IOException {
+        long cantidad = 0;
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), 64 * 1024);
+        escritor.write(ENCABEZADO_CSV);
+        escritor.write('\n');
+        StringBuilder fila = new StringBuilder(512);
+        while (historiales.hasNext()) {
+            Historial historial = historiales.next();
+            fila.setLength(0);
+            fila.append(historial.getIdHistorial()).append(',')
+                    .append(historial.getFechaHistorial()).append(',')
+                    .append(historial.getEstado().getIdEstado()).append(',');
+            agregarCampoCsv(fila, historial.getEstado().getNombre()).append(',')
+                    .append(historial.getCategoria().getIdCategoria()).append(',');
+            agregarCampoCsv(fila, historial.getCategoria().getNombre()).append(',');
+            agregarCampoCsv(fila, historial.getDetalle()).append(',');
+            agregarOpcional(fila, historial.getIdAsignacionIncidente()).append(',');
+            agregarOpcional(fila, historial.getIdAsignacionUsuario()).append(',');
+            agregarOpcional(fila, historial.getIdEnvioMensaje()).append(',');
+            agregarOpcional(fila, historial.getIdDireccion()).append(',');
+            agregarOpcional(fila, historial.getIdUsuarioReporte()).append(',');
+            agregarOpcional(fila, historial.getIdAsignacionCurso()).append('\n');
+            escritor.append(fila);
+            entityManager.detach(historial);
+            cantidad++;
+        }
+        escritor.flush();
+        return cantidad;
+    }
+
+    /**
+     * Agrega un campo de texto según RFC 4180: se encierra entre comillas si contiene
+     * comas, comillas o saltos de línea, y las comillas internas se duplican.
+     */
+    private static StringBuilder agregarCampoCsv(StringBuilder fila, String valor) {
+        if (valor == null) {
+            return fila;
+        }
+        boolean requiereComillas = valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0
+                || valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0;
+        if (!requiereComillas) {
+            return fila.append(valor);
+        }
+        return fila.append('"').append(valor.replace("\"", "\"\"")).append('"');
+    }
+
+    private static StringBuilder agregarOpcional(StringBuilder fila, Integer valor) {
+        return valor == null ? fila : fila.append(valor);
+    }
+}
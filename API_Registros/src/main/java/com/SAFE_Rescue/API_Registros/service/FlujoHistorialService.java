@@ -0,0 +1,113 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+import com.SAFE_Rescue.API_Registros.dto.FiltroHistorial;
+import com.SAFE_Rescue.API_Registros.dto.PaginaCursor;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Capa de servicio para la lectura de registros de {@link Historial} como flujo reactivo con
+ * contrapresión.
+ * <p>
+ * El flujo recorre la búsqueda paginada por cursor (keyset) de {@link HistorialService}: cada página
+ * se consulta recién cuando el suscriptor pidió todos los registros de la anterior, y la conexión a
+ * la base de datos se libera al terminar cada página. Un cliente lento, o miles de clientes, no
+ * retienen conexiones ni hilos mientras consumen; solo ocupan un hilo durante la consulta de cada
+ * página, en el planificador de tareas bloqueantes. Si el cliente se desconecta, el flujo se cancela
+ * y no se consultan más páginas.
+ * </p>
+ * <p>
+ * Los registros insertados durante el recorrido aparecen si su fecha es posterior a la del último
+ * registro entregado, igual que al paginar manualmente con el cursor.
+ * </p>
+ */
+@Service
+@Timed("registros.servicio")
+public class FlujoHistorialService {
+
+    private final HistorialService historialService;
+    private final int tamanoLote;
+    private final Scheduler planificador;
+
+    /**
+     * Constructor para la inyección de dependencias (Inyección por Constructor).
+     *
+     * @param historialService El servicio con la búsqueda paginada por cursor.
+     * @param tamanoLote       Cantidad de registros consultados por página (limitada al máximo de paginación).
+     */
+    @Autowired
+    public FlujoHistorialService(HistorialService historialService,
+                                 @Value("${registros.historial.flujo.tamano-lote:500}") int tamanoLote) {
+        this(historialService, tamanoLote, Schedulers.boundedElastic());
+    }
+
+    FlujoHistorialService(HistorialService historialService, int tamanoLote, Scheduler planificador) {
+        this.historialService = historialService;
+        this.tamanoLote = tamanoLote;
+        this.planificador = planificador;
+    }
+
+    /**
+     * Crea el flujo de los registros que cumplen el filtro, ordenados por fecha e ID.
+     * <p>
+     * La primera página se consulta antes de retornar, para que un filtro inválido o una referencia
+     * inexistente se informen como error de la solicitud y no a mitad del flujo.
+     * </p>
+     *
+     * @param filtro Los criterios de búsqueda; los nulos se ignoran.
+     * @return El flujo de registros.
+     * @throws IllegalArgumentException Si el rango de fechas no es válido.
+     * @throws NoSuchElementException   Si el estado o la categoría indicados no existen.
+     */
+    public Flux<Historial> flujo(FiltroHistorial filtro) {
+        PaginaCursor<Historial> primera = historialService.buscar(filtro, null, tamanoLote);
+        return Flux.<Historial, Recorrido>generate(() -> new Recorrido(filtro, primera), Recorrido::siguiente)
+                .subscribeOn(planificador, true);
+    }
+
+    /**
+     * Estado del recorrido de un suscriptor: la página en curso y el cursor de la siguiente.
+     */
+    private final class Recorrido {
+
+        private final FiltroHistorial filtro;
+        private Iterator<Historial> pagina;
+        private String siguienteCursor;
+
+        Recorrido(FiltroHistorial filtro, PaginaCursor<Historial> primera) {
+            this.filtro = filtro;
+            avanzar(primera);
+        }
+
+        /**
+         * Entrega un registro por cada solicitud del suscriptor, consultando la página siguiente
+         * solo cuando se agotó la actual.
+         */
+        Recorrido siguiente(SynchronousSink<Historial> sink) {
+            while (!pagina.hasNext() && siguienteCursor != null) {
+                avanzar(historialService.buscar(filtro, siguienteCursor, tamanoLote));
+            }
+            if (pagina.hasNext()) {
+                sink.next(pagina.next());
+            } else {
+                sink.complete();
+            }
+            return this;
+        }
+
+        private void avanzar(PaginaCursor<Historial> actual) {
+            pagina = actual.getElementos().iterator();
+            siguienteCursor = actual.getSiguienteCursor();
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package com.SAFE_Rescue.API_Registros.service;
 
+import com.SAFE_Rescue.API_Registros.dto.PaginaCursor;
 import com.SAFE_Rescue.API_Registros.modelo.Foto;
 import com.SAFE_Rescue.API_Registros.repository.FotoRepository;
+import com.SAFE_Rescue.API_Registros.util.ContadorVersion;
+import com.SAFE_Rescue.API_Registros.util.PaginacionKeyset;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -18,17 +26,33 @@ import java.util.NoSuchElementException;
  *
  */
 @Service
+@Timed("registros.servicio")
 public class FotoService {
 
+    /**
+     * Cantidad de sentencias INSERT enviadas en cada lote JDBC de {@link #saveBloque(List)}.
+     */
+    private static final int TAMANO_LOTE_JDBC = 500;
+
     private final FotoRepository fotoRepository;
+    private final PaginacionKeyset paginacion;
+    private final IdempotenciaService idempotenciaService;
+    private final ContadorVersion version;
 
     /**
      * Constructor para la inyección de dependencias (Inyección por Constructor).
      *
-     * @param fotoRepository El repositorio de datos para la entidad Foto.
+     * @param fotoRepository          El repositorio de datos para la entidad Foto.
+     * @param paginacion              La configuración de la paginación por cursor de los listados.
+     * @param idempotenciaService     El servicio de deduplicación de solicitudes de creación.
+     * @param vigenciaVersionSegundos Segundos tras los cuales la versión de las fotos avanza aunque no haya cambios.
      */
-    public FotoService(FotoRepository fotoRepository) {
+    public FotoService(FotoRepository fotoRepository, PaginacionKeyset paginacion, IdempotenciaService idempotenciaService,
+                       @Value("${registros.etag.vigencia-segundos:600}") long vigenciaVersionSegundos) {
         this.fotoRepository = fotoRepository;
+        this.paginacion = paginacion;
+        this.idempotenciaService = idempotenciaService;
+        this.version = new ContadorVersion(Duration.ofSeconds(vigenciaVersionSegundos));
     }
 
     // -------------------------------------------------------------------------
@@ -44,6 +68,21 @@ public class FotoService {
         return fotoRepository.findAll();
     }
 
+    /**
+     * Recupera una página de fotos ordenada por ID, usando paginación por cursor (keyset).
+     *
+     * @param cursor El cursor entregado con la página anterior, o {@code null} para la primera página.
+     * @param tamano El tamaño de página solicitado, o {@code null} para el tamaño por defecto.
+     * @return La página de fotos junto con el cursor de la página siguiente.
+     * @throws IllegalArgumentException Si el cursor o el tamaño de página no son válidos.
+     */
+    public PaginaCursor<Foto> findPagina(String cursor, Integer tamano) {
+        int tamanoPagina = paginacion.resolverTamano(tamano);
+        int ultimoId = cursor == null || cursor.isBlank() ? Integer.MIN_VALUE : paginacion.decodificarEntero(cursor);
+        List<Foto> resultados = fotoRepository.findByIdFotoGreaterThanOrderByIdFotoAsc(ultimoId, Limit.of(tamanoPagina + 1));
+        return paginacion.armarPagina(resultados, tamanoPagina, f -> paginacion.codificar(f.getIdFoto()));
+    }
+
     /**
      * Busca y recupera un registro de {@code Foto} por su identificador único.
      *
@@ -76,6 +115,43 @@ public class FotoService {
         }
     }
 
+    /**
+     * Guarda un bloque de fotos en una única transacción mediante lotes JDBC.
+     * <p>
+     * Pensado para cargas masivas: cada foto se valida con {@link #validarAtributosFoto(Foto)} y,
+     * si alguna no es válida, no se inserta ninguna. Los identificadores generados no se asignan.
+     * </p>
+     *
+     * @param fotos Las fotos a guardar.
+     * @throws IllegalArgumentException Si alguna foto no es válida o el bloque viola la integridad de datos.
+     */
+    @Transactional
+    public void saveBloque(List<Foto> fotos) {
+        fotos.forEach(this::validarAtributosFoto);
+        try {
+            fotoRepository.insertarEnLote(fotos, TAMANO_LOTE_JDBC);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Error de integridad de datos. El bloque contiene fotos inválidas.");
+        }
+    }
+
+    /**
+     * Guarda un nuevo registro de {@code Foto} una sola vez por clave de idempotencia.
+     * <p>
+     * Si la clave ya fue procesada dentro de su TTL, retorna la foto original sin volver
+     * a insertarla. Si la clave es nula, equivale a {@link #save(Foto)}.
+     * </p>
+     *
+     * @param foto              El objeto {@code Foto} a guardar.
+     * @param claveIdempotencia La clave {@code Idempotency-Key} enviada por el cliente (opcional).
+     * @return El objeto {@code Foto} guardado, o el guardado originalmente con la misma clave.
+     * @throws IllegalArgumentException              Si la foto no cumple con las validaciones o la clave es inválida.
+     * @throws ClaveIdempotenciaReutilizadaException Si la clave ya se utilizó con otra foto.
+     */
+    public Foto save(Foto foto, String claveIdempotencia) {
+        return idempotenciaService.ejecutar("foto", claveIdempotencia, foto, Foto.class, () -> save(foto));
+    }
+
     /**
      * Actualiza un registro de {@code Foto} existente.
      * <p>
@@ -105,6 +181,7 @@ public class FotoService {
         fotoExistente.setDescripcion(foto.getDescripcion());
         try {
             fotoRepository.save(fotoExistente);
+            version.incrementar();
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("Error de integridad de datos. La URL de la foto ya existe.");
         }
@@ -124,11 +201,22 @@ public class FotoService {
 
         try {
             fotoRepository.delete(foto);
+            version.incrementar();
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("No se puede eliminar la foto, está siendo utilizada por un usuario.");
         }
     }
 
+    /**
+     * Obtiene la versión de las fotos, que avanza cada vez que se actualiza o elimina una.
+     * Las fotos nuevas no la modifican, porque no cambian ninguna representación ya entregada.
+     *
+     * @return La versión vigente.
+     */
+    public ContadorVersion.Version getVersion() {
+        return version.actual();
+    }
+
     // -------------------------------------------------------------------------
     // MÉTODOS DE VALIDACIÓN
     // -------------------------------------------------------------------------
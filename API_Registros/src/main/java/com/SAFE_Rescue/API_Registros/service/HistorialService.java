@@ -1,15 +1,49 @@
 package com.SAFE_Rescue.API_Registros.service;
 
+import com.SAFE_Rescue.API_Registros.archivo.AlmacenArchivoHistorial;
+import com.SAFE_Rescue.API_Registros.dto.FiltroHistorial;
+import com.SAFE_Rescue.API_Registros.dto.HistorialCompacto;
+import com.SAFE_Rescue.API_Registros.dto.HistorialesGuardados;
+import com.SAFE_Rescue.API_Registros.dto.PaginaCursor;
+import com.SAFE_Rescue.API_Registros.dto.ResultadoLote;
+import com.SAFE_Rescue.API_Registros.ingesta.IngestaAgrupadaHistorial;
+import com.SAFE_Rescue.API_Registros.ingesta.IngestaBitacoraHistorial;
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
 import com.SAFE_Rescue.API_Registros.modelo.Estado;
 import com.SAFE_Rescue.API_Registros.modelo.Historial;
 import com.SAFE_Rescue.API_Registros.repository.EstadoRepository;
+import com.SAFE_Rescue.API_Registros.repository.HistorialEspecificaciones;
 import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import com.SAFE_Rescue.API_Registros.repository.ResumenHistorialRepository;
+import com.SAFE_Rescue.API_Registros.util.ContadorVersion;
+import com.SAFE_Rescue.API_Registros.util.PaginacionKeyset;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 /**
  * Capa de servicio responsable de la lógica de negocio para la entidad {@link Historial}.
@@ -21,30 +55,243 @@ import java.util.NoSuchElementException;
  *
  */
 @Service
+@Timed("registros.servicio")
 public class HistorialService {
 
     @Autowired
     private HistorialRepository historialRepository;
 
+    /**
+     * Conteos por intervalo; los lotes los actualizan en {@code insertarEnLote} y los registros
+     * individuales en {@link #save(Historial)} y {@link #delete(Integer)}.
+     */
+    @Autowired
+    private ResumenHistorialRepository resumenHistorialRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
     private EstadoService estadoService;
 
+    @Autowired
+    private CategoriaService categoriaService;
+
+    /**
+     * Ingesta agrupada (group commit); solo existe si {@code registros.historial.ingesta.modo=agrupado}.
+     */
+    @Autowired(required = false)
+    private IngestaAgrupadaHistorial ingestaAgrupada;
+
+    /**
+     * Ingesta por bitácora local; solo existe si {@code registros.historial.ingesta.modo=bitacora}.
+     */
+    @Autowired(required = false)
+    private IngestaBitacoraHistorial ingestaBitacora;
+
+    /**
+     * Archivo local de los registros trasladados por {@link RetencionHistorialService}.
+     */
+    @Autowired
+    private AlmacenArchivoHistorial archivoHistorial;
+
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    @Autowired
+    private PaginacionKeyset paginacion;
+
+    /**
+     * Cantidad máxima de registros aceptados en una sola solicitud de ingesta en lote.
+     */
+    @Value("${registros.historial.lote.maximo:5000}")
+    private int maximoLote;
+
+    /**
+     * Cantidad de sentencias INSERT enviadas en cada lote JDBC.
+     */
+    @Value("${registros.historial.lote.tamano-jdbc:500}")
+    private int tamanoLoteJdbc;
+
+    /**
+     * Segundos tras los cuales la versión de los historiales avanza aunque no haya cambios.
+     */
+    @Value("${registros.etag.vigencia-segundos:600}")
+    private long vigenciaVersionSegundos;
+
+    /**
+     * Versión de los historiales, que avanza al eliminar uno; las inserciones no cambian los ya entregados.
+     */
+    private ContadorVersion version;
+
+    /**
+     * Valida la configuración de los lotes e inicia la versión de los historiales.
+     *
+     * @throws IllegalStateException Si el tamaño de los lotes JDBC no es mayor que cero.
+     */
+    @PostConstruct
+    void iniciar() {
+        if (tamanoLoteJdbc <= 0) {
+            throw new IllegalStateException("La propiedad registros.historial.lote.tamano-jdbc debe ser mayor que cero.");
+        }
+        version = new ContadorVersion(Duration.ofSeconds(vigenciaVersionSegundos));
+    }
 
     // -------------------------------------------------------------------------
     // OPERACIONES CRUD BÁSICAS
     // -------------------------------------------------------------------------
 
     /**
-     * Recupera una lista de todos los registros de historial del sistema.
+     * Recupera una página de historiales ordenada por fecha e ID, usando paginación por cursor (keyset).
+     * <p>
+     * El cursor codifica la fecha y el ID del último registro entregado, por lo que el costo
+     * de cada página no depende de su profundidad.
+     * </p>
      *
-     * @return Una {@code List} de todos los objetos {@link Historial}.
+     * @param cursor El cursor entregado con la página anterior, o {@code null} para la primera página.
+     * @param tamano El tamaño de página solicitado, o {@code null} para el tamaño por defecto.
+     * @return La página de historiales junto con el cursor de la página siguiente.
+     * @throws IllegalArgumentException Si el cursor o el tamaño de página no son válidos.
      */
-    public List<Historial> findAll() {
-        return historialRepository.findAll();
+    public PaginaCursor<Historial> findPagina(String cursor, Integer tamano) {
+        int tamanoPagina = paginacion.resolverTamano(tamano);
+        Limit limite = Limit.of(tamanoPagina + 1);
+        List<Historial> resultados;
+        if (cursor == null || cursor.isBlank()) {
+            resultados = historialRepository.findPrimeraPagina(limite);
+        } else {
+            ClaveCursor clave = decodificarCursor(cursor);
+            resultados = historialRepository.findPaginaDespuesDe(clave.fechaHistorial(), clave.idHistorial(), limite);
+        }
+        return paginacion.armarPagina(resultados, tamanoPagina,
+                h -> paginacion.codificar(h.getFechaHistorial(), h.getIdHistorial()));
+    }
+
+    /**
+     * Igual que {@link #findPagina(String, Integer)}, pero retorna la representación compacta, obtenida
+     * con una proyección que no carga entidades. Los cursores de ambos métodos son intercambiables.
+     *
+     * @param cursor El cursor entregado con la página anterior, o {@code null} para la primera página.
+     * @param tamano El tamaño de página solicitado, o {@code null} para el tamaño por defecto.
+     * @return La página de historiales junto con el cursor de la página siguiente.
+     * @throws IllegalArgumentException Si el cursor o el tamaño de página no son válidos.
+     */
+    public PaginaCursor<HistorialCompacto> findPaginaCompacta(String cursor, Integer tamano) {
+        int tamanoPagina = paginacion.resolverTamano(tamano);
+        Limit limite = Limit.of(tamanoPagina + 1);
+        List<HistorialCompacto> resultados;
+        if (cursor == null || cursor.isBlank()) {
+            resultados = historialRepository.findPrimeraPaginaCompacta(limite);
+        } else {
+            ClaveCursor clave = decodificarCursor(cursor);
+            resultados = historialRepository.findPaginaCompactaDespuesDe(clave.fechaHistorial(), clave.idHistorial(), limite);
+        }
+        return paginacion.armarPagina(resultados, tamanoPagina,
+                h -> paginacion.codificar(h.getFechaHistorial(), h.getIdHistorial()));
+    }
+
+    /**
+     * Busca registros de historial combinando los criterios del filtro, ordenados por fecha e ID
+     * y paginados por cursor (keyset).
+     * <p>
+     * Todos los criterios se resuelven en una única consulta que compara las referencias por ID.
+     * Si la primera página viene vacía y se filtró por estado o categoría, se verifica que estos
+     * existan para distinguir "sin resultados" de "referencia inexistente".
+     * </p>
+     * <p>
+     * Si el rango consultado alcanza registros archivados, estos se combinan con los de la base de
+     * datos manteniendo el orden por fecha e ID, de modo que el cursor sigue siendo válido.
+     * </p>
+     *
+     * @param filtro Los criterios de búsqueda; los nulos se ignoran.
+     * @param cursor El cursor entregado con la página anterior, o {@code null} para la primera página.
+     * @param tamano El tamaño de página solicitado, o {@code null} para el tamaño por defecto.
+     * @return La página de historiales coincidentes junto con el cursor de la página siguiente.
+     * @throws IllegalArgumentException Si el rango de fechas, el cursor o el tamaño de página no son válidos.
+     * @throws NoSuchElementException   Si el estado o la categoría indicados no existen.
+     */
+    public PaginaCursor<Historial> buscar(FiltroHistorial filtro, String cursor, Integer tamano) {
+        return buscar(filtro, cursor, tamano,
+                (especificacion, limite) -> historialRepository.findBy(especificacion, consulta -> consulta
+                        .sortBy(Sort.by("fechaHistorial", "idHistorial"))
+                        .limit(limite)
+                        .all()),
+                Function.identity(), Historial::getFechaHistorial, Historial::getIdHistorial);
+    }
+
+    /**
+     * Igual que {@link #buscar(FiltroHistorial, String, Integer)}, pero retorna la representación
+     * compacta, obtenida con una proyección que no carga entidades.
+     *
+     * @param filtro Los criterios de búsqueda; los nulos se ignoran.
+     * @param cursor El cursor entregado con la página anterior, o {@code null} para la primera página.
+     * @param tamano El tamaño de página solicitado, o {@code null} para el tamaño por defecto.
+     * @return La página de historiales coincidentes junto con el cursor de la página siguiente.
+     * @throws IllegalArgumentException Si el rango de fechas, el cursor o el tamaño de página no son válidos.
+     * @throws NoSuchElementException   Si el estado o la categoría indicados no existen.
+     */
+    public PaginaCursor<HistorialCompacto> buscarCompacto(FiltroHistorial filtro, String cursor, Integer tamano) {
+        return buscar(filtro, cursor, tamano, historialRepository::buscarCompacto,
+                HistorialCompacto::de, HistorialCompacto::getFechaHistorial, HistorialCompacto::getIdHistorial);
+    }
+
+    /**
+     * Búsqueda paginada común a ambas representaciones.
+     *
+     * @param consulta   Ejecuta la especificación con el límite indicado, en orden de fecha e ID.
+     * @param conversion Convierte los registros archivados a la representación retornada.
+     * @param fecha      Obtiene la fecha de un elemento, para el orden y el cursor.
+     * @param id         Obtiene el ID de un elemento, para el orden y el cursor.
+     */
+    private <T> PaginaCursor<T> buscar(FiltroHistorial filtro, String cursor, Integer tamano,
+                                       BiFunction<Specification<Historial>, Integer, List<T>> consulta,
+                                       Function<Historial, T> conversion,
+                                       Function<T, LocalDateTime> fecha, ToIntFunction<T> id) {
+        if (filtro.getDesde() != null && filtro.getHasta() != null && !filtro.getDesde().isBefore(filtro.getHasta())) {
+            throw new IllegalArgumentException("La fecha 'desde' debe ser anterior a la fecha 'hasta'.");
+        }
+        int tamanoPagina = paginacion.resolverTamano(tamano);
+        boolean primeraPagina = cursor == null || cursor.isBlank();
+
+        Specification<Historial> especificacion = HistorialEspecificaciones.segun(filtro);
+        ClaveCursor clave = primeraPagina ? null : decodificarCursor(cursor);
+        if (clave != null) {
+            especificacion = especificacion.and(HistorialEspecificaciones.despuesDe(clave.fechaHistorial(), clave.idHistorial()));
+        }
+        List<T> resultados = consulta.apply(especificacion, tamanoPagina + 1);
+
+        LocalDateTime inicioRango = clave != null ? clave.fechaHistorial() : filtro.getDesde();
+        if (archivoHistorial.alcanza(inicioRango)) {
+            List<Historial> archivados = archivoHistorial.buscar(filtro,
+                    clave != null ? clave.fechaHistorial() : null, clave != null ? clave.idHistorial() : 0, tamanoPagina + 1);
+            if (!archivados.isEmpty()) {
+                List<T> combinados = new ArrayList<>(archivados.stream().map(conversion).toList());
+                combinados.addAll(resultados);
+                combinados.sort(Comparator.comparing(fecha).thenComparingInt(id));
+                resultados = combinados.subList(0, Math.min(combinados.size(), tamanoPagina + 1));
+            }
+        }
+
+        if (resultados.isEmpty() && primeraPagina) {
+            if (filtro.getEstadoId() != null) {
+                estadoService.findById(filtro.getEstadoId());
+            }
+            if (filtro.getCategoriaId() != null) {
+                categoriaService.findById(filtro.getCategoriaId());
+            }
+        }
+        return paginacion.armarPagina(resultados, tamanoPagina,
+                h -> paginacion.codificar(fecha.apply(h), id.applyAsInt(h)));
     }
 
     /**
      * Busca y recupera un registro de {@code Historial} por su identificador único.
+     * <p>
+     * Si el registro ya no está en la base de datos, se busca en el archivo local de registros antiguos.
+     * </p>
      *
      * @param id El ID único del {@code Historial} a buscar.
      * @return El objeto {@code Historial} si se encuentra.
@@ -52,45 +299,148 @@ public class HistorialService {
      */
     public Historial findById(Integer id) {
         return historialRepository.findById(id)
+                .or(() -> archivoHistorial.buscarPorId(id))
                 .orElseThrow(() -> new NoSuchElementException("Historial no encontrado con ID: " + id));
     }
 
-    /**
-     * Busca y recupera todos los registros de historial que están asociados
-     * con un {@link Estado} específico, utilizando su identificador.
-     * <p>
-     * Internamente, este método usa el ID para recuperar el objeto Estado
-     * y luego filtra los historiales por dicho objeto.
-     * </p>
-     * @param estadoId El identificador (ID) del estado por el cual se desea filtrar el historial.
-     * @return Una {@code List} de objetos {@code Historial} que coinciden con el ID del estado proporcionado.
-     * Retorna una lista vacía si no se encuentra ninguna coincidencia.
-     */
-    public List<Historial> findByEstadoId(Integer estadoId) {
-        Estado estado = estadoService.findById(estadoId);
-        return historialRepository.findByEstado(estado);
-    }
-
     /**
      * Guarda un nuevo registro de {@code Historial} en la base de datos.
      * <p>
-     * Aplica validaciones de atributos antes de la persistencia.
+     * Aplica validaciones de atributos antes de la persistencia. El estado y la categoría pueden
+     * enviarse como objetos o solo con {@code estadoId}/{@code categoriaId}; en ambos casos se resuelven
+     * en la caché de catálogos, de modo que una referencia inexistente se rechaza sin ejecutar SQL y
+     * un registro válido se persiste con un único INSERT. Si el modo de ingesta agrupada
+     * está activo, el registro se confirma junto con otros en una única transacción y este método
+     * retorna solo después de dicha confirmación. Si el modo bitácora está activo, el registro se
+     * confirma al quedar escrito en la bitácora local y se persiste después (ver {@link #isIngestaDiferida()}).
+     * En todos los casos, los conteos de {@code resumen_historial} se actualizan en la transacción que inserta el registro,
+     * y el registro se publica a los suscriptores de {@link EventosHistorialService} al confirmarse.
      * </p>
      *
      * @param historial El objeto {@code Historial} a guardar.
      * @return El objeto {@code Historial} guardado y persistido.
-     * @throws IllegalArgumentException Si el historial no cumple con las validaciones de atributos
-     * o si ocurre un error de integridad de datos (ej. claves foráneas inválidas).
+     * @throws IllegalArgumentException Si el historial no cumple con las validaciones de atributos,
+     * si el estado o la categoría no existen o si ocurre un error de integridad de datos.
+     * @throws IllegalStateException Si la ingesta agrupada está saturada o no confirma a tiempo,
+     * o si no es posible escribir en la bitácora local.
      */
     public Historial save(Historial historial) {
         validarAtributosHistorial(historial);
+        resolverReferencias(historial);
+        if (ingestaBitacora != null) {
+            ingestaBitacora.registrar(historial);
+            return historial;
+        }
+        if (ingestaAgrupada != null) {
+            return ingestaAgrupada.registrar(historial);
+        }
         try {
-            return historialRepository.save(historial);
+            return transactionTemplate.execute(estado -> {
+                Historial guardado = historialRepository.save(historial);
+                resumenHistorialRepository.acumular(List.of(guardado), 1);
+                eventPublisher.publishEvent(new HistorialesGuardados(List.of(guardado)));
+                return guardado;
+            });
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("Error de integridad de datos. El historial contiene datos inválidos o referencias inexistentes.");
         }
     }
 
+    /**
+     * Guarda un nuevo registro de {@code Historial} una sola vez por clave de idempotencia.
+     * <p>
+     * Si la clave ya fue procesada dentro de su TTL, retorna el registro original sin volver
+     * a insertarlo. Si la clave es nula, equivale a {@link #save(Historial)}.
+     * </p>
+     *
+     * @param historial          El objeto {@code Historial} a guardar.
+     * @param claveIdempotencia  La clave {@code Idempotency-Key} enviada por el cliente (opcional).
+     * @return El objeto {@code Historial} guardado, o el guardado originalmente con la misma clave.
+     * @throws IllegalArgumentException              Si el historial no cumple con las validaciones o la clave es inválida.
+     * @throws ClaveIdempotenciaReutilizadaException Si la clave ya se utilizó con otro historial.
+     */
+    public Historial save(Historial historial, String claveIdempotencia) {
+        return idempotenciaService.ejecutar("historial", claveIdempotencia, historial, Historial.class, () -> save(historial));
+    }
+
+    /**
+     * Indica si {@link #save(Historial)} confirma los registros antes de persistirlos en la base de datos.
+     * <p>
+     * En ese caso el registro retornado aún no tiene identificador asignado.
+     * </p>
+     *
+     * @return {@code true} si el modo de ingesta por bitácora está activo.
+     */
+    public boolean isIngestaDiferida() {
+        return ingestaBitacora != null;
+    }
+
+    /**
+     * Guarda un lote de registros de {@code Historial} dentro de una única transacción.
+     * <p>
+     * Cada elemento se valida de forma individual con {@link #validarAtributosHistorial(Historial)}
+     * y las referencias a {@link Estado} y {@link Categoria} se resuelven una sola vez para todo el lote.
+     * Los elementos inválidos se informan en el resultado junto con su posición, mientras que los
+     * válidos se insertan mediante lotes JDBC.
+     * </p>
+     *
+     * @param historiales La lista de registros de historial a guardar.
+     * @return Un {@link ResultadoLote} con los identificadores generados y los errores por elemento.
+     * @throws IllegalArgumentException Si el lote está vacío, excede el máximo permitido
+     * o si ocurre un error de integridad de datos al insertar.
+     */
+    @Transactional
+    public ResultadoLote saveLote(List<Historial> historiales) {
+        if (historiales == null || historiales.isEmpty()) {
+            throw new IllegalArgumentException("El lote de historiales no puede estar vacío.");
+        }
+        if (historiales.size() > maximoLote) {
+            throw new IllegalArgumentException("El lote de historiales no puede exceder los " + maximoLote + " registros.");
+        }
+
+        ResultadoLote resultado = new ResultadoLote();
+        resultado.setRecibidos(historiales.size());
+
+        List<Long> indices = LongStream.range(0, historiales.size()).boxed().toList();
+        List<Historial> validos = filtrarLoteValido(historiales, indices, resultado.getErrores());
+        try {
+            historialRepository.insertarEnLote(validos, tamanoLoteJdbc);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Error de integridad de datos. El lote contiene datos inválidos o referencias inexistentes.");
+        }
+
+        resultado.setInsertados(validos.size());
+        validos.forEach(historial -> resultado.getIds().add(historial.getIdHistorial()));
+        return resultado;
+    }
+
+    /**
+     * Guarda un bloque de una importación masiva en su propia transacción.
+     * <p>
+     * A diferencia de {@link #saveLote(List)}, no limita la cantidad de elementos ni retorna los
+     * identificadores generados, para que el consumo de memoria de una importación no dependa del
+     * tamaño total del archivo.
+     * </p>
+     *
+     * @param bloque     Los registros de historial del bloque.
+     * @param indices    La posición (ej. número de línea) de cada registro dentro de la importación.
+     * @param errores    Lista donde se agregan los elementos rechazados del bloque.
+     * @return La cantidad de registros insertados.
+     * @throws IllegalArgumentException Si el bloque falla por integridad de datos; en ese caso no se inserta ninguno.
+     */
+    @Transactional
+    public int saveBloqueImportacion(List<Historial> bloque, List<Long> indices, List<ResultadoLote.ErrorLote> errores) {
+        List<ResultadoLote.ErrorLote> rechazados = new ArrayList<>();
+        List<Historial> validos = filtrarLoteValido(bloque, indices, rechazados);
+        try {
+            historialRepository.insertarEnLote(validos, tamanoLoteJdbc);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Error de integridad de datos en el bloque que comienza en la posición " + indices.get(0) + ".");
+        }
+        errores.addAll(rechazados);
+        return validos.size();
+    }
+
     /**
      * Elimina un registro de {@code Historial} por su ID.
      *
@@ -103,16 +453,91 @@ public class HistorialService {
                 .orElseThrow(() -> new NoSuchElementException("Historial no encontrado con ID: " + id));
 
         try {
-            historialRepository.delete(historial);
+            transactionTemplate.executeWithoutResult(estado -> {
+                historialRepository.delete(historial);
+                resumenHistorialRepository.acumular(List.of(historial), -1);
+            });
+            version.incrementar();
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("No se puede eliminar Historial. Posible violación de integridad referencial.");
         }
     }
 
+    /**
+     * Obtiene las versiones de las que depende la representación de un historial: la de los
+     * historiales y las de los catálogos de estados y categorías, cuyos datos se incluyen en ella.
+     * <p>
+     * Los registros trasladados al archivo conservan su representación, por lo que no la modifican.
+     * </p>
+     *
+     * @return Las versiones vigentes.
+     */
+    public ContadorVersion.Version[] getVersiones() {
+        return new ContadorVersion.Version[]{version.actual(), estadoService.getVersion(), categoriaService.getVersion()};
+    }
+
     // -------------------------------------------------------------------------
     // MÉTODOS DE VALIDACIÓN
     // -------------------------------------------------------------------------
 
+    /**
+     * Valida cada elemento de un lote y descarta los que no cumplen las reglas de negocio.
+     * <p>
+     * Además de {@link #validarAtributosHistorial(Historial)}, verifica en una sola consulta por tipo
+     * que los {@link Estado} y {@link Categoria} referenciados existan, evitando un INSERT fallido.
+     * </p>
+     *
+     * @param historiales Los elementos del lote.
+     * @param indices     Posición de cada elemento dentro de la solicitud completa.
+     * @param errores     Lista donde se agregan los elementos rechazados, ordenados por posición.
+     * @return Los elementos válidos, en el mismo orden en que fueron recibidos.
+     */
+    private List<Historial> filtrarLoteValido(List<Historial> historiales, List<Long> indices, List<ResultadoLote.ErrorLote> errores) {
+        List<ResultadoLote.ErrorLote> nuevosErrores = new ArrayList<>();
+        List<Historial> candidatos = new ArrayList<>();
+        List<Long> indicesCandidatos = new ArrayList<>();
+        Set<Integer> idsEstado = new HashSet<>();
+        Set<Integer> idsCategoria = new HashSet<>();
+
+        // 1. Validación de atributos de cada elemento.
+        for (int i = 0; i < historiales.size(); i++) {
+            Historial historial = historiales.get(i);
+            try {
+                validarAtributosHistorial(historial);
+                candidatos.add(historial);
+                indicesCandidatos.add(indices.get(i));
+                idsEstado.add(historial.getEstado().getIdEstado());
+                idsCategoria.add(historial.getCategoria().getIdCategoria());
+            } catch (IllegalArgumentException e) {
+                nuevosErrores.add(new ResultadoLote.ErrorLote(indices.get(i), e.getMessage()));
+            }
+        }
+
+        // 2. Resolución de referencias: una consulta por tipo para todo el lote.
+        Set<Integer> estadosExistentes = estadoService.findAllById(idsEstado).stream()
+                .map(Estado::getIdEstado).collect(Collectors.toSet());
+        Set<Integer> categoriasExistentes = categoriaService.findAllById(idsCategoria).stream()
+                .map(Categoria::getIdCategoria).collect(Collectors.toSet());
+
+        List<Historial> validos = new ArrayList<>(candidatos.size());
+        for (int i = 0; i < candidatos.size(); i++) {
+            Historial historial = candidatos.get(i);
+            if (!estadosExistentes.contains(historial.getEstado().getIdEstado())) {
+                nuevosErrores.add(new ResultadoLote.ErrorLote(indicesCandidatos.get(i),
+                        "El Estado con ID " + historial.getEstado().getIdEstado() + " no existe."));
+            } else if (!categoriasExistentes.contains(historial.getCategoria().getIdCategoria())) {
+                nuevosErrores.add(new ResultadoLote.ErrorLote(indicesCandidatos.get(i),
+                        "La Categoría con ID " + historial.getCategoria().getIdCategoria() + " no existe."));
+            } else {
+                validos.add(historial);
+            }
+        }
+
+        nuevosErrores.sort(Comparator.comparingLong(ResultadoLote.ErrorLote::getIndice));
+        errores.addAll(nuevosErrores);
+        return validos;
+    }
+
     /**
      * Valida los atributos obligatorios del {@code Historial} y verifica las restricciones de longitud.
      *
@@ -144,4 +569,43 @@ public class HistorialService {
              throw new IllegalArgumentException("La Categoría del historial es un campo obligatorio.");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Reemplaza el estado y la categoría del historial por las entidades de la caché de catálogos.
+     * <p>
+     * Así la existencia se verifica antes de cualquier sentencia SQL, también cuando la tabla
+     * particionada no tiene claves foráneas, y la respuesta incluye los datos completos de ambos
+     * aunque el cliente solo haya enviado sus IDs. Las entidades cacheadas están desacopladas de la
+     * sesión; al persistir el historial solo se usa su ID, sin consultarlas.
+     * </p>
+     *
+     * @param historial El historial a resolver.
+     * @throws IllegalArgumentException Si el estado o la categoría no existen.
+     */
+    private void resolverReferencias(Historial historial) {
+        try {
+            historial.setEstado(estadoService.findById(historial.getEstado().getIdEstado()));
+            historial.setCategoria(categoriaService.findById(historial.getCategoria().getIdCategoria()));
+        } catch (NoSuchElementException e) {
+            throw new IllegalArgumentException("Error de integridad de datos. " + e.getMessage());
+        }
+    }
+
+    /**
+     * Decodifica el cursor de paginación de historiales, compuesto por la fecha y el ID del último registro.
+     */
+    private ClaveCursor decodificarCursor(String cursor) {
+        String[] clave = paginacion.decodificar(cursor, 2);
+        try {
+            return new ClaveCursor(LocalDateTime.parse(clave[0]), Integer.parseInt(clave[1]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido.");
+        }
+    }
+
+    /**
+     * Clave (fecha, ID) del último registro entregado en una página.
+     */
+    private record ClaveCursor(LocalDateTime fechaHistorial, int idHistorial) {
+    }
+}
@@ -0,0 +1,353 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+import com.SAFE_Rescue.API_Registros.repository.ClaveIdempotenciaRepository;
+import com.SAFE_Rescue.API_Registros.util.FiltroBloom;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Capa de servicio responsable de la deduplicación de solicitudes de creación mediante
+ * la cabecera {@code Idempotency-Key}.
+ * <p>
+ * La primera solicitud con una clave ejecuta la operación y guarda su resultado junto con la huella
+ * (SHA-256) de la solicitud; las repeticiones dentro del TTL retornan ese resultado sin volver a
+ * ejecutarla. Una repetición con la misma clave y una solicitud distinta se rechaza con
+ * {@link ClaveIdempotenciaReutilizadaException}. La búsqueda de repeticiones se resuelve en memoria
+ * con un {@link FiltroBloom} (descarta sin consultar la base de datos las claves nunca vistas) y una
+ * caché LRU de claves recientes; solo ante un posible positivo que no está en la caché se consulta
+ * la tabla {@code clave_idempotencia}.
+ * </p>
+ * <p>
+ * La clave se reserva en la tabla antes de ejecutar la operación: la inserción de la reserva es la que
+ * decide, mediante la llave primaria, qué solicitud ejecuta la operación aunque las repeticiones lleguen
+ * a otra instancia. Las demás esperan a que la reserva se complete con el resultado y lo retornan. Si la
+ * instancia cae después de reservar, la clave queda reservada hasta su vencimiento y los reintentos no
+ * vuelven a ejecutar la operación, ya que no es posible saber si alcanzó a confirmarse.
+ * </p>
+ * <p>
+ * Costo: cada clave nueva agrega a la solicitud dos escrituras en la base de datos, la inserción de
+ * la reserva y la actualización con el resultado. El filtro de Bloom y la caché solo evitan la
+ * consulta previa (para las claves nunca vistas y las repeticiones recientes), no esas escrituras,
+ * por lo que la deduplicación no es de latencia casi nula: cuesta al menos dos viajes a la base de
+ * datos por solicitud con clave, el precio de decidir entre instancias quién ejecuta la operación.
+ * </p>
+ */
+@Service
+@Timed("registros.servicio")
+public class IdempotenciaService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotenciaService.class);
+
+    /**
+     * Longitud máxima aceptada para la clave enviada por el cliente.
+     */
+    private static final int LONGITUD_MAXIMA_CLAVE = 100;
+
+    /**
+     * Intervalo entre consultas mientras se espera el resultado de una clave reservada por otra instancia.
+     */
+    private static final long INTERVALO_ESPERA_MS = 50;
+
+    private final ClaveIdempotenciaRepository claveIdempotenciaRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final int capacidadFiltro;
+    private final Duration espera;
+
+    private final Map<String, Entrada> recientes;
+    private final ConcurrentHashMap<String, EnCurso> enCurso = new ConcurrentHashMap<>();
+    private volatile FiltroBloom filtro;
+
+    /**
+     * Constructor para la inyección de dependencias (Inyección por Constructor).
+     *
+     * @param claveIdempotenciaRepository El repositorio de claves procesadas.
+     * @param objectMapper                El serializador de los resultados almacenados.
+     * @param ttlHoras                    Horas durante las cuales una clave sigue vigente.
+     * @param capacidadRecientes          Cantidad máxima de claves recientes mantenidas en memoria.
+     * @param capacidadFiltro             Cantidad de claves para la que se dimensiona el filtro de Bloom.
+     * @param esperaMs                    Milisegundos que se espera el resultado de una clave reservada por otra solicitud.
+     */
+    public IdempotenciaService(ClaveIdempotenciaRepository claveIdempotenciaRepository,
+                               ObjectMapper objectMapper,
+                               @Value("${registros.idempotencia.ttl-horas:24}") long ttlHoras,
+                               @Value("${registros.idempotencia.capacidad-recientes:10000}") int capacidadRecientes,
+                               @Value("${registros.idempotencia.capacidad-filtro:1000000}") int capacidadFiltro,
+                               @Value("${registros.idempotencia.espera-ms:5000}") long esperaMs) {
+        this.claveIdempotenciaRepository = claveIdempotenciaRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHoras);
+        this.capacidadFiltro = capacidadFiltro;
+        this.espera = Duration.ofMillis(esperaMs);
+        this.recientes = Collections.synchronizedMap(new LinkedHashMap<>(capacidadRecientes, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                return size() > capacidadRecientes;
+            }
+        });
+        this.filtro = new FiltroBloom(capacidadFiltro, 0.01);
+    }
+
+    /**
+     * Carga en el filtro de Bloom las claves vigentes persistidas en ejecuciones anteriores.
+     */
+    @PostConstruct
+    public void cargarFiltro() {
+        reconstruirFiltro();
+    }
+
+    /**
+     * Ejecuta una operación de creación una sola vez por clave de idempotencia.
+     * <p>
+     * Si la clave es nula o vacía, la operación se ejecuta normalmente. Las excepciones de la
+     * operación no se almacenan, por lo que un reintento posterior con la misma clave vuelve a
+     * ejecutarla. Las solicitudes concurrentes con la misma clave esperan a la primera, ya sea en
+     * esta instancia o en otra.
+     * </p>
+     *
+     * @param recurso   Nombre del recurso (ej. "historial"), para que las claves no colisionen entre recursos.
+     * @param clave     La clave de idempotencia enviada por el cliente.
+     * @param solicitud El cuerpo de la solicitud tal como se recibió, antes de que la operación lo modifique.
+     * @param tipo      El tipo del resultado, utilizado al recuperarlo desde la base de datos.
+     * @param operacion La operación de creación a ejecutar.
+     * @param <T>       El tipo del resultado.
+     * @return El resultado de la operación, o el resultado original si la clave ya fue procesada.
+     * @throws IllegalArgumentException              Si la clave excede la longitud máxima.
+     * @throws IllegalStateException                 Si otra solicitud con la misma clave sigue en curso al agotar la espera.
+     * @throws ClaveIdempotenciaReutilizadaException Si la clave ya se utilizó con una solicitud distinta.
+     */
+    public <T> T ejecutar(String recurso, String clave, Object solicitud, Class<T> tipo, Supplier<T> operacion) {
+        if (clave == null || clave.isBlank()) {
+            return operacion.get();
+        }
+        if (clave.length() > LONGITUD_MAXIMA_CLAVE) {
+            throw new IllegalArgumentException("La clave de idempotencia no puede exceder los " + LONGITUD_MAXIMA_CLAVE + " caracteres.");
+        }
+        String id = recurso + ":" + clave;
+        String huella = huella(solicitud);
+
+        Entrada previa = buscar(id, tipo);
+        if (previa != null) {
+            return resultado(previa, huella, tipo);
+        }
+
+        EnCurso propio = new EnCurso(huella, new CompletableFuture<>());
+        EnCurso existente = enCurso.putIfAbsent(id, propio);
+        if (existente != null) {
+            verificarHuella(existente.huella(), huella);
+            try {
+                return tipo.cast(existente.resultado().join());
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException causa ? causa : e;
+            }
+        }
+
+        try {
+            T resultado = reservarYEjecutar(id, huella, tipo, operacion);
+            propio.resultado().complete(resultado);
+            return resultado;
+        } catch (RuntimeException e) {
+            propio.resultado().completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(id, propio);
+        }
+    }
+
+    /**
+     * Elimina las claves vencidas y reconstruye el filtro de Bloom con las vigentes,
+     * ya que un filtro de Bloom no admite eliminaciones.
+     */
+    @Scheduled(fixedDelayString = "${registros.idempotencia.purga-ms:3600000}",
+            initialDelayString = "${registros.idempotencia.purga-ms:3600000}")
+    public void purgarVencidas() {
+        int eliminadas = claveIdempotenciaRepository.deleteByFechaCreacionBefore(LocalDateTime.now().minus(ttl));
+        reconstruirFiltro();
+        if (eliminadas > 0) {
+            log.info("Se eliminaron {} claves de idempotencia vencidas", eliminadas);
+        }
+    }
+
+    /**
+     * Calcula la huella de una solicitud: el SHA-256 de su serialización JSON, en hexadecimal.
+     */
+    String huella(Object solicitud) {
+        try {
+            byte[] contenido = objectMapper.writeValueAsBytes(solicitud);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(contenido));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No fue posible calcular la huella de la solicitud.", e);
+        }
+    }
+
+    /**
+     * Busca el resultado completado de una clave vigente.
+     *
+     * @return La entrada, o {@code null} si la clave no existe, venció o sigue en curso.
+     */
+    private Entrada buscar(String id, Class<?> tipo) {
+        LocalDateTime limite = LocalDateTime.now().minus(ttl);
+
+        Entrada entrada = recientes.get(id);
+        if (entrada != null && entrada.fechaCreacion().isAfter(limite)) {
+            return entrada;
+        }
+        if (!filtro.puedeContener(id)) {
+            return null;
+        }
+
+        // Posible positivo fuera de la caché: se confirma contra el respaldo persistente.
+        return claveIdempotenciaRepository.findById(id)
+                .filter(c -> c.getFechaCreacion().isAfter(limite) && !c.getRespuesta().isEmpty())
+                .map(c -> {
+                    Entrada persistida = new Entrada(deserializar(c.getRespuesta(), tipo), c.getHuellaSolicitud(), c.getFechaCreacion());
+                    recientes.put(id, persistida);
+                    return persistida;
+                })
+                .orElse(null);
+    }
+
+    private static <T> T resultado(Entrada entrada, String huella, Class<T> tipo) {
+        verificarHuella(entrada.huella(), huella);
+        return tipo.cast(entrada.resultado());
+    }
+
+    private static void verificarHuella(String original, String huella) {
+        if (original != null && !original.equals(huella)) {
+            throw new ClaveIdempotenciaReutilizadaException(
+                    "La clave de idempotencia ya se utilizó con una solicitud distinta. Use una clave nueva para esta solicitud.");
+        }
+    }
+
+    /**
+     * Reserva la clave y ejecuta la operación, o bien espera el resultado de quien la reservó antes.
+     */
+    private <T> T reservarYEjecutar(String id, String huella, Class<T> tipo, Supplier<T> operacion) {
+        long limite = System.nanoTime() + espera.toNanos();
+        while (!reservar(id, huella)) {
+            // Otra solicitud ya tiene la clave: se retorna su resultado en cuanto lo complete.
+            Entrada entrada = buscar(id, tipo);
+            if (entrada != null) {
+                return resultado(entrada, huella, tipo);
+            }
+            if (System.nanoTime() - limite > 0) {
+                throw new IllegalStateException("Hay una solicitud en curso con la misma clave de idempotencia. Intente nuevamente.");
+            }
+            try {
+                Thread.sleep(INTERVALO_ESPERA_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Se interrumpió la espera de la solicitud con la misma clave de idempotencia.", e);
+            }
+        }
+
+        T resultado;
+        try {
+            resultado = operacion.get();
+        } catch (RuntimeException e) {
+            liberar(id);
+            throw e;
+        }
+        completar(id, huella, resultado);
+        return resultado;
+    }
+
+    /**
+     * Inserta la reserva de la clave. Una clave vencida que aún no se purga se elimina y se vuelve a reservar.
+     *
+     * @return {@code true} si esta solicitud obtuvo la clave; {@code false} si otra la tiene reservada o procesada.
+     */
+    private boolean reservar(String id, String huella) {
+        LocalDateTime ahora = LocalDateTime.now();
+        for (int intento = 0; intento < 2; intento++) {
+            try {
+                claveIdempotenciaRepository.reservar(id, huella, ahora);
+                filtro.agregar(id);
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                filtro.agregar(id);
+                if (claveIdempotenciaRepository.deleteVencida(id, ahora.minus(ttl)) == 0) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void completar(String id, String huella, Object resultado) {
+        LocalDateTime ahora = LocalDateTime.now();
+        recientes.put(id, new Entrada(resultado, huella, ahora));
+        try {
+            claveIdempotenciaRepository.completar(id, objectMapper.writeValueAsString(resultado));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // La operación ya se confirmó: la clave queda reservada, por lo que un reintento en otra
+            // instancia no la repite, aunque tampoco podrá recuperar el resultado.
+            log.error("No fue posible completar la clave de idempotencia {}", id, e);
+        }
+    }
+
+    private void liberar(String id) {
+        try {
+            claveIdempotenciaRepository.deleteById(id);
+        } catch (RuntimeException e) {
+            log.warn("No fue posible liberar la clave de idempotencia {}: {}", id, e.getMessage());
+        }
+    }
+
+    private void reconstruirFiltro() {
+        List<String> vigentes = claveIdempotenciaRepository.findClavesDesde(LocalDateTime.now().minus(ttl));
+        // Las claves registradas mientras se reconstruye siguen cubiertas por la caché de recientes.
+        FiltroBloom nuevo = new FiltroBloom(Math.max(capacidadFiltro, vigentes.size() * 2), 0.01);
+        vigentes.forEach(nuevo::agregar);
+        filtro = nuevo;
+    }
+
+    private <T> T deserializar(String json, Class<T> tipo) {
+        try {
+            return objectMapper.readValue(json, tipo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No fue posible leer el resultado almacenado para la clave de idempotencia.", e);
+        }
+    }
+
+    /**
+     * Resultado de una clave procesada recientemente.
+     *
+     * @param resultado     El resultado original de la operación.
+     * @param huella        Huella de la solicitud original, o {@code null} si no se registró.
+     * @param fechaCreacion Fecha en que se procesó la clave.
+     */
+    private record Entrada(Object resultado, String huella, LocalDateTime fechaCreacion) {
+    }
+
+    /**
+     * Operación en curso en esta instancia para una clave.
+     *
+     * @param huella    Huella de la solicitud que la ejecuta.
+     * @param resultado El resultado que reciben las solicitudes concurrentes con la misma clave.
+     */
+    private record EnCurso(String huella, CompletableFuture<Object> resultado) {
+    }
+}
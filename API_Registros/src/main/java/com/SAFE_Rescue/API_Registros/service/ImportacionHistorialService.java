@@ -0,0 +1,147 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+import com.SAFE_Rescue.API_Registros.dto.ResultadoImportacion;
+import com.SAFE_Rescue.API_Registros.dto.ResultadoLote;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Capa de servicio responsable de la importación masiva de registros de {@link Historial}
+ * desde archivos NDJSON (un objeto JSON por línea), opcionalmente comprimidos con gzip.
+ * <p>
+ * El contenido se procesa como flujo: las líneas se interpretan de a una y se guardan en bloques
+ * de tamaño fijo, cada uno en su propia transacción. Ni el cuerpo completo ni la lista de
+ * identificadores generados se mantienen en memoria, por lo que el uso de heap es constante
+ * sin importar el tamaño del archivo.
+ * </p>
+ */
+@Service
+@Timed("registros.servicio")
+public class ImportacionHistorialService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportacionHistorialService.class);
+
+    /**
+     * Cada cuántos registros insertados se informa el avance en el log.
+     */
+    private static final long REGISTROS_POR_AVANCE = 100_000;
+
+    private final HistorialService historialService;
+    private final ObjectReader lectorHistorial;
+    private final int tamanoBloque;
+    private final int maximoErroresDetallados;
+
+    /**
+     * Constructor para la inyección de dependencias (Inyección por Constructor).
+     *
+     * @param historialService        El servicio que valida y guarda cada bloque.
+     * @param objectMapper            El deserializador de cada línea.
+     * @param tamanoBloque            Cantidad de líneas guardadas por transacción.
+     * @param maximoErroresDetallados Cantidad máxima de rechazos detallados en el resultado.
+     */
+    public ImportacionHistorialService(HistorialService historialService,
+                                       ObjectMapper objectMapper,
+                                       @Value("${registros.historial.importacion.tamano-bloque:1000}") int tamanoBloque,
+                                       @Value("${registros.historial.importacion.maximo-errores:1000}") int maximoErroresDetallados) {
+        this.historialService = historialService;
+        this.lectorHistorial = objectMapper.readerFor(Historial.class);
+        this.tamanoBloque = tamanoBloque;
+        this.maximoErroresDetallados = maximoErroresDetallados;
+    }
+
+    /**
+     * Importa los registros de historial contenidos en un flujo NDJSON.
+     * <p>
+     * Las líneas vacías se ignoran. Las líneas con JSON inválido, datos que no cumplen las
+     * validaciones o referencias inexistentes se rechazan sin detener la importación.
+     * </p>
+     *
+     * @param contenido El flujo con el contenido NDJSON.
+     * @param gzip      Indica si el flujo viene comprimido con gzip.
+     * @return Un {@link ResultadoImportacion} con el avance final y el detalle de los rechazos.
+     * @throws IOException Si ocurre un error al leer el flujo.
+     */
+    public ResultadoImportacion importar(InputStream contenido, boolean gzip) throws IOException {
+        long inicio = System.currentTimeMillis();
+        ResultadoImportacion resultado = new ResultadoImportacion();
+        InputStream entrada = gzip ? new GZIPInputStream(contenido, 64 * 1024) : contenido;
+
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8), 64 * 1024)) {
+            List<Historial> bloque = new ArrayList<>(tamanoBloque);
+            List<Long> lineas = new ArrayList<>(tamanoBloque);
+            long numeroLinea = 0;
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                numeroLinea++;
+                if (linea.isBlank()) {
+                    continue;
+                }
+                resultado.setLineasLeidas(resultado.getLineasLeidas() + 1);
+                try {
+                    bloque.add(lectorHistorial.readValue(linea));
+                    lineas.add(numeroLinea);
+                } catch (JsonProcessingException e) {
+                    rechazar(resultado, List.of(new ResultadoLote.ErrorLote(numeroLinea, "JSON inválido: " + e.getOriginalMessage())));
+                }
+                if (bloque.size() == tamanoBloque) {
+                    guardarBloque(bloque, lineas, resultado);
+                }
+            }
+            if (!bloque.isEmpty()) {
+                guardarBloque(bloque, lineas, resultado);
+            }
+        }
+
+        resultado.setDuracionMs(System.currentTimeMillis() - inicio);
+        log.info("Importación de historiales finalizada: {} líneas, {} insertados, {} rechazados en {} ms",
+                resultado.getLineasLeidas(), resultado.getInsertados(), resultado.getRechazados(), resultado.getDuracionMs());
+        return resultado;
+    }
+
+    /**
+     * Guarda un bloque, acumula su resultado y deja el bloque vacío para reutilizarlo.
+     */
+    private void guardarBloque(List<Historial> bloque, List<Long> lineas, ResultadoImportacion resultado) {
+        long anterior = resultado.getInsertados();
+        List<ResultadoLote.ErrorLote> errores = new ArrayList<>();
+        try {
+            resultado.setInsertados(anterior + historialService.saveBloqueImportacion(bloque, lineas, errores));
+        } catch (IllegalArgumentException e) {
+            errores.clear();
+            lineas.forEach(linea -> errores.add(new ResultadoLote.ErrorLote(linea, e.getMessage())));
+        }
+        rechazar(resultado, errores);
+
+        if (resultado.getInsertados() / REGISTROS_POR_AVANCE != anterior / REGISTROS_POR_AVANCE) {
+            log.info("Importación de historiales en curso: {} líneas leídas, {} insertados", resultado.getLineasLeidas(), resultado.getInsertados());
+        }
+        bloque.clear();
+        lineas.clear();
+    }
+
+    private void rechazar(ResultadoImportacion resultado, List<ResultadoLote.ErrorLote> errores) {
+        resultado.setRechazados(resultado.getRechazados() + errores.size());
+        for (ResultadoLote.ErrorLote error : errores) {
+            if (resultado.getErrores().size() >= maximoErroresDetallados) {
+                break;
+            }
+            resultado.getErrores().add(error);
+        }
+    }
+}
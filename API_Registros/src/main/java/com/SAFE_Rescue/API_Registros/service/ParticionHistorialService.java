@@ -0,0 +1,240 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Capa de servicio responsable del particionado mensual de la tabla {@code historial} en MySQL.
+ * <p>
+ * Solo existe si {@code registros.historial.particionado.habilitado=true}. La tabla se particiona con
+ * {@code PARTITION BY RANGE COLUMNS(fecha_historial)}, una partición por mes y una partición final
+ * {@code pmax}. Así, las consultas acotadas por fecha solo leen las particiones del rango
+ * (partition pruning) y cada índice crece por mes en lugar de hacerlo sobre toda la tabla.
+ * </p>
+ * <p>
+ * La conversión inicial no la hace este servicio: es destructiva (elimina las claves foráneas hacia
+ * {@code estado} y {@code categoria} que se hayan agregado y reconstruye la clave primaria) y copia la
+ * tabla completa, por lo que se ejecuta a mano con el script {@code db/particionado-historial.sql}. Al
+ * iniciar, el servicio solo detecta si la tabla ya está particionada. Hibernate no genera esas claves
+ * foráneas, por lo que el esquema no cambia entre inicios; la integridad referencial se valida en la
+ * aplicación ({@link HistorialService} y los métodos {@code delete} de {@link EstadoService} y
+ * {@link CategoriaService}).
+ * </p>
+ * <p>
+ * Una tarea programada crea por adelantado las particiones de los próximos meses y, si se configura
+ * una retención, separa las particiones antiguas con {@code EXCHANGE PARTITION} y {@code DROP PARTITION},
+ * operaciones que solo modifican metadatos en lugar de ejecutar un {@code DELETE} masivo.
+ * </p>
+ */
+@Service
+@Timed("registros.servicio")
+@ConditionalOnProperty(name = "registros.historial.particionado.habilitado", havingValue = "true")
+public class ParticionHistorialService {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticionHistorialService.class);
+
+    private static final String TABLA = "historial";
+    private static final String PARTICION_FINAL = "pmax";
+    private static final Pattern NOMBRE_PARTICION = Pattern.compile("p(\\d{6})");
+    private static final DateTimeFormatter FORMATO_NOMBRE = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int mesesAdelantados;
+    private final int mesesRetencion;
+    private final boolean conservarArchivo;
+
+    private volatile boolean mysql;
+    private volatile boolean activo;
+
+    /**
+     * Constructor para la inyección de dependencias (Inyección por Constructor).
+     *
+     * @param jdbcTemplate     Acceso JDBC para ejecutar las sentencias DDL.
+     * @param mesesAdelantados Cantidad de meses futuros para los que se mantienen particiones creadas.
+     * @param mesesRetencion   Meses completos que se conservan en la tabla; 0 desactiva la separación de particiones.
+     * @param conservarArchivo Si es {@code true}, cada partición separada se conserva como tabla
+     *                         {@code historial_archivo_pYYYYMM}; si es {@code false}, se elimina.
+     */
+    public ParticionHistorialService(JdbcTemplate jdbcTemplate,
+                                     @Value("${registros.historial.particionado.meses-adelantados:3}") int mesesAdelantados,
+                                     @Value("${registros.historial.particionado.meses-retencion:0}") int mesesRetencion,
+                                     @Value("${registros.historial.particionado.conservar-archivo:true}") boolean conservarArchivo) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mesesAdelantados = Math.max(1, mesesAdelantados);
+        this.mesesRetencion = mesesRetencion;
+        this.conservarArchivo = conservarArchivo;
+    }
+
+    /**
+     * Detecta si la tabla ya fue particionada con {@code db/particionado-historial.sql} y, en ese caso,
+     * realiza el primer mantenimiento. Si la base de datos no es MySQL, el particionado queda desactivado.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        String producto = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (producto == null || !producto.toLowerCase().contains("mysql")) {
+            log.warn("El particionado de historial requiere MySQL; se omite para {}", producto);
+            return;
+        }
+        mysql = true;
+        mantenerParticiones();
+    }
+
+    /**
+     * Indica si la tabla está particionada.
+     *
+     * @return {@code true} si el particionado está activo.
+     */
+    public boolean isActivo() {
+        return activo;
+    }
+
+    /**
+     * Crea las particiones de los próximos meses y separa las que exceden la retención.
+     * Mientras la tabla no esté particionada, solo advierte que falta ejecutar la conversión.
+     */
+    @Scheduled(cron = "${registros.historial.particionado.cron:0 15 3 * * *}")
+    public synchronized void mantenerParticiones() {
+        if (!mysql) {
+            return;
+        }
+        if (!activo) {
+            if (listarParticiones().isEmpty()) {
+                log.warn("La tabla {} no está particionada; ejecute db/particionado-historial.sql en una ventana de mantenimiento", TABLA);
+                return;
+            }
+            activo = true;
+        }
+        crearParticionesFuturas();
+        if (mesesRetencion > 0) {
+            separarParticionesAntiguas();
+        }
+    }
+
+    /**
+     * Recupera los meses que tienen partición propia, en orden.
+     *
+     * @return Una {@code List} con el mes de cada partición mensual (sin incluir {@code pmax}).
+     */
+    public List<YearMonth> listarParticiones() {
+        List<YearMonth> meses = new ArrayList<>();
+        for (String nombre : jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() "
+                        + "AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION",
+                String.class, TABLA)) {
+            Matcher m = NOMBRE_PARTICION.matcher(nombre);
+            if (m.matches()) {
+                meses.add(YearMonth.parse(m.group(1), FORMATO_NOMBRE));
+            }
+        }
+        return meses;
+    }
+
+    private void crearParticionesFuturas() {
+        List<YearMonth> nuevos = mesesPorCrear(listarParticiones(), YearMonth.now(), mesesAdelantados);
+        if (nuevos.isEmpty()) {
+            return;
+        }
+        // pmax solo recibe filas con fechas posteriores a la última partición, por lo que reorganizarla es barato.
+        StringJoiner particiones = new StringJoiner(", ", "(", ")");
+        nuevos.forEach(mes -> particiones.add(definicion(mes)));
+        particiones.add("PARTITION " + PARTICION_FINAL + " VALUES LESS THAN (MAXVALUE)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLA + " REORGANIZE PARTITION " + PARTICION_FINAL + " INTO " + particiones);
+        log.info("Particiones de {} creadas desde {} hasta {}", TABLA, nuevos.get(0), nuevos.get(nuevos.size() - 1));
+    }
+
+    private void separarParticionesAntiguas() {
+        for (YearMonth mes : mesesPorSeparar(listarParticiones(), YearMonth.now(), mesesRetencion)) {
+            String particion = nombre(mes);
+            if (conservarArchivo) {
+                String archivo = TABLA + "_archivo_" + particion;
+                Integer existe = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.TABLES "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?", Integer.class, archivo);
+                if (existe != null && existe > 0) {
+                    log.warn("La tabla {} ya existe; se omite la separación de la partición {}", archivo, particion);
+                    continue;
+                }
+                jdbcTemplate.execute("CREATE TABLE " + archivo + " LIKE " + TABLA);
+                jdbcTemplate.execute("ALTER TABLE " + archivo + " REMOVE PARTITIONING");
+                jdbcTemplate.execute("ALTER TABLE " + TABLA + " EXCHANGE PARTITION " + particion + " WITH TABLE " + archivo);
+            }
+            jdbcTemplate.execute("ALTER TABLE " + TABLA + " DROP PARTITION " + particion);
+            log.info("Partición {} separada de {}{}", particion, TABLA, conservarArchivo ? " y archivada" : "");
+        }
+    }
+
+    /**
+     * Calcula los meses cuyas particiones faltan para cubrir hasta {@code mesesAdelantados} después del actual.
+     *
+     * @param existentes       Los meses con partición propia, en orden.
+     * @param actual           El mes en curso.
+     * @param mesesAdelantados Cantidad de meses futuros que deben tener partición.
+     * @return Los meses a crear, en orden; vacía si ya están todos.
+     */
+    static List<YearMonth> mesesPorCrear(List<YearMonth> existentes, YearMonth actual, int mesesAdelantados) {
+        YearMonth hasta = actual.plusMonths(mesesAdelantados);
+        YearMonth desde = existentes.isEmpty() ? actual : existentes.get(existentes.size() - 1).plusMonths(1);
+        List<YearMonth> meses = new ArrayList<>();
+        for (YearMonth mes = desde; !mes.isAfter(hasta); mes = mes.plusMonths(1)) {
+            meses.add(mes);
+        }
+        return meses;
+    }
+
+    /**
+     * Calcula los meses cuyas particiones exceden la retención. Se conserva siempre al menos una
+     * partición mensual, ya que RANGE necesita una partición.
+     *
+     * @param existentes     Los meses con partición propia, en orden.
+     * @param actual         El mes en curso.
+     * @param mesesRetencion Meses completos que se conservan antes del actual.
+     * @return Los meses a separar, en orden.
+     */
+    static List<YearMonth> mesesPorSeparar(List<YearMonth> existentes, YearMonth actual, int mesesRetencion) {
+        YearMonth limite = actual.minusMonths(mesesRetencion);
+        List<YearMonth> meses = new ArrayList<>();
+        for (int i = 0; i < existentes.size() - 1 && existentes.get(i).isBefore(limite); i++) {
+            meses.add(existentes.get(i));
+        }
+        return meses;
+    }
+
+    /**
+     * Genera la definición de la partición de un mes; su límite superior (exclusivo) es el inicio del mes siguiente.
+     *
+     * @param mes El mes de la partición.
+     * @return La cláusula {@code PARTITION pYYYYMM VALUES LESS THAN (...)}.
+     */
+    static String definicion(YearMonth mes) {
+        LocalDate limiteSuperior = mes.plusMonths(1).atDay(1);
+        return "PARTITION " + nombre(mes) + " VALUES LESS THAN ('" + limiteSuperior + " 00:00:00')";
+    }
+
+    /**
+     * Genera el nombre de la partición de un mes ({@code pYYYYMM}).
+     *
+     * @param mes El mes de la partición.
+     * @return El nombre de la partición.
+     */
+    static String nombre(YearMonth mes) {
+        return "p" + mes.format(FORMATO_NOMBRE);
+    }
+}
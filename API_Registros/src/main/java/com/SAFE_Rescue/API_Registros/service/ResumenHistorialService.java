@@ -0,0 +1,196 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+import com.SAFE_Rescue.API_Registros.archivo.AlmacenArchivoHistorial;
+import com.SAFE_Rescue.API_Registros.dto.PuntoResumen;
+import com.SAFE_Rescue.API_Registros.modelo.ResumenHistorial;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import com.SAFE_Rescue.API_Registros.repository.ResumenHistorialRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Capa de servicio responsable de las consultas de totales de {@link com.SAFE_Rescue.API_Registros.modelo.Historial}
+ * sobre la tabla de resúmenes ({@link ResumenHistorial}).
+ * <p>
+ * Los conteos se mantienen al insertar y eliminar historiales, por lo que una consulta lee a lo sumo
+ * una fila por intervalo, estado y categoría, sin importar cuántos registros contenga el rango.
+ * Los registros trasladados al archivo por {@link RetencionHistorialService} siguen contando.
+ * </p>
+ */
+@Service
+@Timed("registros.servicio")
+public class ResumenHistorialService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumenHistorialService.class);
+
+    private final ResumenHistorialRepository resumenHistorialRepository;
+    private final HistorialRepository historialRepository;
+    private final AlmacenArchivoHistorial almacen;
+    private final TransactionTemplate transaccion;
+    private final int maximoIntervalos;
+
+    /**
+     * Constructor para la inyección de dependencias (Inyección por Constructor).
+     *
+     * @param resumenHistorialRepository El repositorio de resúmenes.
+     * @param historialRepository        El repositorio de historiales, para la reconstrucción.
+     * @param almacen                    El archivo de historial, para no reconstruir días archivados.
+     * @param transactionManager         Administrador de transacciones de la reconstrucción.
+     * @param maximoIntervalos           Cantidad máxima de intervalos que abarca una consulta.
+     */
+    public ResumenHistorialService(ResumenHistorialRepository resumenHistorialRepository,
+                                   HistorialRepository historialRepository,
+                                   AlmacenArchivoHistorial almacen,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${registros.historial.resumen.maximo-intervalos:10000}") int maximoIntervalos) {
+        this.resumenHistorialRepository = resumenHistorialRepository;
+        this.historialRepository = historialRepository;
+        this.almacen = almacen;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.maximoIntervalos = maximoIntervalos;
+    }
+
+    /**
+     * Obtiene la cantidad de registros por intervalo dentro de un rango de fechas.
+     * <p>
+     * Si no se agrupa por estado o por categoría, las cantidades de esa dimensión se suman.
+     * Los intervalos sin registros no se incluyen.
+     * </p>
+     *
+     * @param granularidad Tamaño de los intervalos.
+     * @param desde        Fecha mínima (inclusiva); se trunca al inicio de su intervalo.
+     * @param hasta        Fecha máxima (exclusiva).
+     * @param estadoId     ID del estado por el cual filtrar (opcional).
+     * @param categoriaId  ID de la categoría por la cual filtrar (opcional).
+     * @param porEstado    Indica si se separan las cantidades por estado.
+     * @param porCategoria Indica si se separan las cantidades por categoría.
+     * @return Los puntos del resumen, ordenados por inicio del intervalo.
+     * @throws IllegalArgumentException Si el rango es inválido o abarca más intervalos que el máximo configurado.
+     */
+    public List<PuntoResumen> consultar(ResumenHistorial.Granularidad granularidad, LocalDateTime desde, LocalDateTime hasta,
+                                        Integer estadoId, Integer categoriaId, boolean porEstado, boolean porCategoria) {
+        if (desde == null || hasta == null) {
+            throw new IllegalArgumentException("Las fechas 'desde' y 'hasta' son obligatorias.");
+        }
+        if (!desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("La fecha 'desde' debe ser anterior a la fecha 'hasta'.");
+        }
+        LocalDateTime inicio = granularidad.truncar(desde);
+        if (granularidad.getUnidad().between(inicio, hasta) >= maximoIntervalos) {
+            throw new IllegalArgumentException("El rango no puede abarcar más de " + maximoIntervalos
+                    + " intervalos; use una granularidad mayor.");
+        }
+
+        // Las filas llegan ordenadas por intervalo, por lo que el mapa conserva ese orden.
+        Map<Grupo, Long> cantidades = new LinkedHashMap<>();
+        for (ResumenHistorial resumen : resumenHistorialRepository.buscar(granularidad, inicio, hasta, estadoId, categoriaId)) {
+            ResumenHistorial.Clave clave = resumen.getClave();
+            Grupo grupo = new Grupo(clave.getInicioPeriodo(),
+                    porEstado ? clave.getIdEstado() : null, porCategoria ? clave.getIdCategoria() : null);
+            cantidades.merge(grupo, resumen.getCantidad(), Long::sum);
+        }
+        List<PuntoResumen> resultado = new ArrayList<>(cantidades.size());
+        cantidades.forEach((grupo, cantidad) -> {
+            if (cantidad != 0) {
+                resultado.add(new PuntoResumen(grupo.inicio(), grupo.idEstado(), grupo.idCategoria(), cantidad));
+            }
+        });
+        return resultado;
+    }
+
+    /**
+     * Recalcula los resúmenes de un rango a partir de la tabla {@code historial}.
+     * <p>
+     * El rango se amplía a días completos y se procesa un día por transacción, reemplazando los
+     * conteos de todas las granularidades (sin fechas, abarca desde el registro más antiguo de la
+     * tabla hasta hoy). Los días con registros en el archivo se omiten aunque se indique un
+     * {@code desde} anterior, ya que la tabla no los contiene completos: esto incluye el día del corte
+     * de retención, que queda archivado solo en parte.
+     * Debe ejecutarse después de importaciones o depuraciones hechas fuera de la aplicación.
+     * </p>
+     *
+     * @param desde Fecha mínima (opcional).
+     * @param hasta Fecha máxima (opcional).
+     * @return La cantidad de registros de historial contabilizados.
+     * @throws IllegalArgumentException Si el rango es inválido.
+     */
+    public long reconstruir(LocalDateTime desde, LocalDateTime hasta) {
+        LocalDate ultimoDia = (hasta != null ? hasta : LocalDateTime.now()).toLocalDate();
+        if (hasta != null && hasta.toLocalTime().equals(LocalTime.MIDNIGHT)) {
+            ultimoDia = ultimoDia.minusDays(1);
+        }
+        if (desde != null && ultimoDia.isBefore(desde.toLocalDate())) {
+            throw new IllegalArgumentException("La fecha 'desde' debe ser anterior a la fecha 'hasta'.");
+        }
+        LocalDateTime fechaMinima = historialRepository.findFechaMinima();
+        if (fechaMinima == null) {
+            return 0;
+        }
+        LocalDate primerDia = fechaMinima.toLocalDate();
+        LocalDateTime ultimaArchivada = almacen.fechaMaxima();
+        if (ultimaArchivada != null && !ultimaArchivada.toLocalDate().isBefore(primerDia)) {
+            primerDia = ultimaArchivada.toLocalDate().plusDays(1);
+        }
+        if (desde != null && desde.toLocalDate().isAfter(primerDia)) {
+            primerDia = desde.toLocalDate();
+        }
+        if (ultimoDia.isBefore(primerDia)) {
+            return 0;
+        }
+
+        long contabilizados = 0;
+        for (LocalDate dia = primerDia; !dia.isAfter(ultimoDia); dia = dia.plusDays(1)) {
+            LocalDateTime inicioDia = dia.atStartOfDay();
+            Long delDia = transaccion.execute(estado -> reconstruirDia(inicioDia));
+            contabilizados += Objects.requireNonNull(delDia);
+        }
+        log.info("Resúmenes de historial reconstruidos desde {} hasta {}: {} registros", primerDia, ultimoDia, contabilizados);
+        return contabilizados;
+    }
+
+    private long reconstruirDia(LocalDateTime inicioDia) {
+        LocalDateTime finDia = inicioDia.plusDays(1);
+        resumenHistorialRepository.eliminarEntre(inicioDia, finDia);
+
+        Map<ResumenHistorial.Clave, Long> conteos = new HashMap<>();
+        long total = 0;
+        for (Object[] fila : historialRepository.contarPorMinuto(inicioDia, finDia)) {
+            LocalDateTime minuto = LocalDateTime.of(entero(fila[0]), entero(fila[1]), entero(fila[2]), entero(fila[3]), entero(fila[4]));
+            int idEstado = entero(fila[5]);
+            int idCategoria = entero(fila[6]);
+            long cantidad = ((Number) fila[7]).longValue();
+            for (ResumenHistorial.Granularidad granularidad : ResumenHistorial.Granularidad.values()) {
+                conteos.merge(new ResumenHistorial.Clave(granularidad, granularidad.truncar(minuto), idEstado, idCategoria),
+                        cantidad, Long::sum);
+            }
+            total += cantidad;
+        }
+        resumenHistorialRepository.sumar(conteos);
+        return total;
+    }
+
+    private static int entero(Object valor) {
+        return ((Number) valor).intValue();
+    }
+
+    /**
+     * Dimensiones por las que se agrupa un punto del resumen.
+     */
+    private record Grupo(LocalDateTime inicio, Integer idEstado, Integer idCategoria) {
+    }
+}
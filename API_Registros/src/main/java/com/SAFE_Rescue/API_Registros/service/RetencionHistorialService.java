@@ -0,0 +1,117 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+import com.SAFE_Rescue.API_Registros.archivo.AlmacenArchivoHistorial;
+import com.SAFE_Rescue.API_Registros.archivo.FormatoArchivoHistorial;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Capa de servicio responsable de trasladar los registros de {@link Historial} antiguos desde la
+ * base de datos a archivos locales comprimidos e inmutables ({@link AlmacenArchivoHistorial}).
+ * <p>
+ * Solo existe si {@code registros.historial.retencion.habilitado=true}. Una tarea programada toma los
+ * registros con más de {@code dias} de antigüedad en bloques ordenados por fecha; cada bloque se
+ * escribe como archivo pendiente, se elimina de la tabla en una única transacción y recién entonces
+ * se confirma el archivo. Los registros archivados siguen disponibles a través de
+ * {@link HistorialService#findById(Integer)} y {@link HistorialService#buscar}.
+ * </p>
+ * <p>
+ * Es compatible con el particionado mensual ({@link ParticionHistorialService}): cada eliminación
+ * incluye la fecha del registro, por lo que solo toca la partición correspondiente.
+ * </p>
+ */
+@Service
+@Timed("registros.servicio")
+@ConditionalOnProperty(name = "registros.historial.retencion.habilitado", havingValue = "true")
+public class RetencionHistorialService {
+
+    private static final Logger log = LoggerFactory.getLogger(RetencionHistorialService.class);
+
+    private final HistorialRepository historialRepository;
+    private final AlmacenArchivoHistorial almacen;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccion;
+    private final int diasRetencion;
+    private final int filasPorArchivo;
+
+    /**
+     * Constructor para la inyección de dependencias (Inyección por Constructor).
+     *
+     * @param historialRepository El repositorio de historiales.
+     * @param almacen             El almacén de archivos de historial.
+     * @param jdbcTemplate        Acceso JDBC para la eliminación en lote.
+     * @param transactionManager  Administrador de transacciones de la eliminación.
+     * @param diasRetencion       Antigüedad en días a partir de la cual un registro se archiva.
+     * @param filasPorArchivo     Cantidad máxima de registros por archivo.
+     */
+    public RetencionHistorialService(HistorialRepository historialRepository,
+                                     AlmacenArchivoHistorial almacen,
+                                     JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${registros.historial.retencion.dias:365}") int diasRetencion,
+                                     @Value("${registros.historial.retencion.filas-por-archivo:100000}") int filasPorArchivo) {
+        this.historialRepository = historialRepository;
+        this.almacen = almacen;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.diasRetencion = diasRetencion;
+        this.filasPorArchivo = filasPorArchivo;
+    }
+
+    /**
+     * Archiva todos los registros que exceden la retención configurada.
+     *
+     * @return La cantidad de registros archivados.
+     */
+    @Scheduled(cron = "${registros.historial.retencion.cron:0 45 3 * * *}")
+    public synchronized long archivarVencidos() {
+        LocalDateTime fechaLimite = LocalDateTime.now().minusDays(diasRetencion);
+        long archivados = 0;
+        List<Historial> bloque;
+        while (!(bloque = historialRepository.findAnterioresA(fechaLimite, Limit.of(filasPorArchivo))).isEmpty()) {
+            try {
+                archivarBloque(bloque);
+            } catch (IOException e) {
+                log.error("No fue posible archivar historiales anteriores a {}", fechaLimite, e);
+                break;
+            }
+            archivados += bloque.size();
+        }
+        if (archivados > 0) {
+            log.info("Retención de historial: {} registros anteriores a {} archivados", archivados, fechaLimite);
+        }
+        return archivados;
+    }
+
+    private void archivarBloque(List<Historial> bloque) throws IOException {
+        FormatoArchivoHistorial.Indice pendiente = almacen.escribirPendiente(bloque);
+        try {
+            transaccion.executeWithoutResult(estado -> jdbcTemplate.batchUpdate(
+                    "DELETE FROM historial WHERE id_historial = ? AND fecha_historial = ?",
+                    bloque, 1000, (ps, h) -> {
+                        ps.setInt(1, h.getIdHistorial());
+                        ps.setTimestamp(2, Timestamp.valueOf(h.getFechaHistorial()));
+                    }));
+        } catch (RuntimeException e) {
+            almacen.descartar(pendiente);
+            throw e;
+        }
+        almacen.confirmar(pendiente);
+    }
+}
@@ -0,0 +1,202 @@
+package com.SAFE_Rescue.API_Registros.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Caché en memoria de lectura directa (read-through) para tablas de catálogo pequeñas, como
+ * {@code Estado} y {@code Categoria}.
+ * <p>
+ * Mantiene dos mapas, ID→entidad y nombre→entidades, que se completan a medida que se consultan:
+ * un acierto es una lectura de mapa sin acceso a la base de datos y un fallo consulta el repositorio
+ * y guarda el resultado. Los resultados vacíos no se guardan, de modo que un registro insertado
+ * por otro medio se encuentra en la siguiente consulta.
+ * </p>
+ * <p>
+ * Las escrituras del catálogo deben llamar a {@link #invalidar()} después de persistir. La
+ * invalidación avanza la {@link #version()} del catálogo y reemplaza ambos mapas: una carga que estaba
+ * en curso escribe en los mapas descartados y no puede dejar un valor anterior a la escritura. Si se
+ * configura una vigencia, la versión también avanza al cumplirla y los mapas se descartan, lo que acota
+ * cuánto tarda en verse un cambio hecho por otra instancia.
+ * </p>
+ * <p>
+ * Las entidades entregadas son compartidas entre llamadores y no deben modificarse.
+ * </p>
+ *
+ * @param <T> El tipo de entidad del catálogo.
+ */
+public class CacheCatalogo<T> {
+
+    private final Function<Integer, Optional<T>> cargarPorId;
+    private final Function<String, List<T>> cargarPorNombre;
+    private final Function<Collection<Integer>, List<T>> cargarPorIds;
+    private final ToIntFunction<T> id;
+    private final ContadorVersion version;
+    private final Counter aciertos;
+    private final Counter fallos;
+
+    private volatile Generacion<T> generacion;
+
+    private record Generacion<T>(Map<Integer, T> porId, Map<String, List<T>> porNombre, long version) {
+
+        static <T> Generacion<T> nueva(long version) {
+            return new Generacion<>(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), version);
+        }
+    }
+
+    /**
+     * Crea la caché de un catálogo y registra sus métricas con la etiqueta {@code catalogo=nombre}.
+     *
+     * @param nombre          Nombre del catálogo en las métricas (ej. "estado").
+     * @param cargarPorId     Consulta de una entidad por ID.
+     * @param cargarPorNombre Consulta de las entidades con un nombre.
+     * @param cargarPorIds    Consulta de varias entidades por ID.
+     * @param id              Obtiene el ID de una entidad.
+     * @param vigencia        Tiempo tras el cual se descartan las entradas y avanza la versión; cero para no descartarlas.
+     * @param meterRegistry   El registro de métricas.
+     */
+    public CacheCatalogo(String nombre,
+                         Function<Integer, Optional<T>> cargarPorId,
+                         Function<String, List<T>> cargarPorNombre,
+                         Function<Collection<Integer>, List<T>> cargarPorIds,
+                         ToIntFunction<T> id,
+                         Duration vigencia,
+                         MeterRegistry meterRegistry) {
+        this.cargarPorId = cargarPorId;
+        this.cargarPorNombre = cargarPorNombre;
+        this.cargarPorIds = cargarPorIds;
+        this.id = id;
+        this.version = new ContadorVersion(vigencia);
+        this.generacion = Generacion.nueva(version.actual().numero());
+
+        this.aciertos = Counter.builder("registros.catalogo.cache")
+                .description("Consultas al catálogo por resultado en la caché")
+                .tag("catalogo", nombre)
+                .tag("resultado", "acierto")
+                .register(meterRegistry);
+        this.fallos = Counter.builder("registros.catalogo.cache")
+                .description("Consultas al catálogo por resultado en la caché")
+                .tag("catalogo", nombre)
+                .tag("resultado", "fallo")
+                .register(meterRegistry);
+        Gauge.builder("registros.catalogo.cache.entradas", this, c -> c.generacion.porId().size())
+                .description("Entidades del catálogo en la caché por ID")
+                .tag("catalogo", nombre)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Obtiene una entidad por su ID.
+     *
+     * @param idEntidad El ID buscado.
+     * @return La entidad, o vacío si no existe.
+     */
+    public Optional<T> porId(Integer idEntidad) {
+        if (idEntidad == null) {
+            return cargarPorId.apply(null);
+        }
+        Generacion<T> actual = vigente();
+        T entidad = actual.porId().get(idEntidad);
+        if (entidad != null) {
+            aciertos.increment();
+            return Optional.of(entidad);
+        }
+        fallos.increment();
+        Optional<T> cargada = cargarPorId.apply(idEntidad);
+        cargada.ifPresent(e -> actual.porId().putIfAbsent(idEntidad, e));
+        return cargada;
+    }
+
+    /**
+     * Obtiene las entidades con un nombre exacto.
+     *
+     * @param nombre El nombre buscado.
+     * @return Una lista inmutable con las entidades encontradas.
+     */
+    public List<T> porNombre(String nombre) {
+        if (nombre == null) {
+            return cargarPorNombre.apply(null);
+        }
+        Generacion<T> actual = vigente();
+        List<T> entidades = actual.porNombre().get(nombre);
+        if (entidades != null) {
+            aciertos.increment();
+            return entidades;
+        }
+        fallos.increment();
+        List<T> cargadas = List.copyOf(cargarPorNombre.apply(nombre));
+        if (!cargadas.isEmpty()) {
+            actual.porNombre().putIfAbsent(nombre, cargadas);
+        }
+        return cargadas;
+    }
+
+    /**
+     * Obtiene las entidades cuyos IDs están en la colección, consultando en un solo paso solo los
+     * que no están en la caché.
+     *
+     * @param ids Los IDs buscados.
+     * @return Las entidades encontradas; los IDs inexistentes se omiten.
+     */
+    public List<T> porIds(Collection<Integer> ids) {
+        Generacion<T> actual = vigente();
+        List<T> encontradas = new ArrayList<>(ids.size());
+        List<Integer> faltantes = new ArrayList<>();
+        for (Integer idEntidad : ids) {
+            T entidad = idEntidad == null ? null : actual.porId().get(idEntidad);
+            if (entidad != null) {
+                encontradas.add(entidad);
+            } else if (idEntidad != null) {
+                faltantes.add(idEntidad);
+            }
+        }
+        aciertos.increment(encontradas.size());
+        if (!faltantes.isEmpty()) {
+            fallos.increment(faltantes.size());
+            for (T entidad : cargarPorIds.apply(faltantes)) {
+                actual.porId().putIfAbsent(id.applyAsInt(entidad), entidad);
+                encontradas.add(entidad);
+            }
+        }
+        return encontradas;
+    }
+
+    /**
+     * Descarta todas las entradas. Debe llamarse después de guardar, actualizar o eliminar una
+     * entidad del catálogo.
+     */
+    public void invalidar() {
+        version.incrementar();
+        generacion = Generacion.nueva(version.actual().numero());
+    }
+
+    /**
+     * Obtiene la versión del catálogo, que avanza con cada invalidación.
+     *
+     * @return La versión vigente.
+     */
+    public ContadorVersion.Version version() {
+        return version.actual();
+    }
+
+    private Generacion<T> vigente() {
+        Generacion<T> actual = generacion;
+        long numero = version.actual().numero();
+        if (actual.version() != numero) {
+            actual = Generacion.nueva(numero);
+            generacion = actual;
+        }
+        return actual;
+    }
+}
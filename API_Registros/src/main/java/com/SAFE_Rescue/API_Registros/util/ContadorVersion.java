@@ -0,0 +1,70 @@
+package com.SAFE_Rescue.API_Registros.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Número de versión de un conjunto de recursos, incrementado cada vez que alguno se modifica.
+ * <p>
+ * Permite responder solicitudes condicionales ({@code If-None-Match}) comparando la versión en
+ * memoria, sin consultar la base de datos. El contador es local a la instancia: si se configura una
+ * vigencia, la versión también avanza al cumplirse, lo que acota cuánto tarda en verse un cambio
+ * hecho por otra instancia.
+ * </p>
+ */
+public class ContadorVersion {
+
+    /**
+     * Versión vigente y momento en que comenzó, truncado a segundos como la cabecera {@code Last-Modified}.
+     *
+     * @param numero     Número de versión.
+     * @param modificado Momento de la modificación que originó la versión.
+     */
+    public record Version(long numero, Instant modificado) {
+    }
+
+    private record Periodo(Version version, long inicioNanos) {
+    }
+
+    private final long vigenciaNanos;
+    private final AtomicReference<Periodo> periodo;
+
+    /**
+     * Crea el contador en la versión 1.
+     *
+     * @param vigencia Tiempo tras el cual la versión avanza aunque no haya modificaciones; cero para no avanzar.
+     */
+    public ContadorVersion(Duration vigencia) {
+        this.vigenciaNanos = vigencia.toNanos();
+        this.periodo = new AtomicReference<>(new Periodo(
+                new Version(1, Instant.now().truncatedTo(ChronoUnit.SECONDS)), System.nanoTime()));
+    }
+
+    /**
+     * Obtiene la versión vigente.
+     *
+     * @return La versión vigente.
+     */
+    public Version actual() {
+        Periodo vigente = periodo.get();
+        if (vigenciaNanos > 0 && System.nanoTime() - vigente.inicioNanos() > vigenciaNanos) {
+            periodo.compareAndSet(vigente, siguiente(vigente));
+            vigente = periodo.get();
+        }
+        return vigente.version();
+    }
+
+    /**
+     * Avanza la versión. Debe llamarse después de persistir una modificación.
+     */
+    public void incrementar() {
+        periodo.updateAndGet(ContadorVersion::siguiente);
+    }
+
+    private static Periodo siguiente(Periodo anterior) {
+        return new Periodo(new Version(anterior.version().numero() + 1, Instant.now().truncatedTo(ChronoUnit.SECONDS)),
+                System.nanoTime());
+    }
+}
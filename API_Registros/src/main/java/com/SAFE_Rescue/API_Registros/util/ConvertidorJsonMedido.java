@@ -0,0 +1,70 @@
+package com.SAFE_Rescue.API_Registros.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * Conversor JSON de Jackson que mide el tiempo de serialización de cada respuesta en
+ * {@code registros.json.serializacion}.
+ * <p>
+ * La etiqueta {@code tipo} es el nombre simple de la clase serializada, o {@code List<Elemento>} para
+ * colecciones, de modo que su cardinalidad queda acotada por los DTO y entidades de la API. El tiempo
+ * incluye la escritura al cuerpo de la respuesta, por lo que un cliente lento también lo aumenta.
+ * </p>
+ */
+public class ConvertidorJsonMedido extends MappingJackson2HttpMessageConverter {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param objectMapper  El {@link ObjectMapper} configurado por Spring Boot.
+     * @param meterRegistry El registro de métricas.
+     */
+    public ConvertidorJsonMedido(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super(objectMapper);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            muestra.stop(Timer.builder("registros.json.serializacion")
+                    .description("Serialización JSON de las respuestas")
+                    .tag("tipo", tipo(object))
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String tipo(Object object) {
+        if (object instanceof MappingJacksonValue envoltorio) {
+            return tipo(envoltorio.getValue());
+        }
+        if (object instanceof Collection<?> coleccion) {
+            Object primero = coleccion.isEmpty() ? null : coleccion.iterator().next();
+            return "List<" + (primero == null ? "?" : nombreClase(primero)) + ">";
+        }
+        return object == null ? "null" : nombreClase(object);
+    }
+
+    /**
+     * Nombre simple sin el sufijo de los proxies generados (Hibernate, CGLIB).
+     */
+    private static String nombreClase(Object object) {
+        String nombre = object.getClass().getSimpleName();
+        int proxy = nombre.indexOf('$');
+        return proxy > 0 ? nombre.substring(0, proxy) : nombre;
+    }
+}
@@ -0,0 +1,177 @@
+package com.SAFE_Rescue.API_Registros.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link DataSource} que limita cuántas conexiones pueden estar abiertas a la vez.
+ * <p>
+ * Con hilos virtuales puede haber miles de solicitudes concurrentes, pero el pool de conexiones
+ * tiene unas pocas decenas. Este envoltorio pone delante del pool un semáforo justo del mismo
+ * tamaño: las solicitudes que exceden el límite esperan en orden de llegada, estacionadas sin
+ * ocupar un hilo de plataforma, en vez de competir todas dentro del pool. Si la espera supera el
+ * máximo configurado se lanza {@link SQLTransientConnectionException}, igual que cuando el pool
+ * agota su propio tiempo de espera.
+ * </p>
+ * <p>
+ * El permiso se devuelve al cerrar la conexión entregada, una sola vez aunque se cierre más de una.
+ * Publica las métricas {@code registros.bd.concurrencia.en-uso}, {@code registros.bd.concurrencia.en-espera},
+ * {@code registros.bd.concurrencia.espera} y {@code registros.bd.concurrencia.rechazos}.
+ * </p>
+ */
+public class DataSourceLimitado extends DelegatingDataSource implements MeterBinder {
+
+    private final Semaphore permisos;
+    private final int maximo;
+    private final long esperaNanos;
+
+    private final LongAdder esperas = new LongAdder();
+    private final LongAdder nanosEsperando = new LongAdder();
+    private final LongAdder rechazos = new LongAdder();
+
+    /**
+     * Crea el envoltorio de un {@link DataSource}.
+     *
+     * @param destino      El {@link DataSource} real, normalmente el pool de conexiones.
+     * @param maximo       Cantidad máxima de conexiones abiertas a la vez.
+     * @param esperaMaxima Tiempo máximo que una solicitud espera un permiso.
+     */
+    public DataSourceLimitado(DataSource destino, int maximo, Duration esperaMaxima) {
+        super(destino);
+        if (maximo < 1) {
+            throw new IllegalArgumentException("La concurrencia máxima de la base de datos debe ser al menos 1.");
+        }
+        this.permisos = new Semaphore(maximo, true);
+        this.maximo = maximo;
+        this.esperaNanos = esperaMaxima.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirir();
+        return envolver(() -> obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquirir();
+        return envolver(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    /**
+     * @return La cantidad máxima de conexiones abiertas a la vez.
+     */
+    public int getMaximo() {
+        return maximo;
+    }
+
+    /**
+     * @return La cantidad de conexiones entregadas y aún no cerradas.
+     */
+    public int enUso() {
+        return maximo - permisos.availablePermits();
+    }
+
+    /**
+     * @return La cantidad aproximada de solicitudes esperando un permiso.
+     */
+    public int enEspera() {
+        return permisos.getQueueLength();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("registros.bd.concurrencia.en-uso", this, DataSourceLimitado::enUso)
+                .description("Conexiones a la base de datos abiertas a través del límite de concurrencia")
+                .register(registry);
+        Gauge.builder("registros.bd.concurrencia.en-espera", this, DataSourceLimitado::enEspera)
+                .description("Solicitudes esperando una conexión a la base de datos")
+                .register(registry);
+        FunctionTimer.builder("registros.bd.concurrencia.espera", this,
+                        l -> l.esperas.sum(), l -> l.nanosEsperando.sum(), TimeUnit.NANOSECONDS)
+                .description("Tiempo de espera de un permiso para abrir una conexión")
+                .register(registry);
+        FunctionCounter.builder("registros.bd.concurrencia.rechazos", this, l -> l.rechazos.sum())
+                .description("Solicitudes que agotaron la espera de una conexión")
+                .register(registry);
+    }
+
+    private void adquirir() throws SQLException {
+        long inicio = System.nanoTime();
+        boolean obtenido;
+        try {
+            obtenido = permisos.tryAcquire(esperaNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Se interrumpió la espera de una conexión a la base de datos.", e);
+        }
+        esperas.increment();
+        nanosEsperando.add(System.nanoTime() - inicio);
+        if (!obtenido) {
+            rechazos.increment();
+            throw new SQLTransientConnectionException("No se obtuvo una conexión a la base de datos en "
+                    + TimeUnit.NANOSECONDS.toMillis(esperaNanos) + " ms: las " + maximo + " conexiones permitidas están en uso.");
+        }
+    }
+
+    /**
+     * Abre la conexión con el permiso ya adquirido y la envuelve para devolverlo al cerrarla. Si la
+     * apertura falla, el permiso se devuelve de inmediato.
+     */
+    private Connection envolver(Apertura apertura) throws SQLException {
+        Connection conexion;
+        try {
+            conexion = apertura.abrir();
+        } catch (SQLException | RuntimeException | Error e) {
+            permisos.release();
+            throw e;
+        }
+        AtomicBoolean cerrada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class},
+                (proxy, metodo, args) -> switch (metodo.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "getTargetConnection" -> conexion;
+                    case "close" -> {
+                        try {
+                            conexion.close();
+                        } finally {
+                            if (cerrada.compareAndSet(false, true)) {
+                                permisos.release();
+                            }
+                        }
+                        yield null;
+                    }
+                    default -> {
+                        try {
+                            yield metodo.invoke(conexion, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface Apertura {
+        Connection abrir() throws SQLException;
+    }
+}
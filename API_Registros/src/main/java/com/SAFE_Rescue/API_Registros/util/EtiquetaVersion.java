@@ -0,0 +1,64 @@
+package com.SAFE_Rescue.API_Registros.util;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Validadores HTTP ({@code ETag} fuerte y {@code Last-Modified}) de una respuesta, calculados a partir
+ * de las versiones de los recursos que incluye.
+ * <p>
+ * La etiqueta incluye un identificador de la instancia, de modo que una etiqueta emitida antes de
+ * reiniciar o por otra instancia no coincide con una versión local del mismo número.
+ * </p>
+ *
+ * @param etag       Valor de la cabecera {@code ETag}, sin comillas.
+ * @param modificado Valor de la cabecera {@code Last-Modified}.
+ */
+public record EtiquetaVersion(String etag, Instant modificado) {
+
+    private static final String ORIGEN = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * Calcula la etiqueta de una respuesta.
+     *
+     * @param recurso   Nombre del recurso (ej. "estados").
+     * @param id        ID del elemento, o {@code null} si la respuesta es una colección.
+     * @param versiones Versiones de todos los recursos incluidos en la respuesta.
+     * @return La etiqueta; su fecha es la de la versión más reciente.
+     */
+    public static EtiquetaVersion de(String recurso, Object id, ContadorVersion.Version... versiones) {
+        String numeros = Arrays.stream(versiones)
+                .map(version -> Long.toString(version.numero()))
+                .collect(Collectors.joining("."));
+        Instant modificado = Arrays.stream(versiones)
+                .map(ContadorVersion.Version::modificado)
+                .max(Instant::compareTo)
+                .orElseThrow();
+        return new EtiquetaVersion(recurso + (id != null ? "-" + id : "") + "-" + ORIGEN + "-" + numeros, modificado);
+    }
+
+    /**
+     * Evalúa las cabeceras {@code If-None-Match} / {@code If-Modified-Since} de la solicitud. Si la
+     * representación del cliente sigue vigente, deja la respuesta en 304 con los validadores y el
+     * controlador debe retornar {@code null} sin generar el cuerpo.
+     *
+     * @param solicitud La solicitud en curso.
+     * @return {@code true} si el cliente ya tiene la versión vigente.
+     */
+    public boolean noModificado(WebRequest solicitud) {
+        return solicitud.checkNotModified(etag, modificado.toEpochMilli());
+    }
+
+    /**
+     * Crea una respuesta 200 con los validadores.
+     *
+     * @return El constructor de la respuesta.
+     */
+    public ResponseEntity.BodyBuilder ok() {
+        return ResponseEntity.ok().eTag(etag).lastModified(modificado);
+    }
+}
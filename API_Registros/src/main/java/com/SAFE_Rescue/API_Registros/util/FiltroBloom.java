@@ -0,0 +1,93 @@
+package com.SAFE_Rescue.API_Registros.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom concurrente para cadenas de texto.
+ * <p>
+ * Responde en tiempo constante si un valor <b>definitivamente no</b> fue agregado, o si
+ * <b>posiblemente</b> fue agregado (con la tasa de falsos positivos indicada al crearlo).
+ * Se utiliza para evitar consultas a la base de datos cuando una clave nunca fue vista.
+ * No admite eliminaciones: para descartar valores se construye un filtro nuevo.
+ * </p>
+ */
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final int cantidadBits;
+    private final int cantidadHashes;
+
+    /**
+     * Crea un filtro dimensionado para la cantidad de elementos y la tasa de falsos positivos esperadas.
+     *
+     * @param elementosEsperados Cantidad aproximada de elementos que se agregarán.
+     * @param tasaFalsosPositivos Probabilidad aceptable de falso positivo (ej. 0.01).
+     */
+    public FiltroBloom(int elementosEsperados, double tasaFalsosPositivos) {
+        int n = Math.max(1, elementosEsperados);
+        long m = (long) Math.ceil(-n * Math.log(tasaFalsosPositivos) / (Math.log(2) * Math.log(2)));
+        this.cantidadBits = (int) Math.max(64, Math.min(m, Integer.MAX_VALUE - 63));
+        this.cantidadHashes = Math.max(1, (int) Math.round((double) cantidadBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray((cantidadBits + 63) / 64);
+    }
+
+    /**
+     * Agrega un valor al filtro.
+     *
+     * @param valor El valor a agregar.
+     */
+    public void agregar(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < cantidadHashes; i++) {
+            int indice = Math.floorMod(h1 + i * h2, cantidadBits);
+            long mascara = 1L << (indice & 63);
+            int palabra = indice >>> 6;
+            long actual;
+            do {
+                actual = bits.get(palabra);
+                if ((actual & mascara) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(palabra, actual, actual | mascara));
+        }
+    }
+
+    /**
+     * Indica si el valor posiblemente fue agregado.
+     *
+     * @param valor El valor a consultar.
+     * @return {@code false} si el valor con seguridad no fue agregado; {@code true} si posiblemente sí.
+     */
+    public boolean puedeContener(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < cantidadHashes; i++) {
+            int indice = Math.floorMod(h1 + i * h2, cantidadBits);
+            if ((bits.get(indice >>> 6) & (1L << (indice & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calcula un hash de 64 bits (FNV-1a con mezcla final de MurmurHash3) sobre los bytes UTF-8 del valor.
+     */
+    private static long hash64(String valor) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
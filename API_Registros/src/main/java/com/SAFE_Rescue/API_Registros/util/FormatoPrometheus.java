@@ -0,0 +1,205 @@
+package com.SAFE_Rescue.API_Registros.util;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escribe las métricas de un {@link MeterRegistry} en el formato de texto de Prometheus (versión 0.0.4).
+ * <p>
+ * Sigue las convenciones de Micrometer para Prometheus: los nombres usan {@code _} en lugar de puntos
+ * y guiones, los contadores terminan en {@code _total}, los tiempos se expresan en segundos con el
+ * sufijo {@code _seconds} y las demás unidades base se agregan como sufijo. Los temporizadores y
+ * resúmenes con buckets configurados se publican como {@code histogram}; el resto, como {@code summary}
+ * con su máximo en una métrica {@code _max} aparte.
+ * </p>
+ */
+public final class FormatoPrometheus {
+
+    /**
+     * Tipo de contenido de la respuesta de exposición.
+     */
+    public static final String TIPO_CONTENIDO = "text/plain;version=0.0.4;charset=utf-8";
+
+    private FormatoPrometheus() {
+    }
+
+    /**
+     * Escribe todas las métricas del registro, agrupadas y ordenadas por nombre.
+     *
+     * @param registro El registro de métricas.
+     * @return El texto de exposición.
+     */
+    public static String escribir(MeterRegistry registro) {
+        Map<String, Familia> familias = new TreeMap<>();
+        List<Meter> medidores = new ArrayList<>(registro.getMeters());
+        medidores.sort(Comparator.comparing((Meter m) -> m.getId().getName()).thenComparing(m -> m.getId().getTags().toString()));
+        for (Meter medidor : medidores) {
+            agregar(familias, medidor);
+        }
+        StringBuilder salida = new StringBuilder();
+        for (Map.Entry<String, Familia> familia : familias.entrySet()) {
+            Familia datos = familia.getValue();
+            if (datos.descripcion != null) {
+                salida.append("# HELP ").append(familia.getKey()).append(' ').append(escaparAyuda(datos.descripcion)).append('\n');
+            }
+            salida.append("# TYPE ").append(familia.getKey()).append(' ').append(datos.tipo).append('\n');
+            salida.append(datos.muestras);
+        }
+        return salida.toString();
+    }
+
+    private static void agregar(Map<String, Familia> familias, Meter medidor) {
+        Meter.Id id = medidor.getId();
+        String nombre = nombre(id.getName());
+        String descripcion = id.getDescription();
+        List<Tag> etiquetas = id.getTags();
+        switch (id.getType()) {
+            case COUNTER -> {
+                String base = conUnidad(nombre, id.getBaseUnit());
+                muestra(familias, base + (base.endsWith("_total") ? "" : "_total"), "counter", descripcion, "",
+                        etiquetas, null, valor(medidor, "COUNT"));
+            }
+            case GAUGE -> muestra(familias, conUnidad(nombre, id.getBaseUnit()), "gauge", descripcion, "",
+                    etiquetas, null, valor(medidor, "VALUE"));
+            case TIMER -> distribucion(familias, conUnidad(nombre, "seconds"), descripcion, etiquetas, medidor, TimeUnit.SECONDS);
+            case DISTRIBUTION_SUMMARY -> distribucion(familias, conUnidad(nombre, id.getBaseUnit()), descripcion, etiquetas, medidor, null);
+            case LONG_TASK_TIMER -> {
+                String base = conUnidad(nombre, "seconds");
+                muestra(familias, base + "_active_count", "gauge", descripcion, "", etiquetas, null, valor(medidor, "ACTIVE_TASKS"));
+                muestra(familias, base + "_duration_sum", "gauge", descripcion, "", etiquetas, null, valor(medidor, "DURATION"));
+            }
+            default -> {
+                for (Measurement medicion : medidor.measure()) {
+                    String sufijo = medicion.getStatistic().getTagValueRepresentation();
+                    muestra(familias, nombre + "_" + sufijo, "untyped", descripcion, "", etiquetas, null, medicion.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Escribe un temporizador o resumen: conteo, suma, máximo y, si tiene buckets, el histograma.
+     *
+     * @param unidadTiempo Unidad a la que se convierten los tiempos, o {@code null} para un resumen.
+     */
+    private static void distribucion(Map<String, Familia> familias, String base, String descripcion, List<Tag> etiquetas,
+                                     Meter medidor, TimeUnit unidadTiempo) {
+        double conteo;
+        double suma;
+        double maximo;
+        CountAtBucket[] buckets = new CountAtBucket[0];
+        if (medidor instanceof io.micrometer.core.instrument.distribution.HistogramSupport histograma) {
+            HistogramSnapshot instantanea = histograma.takeSnapshot();
+            conteo = instantanea.count();
+            suma = unidadTiempo != null ? instantanea.total(unidadTiempo) : instantanea.total();
+            maximo = unidadTiempo != null ? instantanea.max(unidadTiempo) : instantanea.max();
+            buckets = instantanea.histogramCounts();
+        } else {
+            conteo = valor(medidor, "COUNT");
+            suma = valor(medidor, "TOTAL_TIME", "TOTAL");
+            maximo = valor(medidor, "MAX");
+        }
+        String tipo = buckets.length > 0 ? "histogram" : "summary";
+        if (buckets.length > 0) {
+            for (CountAtBucket bucket : buckets) {
+                double limite = unidadTiempo != null ? bucket.bucket(unidadTiempo) : bucket.bucket();
+                if (!Double.isInfinite(limite)) {
+                    muestra(familias, base, tipo, descripcion, "_bucket", etiquetas, numero(limite), bucket.count());
+                }
+            }
+            muestra(familias, base, tipo, descripcion, "_bucket", etiquetas, "+Inf", conteo);
+        }
+        muestra(familias, base, tipo, descripcion, "_count", etiquetas, null, conteo);
+        muestra(familias, base, tipo, descripcion, "_sum", etiquetas, null, suma);
+        if (!Double.isNaN(maximo)) {
+            muestra(familias, base + "_max", "gauge", descripcion, "", etiquetas, null, maximo);
+        }
+    }
+
+    private static void muestra(Map<String, Familia> familias, String familia, String tipo, String descripcion,
+                                String sufijo, List<Tag> etiquetas, String le, double valor) {
+        Familia datos = familias.computeIfAbsent(familia, f -> new Familia(tipo, descripcion));
+        StringBuilder linea = datos.muestras.append(familia).append(sufijo);
+        if (!etiquetas.isEmpty() || le != null) {
+            linea.append('{');
+            boolean primera = true;
+            for (Tag etiqueta : etiquetas) {
+                if (!primera) {
+                    linea.append(',');
+                }
+                linea.append(nombre(etiqueta.getKey())).append("=\"").append(escaparValor(etiqueta.getValue())).append('"');
+                primera = false;
+            }
+            if (le != null) {
+                linea.append(primera ? "" : ",").append("le=\"").append(le).append('"');
+            }
+            linea.append('}');
+        }
+        linea.append(' ').append(numero(valor)).append('\n');
+    }
+
+    private static double valor(Meter medidor, String... estadisticas) {
+        for (Measurement medicion : medidor.measure()) {
+            for (String estadistica : estadisticas) {
+                if (medicion.getStatistic().name().equals(estadistica)) {
+                    return medicion.getValue();
+                }
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static String nombre(String nombre) {
+        String convertido = nombre.replaceAll("[^a-zA-Z0-9_:]", "_");
+        return Character.isDigit(convertido.charAt(0)) ? "_" + convertido : convertido;
+    }
+
+    private static String conUnidad(String nombre, String unidad) {
+        if (unidad == null || unidad.isEmpty()) {
+            return nombre;
+        }
+        String sufijo = "_" + nombre(unidad);
+        return nombre.endsWith(sufijo) ? nombre : nombre + sufijo;
+    }
+
+    private static String numero(double valor) {
+        if (Double.isNaN(valor)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(valor)) {
+            return valor > 0 ? "+Inf" : "-Inf";
+        }
+        return valor == Math.rint(valor) && Math.abs(valor) < 1e15 ? Long.toString((long) valor) : Double.toString(valor);
+    }
+
+    private static String escaparValor(String valor) {
+        return valor.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escaparAyuda(String ayuda) {
+        return ayuda.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static final class Familia {
+
+        private final String tipo;
+        private final String descripcion;
+        private final StringBuilder muestras = new StringBuilder();
+
+        Familia(String tipo, String descripcion) {
+            this.tipo = tipo;
+            this.descripcion = descripcion;
+        }
+    }
+}
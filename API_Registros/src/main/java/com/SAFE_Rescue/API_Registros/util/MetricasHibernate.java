@@ -0,0 +1,79 @@
+package com.SAFE_Rescue.API_Registros.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.stat.Statistics;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publica las estadísticas de Hibernate como métricas de Micrometer.
+ * <p>
+ * Las estadísticas son acumuladas desde el inicio de la aplicación y Hibernate solo las calcula con
+ * {@code hibernate.generate_statistics=true}; si están deshabilitadas no se registra ninguna métrica.
+ * La cantidad de sentencias JDBC preparadas frente a la de consultas HQL/Criteria permite detectar
+ * problemas N+1 sin activar el registro de SQL.
+ * </p>
+ */
+public class MetricasHibernate implements MeterBinder {
+
+    private final Statistics estadisticas;
+
+    /**
+     * @param estadisticas Las estadísticas de la {@code SessionFactory}.
+     */
+    public MetricasHibernate(Statistics estadisticas) {
+        this.estadisticas = estadisticas;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registro) {
+        if (!estadisticas.isStatisticsEnabled()) {
+            return;
+        }
+        contador(registro, "registros.hibernate.sentencias", "Sentencias JDBC preparadas", Statistics::getPrepareStatementCount);
+        contador(registro, "registros.hibernate.consultas", "Consultas HQL y Criteria ejecutadas", Statistics::getQueryExecutionCount);
+        contador(registro, "registros.hibernate.sesiones", "Sesiones abiertas", Statistics::getSessionOpenCount);
+        contador(registro, "registros.hibernate.transacciones", "Transacciones completadas", Statistics::getTransactionCount);
+        contador(registro, "registros.hibernate.flush", "Flush de sesiones", Statistics::getFlushCount);
+
+        entidades(registro, "carga", Statistics::getEntityLoadCount);
+        entidades(registro, "obtencion", Statistics::getEntityFetchCount);
+        entidades(registro, "insercion", Statistics::getEntityInsertCount);
+        entidades(registro, "actualizacion", Statistics::getEntityUpdateCount);
+        entidades(registro, "eliminacion", Statistics::getEntityDeleteCount);
+
+        cache(registro, "registros.hibernate.cache.segundo-nivel", "acierto", Statistics::getSecondLevelCacheHitCount);
+        cache(registro, "registros.hibernate.cache.segundo-nivel", "fallo", Statistics::getSecondLevelCacheMissCount);
+        cache(registro, "registros.hibernate.cache.segundo-nivel", "escritura", Statistics::getSecondLevelCachePutCount);
+        cache(registro, "registros.hibernate.cache.consultas", "acierto", Statistics::getQueryCacheHitCount);
+        cache(registro, "registros.hibernate.cache.consultas", "fallo", Statistics::getQueryCacheMissCount);
+        cache(registro, "registros.hibernate.cache.consultas", "escritura", Statistics::getQueryCachePutCount);
+
+        Gauge.builder("registros.hibernate.consultas.maximo", estadisticas, Statistics::getQueryExecutionMaxTime)
+                .description("Duración de la consulta más lenta desde el inicio")
+                .baseUnit("milliseconds")
+                .register(registro);
+    }
+
+    private void contador(MeterRegistry registro, String nombre, String descripcion, ToDoubleFunction<Statistics> valor) {
+        FunctionCounter.builder(nombre, estadisticas, valor)
+                .description(descripcion)
+                .register(registro);
+    }
+
+    private void entidades(MeterRegistry registro, String operacion, ToDoubleFunction<Statistics> valor) {
+        FunctionCounter.builder("registros.hibernate.entidades", estadisticas, valor)
+                .description("Operaciones sobre entidades")
+                .tag("operacion", operacion)
+                .register(registro);
+    }
+
+    private void cache(MeterRegistry registro, String nombre, String resultado, ToDoubleFunction<Statistics> valor) {
+        FunctionCounter.builder(nombre, estadisticas, valor)
+                .tag("resultado", resultado)
+                .register(registro);
+    }
+}
@@ -0,0 +1,105 @@
+package com.SAFE_Rescue.API_Registros.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Diagnóstico de hilos virtuales fijados (pinned) a su hilo portador, a partir del evento JFR
+ * {@code jdk.VirtualThreadPinned}.
+ * <p>
+ * Un hilo virtual que bloquea dentro de un bloque {@code synchronized} (hasta Java 23) o de código
+ * nativo no libera su portador, y con pocos portadores unas pocas esperas largas detienen a todos los
+ * demás hilos virtuales. Cada fijación que supera el umbral incrementa la métrica
+ * {@code registros.hilos.virtuales.fijaciones}; la primera vez que aparece un origen distinto se
+ * registra una advertencia con su pila, para encontrar el código (propio o de un driver) responsable.
+ * </p>
+ */
+public class MonitorFijacionHilos implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorFijacionHilos.class);
+
+    private static final String EVENTO = "jdk.VirtualThreadPinned";
+    private static final int MAXIMO_ORIGENES = 100;
+    private static final int MARCOS_REGISTRADOS = 15;
+
+    private final Duration umbral;
+    private final Timer fijaciones;
+    private final Set<String> origenesReportados = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream grabacion;
+
+    /**
+     * @param umbral        Duración mínima de una fijación para informarla.
+     * @param meterRegistry El registro de métricas.
+     */
+    public MonitorFijacionHilos(Duration umbral, MeterRegistry meterRegistry) {
+        this.umbral = umbral;
+        this.fijaciones = Timer.builder("registros.hilos.virtuales.fijaciones")
+                .description("Hilos virtuales que bloquearon a su hilo portador más allá del umbral")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Comienza a escuchar los eventos JFR en segundo plano.
+     */
+    public synchronized void iniciar() {
+        if (grabacion != null) {
+            return;
+        }
+        grabacion = new RecordingStream();
+        grabacion.enable(EVENTO).withThreshold(umbral).withStackTrace();
+        grabacion.onEvent(EVENTO, this::registrar);
+        grabacion.startAsync();
+        log.info("Diagnóstico de hilos virtuales fijados activo (umbral {} ms).", umbral.toMillis());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (grabacion != null) {
+            grabacion.close();
+            grabacion = null;
+        }
+    }
+
+    void registrar(RecordedEvent evento) {
+        fijaciones.record(evento.getDuration());
+        RecordedStackTrace pila = evento.getStackTrace();
+        List<RecordedFrame> marcos = pila != null ? pila.getFrames() : List.of();
+        String origen = origen(marcos);
+        if (origenesReportados.size() < MAXIMO_ORIGENES && origenesReportados.add(origen)) {
+            log.warn("Hilo virtual fijado a su portador durante {} ms en {}:\n{}", evento.getDuration().toMillis(), origen,
+                    marcos.stream().limit(MARCOS_REGISTRADOS).map(MonitorFijacionHilos::describir)
+                            .collect(Collectors.joining("\n\tat ", "\tat ", "")));
+        }
+    }
+
+    /**
+     * Elige el primer marco fuera del JDK, que suele ser el que tomó el monitor o llamó al código nativo.
+     */
+    private static String origen(List<RecordedFrame> marcos) {
+        for (RecordedFrame marco : marcos) {
+            String clase = marco.getMethod().getType().getName();
+            if (!clase.startsWith("java.") && !clase.startsWith("jdk.") && !clase.startsWith("sun.")) {
+                return describir(marco);
+            }
+        }
+        return marcos.isEmpty() ? "origen desconocido" : describir(marcos.get(0));
+    }
+
+    private static String describir(RecordedFrame marco) {
+        return marco.getMethod().getType().getName() + "." + marco.getMethod().getName() + ":" + marco.getLineNumber();
+    }
+}
@@ -0,0 +1,134 @@
+package com.SAFE_Rescue.API_Registros.util;
+
+import com.SAFE_Rescue.API_Registros.dto.PaginaCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Utilidades comunes para la paginación por cursor (keyset) de los listados.
+ * <p>
+ * En lugar de OFFSET, cada página se obtiene buscando a partir de la clave del último elemento
+ * entregado ({@code WHERE clave > :ultima ORDER BY clave LIMIT n}), por lo que una página profunda
+ * cuesta lo mismo que la primera. La clave se entrega al cliente codificada en Base64 como un
+ * cursor opaco.
+ * </p>
+ */
+@Component
+public class PaginacionKeyset {
+
+    /**
+     * Cabecera de respuesta con el cursor de la página siguiente; se omite en la última página.
+     */
+    public static final String CABECERA_SIGUIENTE_CURSOR = "X-Siguiente-Cursor";
+
+    private static final String VERSION = "1";
+    private static final String SEPARADOR = "|";
+
+    private final int tamanoPorDefecto;
+    private final int tamanoMaximo;
+
+    /**
+     * Constructor para la inyección de dependencias (Inyección por Constructor).
+     *
+     * @param tamanoPorDefecto Tamaño de página utilizado cuando el cliente no lo indica.
+     * @param tamanoMaximo     Tamaño de página máximo permitido.
+     */
+    public PaginacionKeyset(@Value("${registros.paginacion.tamano-defecto:100}") int tamanoPorDefecto,
+                            @Value("${registros.paginacion.tamano-maximo:1000}") int tamanoMaximo) {
+        this.tamanoPorDefecto = tamanoPorDefecto;
+        this.tamanoMaximo = tamanoMaximo;
+    }
+
+    /**
+     * Determina el tamaño de página a utilizar, limitado al máximo configurado.
+     *
+     * @param tamano El tamaño solicitado por el cliente, o {@code null}.
+     * @return El tamaño de página efectivo.
+     * @throws IllegalArgumentException Si el tamaño solicitado es menor que 1.
+     */
+    public int resolverTamano(Integer tamano) {
+        if (tamano == null) {
+            return tamanoPorDefecto;
+        }
+        if (tamano < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor que cero.");
+        }
+        return Math.min(tamano, tamanoMaximo);
+    }
+
+    /**
+     * Codifica los valores de la clave del último elemento como cursor opaco.
+     *
+     * @param valores Los valores de la clave, en orden.
+     * @return El cursor codificado.
+     */
+    public String codificar(Object... valores) {
+        StringBuilder texto = new StringBuilder(VERSION);
+        for (Object valor : valores) {
+            texto.append(SEPARADOR).append(valor);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor generado por {@link #codificar(Object...)}.
+     *
+     * @param cursor   El cursor recibido del cliente.
+     * @param cantidad La cantidad de valores que debe contener.
+     * @return Los valores de la clave, como texto.
+     * @throws IllegalArgumentException Si el cursor no es válido.
+     */
+    public String[] decodificar(String cursor, int cantidad) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = texto.split("\\|", -1);
+            if (partes.length != cantidad + 1 || !VERSION.equals(partes[0])) {
+                throw new IllegalArgumentException();
+            }
+            String[] valores = new String[cantidad];
+            System.arraycopy(partes, 1, valores, 0, cantidad);
+            return valores;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido.");
+        }
+    }
+
+    /**
+     * Decodifica un cursor cuya clave es un único identificador entero (clave primaria).
+     *
+     * @param cursor El cursor recibido del cliente.
+     * @return El identificador del último elemento entregado.
+     * @throws IllegalArgumentException Si el cursor no es válido.
+     */
+    public int decodificarEntero(String cursor) {
+        String valor = decodificar(cursor, 1)[0];
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido.");
+        }
+    }
+
+    /**
+     * Arma la página a partir de una consulta que pidió un elemento más que el tamaño de página,
+     * para saber si existe una página siguiente sin realizar una consulta adicional.
+     *
+     * @param resultados  Los elementos obtenidos (hasta {@code tamano + 1}).
+     * @param tamano      El tamaño de página solicitado.
+     * @param claveCursor Función que obtiene el cursor a partir del último elemento de la página.
+     * @param <T>         El tipo de los elementos.
+     * @return La página con su cursor siguiente.
+     */
+    public <T> PaginaCursor<T> armarPagina(List<T> resultados, int tamano, Function<T, String> claveCursor) {
+        if (resultados.size() <= tamano) {
+            return new PaginaCursor<>(resultados, null);
+        }
+        List<T> elementos = resultados.subList(0, tamano);
+        return new PaginaCursor<>(elementos, claveCursor.apply(elementos.get(tamano - 1)));
+    }
+}
@@ -0,0 +1,32 @@
+-- =============================================================================
+-- Claves foraneas de la tabla historial hacia estado y categoria (MySQL 8).
+--
+-- Hibernate no las genera (ver Historial): MySQL no admite claves foraneas en una
+-- tabla particionada, y con ddl-auto=update intentaria recrearlas en cada inicio.
+-- En una instalacion sin particionado se pueden agregar con este script, como
+-- respaldo de la validacion que ya hace la aplicacion. No ejecutar si la tabla esta
+-- particionada (particionado-historial.sql); ese script las vuelve a eliminar.
+--
+-- Cada clave se agrega solo si la columna aun no tiene una, por lo que el script se
+-- puede ejecutar mas de una vez.
+--
+-- Uso: mysql -u <usuario> -p <base_de_datos> < claves-foraneas-historial.sql
+-- =============================================================================
+
+SET @sentencia = IF(EXISTS(SELECT 1 FROM information_schema.KEY_COLUMN_USAGE
+                            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'historial'
+                              AND COLUMN_NAME = 'id_estado' AND REFERENCED_TABLE_NAME IS NOT NULL),
+                    'DO 0',
+                    'ALTER TABLE historial ADD CONSTRAINT fk_historial_estado FOREIGN KEY (id_estado) REFERENCES estado (id_estado)');
+PREPARE paso FROM @sentencia;
+EXECUTE paso;
+DEALLOCATE PREPARE paso;
+
+SET @sentencia = IF(EXISTS(SELECT 1 FROM information_schema.KEY_COLUMN_USAGE
+                            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'historial'
+                              AND COLUMN_NAME = 'id_categoria' AND REFERENCED_TABLE_NAME IS NOT NULL),
+                    'DO 0',
+                    'ALTER TABLE historial ADD CONSTRAINT fk_historial_categoria FOREIGN KEY (id_categoria) REFERENCES categoria (id_categoria)');
+PREPARE paso FROM @sentencia;
+EXECUTE paso;
+DEALLOCATE PREPARE paso;
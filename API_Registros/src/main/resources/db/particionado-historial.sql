@@ -0,0 +1,53 @@
+-- =============================================================================
+-- Conversion unica de la tabla historial a particiones mensuales (MySQL 8).
+--
+-- Se ejecuta a mano, con la aplicacion detenida y en una ventana de mantenimiento:
+-- la conversion copia la tabla completa. ParticionHistorialService no modifica el
+-- esquema: solo detecta la tabla particionada al iniciar y, desde entonces, crea las
+-- particiones futuras y separa las antiguas (registros.historial.particionado.*).
+--
+-- MySQL exige que toda clave unica incluya la columna de particionado y no admite
+-- claves foraneas en tablas particionadas. Por eso el script elimina las claves
+-- foraneas hacia estado y categoria, si existen (agregadas con
+-- claves-foraneas-historial.sql o creadas por versiones anteriores de la aplicacion;
+-- la integridad se valida en la aplicacion), y cambia la clave primaria a
+-- (id_historial, fecha_historial). La clave unica uk_historial_clave_bitacora ya
+-- incluye fecha_historial.
+--
+-- Uso: mysql -u <usuario> -p <base_de_datos> < particionado-historial.sql
+-- =============================================================================
+
+-- 1. Claves foraneas de historial (los nombres varian segun quien las creo).
+SET SESSION group_concat_max_len = 1000000;
+SELECT GROUP_CONCAT(CONCAT('DROP FOREIGN KEY `', CONSTRAINT_NAME, '`') SEPARATOR ', ')
+  INTO @claves_foraneas
+  FROM information_schema.REFERENTIAL_CONSTRAINTS
+ WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = 'historial';
+SET @sentencia = IF(@claves_foraneas IS NULL, 'DO 0', CONCAT('ALTER TABLE historial ', @claves_foraneas));
+PREPARE paso FROM @sentencia;
+EXECUTE paso;
+DEALLOCATE PREPARE paso;
+
+-- 2. Clave primaria que incluye la columna de particionado.
+ALTER TABLE historial DROP PRIMARY KEY, ADD PRIMARY KEY (id_historial, fecha_historial);
+
+-- 3. Una particion por mes, desde el registro mas antiguo hasta 3 meses adelante
+--    (registros.historial.particionado.meses-adelantados), y una particion final pmax.
+--    Los nombres (pYYYYMM) y limites deben coincidir con ParticionHistorialService.
+SET @desde = DATE_FORMAT(COALESCE((SELECT MIN(fecha_historial) FROM historial), NOW()), '%Y-%m-01');
+SET @hasta = DATE_FORMAT(NOW() + INTERVAL 3 MONTH, '%Y-%m-01');
+WITH RECURSIVE meses (mes) AS (
+    SELECT CAST(@desde AS DATE)
+    UNION ALL
+    SELECT mes + INTERVAL 1 MONTH FROM meses WHERE mes < CAST(@hasta AS DATE)
+)
+SELECT CONCAT('ALTER TABLE historial PARTITION BY RANGE COLUMNS(fecha_historial) (',
+              GROUP_CONCAT(CONCAT('PARTITION p', DATE_FORMAT(mes, '%Y%m'),
+                                  ' VALUES LESS THAN (''', mes + INTERVAL 1 MONTH, ' 00:00:00'')')
+                           ORDER BY mes SEPARATOR ', '),
+              ', PARTITION pmax VALUES LESS THAN (MAXVALUE))')
+  INTO @sentencia
+  FROM meses;
+PREPARE paso FROM @sentencia;
+EXECUTE paso;
+DEALLOCATE PREPARE paso;
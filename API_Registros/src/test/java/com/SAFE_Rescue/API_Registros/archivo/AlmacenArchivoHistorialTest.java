@@ -0,0 +1,123 @@
+package com.SAFE_Rescue.API_Registros.archivo;
+
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AlmacenArchivoHistorialTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2023, 3, 1, 8, 0);
+
+    @TempDir
+    Path directorio;
+
+    private HistorialRepository historialRepository;
+
+    @BeforeEach
+    void setUp() {
+        historialRepository = mock(HistorialRepository.class);
+    }
+
+    private AlmacenArchivoHistorial iniciar() throws Exception {
+        AlmacenArchivoHistorial almacen = new AlmacenArchivoHistorial(historialRepository, directorio.toString(), 2);
+        almacen.cargar();
+        return almacen;
+    }
+
+    private static List<Historial> bloque(int primerId, int cantidad) {
+        List<Historial> historiales = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            Historial h = new Historial();
+            h.setIdHistorial(primerId + i);
+            h.setFechaHistorial(BASE.plusMinutes(primerId + i));
+            h.setEstado(new Estado(1, "Activo", "Registro activo"));
+            h.setCategoria(new Categoria(1, "Incendio", null));
+            h.setDetalle("Evento " + (primerId + i));
+            historiales.add(h);
+        }
+        return historiales;
+    }
+
+    private List<String> archivos() throws Exception {
+        try (var listado = Files.list(directorio)) {
+            return listado.map(p -> p.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    void escribirPendiente_noDejaArchivosTemporales() throws Exception {
+        AlmacenArchivoHistorial almacen = iniciar();
+
+        FormatoArchivoHistorial.Indice pendiente = almacen.escribirPendiente(bloque(10, 5));
+
+        assertTrue(pendiente.archivo().getFileName().toString().endsWith(".pendiente"));
+        assertEquals(List.of(pendiente.archivo().getFileName().toString()), archivos());
+        assertEquals(5, FormatoArchivoHistorial.leer(pendiente.archivo()).size());
+    }
+
+    @Test
+    void cargar_eliminaTemporalesYPendientesIncompletosSinFallar() throws Exception {
+        AlmacenArchivoHistorial almacen = iniciar();
+        Path pendiente = almacen.escribirPendiente(bloque(10, 50)).archivo();
+        byte[] completo = Files.readAllBytes(pendiente);
+        Files.delete(pendiente);
+        Files.write(directorio.resolve("historial-2023-03-01-10.pendiente"), Arrays.copyOf(completo, completo.length / 2));
+        Files.write(directorio.resolve("historial-2023-03-01-90.tmp"), Arrays.copyOf(completo, 10));
+
+        AlmacenArchivoHistorial reiniciado = iniciar();
+
+        assertEquals(List.of(), archivos());
+        assertTrue(reiniciado.buscarPorId(10).isEmpty());
+        verify(historialRepository, never()).existsById(any());
+    }
+
+    @Test
+    void cargar_descartaElPendienteSiSusRegistrosSiguenEnLaBaseDeDatos() throws Exception {
+        iniciar().escribirPendiente(bloque(10, 5));
+        when(historialRepository.existsById(10)).thenReturn(true);
+
+        AlmacenArchivoHistorial reiniciado = iniciar();
+
+        assertEquals(List.of(), archivos());
+        assertTrue(reiniciado.buscarPorId(12).isEmpty());
+    }
+
+    @Test
+    void cargar_confirmaElPendienteSiSusRegistrosYaSeEliminaron() throws Exception {
+        iniciar().escribirPendiente(bloque(10, 5));
+        when(historialRepository.existsById(10)).thenReturn(false);
+
+        AlmacenArchivoHistorial reiniciado = iniciar();
+
+        assertEquals(List.of("historial-2023-03-01-10.hca"), archivos());
+        assertEquals("Evento 12", reiniciado.buscarPorId(12).orElseThrow().getDetalle());
+    }
+
+    @Test
+    void buscarPorId_reutilizaLosArchivosDescomprimidos() throws Exception {
+        AlmacenArchivoHistorial almacen = iniciar();
+        FormatoArchivoHistorial.Indice pendiente = almacen.escribirPendiente(bloque(10, 5));
+        almacen.confirmar(pendiente);
+        assertTrue(almacen.buscarPorId(12).isPresent());
+
+        // Sin el archivo en disco, solo la caché puede responder.
+        Files.delete(directorio.resolve("historial-2023-03-01-10.hca"));
+
+        assertEquals("Evento 13", almacen.buscarPorId(13).orElseThrow().getDetalle());
+        assertTrue(almacen.buscarPorId(11_000).isEmpty());
+    }
+}
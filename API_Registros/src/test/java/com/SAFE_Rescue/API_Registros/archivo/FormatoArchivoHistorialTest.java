@@ -0,0 +1,78 @@
+package com.SAFE_Rescue.API_Registros.archivo;
+
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FormatoArchivoHistorialTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2023, 3, 1, 8, 0, 0, 123_456_000);
+
+    @TempDir
+    Path directorio;
+
+    private static Historial historial(int id, LocalDateTime fecha, int estado, int categoria, Integer idDireccion) {
+        Historial h = new Historial();
+        h.setIdHistorial(id);
+        h.setFechaHistorial(fecha);
+        h.setEstado(new Estado(estado, "Estado " + estado, "Descripción " + estado));
+        h.setCategoria(new Categoria(categoria, "Categoría " + categoria, null));
+        h.setDetalle("Evento " + id + " con acentos: camión ñandú");
+        h.setIdDireccion(idDireccion);
+        return h;
+    }
+
+    @Test
+    void escribirYLeer_conservaTodosLosCamposEnOrden() throws Exception {
+        List<Historial> originales = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            originales.add(historial(1000 + i, BASE.plusSeconds(i * 37L), 1 + i % 3, 1 + i % 2, i % 4 == 0 ? null : i));
+        }
+        List<Historial> desordenados = new ArrayList<>(originales);
+        Collections.reverse(desordenados);
+
+        FormatoArchivoHistorial.escribir(directorio.resolve("a.hca"), desordenados);
+        List<Historial> leidos = FormatoArchivoHistorial.leer(directorio.resolve("a.hca"));
+
+        assertEquals(originales, leidos);
+    }
+
+    @Test
+    void leerIndice_informaRangosSinLeerElCuerpo() throws Exception {
+        FormatoArchivoHistorial.escribir(directorio.resolve("b.hca"), List.of(
+                historial(7, BASE.plusDays(2), 1, 1, null),
+                historial(3, BASE, 2, 1, 5),
+                historial(9, BASE.plusDays(1), 1, 2, null)));
+
+        FormatoArchivoHistorial.Indice indice = FormatoArchivoHistorial.leerIndice(directorio.resolve("b.hca"));
+
+        assertEquals(3, indice.cantidad());
+        assertEquals(BASE, indice.fechaMin());
+        assertEquals(BASE.plusDays(2), indice.fechaMax());
+        assertTrue(indice.puedeContener(7));
+        assertFalse(indice.puedeContener(10));
+        assertTrue(indice.solapa(BASE.plusDays(1), null));
+        assertFalse(indice.solapa(BASE.plusDays(3), null));
+        assertFalse(indice.solapa(null, BASE));
+    }
+
+    @Test
+    void escribir_noSobrescribeUnArchivoExistente() throws Exception {
+        Path destino = directorio.resolve("c.hca");
+        FormatoArchivoHistorial.escribir(destino, List.of(historial(1, BASE, 1, 1, null)));
+
+        assertThrows(FileAlreadyExistsException.class,
+                () -> FormatoArchivoHistorial.escribir(destino, List.of(historial(2, BASE, 1, 1, null))));
+    }
+}
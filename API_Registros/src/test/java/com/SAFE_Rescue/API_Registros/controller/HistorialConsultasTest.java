@@ -0,0 +1,245 @@
+package com.SAFE_Rescue.API_Registros.controller;
+
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.CategoriaRepository;
+import com.SAFE_Rescue.API_Registros.repository.EstadoRepository;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica que las lecturas de historial ejecuten la misma cantidad de consultas sin importar
+ * cuántas filas retornan, es decir, que el estado y la categoría no se carguen uno por uno (N+1),
+ * que una creación con el catálogo en caché ejecute solo el INSERT del historial, que las
+ * solicitudes condicionales vigentes se respondan con 304 sin consultar la base de datos, que el
+ * flujo NDJSON ejecute una consulta por página interna y que las métricas de estas lecturas se
+ * expongan en formato Prometheus.
+ * Se ejecuta contra una base de datos H2 en memoria.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:consultas;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "registros.historial.flujo.tamano-lote=10"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("consultas")
+public class HistorialConsultasTest {
+
+    private static final String BASE = "/api-registros/v1/historiales";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EstadoRepository estadoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private HistorialRepository historialRepository;
+
+    private static int creados;
+
+    /**
+     * Crea historiales con un estado y una categoría distintos cada uno, el peor caso para N+1.
+     */
+    private int insertar(int cantidad) {
+        List<Historial> historiales = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            int n = ++creados;
+            Estado estado = estadoRepository.save(new Estado(0, "Estado " + n, null));
+            Categoria categoria = categoriaRepository.save(new Categoria(0, "Categoría " + n, null));
+            historiales.add(new Historial(0, estado, categoria, LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(n),
+                    "Evento " + n, null, null, null, null, null, null, null));
+        }
+        return historialRepository.saveAll(historiales).get(cantidad - 1).getIdHistorial();
+    }
+
+    /**
+     * Ejecuta la solicitud y retorna la cantidad de sentencias preparadas. La respuesta debe incluir
+     * el nombre del estado, que solo está disponible si se cargó antes de cerrar la sesión.
+     */
+    private long consultas(String url, ResultMatcher contenido) throws Exception {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk()).andExpect(contenido);
+        return estadisticas.getPrepareStatementCount();
+    }
+
+    private Map<String, Long> consultasPorEndpoint(int filas, int ultimoId) throws Exception {
+        Map<String, Long> conteos = new LinkedHashMap<>();
+        conteos.put("listado", consultas(BASE + "?tamano=1000", jsonPath("$[" + (filas - 1) + "].estado.nombre").exists()));
+        conteos.put("buscar", consultas(BASE + "/buscar?desde=2024-01-01T00:00:00&tamano=1000",
+                jsonPath("$[" + (filas - 1) + "].categoria.nombre").exists()));
+        conteos.put("porId", consultas(BASE + "/" + ultimoId, jsonPath("$.estado.nombre").exists()));
+        return conteos;
+    }
+
+    @Test
+    void lecturas_ejecutanLaMismaCantidadDeConsultasSinImportarLasFilas() throws Exception {
+        int ultimoId = insertar(3);
+        Map<String, Long> conPocas = consultasPorEndpoint(3, ultimoId);
+
+        ultimoId = insertar(30);
+        Map<String, Long> conMuchas = consultasPorEndpoint(33, ultimoId);
+
+        assertEquals(Map.of("listado", 1L, "buscar", 1L, "porId", 1L), conPocas);
+        assertEquals(conPocas, conMuchas);
+    }
+
+    @Test
+    void vistaCompacta_usaUnaConsultaYRetornaSoloLosCamposPedidos() throws Exception {
+        insertar(5);
+
+        assertEquals(1L, consultas(BASE + "?vista=compacta&tamano=1000",
+                jsonPath("$[0].estadoId").isNumber()));
+        assertEquals(1L, consultas(BASE + "/buscar?desde=2024-01-01T00:00:00&fields=detalle,idHistorial&tamano=1000",
+                jsonPath("$[0].idHistorial").isNumber()));
+
+        mockMvc.perform(get(BASE + "?fields=idHistorial,detalle"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].detalle").exists())
+                .andExpect(jsonPath("$[0].estadoId").doesNotExist())
+                .andExpect(jsonPath("$[0].estado").doesNotExist());
+        mockMvc.perform(get(BASE + "?fields=idHistorial,estado")).andExpect(status().isBadRequest());
+        mockMvc.perform(get(BASE + "?vista=resumida")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void crearConIds_ejecutaSoloElInsertDelHistorial() throws Exception {
+        Estado estado = estadoRepository.save(new Estado(0, "Estado creación", null));
+        Categoria categoria = categoriaRepository.save(new Categoria(0, "Categoría creación", null));
+        String cuerpo = "{\"estadoId\":" + estado.getIdEstado() + ",\"categoriaId\":" + categoria.getIdCategoria()
+                + ",\"fechaHistorial\":\"2025-02-01T10:00:00\",\"detalle\":\"Creado por IDs\"}";
+        mockMvc.perform(post(BASE).contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+                .andExpect(status().isCreated());
+
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        mockMvc.perform(post(BASE).contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.estado.nombre").value("Estado creación"))
+                .andExpect(jsonPath("$.categoria.nombre").value("Categoría creación"));
+        assertEquals(0L, estadisticas.getEntityLoadCount());
+        assertEquals(1L, estadisticas.getEntityInsertCount());
+        assertEquals(1L, estadisticas.getPrepareStatementCount());
+
+        estadisticas.clear();
+        mockMvc.perform(post(BASE).contentType(MediaType.APPLICATION_JSON).content(cuerpo.replace(
+                        "\"estadoId\":" + estado.getIdEstado(), "\"estadoId\":999999")))
+                .andExpect(status().isBadRequest());
+        assertEquals(0L, estadisticas.getEntityInsertCount());
+    }
+
+    @Test
+    void getCondicional_respondeNoModificadoSinConsultasHastaQueCambiaElCatalogo() throws Exception {
+        int id = insertar(1);
+        Historial historial = historialRepository.findById(id).orElseThrow();
+        String urlEstado = "/api-registros/v1/estados/" + historial.getEstado().getIdEstado();
+
+        String etagHistorial = mockMvc.perform(get(BASE + "/" + id))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+        String etagEstado = mockMvc.perform(get(urlEstado))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        mockMvc.perform(get(BASE + "/" + id).header("If-None-Match", etagHistorial))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etagHistorial));
+        mockMvc.perform(get(urlEstado).header("If-None-Match", etagEstado))
+                .andExpect(status().isNotModified());
+        assertEquals(0L, estadisticas.getPrepareStatementCount());
+
+        mockMvc.perform(put(urlEstado).contentType(MediaType.APPLICATION_JSON).content("{\"nombre\":\"Estado renombrado\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(urlEstado).header("If-None-Match", etagEstado))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nombre").value("Estado renombrado"));
+        mockMvc.perform(get(BASE + "/" + id).header("If-None-Match", etagHistorial))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado.nombre").value("Estado renombrado"));
+    }
+
+    @Test
+    void flujo_entregaTodasLasFilasConUnaConsultaPorPagina() throws Exception {
+        insertar(25);
+        long filas = historialRepository.count();
+
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        MvcResult inicio = mockMvc.perform(get(BASE + "/flujo"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String cuerpo = mockMvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lineas = cuerpo.lines().toList();
+        assertEquals(filas, lineas.size());
+        assertTrue(lineas.get(lineas.size() - 1).contains("\"nombre\""));
+        assertEquals((filas + 9) / 10, estadisticas.getPrepareStatementCount());
+
+        mockMvc.perform(get(BASE + "/flujo?desde=2025-02-01T00:00:00&hasta=2025-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void metricas_sePublicanEnFormatoPrometheus() throws Exception {
+        insertar(2);
+        mockMvc.perform(get(BASE + "?tamano=10")).andExpect(status().isOk());
+
+        String salida = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(salida.contains("http_server_requests_seconds_bucket{"), salida);
+        assertTrue(salida.contains("uri=\"/api-registros/v1/historiales\""), salida);
+        assertTrue(salida.contains("registros_servicio_seconds_count{class=\"com.SAFE_Rescue.API_Registros.service.HistorialService\""), salida);
+        assertTrue(salida.contains("registros_json_serializacion_seconds_bucket{tipo=\"List<Historial>\""), salida);
+        assertTrue(salida.contains("registros_hibernate_sentencias_total "), salida);
+        assertTrue(salida.contains("registros_hibernate_entidades_total{operacion=\"insercion\"}"), salida);
+        assertTrue(salida.contains("hikaricp_connections_active{"), salida);
+    }
+}
@@ -0,0 +1,81 @@
+package com.SAFE_Rescue.API_Registros.generador;
+
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Foto;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatosSinteticosTest {
+
+    private static final LocalDate HASTA = LocalDate.of(2025, 6, 1);
+
+    private static final List<Estado> ESTADOS = List.of(new Estado(1, "Abierto", null), new Estado(2, "En curso", null),
+            new Estado(3, "Cerrado", null));
+    private static final List<Categoria> CATEGORIAS = List.of(new Categoria(1, "Incendio", null), new Categoria(2, "Rescate", null));
+
+    private static DatosSinteticos datos(long semilla) {
+        return new DatosSinteticos(ESTADOS, CATEGORIAS, HASTA, 30, 1.1, semilla);
+    }
+
+    @Test
+    void mismaSemilla_generaLosMismosRegistrosEnCualquierOrden() {
+        DatosSinteticos primero = datos(42);
+        DatosSinteticos segundo = datos(42);
+
+        List<Historial> bloque3 = primero.historiales(3, 200);
+        segundo.historiales(0, 200);
+        assertEquals(bloque3, segundo.historiales(3, 200));
+        assertEquals(primero.fotos(1, 50), segundo.fotos(1, 50));
+
+        assertNotEquals(bloque3, datos(43).historiales(3, 200));
+        assertNotEquals(bloque3, primero.historiales(4, 200));
+    }
+
+    @Test
+    void historiales_cumplenLasValidacionesYEstanSesgados() {
+        List<Historial> historiales = datos(1).historiales(0, 5_000);
+
+        for (Historial historial : historiales) {
+            assertEquals(0, historial.getIdHistorial());
+            assertFalse(historial.getDetalle().isBlank());
+            assertTrue(historial.getDetalle().length() <= 250);
+            assertTrue(historial.getFechaHistorial().isBefore(HASTA.atStartOfDay()));
+            assertFalse(historial.getFechaHistorial().isBefore(HASTA.minusDays(30).atStartOfDay()));
+        }
+
+        Map<Integer, Long> porEstado = historiales.stream()
+                .collect(Collectors.groupingBy(h -> h.getEstado().getIdEstado(), Collectors.counting()));
+        assertTrue(porEstado.get(1) > porEstado.get(2) && porEstado.get(2) > porEstado.get(3), porEstado.toString());
+
+        long ultimaSemana = historiales.stream().filter(h -> !h.getFechaHistorial().isBefore(HASTA.minusDays(7).atStartOfDay())).count();
+        assertTrue(ultimaSemana > historiales.size() * 7 / 30, "registros de la última semana: " + ultimaSemana);
+
+        Map<Integer, Long> porIncidente = historiales.stream().filter(h -> h.getIdAsignacionIncidente() != null)
+                .collect(Collectors.groupingBy(Historial::getIdAsignacionIncidente, Collectors.counting()));
+        assertTrue(porIncidente.values().stream().mapToLong(Long::longValue).max().orElse(0) > 100,
+                "el incidente más frecuente debería repetirse");
+    }
+
+    @Test
+    void fotos_tienenUrlUnicaYDescripcionAcotada() {
+        DatosSinteticos datos = datos(1);
+        List<Foto> fotos = datos.fotos(0, 1_000);
+        fotos.addAll(datos.fotos(1, 1_000));
+
+        assertEquals(fotos.size(), fotos.stream().map(Foto::getUrl).collect(Collectors.toMap(Function.identity(), u -> 1, Integer::sum)).size());
+        fotos.forEach(foto -> {
+            assertTrue(foto.getUrl().length() <= 255);
+            assertTrue(foto.getDescripcion().length() <= 100);
+            assertNotNull(foto.getFechaSubida());
+        });
+    }
+}
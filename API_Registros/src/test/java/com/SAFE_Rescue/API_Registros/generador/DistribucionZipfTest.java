@@ -0,0 +1,46 @@
+package com.SAFE_Rescue.API_Registros.generador;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DistribucionZipfTest {
+
+    private static int[] frecuencias(DistribucionZipf distribucion, int muestras) {
+        SplittableRandom aleatorio = new SplittableRandom(7);
+        int[] frecuencias = new int[distribucion.elementos()];
+        for (int i = 0; i < muestras; i++) {
+            frecuencias[distribucion.muestrear(aleatorio)]++;
+        }
+        return frecuencias;
+    }
+
+    @Test
+    void sesgo_losPrimerosRangosConcentranLaMayoria() {
+        int[] frecuencias = frecuencias(new DistribucionZipf(10, 1.0), 100_000);
+
+        // Con s=1 y 10 elementos, P(1) = 1/H(10) ≈ 0,341 y P(10) ≈ 0,034.
+        assertEquals(0.341, frecuencias[0] / 100_000.0, 0.01);
+        assertEquals(0.034, frecuencias[9] / 100_000.0, 0.005);
+        for (int k = 1; k < 10; k++) {
+            assertTrue(frecuencias[k - 1] > frecuencias[k], "rango " + k);
+        }
+    }
+
+    @Test
+    void exponenteCero_esUniforme() {
+        int[] frecuencias = frecuencias(new DistribucionZipf(4, 0), 40_000);
+
+        for (int frecuencia : frecuencias) {
+            assertEquals(10_000, frecuencia, 500);
+        }
+    }
+
+    @Test
+    void parametrosInvalidos_lanzanExcepcion() {
+        assertThrows(IllegalArgumentException.class, () -> new DistribucionZipf(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new DistribucionZipf(5, -1));
+    }
+}
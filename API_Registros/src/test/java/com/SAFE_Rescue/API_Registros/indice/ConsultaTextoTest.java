@@ -0,0 +1,35 @@
+package com.SAFE_Rescue.API_Registros.indice;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConsultaTextoTest {
+
+    @Test
+    void terminos_normalizaAcentosYMayusculas() {
+        assertEquals(List.of("el", "usuario", "juan_perez", "cambio", "su", "estado", "a", "activo", "camion", "12"),
+                AnalizadorTexto.terminos("El usuario 'juan_perez' cambió su estado a 'ACTIVO' (Camión #12)"));
+    }
+
+    @Test
+    void parsear_reconoceTerminosFrasesYPrefijos() {
+        ConsultaTexto consulta = ConsultaTexto.parsear("Alerta \"cambió  su estado\" juan* juan-perez");
+
+        assertEquals(List.of(
+                new ConsultaTexto.Clausula(ConsultaTexto.Tipo.TERMINO, List.of("alerta")),
+                new ConsultaTexto.Clausula(ConsultaTexto.Tipo.FRASE, List.of("cambio", "su", "estado")),
+                new ConsultaTexto.Clausula(ConsultaTexto.Tipo.PREFIJO, List.of("juan")),
+                new ConsultaTexto.Clausula(ConsultaTexto.Tipo.FRASE, List.of("juan", "perez"))), consulta.clausulas());
+    }
+
+    @Test
+    void parsear_rechazaConsultasInvalidas() {
+        assertThrows(IllegalArgumentException.class, () -> ConsultaTexto.parsear("  "));
+        assertThrows(IllegalArgumentException.class, () -> ConsultaTexto.parsear("\"sin cerrar"));
+        assertThrows(IllegalArgumentException.class, () -> ConsultaTexto.parsear("j*"));
+        assertThrows(IllegalArgumentException.class, () -> ConsultaTexto.parsear("¡¿?!"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.SAFE_Rescue.API_Registros.indice;
+
+import com.SAFE_Rescue.API_Registros.dto.FiltroHistorial;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentoIndiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 1, 8, 0);
+
+    @TempDir
+    Path directorio;
+
+    private static DocumentoTexto documento(int id, int dias, int estado, String detalle) {
+        return new DocumentoTexto(id, BASE.plusDays(dias), estado, 1, detalle);
+    }
+
+    private static List<Integer> ids(ResultadoBusquedaTexto resultado) {
+        return resultado.coincidencias().stream().map(ResultadoBusquedaTexto.Coincidencia::idHistorial).toList();
+    }
+
+    private static ResultadoBusquedaTexto buscar(List<? extends FuenteIndice> fuentes, String consulta, FiltroHistorial filtro) {
+        return BuscadorTexto.buscar(fuentes, ConsultaTexto.parsear(consulta), filtro, 10);
+    }
+
+    @Test
+    void buscar_resuelveTerminosFrasesYPrefijosEnSegmentoYMemoria() throws Exception {
+        SegmentoIndice segmento = SegmentoIndice.escribir(directorio.resolve("a.hix"), List.of(
+                documento(3, 0, 1, "El usuario 'juan_perez' cambió su estado a 'Activo'"),
+                documento(1, 1, 2, "Camión asignado al incidente"),
+                documento(2, 2, 1, "Estado del camión: activo, su estado cambió")));
+        SegmentoMemoria memoria = new SegmentoMemoria();
+        memoria.agregar(documento(4, 3, 1, "Alerta: camion detenido"));
+
+        List<FuenteIndice> fuentes = List.of(segmento, memoria);
+        FiltroHistorial sinFiltro = new FiltroHistorial();
+
+        assertEquals(List.of(1, 2, 4), ids(buscar(fuentes, "CAMIÓN", sinFiltro)).stream().sorted().toList());
+        assertEquals(List.of(3), ids(buscar(fuentes, "\"cambio su estado\"", sinFiltro)));
+        assertEquals(List.of(3), ids(buscar(fuentes, "juan*", sinFiltro)));
+        assertEquals(List.of(2), ids(buscar(fuentes, "estado camion", sinFiltro)));
+        assertTrue(ids(buscar(fuentes, "inexistente", sinFiltro)).isEmpty());
+
+        FiltroHistorial filtro = new FiltroHistorial();
+        filtro.setEstadoId(1);
+        filtro.setDesde(BASE.plusDays(1));
+        ResultadoBusquedaTexto filtrado = buscar(fuentes, "camion", filtro);
+        assertEquals(2, filtrado.total());
+        assertEquals(List.of(2, 4), ids(filtrado).stream().sorted().toList());
+    }
+
+    @Test
+    void buscar_ordenaPorRelevancia() throws Exception {
+        SegmentoIndice segmento = SegmentoIndice.escribir(directorio.resolve("b.hix"), List.of(
+                documento(1, 0, 1, "incendio controlado en la bodega norte del sector industrial"),
+                documento(2, 0, 1, "incendio incendio"),
+                documento(3, 0, 1, "rescate en altura")));
+
+        assertEquals(List.of(2, 1), ids(buscar(List.of(segmento), "incendio", new FiltroHistorial())));
+    }
+
+    @Test
+    void fusionar_conservaDocumentosSinRepetirYSePuedeReabrir() throws Exception {
+        SegmentoIndice a = SegmentoIndice.escribir(directorio.resolve("c.hix"), List.of(
+                documento(5, 0, 1, "rescate vehicular"), documento(1, 0, 1, "rescate acuático")));
+        SegmentoMemoria memoria = new SegmentoMemoria();
+        memoria.agregar(documento(3, 0, 2, "rescate en altura"));
+        memoria.agregar(documento(5, 0, 1, "rescate vehicular"));
+
+        SegmentoIndice.fusionar(directorio.resolve("d.hix"), List.of(a, memoria));
+        SegmentoIndice combinado = SegmentoIndice.abrir(directorio.resolve("d.hix"));
+
+        assertEquals(3, combinado.cantidadDocumentos());
+        assertEquals(5, combinado.idMaximo());
+        assertTrue(combinado.contiene(3));
+        assertFalse(combinado.contiene(4));
+        assertEquals(List.of("rescate", "vehicular"), combinado.terminos().stream()
+                .filter(t -> t.startsWith("rescate") || t.startsWith("vehic")).toList());
+        ResultadoBusquedaTexto resultado = buscar(List.of(combinado), "\"rescate en altura\"", new FiltroHistorial());
+        assertEquals(List.of(3), ids(resultado));
+    }
+}
@@ -0,0 +1,71 @@
+package com.SAFE_Rescue.API_Registros.ingesta;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitacoraSegmentadaTest {
+
+    private static final int TAMANO_SEGMENTO = 256;
+
+    @TempDir
+    Path directorio;
+
+    private static byte[] registro(int i) {
+        return ("historial-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> textos(BitacoraSegmentada.Lectura lectura) {
+        List<String> textos = new ArrayList<>();
+        lectura.registros().forEach(r -> textos.add(new String(r, StandardCharsets.UTF_8)));
+        return textos;
+    }
+
+    @Test
+    void leer_recorreVariosSegmentosEnOrden() throws Exception {
+        try (BitacoraSegmentada bitacora = new BitacoraSegmentada(directorio, TAMANO_SEGMENTO, false)) {
+            for (int i = 0; i < 40; i++) {
+                bitacora.agregar(registro(i));
+            }
+            BitacoraSegmentada.Lectura lectura = bitacora.leer(100);
+
+            assertEquals(40, lectura.registros().size());
+            assertEquals("historial-0", textos(lectura).get(0));
+            assertEquals("historial-39", textos(lectura).get(39));
+            assertTrue(bitacora.segmentosPendientes() > 1);
+
+            bitacora.confirmar(lectura.siguiente());
+            assertFalse(bitacora.hayPendientes());
+            try (Stream<Path> archivos = Files.list(directorio)) {
+                assertEquals(1, archivos.filter(p -> p.toString().endsWith(".seg")).count());
+            }
+        }
+    }
+
+    @Test
+    void reabrir_reproduceSoloLoNoConfirmado() throws Exception {
+        try (BitacoraSegmentada bitacora = new BitacoraSegmentada(directorio, TAMANO_SEGMENTO, false)) {
+            for (int i = 0; i < 30; i++) {
+                bitacora.agregar(registro(i));
+            }
+            bitacora.confirmar(bitacora.leer(12).siguiente());
+        }
+
+        try (BitacoraSegmentada reabierta = new BitacoraSegmentada(directorio, TAMANO_SEGMENTO, false)) {
+            reabierta.agregar(registro(30));
+
+            List<String> pendientes = textos(reabierta.leer(100));
+            assertEquals(19, pendientes.size());
+            assertEquals("historial-12", pendientes.get(0));
+            assertEquals("historial-30", pendientes.get(18));
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.SAFE_Rescue.API_Registros.ingesta;
+
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class IngestaAgrupadaHistorialTest {
+
+    private HistorialRepository historialRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private IngestaAgrupadaHistorial ingesta;
+    private final AtomicInteger secuencia = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        historialRepository = mock(HistorialRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        ingesta = new IngestaAgrupadaHistorial(historialRepository, mock(PlatformTransactionManager.class),
+                meterRegistry, 1000, 50, 50, 5000);
+        ingesta.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ingesta.detener();
+    }
+
+    @Test
+    void registrar_agrupaSolicitudesConcurrentesEnPocasTransacciones() throws Exception {
+        doAnswer(invocacion -> {
+            List<Historial> grupo = invocacion.getArgument(0);
+            grupo.forEach(h -> h.setIdHistorial(secuencia.incrementAndGet()));
+            return null;
+        }).when(historialRepository).insertarEnLote(anyList(), anyInt());
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(20);
+        List<Future<Historial>> respuestas = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            respuestas.add(ejecutor.submit(() -> ingesta.registrar(new Historial())));
+        }
+        for (Future<Historial> respuesta : respuestas) {
+            assertTrue(respuesta.get().getIdHistorial() > 0);
+        }
+        ejecutor.shutdown();
+
+        assertEquals(100, secuencia.get());
+        long grupos = meterRegistry.get("registros.historial.ingesta.grupo").summary().count();
+        assertTrue(grupos < 100, "Se esperaban menos commits que solicitudes, se obtuvieron " + grupos);
+    }
+
+    @Test
+    void registrar_aislaElRegistroInvalidoDeUnGrupoFallido() throws Exception {
+        List<Integer> tamanosGrupo = new CopyOnWriteArrayList<>();
+        doAnswer(invocacion -> {
+            List<Historial> grupo = invocacion.getArgument(0);
+            tamanosGrupo.add(grupo.size());
+            if (grupo.stream().anyMatch(h -> "invalido".equals(h.getDetalle()))) {
+                throw new DataIntegrityViolationException("fk");
+            }
+            grupo.forEach(h -> h.setIdHistorial(secuencia.incrementAndGet()));
+            return null;
+        }).when(historialRepository).insertarEnLote(anyList(), anyInt());
+
+        // Espera de grupo amplia para que las seis solicitudes caigan en la misma ventana.
+        ingesta.detener();
+        ingesta = new IngestaAgrupadaHistorial(historialRepository, mock(PlatformTransactionManager.class),
+                meterRegistry, 1000, 50, 500, 5000);
+        ingesta.iniciar();
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(6);
+        List<Future<Historial>> validos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            validos.add(ejecutor.submit(() -> ingesta.registrar(historial("valido"))));
+        }
+        Future<Historial> invalido = ejecutor.submit(() -> ingesta.registrar(historial("invalido")));
+
+        for (Future<Historial> valido : validos) {
+            assertTrue(valido.get().getIdHistorial() > 0);
+        }
+        ExecutionException error = assertThrows(ExecutionException.class, invalido::get);
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+        ejecutor.shutdown();
+
+        assertEquals(5, secuencia.get());
+        assertEquals(6, tamanosGrupo.get(0), "el primer intento debe incluir a todo el grupo");
+        assertEquals(List.of(1, 1, 1, 1, 1, 1), tamanosGrupo.subList(1, tamanosGrupo.size()));
+    }
+
+    @Test
+    void registrar_alAgotarLaEsperaRetiraElRegistroEncoladoYEsperaAlQueSeConfirma() throws Exception {
+        CountDownLatch enConfirmacion = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        List<Historial> insertados = new CopyOnWriteArrayList<>();
+        doAnswer(invocacion -> {
+            List<Historial> grupo = invocacion.getArgument(0);
+            enConfirmacion.countDown();
+            liberar.await();
+            grupo.forEach(h -> h.setIdHistorial(secuencia.incrementAndGet()));
+            insertados.addAll(grupo);
+            return null;
+        }).when(historialRepository).insertarEnLote(anyList(), anyInt());
+
+        ingesta.detener();
+        ingesta = new IngestaAgrupadaHistorial(historialRepository, mock(PlatformTransactionManager.class),
+                meterRegistry, 1000, 50, 1, 500);
+        ingesta.iniciar();
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(2);
+        Historial enCurso = historial("en curso");
+        Future<Historial> primero = ejecutor.submit(() -> ingesta.registrar(enCurso));
+        assertTrue(enConfirmacion.await(5, TimeUnit.SECONDS));
+        Historial encolado = historial("encolado");
+        Future<Historial> segundo = ejecutor.submit(() -> ingesta.registrar(encolado));
+
+        ExecutionException error = assertThrows(ExecutionException.class, segundo::get);
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertFalse(primero.isDone(), "el registro en confirmación espera el resultado de su transacción");
+
+        liberar.countDown();
+        assertTrue(primero.get(5, TimeUnit.SECONDS).getIdHistorial() > 0);
+        ingesta.detener();
+        ejecutor.shutdown();
+
+        assertEquals(List.of(enCurso), insertados);
+        assertEquals(0, meterRegistry.get("registros.historial.ingesta.cola").gauge().value());
+    }
+
+    @Test
+    void registrar_informaResultadoDesconocidoSiLaConfirmacionNoTerminaATiempo() throws Exception {
+        CountDownLatch enConfirmacion = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        doAnswer(invocacion -> {
+            enConfirmacion.countDown();
+            liberar.await();
+            return null;
+        }).when(historialRepository).insertarEnLote(anyList(), anyInt());
+
+        ingesta.detener();
+        ingesta = new IngestaAgrupadaHistorial(historialRepository, mock(PlatformTransactionManager.class),
+                meterRegistry, 1000, 50, 1, 200);
+        ingesta.iniciar();
+
+        ExecutorService ejecutor = Executors.newSingleThreadExecutor();
+        Future<Historial> respuesta = ejecutor.submit(() -> ingesta.registrar(historial("lento")));
+        assertTrue(enConfirmacion.await(5, TimeUnit.SECONDS));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> respuesta.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertTrue(error.getCause().getMessage().contains("Se desconoce si fue registrado"));
+
+        liberar.countDown();
+        ejecutor.shutdown();
+    }
+
+    @Test
+    void registrar_fallaTodoElGrupoSinReintentosAnteUnErrorQueNoEsDeIntegridad() throws Exception {
+        List<Integer> tamanosGrupo = new CopyOnWriteArrayList<>();
+        doAnswer(invocacion -> {
+            tamanosGrupo.add(invocacion.<List<Historial>>getArgument(0).size());
+            throw new QueryTimeoutException("Tiempo de espera de bloqueo agotado");
+        }).when(historialRepository).insertarEnLote(anyList(), anyInt());
+
+        ingesta.detener();
+        ingesta = new IngestaAgrupadaHistorial(historialRepository, mock(PlatformTransactionManager.class),
+                meterRegistry, 1000, 50, 500, 5000);
+        ingesta.iniciar();
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(4);
+        List<Future<Historial>> respuestas = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            respuestas.add(ejecutor.submit(() -> ingesta.registrar(historial("valido"))));
+        }
+        for (Future<Historial> respuesta : respuestas) {
+            ExecutionException error = assertThrows(ExecutionException.class, respuesta::get);
+            assertInstanceOf(QueryTimeoutException.class, error.getCause());
+        }
+        ejecutor.shutdown();
+
+        assertEquals(List.of(4), tamanosGrupo);
+    }
+
+    private static Historial historial(String detalle) {
+        Historial historial = new Historial();
+        historial.setDetalle(detalle);
+        return historial;
+    }
+}
@@ -0,0 +1,151 @@
+package com.SAFE_Rescue.API_Registros.ingesta;
+
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.CategoriaRepository;
+import com.SAFE_Rescue.API_Registros.repository.EstadoRepository;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que la reproducción de la bitácora aplique cada registro exactamente una vez cuando el
+ * proceso cae después de confirmar un lote en la base de datos y antes de avanzar el checkpoint.
+ * Se ejecuta contra una base de datos H2 en memoria.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bitacora;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@ActiveProfiles("bitacora")
+public class IngestaBitacoraHistorialTest {
+
+    @Autowired
+    private HistorialRepository historialRepository;
+
+    @Autowired
+    private EstadoRepository estadoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TempDir
+    Path directorio;
+
+    @AfterEach
+    void tearDown() {
+        historialRepository.deleteAllInBatch();
+        estadoRepository.deleteAllInBatch();
+        categoriaRepository.deleteAllInBatch();
+    }
+
+    private IngestaBitacoraHistorial abrir(PlatformTransactionManager gestor, long timeoutDetencionMs) throws Exception {
+        IngestaBitacoraHistorial ingesta = new IngestaBitacoraHistorial(historialRepository, gestor, objectMapper,
+                new SimpleMeterRegistry(), directorio, 1, false, 100, 10, timeoutDetencionMs);
+        ingesta.iniciar();
+        return ingesta;
+    }
+
+    @Test
+    void caidaEntreElCommitYElCheckpoint_alReiniciarNoDuplicaRegistros() throws Exception {
+        Estado estado = estadoRepository.save(new Estado(0, "Activo", null));
+        Categoria categoria = categoriaRepository.save(new Categoria(0, "Incidente", null));
+
+        // Cada transacción se confirma en la base de datos y luego falla, como si el proceso cayera
+        // antes de avanzar el checkpoint: el reproductor reintenta el mismo tramo una y otra vez.
+        AtomicInteger confirmadas = new AtomicInteger();
+        PlatformTransactionManager caeTrasConfirmar = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definicion) {
+                return transactionManager.getTransaction(definicion);
+            }
+
+            @Override
+            public void commit(TransactionStatus estado) {
+                transactionManager.commit(estado);
+                confirmadas.incrementAndGet();
+                throw new IllegalStateException("Caída simulada antes del checkpoint");
+            }
+
+            @Override
+            public void rollback(TransactionStatus estado) {
+                transactionManager.rollback(estado);
+            }
+        };
+
+        IngestaBitacoraHistorial primera = abrir(caeTrasConfirmar, 200);
+        for (int i = 0; i < 250; i++) {
+            Historial historial = new Historial();
+            historial.setEstado(estado);
+            historial.setCategoria(categoria);
+            historial.setFechaHistorial(LocalDateTime.of(2025, 3, 1, 8, 0).plusSeconds(i));
+            historial.setDetalle("Evento " + i);
+            primera.registrar(historial);
+        }
+        long limite = System.nanoTime() + 30_000_000_000L;
+        while (confirmadas.get() < 5 && System.nanoTime() < limite) {
+            Thread.sleep(20);
+        }
+        primera.detener();
+        assertTrue(confirmadas.get() >= 5, "el tramo debió reaplicarse varias veces");
+        // El checkpoint nunca avanzó: solo el primer tramo (a lo más un lote) llegó a la tabla, una vez.
+        long tramo = historialRepository.count();
+        assertTrue(tramo > 0 && tramo <= 100, "filas del primer tramo: " + tramo);
+
+        // Reinicio sobre la misma bitácora: reproduce todo lo no confirmado y avanza el checkpoint.
+        IngestaBitacoraHistorial segunda = abrir(transactionManager, 30_000);
+        segunda.detener();
+        assertEquals(250, historialRepository.count());
+        assertEquals(250, historialRepository.findAll().stream().map(Historial::getClaveBitacora).distinct().count());
+    }
+
+    @Test
+    void reproducir_descartaLosRegistrosSinClaveDeBitacora() throws Exception {
+        Estado estado = estadoRepository.save(new Estado(0, "Activo", null));
+        Categoria categoria = categoriaRepository.save(new Categoria(0, "Incidente", null));
+        try (BitacoraSegmentada bitacora = new BitacoraSegmentada(directorio, 1024 * 1024, false)) {
+            bitacora.agregar(objectMapper.writeValueAsBytes(historial(estado, categoria, "Sin clave")));
+            bitacora.agregar(objectMapper.writeValueAsBytes(Map.of("historial", historial(estado, categoria, "Clave nula"))));
+            bitacora.agregar(objectMapper.writeValueAsBytes(Map.of("clave", UUID.randomUUID().toString(),
+                    "historial", historial(estado, categoria, "Con clave"))));
+        }
+
+        abrir(transactionManager, 30_000).detener();
+
+        assertEquals(List.of("Con clave"), historialRepository.findAll().stream().map(Historial::getDetalle).toList());
+    }
+
+    private static Historial historial(Estado estado, Categoria categoria, String detalle) {
+        Historial historial = new Historial();
+        historial.setEstado(estado);
+        historial.setCategoria(categoria);
+        historial.setFechaHistorial(LocalDateTime.of(2025, 3, 1, 8, 0));
+        historial.setDetalle(detalle);
+        return historial;
+    }
+}
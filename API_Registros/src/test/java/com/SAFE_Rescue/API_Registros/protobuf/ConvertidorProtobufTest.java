@@ -0,0 +1,129 @@
+package com.SAFE_Rescue.API_Registros.protobuf;
+
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Foto;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConvertidorProtobufTest {
+
+    private static final Type LISTA_HISTORIALES = new ParameterizedTypeReference<List<Historial>>() {}.getType();
+
+    private final ConvertidorProtobuf convertidor = new ConvertidorProtobuf();
+
+    private static List<Historial> historiales(int cantidad) {
+        Estado estado = new Estado(1, "Activo", "Registro vigente");
+        Categoria categoria = new Categoria(2, "Incidente", null);
+        LocalDateTime inicio = LocalDateTime.of(2025, 9, 9, 10, 30, 0, 123_456_000);
+        List<Historial> historiales = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            Historial historial = new Historial();
+            historial.setIdHistorial(i);
+            historial.setEstado(estado);
+            historial.setCategoria(categoria);
+            historial.setFechaHistorial(inicio.plusSeconds(i));
+            historial.setDetalle("Cambio de estado del registro número " + i + " — ñandú");
+            historial.setIdAsignacionIncidente(i % 3 == 0 ? null : i);
+            historial.setIdUsuarioReporte(i % 2 == 0 ? 0 : -i);
+            historiales.add(historial);
+        }
+        return historiales;
+    }
+
+    private byte[] escribir(Object objeto, Type tipo) throws Exception {
+        MockHttpOutputMessage salida = new MockHttpOutputMessage();
+        convertidor.write(objeto, tipo, ConvertidorProtobuf.APPLICATION_PROTOBUF, salida);
+        return salida.getBodyAsBytes();
+    }
+
+    private Object leer(byte[] datos, Type tipo) throws Exception {
+        return convertidor.read(tipo, null, new MockHttpInputMessage(datos));
+    }
+
+    @Test
+    void listaDeHistoriales_seRecuperaIgualYOcupaMenosQueJson() throws Exception {
+        List<Historial> originales = historiales(10_000);
+
+        byte[] protobuf = escribir(originales, LISTA_HISTORIALES);
+        byte[] json = new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsBytes(originales);
+
+        assertEquals(originales, leer(protobuf, LISTA_HISTORIALES));
+        assertTrue(protobuf.length < json.length / 2, "protobuf=" + protobuf.length + " json=" + json.length);
+    }
+
+    @Test
+    void historialYFoto_conservanNulosYFechas() throws Exception {
+        Historial historial = new Historial();
+        historial.setDetalle("");
+        historial.setFechaHistorial(LocalDateTime.of(1970, 1, 1, 0, 0));
+        Foto foto = new Foto(7, "http://api-fotos.com/fotos/7.jpg", LocalDateTime.of(1960, 5, 1, 8, 0), "");
+
+        Historial leido = (Historial) leer(escribir(historial, Historial.class), Historial.class);
+        assertEquals(historial.getFechaHistorial(), leido.getFechaHistorial());
+        assertNull(leido.getEstado());
+        assertNull(leido.getIdAsignacionCurso());
+        assertEquals(foto, leer(escribir(foto, Foto.class), Foto.class));
+    }
+
+    @Test
+    void lectura_aceptaIdsDeCatalogoYSaltaCamposDesconocidos() throws Exception {
+        SalidaProtobuf salida = new SalidaProtobuf(64);
+        salida.int32(12, 4);
+        salida.int32(13, 9);
+        salida.texto(40, "campo de una versión más nueva");
+        salida.int64Opcional(41, 1L);
+        salida.texto(5, "Creado desde un cliente Protobuf");
+
+        Historial historial = (Historial) leer(salida.aBytes(), Historial.class);
+
+        assertEquals(4, historial.getEstado().getIdEstado());
+        assertEquals(9, historial.getCategoria().getIdCategoria());
+        assertEquals("Creado desde un cliente Protobuf", historial.getDetalle());
+    }
+
+    @Test
+    void mensajeTruncado_esIlegible() throws Exception {
+        byte[] datos = escribir(historiales(1).get(0), Historial.class);
+        byte[] truncado = Arrays.copyOf(datos, datos.length - 3);
+
+        assertThrows(HttpMessageNotReadableException.class, () -> leer(truncado, Historial.class));
+    }
+
+    @Test
+    void soloAdmiteLosTiposConMensaje() {
+        assertTrue(convertidor.canRead(LISTA_HISTORIALES, null, ConvertidorProtobuf.APPLICATION_PROTOBUF));
+        assertTrue(convertidor.canWrite(Foto.class, Foto.class, ConvertidorProtobuf.APPLICATION_PROTOBUF));
+        assertFalse(convertidor.canRead(new ParameterizedTypeReference<List<String>>() {}.getType(), null, ConvertidorProtobuf.APPLICATION_PROTOBUF));
+        assertFalse(convertidor.canWrite(String.class, String.class, ConvertidorProtobuf.APPLICATION_PROTOBUF));
+        assertFalse(convertidor.canWrite(Historial.class, Historial.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void listasSinTipoDeElemento_noSeOfrecen() throws Exception {
+        // Con ResponseEntity<?> el tipo declarado es Object y solo se conoce la clase del cuerpo.
+        assertFalse(convertidor.canWrite(Object.class, ArrayList.class, ConvertidorProtobuf.APPLICATION_PROTOBUF));
+        assertFalse(convertidor.canWrite(new ParameterizedTypeReference<List<Estado>>() {}.getType(), ArrayList.class,
+                ConvertidorProtobuf.APPLICATION_PROTOBUF));
+        assertTrue(convertidor.canWrite(Object.class, HistorialLista.class, ConvertidorProtobuf.APPLICATION_PROTOBUF));
+        assertTrue(convertidor.canWrite(Object.class, FotoLista.class, ConvertidorProtobuf.APPLICATION_PROTOBUF));
+
+        HistorialLista lista = new HistorialLista(historiales(3));
+        assertEquals(lista, leer(escribir(lista, Object.class), LISTA_HISTORIALES));
+    }
+}
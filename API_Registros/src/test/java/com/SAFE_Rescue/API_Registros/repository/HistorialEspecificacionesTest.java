@@ -0,0 +1,166 @@
+package com.SAFE_Rescue.API_Registros.repository;
+
+import com.SAFE_Rescue.API_Registros.dto.FiltroHistorial;
+import com.SAFE_Rescue.API_Registros.dto.HistorialCompacto;
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifica contra H2 (modo MySQL) las consultas que arman {@link HistorialEspecificaciones}: los
+ * filtros nulos se omiten, los criterios se combinan, y {@code despuesDe} compuesta con {@code segun}
+ * recorre los resultados por cursor sin repetir ni omitir registros con la misma fecha.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:especificaciones;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class HistorialEspecificacionesTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    @Autowired
+    private HistorialRepository historialRepository;
+
+    @Autowired
+    private EstadoRepository estadoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    private Estado activo;
+    private Estado cerrado;
+    private Categoria incendio;
+    private Categoria rescate;
+    private Historial h1, h2, h3, h4, h5, h6, h7;
+
+    @BeforeEach
+    void setUp() {
+        activo = estadoRepository.save(new Estado(0, "Activo", null));
+        cerrado = estadoRepository.save(new Estado(0, "Cerrado", null));
+        incendio = categoriaRepository.save(new Categoria(0, "Incendio", null));
+        rescate = categoriaRepository.save(new Categoria(0, "Rescate", null));
+        // h1, h2 y h3 comparten la fecha: solo el ID los ordena.
+        h1 = guardar(activo, incendio, T, 5);
+        h2 = guardar(activo, rescate, T, null);
+        h3 = guardar(cerrado, incendio, T, 5);
+        h4 = guardar(activo, incendio, T.plusHours(1), 7);
+        h5 = guardar(activo, incendio, T.plusHours(2), 5);
+        h6 = guardar(cerrado, rescate, T.plusHours(3), null);
+        h7 = guardar(activo, incendio, T.minusDays(1), 5);
+    }
+
+    private Historial guardar(Estado estado, Categoria categoria, LocalDateTime fecha, Integer idDireccion) {
+        Historial h = new Historial();
+        h.setEstado(estado);
+        h.setCategoria(categoria);
+        h.setFechaHistorial(fecha);
+        h.setDetalle("Evento");
+        h.setIdDireccion(idDireccion);
+        return historialRepository.save(h);
+    }
+
+    /**
+     * Ejecuta la especificación igual que {@code HistorialService.buscar}.
+     */
+    private List<Integer> buscar(Specification<Historial> especificacion, int limite) {
+        return historialRepository.findBy(especificacion, consulta -> consulta
+                        .sortBy(Sort.by("fechaHistorial", "idHistorial"))
+                        .limit(limite)
+                        .all())
+                .stream().map(Historial::getIdHistorial).toList();
+    }
+
+    private static List<Integer> ids(Historial... historiales) {
+        List<Integer> ids = new ArrayList<>();
+        for (Historial h : historiales) {
+            ids.add(h.getIdHistorial());
+        }
+        return ids;
+    }
+
+    @Test
+    void segun_sinCriteriosRetornaTodoEnOrdenDeFechaEId() {
+        assertEquals(ids(h7, h1, h2, h3, h4, h5, h6), buscar(HistorialEspecificaciones.segun(new FiltroHistorial()), 100));
+    }
+
+    @Test
+    void segun_omiteLosCriteriosNulos() {
+        FiltroHistorial filtro = new FiltroHistorial();
+        filtro.setEstadoId(activo.getIdEstado());
+
+        assertEquals(ids(h7, h1, h2, h4, h5), buscar(HistorialEspecificaciones.segun(filtro), 100));
+    }
+
+    @Test
+    void segun_combinaTodosLosCriteriosConRangoSemiabierto() {
+        FiltroHistorial filtro = new FiltroHistorial();
+        filtro.setDesde(T);
+        filtro.setHasta(T.plusHours(2));
+        filtro.setEstadoId(activo.getIdEstado());
+        filtro.setCategoriaId(incendio.getIdCategoria());
+        filtro.setIdDireccion(5);
+
+        // h7 es anterior a 'desde', h3 es de otro estado, h4 tiene otra dirección y h5 coincide con 'hasta'.
+        assertEquals(ids(h1), buscar(HistorialEspecificaciones.segun(filtro), 100));
+    }
+
+    @Test
+    void despuesDe_excluyeLaClaveDelCursorEIncluyeLosEmpatesPosteriores() {
+        assertEquals(ids(h4, h5, h6), buscar(HistorialEspecificaciones.despuesDe(T, h3.getIdHistorial()), 100));
+        assertEquals(ids(h2, h3, h4, h5, h6), buscar(HistorialEspecificaciones.despuesDe(T, h1.getIdHistorial()), 100));
+        assertEquals(ids(h1, h2, h3, h4, h5, h6), buscar(HistorialEspecificaciones.despuesDe(T.minusDays(1), h7.getIdHistorial()), 100));
+        assertEquals(List.of(), buscar(HistorialEspecificaciones.despuesDe(T.plusHours(3), h6.getIdHistorial()), 100));
+    }
+
+    @Test
+    void segunYDespuesDe_recorrenLasPaginasSinRepetirNiOmitir() {
+        FiltroHistorial filtro = new FiltroHistorial();
+        filtro.setDesde(T);
+        List<Integer> recorridos = new ArrayList<>();
+        List<Historial> pagina = historialRepository.findBy(HistorialEspecificaciones.segun(filtro), consulta -> consulta
+                .sortBy(Sort.by("fechaHistorial", "idHistorial")).limit(2).all());
+        int paginas = 0;
+        while (!pagina.isEmpty()) {
+            paginas++;
+            pagina.forEach(h -> recorridos.add(h.getIdHistorial()));
+            Historial ultimo = pagina.get(pagina.size() - 1);
+            Specification<Historial> siguiente = HistorialEspecificaciones.segun(filtro)
+                    .and(HistorialEspecificaciones.despuesDe(ultimo.getFechaHistorial(), ultimo.getIdHistorial()));
+            pagina = historialRepository.findBy(siguiente, consulta -> consulta
+                    .sortBy(Sort.by("fechaHistorial", "idHistorial")).limit(2).all());
+        }
+
+        // La primera página termina en h2, a mitad de los registros con fecha T.
+        assertEquals(ids(h1, h2, h3, h4, h5, h6), recorridos);
+        assertEquals(3, paginas);
+    }
+
+    @Test
+    void buscarCompacto_aplicaLaMismaEspecificacionYOrden() {
+        FiltroHistorial filtro = new FiltroHistorial();
+        filtro.setCategoriaId(incendio.getIdCategoria());
+        Specification<Historial> especificacion = HistorialEspecificaciones.segun(filtro)
+                .and(HistorialEspecificaciones.despuesDe(T, h1.getIdHistorial()));
+
+        List<Integer> compactos = historialRepository.buscarCompacto(especificacion, 2).stream()
+                .map(HistorialCompacto::getIdHistorial).toList();
+
+        assertEquals(ids(h3, h4), compactos);
+        assertEquals(compactos, buscar(especificacion, 2));
+    }
+}
@@ -0,0 +1,101 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+import com.SAFE_Rescue.API_Registros.dto.FiltroHistorial;
+import com.SAFE_Rescue.API_Registros.dto.HistorialesGuardados;
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class EventosHistorialServiceTest {
+
+    private HistorialRepository historialRepository;
+    private EventosHistorialService eventosService;
+
+    @BeforeEach
+    void setUp() {
+        historialRepository = mock(HistorialRepository.class);
+        eventosService = new EventosHistorialService(historialRepository, 8, 3, 3600);
+    }
+
+    private static Historial historial(int id, int estado) {
+        Historial h = new Historial();
+        h.setIdHistorial(id);
+        h.setEstado(new Estado(estado, null, null));
+        h.setCategoria(new Categoria(1, null, null));
+        h.setFechaHistorial(LocalDateTime.of(2025, 1, 1, 10, 0));
+        h.setDetalle("Evento " + id);
+        return h;
+    }
+
+    private void publicar(Historial... historiales) {
+        eventosService.publicar(new HistorialesGuardados(List.of(historiales)));
+    }
+
+    @Test
+    void suscribir_enviaSoloLosRegistrosQueCumplenElFiltro() {
+        FiltroHistorial filtro = new FiltroHistorial();
+        filtro.setEstadoId(2);
+
+        StepVerifier.create(eventosService.suscribir(filtro, null))
+                .then(() -> publicar(historial(1, 1), historial(2, 2), historial(3, 2)))
+                .expectNextMatches(e -> "2".equals(e.id()) && "historial".equals(e.event()))
+                .expectNextMatches(e -> "3".equals(e.id()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void suscribir_reenviaLosPerdidosSinDuplicarLosRecibidosEnVivo() {
+        when(historialRepository.findDespuesDeId(10, Limit.of(4))).thenAnswer(inv -> {
+            // Un registro llega en vivo mientras se consultan los perdidos.
+            publicar(historial(12, 1));
+            return List.of(historial(11, 1), historial(12, 1));
+        });
+
+        StepVerifier.create(eventosService.suscribir(new FiltroHistorial(), 10))
+                .expectNextMatches(e -> "11".equals(e.id()))
+                .expectNextMatches(e -> "12".equals(e.id()))
+                .then(() -> publicar(historial(13, 1)))
+                .expectNextMatches(e -> "13".equals(e.id()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void suscribir_pideResincronizarSiSePerdieronDemasiadosEventos() {
+        when(historialRepository.findDespuesDeId(10, Limit.of(4)))
+                .thenReturn(List.of(historial(11, 1), historial(12, 1), historial(13, 1), historial(14, 1)));
+
+        StepVerifier.create(eventosService.suscribir(new FiltroHistorial(), 10))
+                .expectNextMatches(e -> "resincronizar".equals(e.event()))
+                .verifyComplete();
+    }
+
+    @Test
+    void suscribir_suscriptorLentoRecibeLosPendientesYLuegoResincronizar() {
+        List<String> recibidos = new ArrayList<>();
+
+        StepVerifier.create(eventosService.suscribir(new FiltroHistorial(), null), 0)
+                .then(() -> publicar(IntStream.rangeClosed(1, 100).mapToObj(i -> historial(i, 1)).toArray(Historial[]::new)))
+                .thenRequest(Long.MAX_VALUE)
+                .thenConsumeWhile(e -> "historial".equals(e.event()), e -> recibidos.add(e.id()))
+                .expectNextMatches(e -> "resincronizar".equals(e.event()))
+                .verifyComplete();
+
+        assertTrue(recibidos.size() < 100);
+        assertEquals("1", recibidos.get(0));
+    }
+}
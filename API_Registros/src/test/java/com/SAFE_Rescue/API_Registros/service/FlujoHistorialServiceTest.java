@@ -0,0 +1,76 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+import com.SAFE_Rescue.API_Registros.dto.FiltroHistorial;
+import com.SAFE_Rescue.API_Registros.dto.PaginaCursor;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class FlujoHistorialServiceTest {
+
+    private final FiltroHistorial filtro = new FiltroHistorial();
+
+    private HistorialService historialService;
+    private FlujoHistorialService flujoService;
+
+    @BeforeEach
+    void setUp() {
+        historialService = mock(HistorialService.class);
+        flujoService = new FlujoHistorialService(historialService, 2, Schedulers.immediate());
+        when(historialService.buscar(filtro, null, 2)).thenReturn(pagina("c1", 1, 2));
+        when(historialService.buscar(filtro, "c1", 2)).thenReturn(pagina("c2", 3, 4));
+        when(historialService.buscar(filtro, "c2", 2)).thenReturn(pagina(null, 5));
+    }
+
+    private static PaginaCursor<Historial> pagina(String siguienteCursor, int... ids) {
+        List<Historial> historiales = Arrays.stream(ids).mapToObj(id -> {
+            Historial h = new Historial();
+            h.setIdHistorial(id);
+            return h;
+        }).toList();
+        return new PaginaCursor<>(historiales, siguienteCursor);
+    }
+
+    @Test
+    void flujo_consultaLaPaginaSiguienteSoloCuandoSeConsumioLaAnterior() {
+        StepVerifier.create(flujoService.flujo(filtro), 0)
+                .then(() -> verify(historialService, times(1)).buscar(any(), isNull(), anyInt()))
+                .thenRequest(2)
+                .expectNextCount(2)
+                .then(() -> verify(historialService, never()).buscar(filtro, "c1", 2))
+                .thenRequest(1)
+                .expectNextMatches(h -> h.getIdHistorial() == 3)
+                .thenCancel()
+                .verify();
+
+        verify(historialService, never()).buscar(filtro, "c2", 2);
+    }
+
+    @Test
+    void flujo_recorreTodasLasPaginas() {
+        StepVerifier.create(flujoService.flujo(filtro).map(Historial::getIdHistorial))
+                .expectNext(1, 2, 3, 4, 5)
+                .verifyComplete();
+    }
+
+    @Test
+    void flujo_informaLosErroresDelFiltroAlCrearlo() {
+        FiltroHistorial inexistente = new FiltroHistorial();
+        inexistente.setEstadoId(99);
+        when(historialService.buscar(inexistente, null, 2)).thenThrow(new NoSuchElementException("Estado no encontrado"));
+
+        assertThrows(NoSuchElementException.class, () -> flujoService.flujo(inexistente));
+    }
+}
@@ -1,4 +1,141 @@
 package com.SAFE_Rescue.API_Registros.service;
 
+import com.SAFE_Rescue.API_Registros.archivo.AlmacenArchivoHistorial;
+import com.SAFE_Rescue.API_Registros.dto.PaginaCursor;
+import com.SAFE_Rescue.API_Registros.dto.ResultadoLote;
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import com.SAFE_Rescue.API_Registros.util.PaginacionKeyset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
 public class HistorialServiceTest {
+
+    @Mock
+    private HistorialRepository historialRepository;
+
+    @Mock
+    private EstadoService estadoService;
+
+    @Mock
+    private CategoriaService categoriaService;
+
+    @Mock
+    private AlmacenArchivoHistorial archivoHistorial;
+
+    @InjectMocks
+    private HistorialService historialService;
+
+    private Estado estado;
+    private Categoria categoria;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(historialService, "maximoLote", 10);
+        ReflectionTestUtils.setField(historialService, "tamanoLoteJdbc", 5);
+        ReflectionTestUtils.setField(historialService, "paginacion", new PaginacionKeyset(2, 3));
+        estado = new Estado(1, "Activo", null);
+        categoria = new Categoria(1, "Sistema", null);
+    }
+
+    private Historial nuevoHistorial(String detalle) {
+        Historial historial = new Historial();
+        historial.setEstado(estado);
+        historial.setCategoria(categoria);
+        historial.setFechaHistorial(LocalDateTime.now());
+        historial.setDetalle(detalle);
+        return historial;
+    }
+
+    @Test
+    void iniciar_rechazaUnTamanoDeLoteJdbcNoPositivo() {
+        ReflectionTestUtils.setField(historialService, "tamanoLoteJdbc", 0);
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> historialService.iniciar());
+        assertTrue(error.getMessage().contains("registros.historial.lote.tamano-jdbc"));
+    }
+
+    @Test
+    void saveLote_informaErroresPorElementoEInsertaLosValidos() {
+        Historial valido = nuevoHistorial("Evento válido");
+        Historial sinDetalle = nuevoHistorial(" ");
+        Historial estadoInexistente = nuevoHistorial("Estado inexistente");
+        estadoInexistente.setEstado(new Estado(99, "Fantasma", null));
+
+        when(estadoService.findAllById(anyCollection())).thenReturn(List.of(estado));
+        when(categoriaService.findAllById(anyCollection())).thenReturn(List.of(categoria));
+        doAnswer(invocacion -> {
+            List<Historial> insertados = invocacion.getArgument(0);
+            insertados.forEach(h -> h.setIdHistorial(42));
+            return null;
+        }).when(historialRepository).insertarEnLote(anyList(), anyInt());
+
+        ResultadoLote resultado = historialService.saveLote(List.of(valido, sinDetalle, estadoInexistente));
+
+        assertEquals(3, resultado.getRecibidos());
+        assertEquals(1, resultado.getInsertados());
+        assertEquals(List.of(42), resultado.getIds());
+        assertEquals(2, resultado.getErrores().size());
+        assertEquals(1, resultado.getErrores().get(0).getIndice());
+        assertEquals(2, resultado.getErrores().get(1).getIndice());
+        verify(historialRepository).insertarEnLote(List.of(valido), 5);
+    }
+
+    @Test
+    void saveLote_rechazaLotesQueExcedenElMaximo() {
+        List<Historial> lote = Collections.nCopies(11, nuevoHistorial("Evento"));
+
+        assertThrows(IllegalArgumentException.class, () -> historialService.saveLote(lote));
+        verifyNoInteractions(historialRepository);
+    }
+
+    @Test
+    void findPagina_retornaCursorDelUltimoElementoYContinuaDesdeEl() {
+        Historial primero = nuevoHistorial("Primero");
+        primero.setIdHistorial(1);
+        Historial segundo = nuevoHistorial("Segundo");
+        segundo.setIdHistorial(2);
+        Historial tercero = nuevoHistorial("Tercero");
+        tercero.setIdHistorial(3);
+        when(historialRepository.findPrimeraPagina(Limit.of(3))).thenReturn(List.of(primero, segundo, tercero));
+
+        PaginaCursor<Historial> pagina = historialService.findPagina(null, null);
+
+        assertEquals(List.of(primero, segundo), pagina.getElementos());
+        assertNotNull(pagina.getSiguienteCursor());
+
+        when(historialRepository.findPaginaDespuesDe(segundo.getFechaHistorial(), 2, Limit.of(3))).thenReturn(List.of(tercero));
+        PaginaCursor<Historial> siguiente = historialService.findPagina(pagina.getSiguienteCursor(), null);
+
+        assertEquals(List.of(tercero), siguiente.getElementos());
+        assertNull(siguiente.getSiguienteCursor());
+    }
+
+    @Test
+    void findPagina_rechazaCursorInvalidoYLimitaElTamano() {
+        assertThrows(IllegalArgumentException.class, () -> historialService.findPagina("no-es-un-cursor", null));
+
+        when(historialRepository.findPrimeraPagina(Limit.of(4))).thenReturn(List.of());
+        historialService.findPagina(null, 500);
+        verify(historialRepository).findPrimeraPagina(Limit.of(4));
+    }
 }
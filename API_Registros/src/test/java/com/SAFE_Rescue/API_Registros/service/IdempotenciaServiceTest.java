@@ -0,0 +1,162 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+import com.SAFE_Rescue.API_Registros.modelo.ClaveIdempotencia;
+import com.SAFE_Rescue.API_Registros.modelo.Foto;
+import com.SAFE_Rescue.API_Registros.repository.ClaveIdempotenciaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class IdempotenciaServiceTest {
+
+    private static final Foto SOLICITUD = new Foto(0, "http://api.ejemplo.com/fotos/nueva.jpg", null, "Fachada");
+
+    private ClaveIdempotenciaRepository repository;
+    private ObjectMapper objectMapper;
+    private IdempotenciaService idempotenciaService;
+    private String huella;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ClaveIdempotenciaRepository.class);
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        when(repository.findClavesDesde(any())).thenReturn(List.of());
+        idempotenciaService = new IdempotenciaService(repository, objectMapper, 24, 100, 1000, 200);
+        idempotenciaService.cargarFiltro();
+        huella = idempotenciaService.huella(SOLICITUD);
+    }
+
+    private Foto nuevaFoto(int id) {
+        return new Foto(id, "http://api.ejemplo.com/fotos/" + id + ".jpg", LocalDateTime.now(), null);
+    }
+
+    @Test
+    void ejecutar_repeticionRetornaResultadoOriginalSinVolverAEjecutar() {
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        Foto primera = idempotenciaService.ejecutar("foto", "abc", SOLICITUD, Foto.class, () -> nuevaFoto(ejecuciones.incrementAndGet()));
+        Foto segunda = idempotenciaService.ejecutar("foto", "abc", SOLICITUD, Foto.class, () -> nuevaFoto(ejecuciones.incrementAndGet()));
+
+        assertEquals(1, ejecuciones.get());
+        assertEquals(primera.getIdFoto(), segunda.getIdFoto());
+        verify(repository, times(1)).reservar(eq("foto:abc"), eq(huella), any());
+        verify(repository, times(1)).completar(eq("foto:abc"), anyString());
+        verify(repository, never()).findById(anyString());
+    }
+
+    @Test
+    void ejecutar_claveNuncaVistaNoConsultaLaBaseDeDatos() {
+        idempotenciaService.ejecutar("foto", "nueva", SOLICITUD, Foto.class, () -> nuevaFoto(1));
+
+        verify(repository, never()).findById(anyString());
+    }
+
+    @Test
+    void ejecutar_recuperaDesdeElRespaldoPersistenteTrasReiniciar() throws Exception {
+        Foto original = nuevaFoto(7);
+        when(repository.findClavesDesde(any())).thenReturn(List.of("foto:persistida"));
+        when(repository.findById("foto:persistida")).thenReturn(Optional.of(
+                new ClaveIdempotencia("foto:persistida", objectMapper.writeValueAsString(original), LocalDateTime.now(),
+                        huella)));
+        IdempotenciaService reiniciado = new IdempotenciaService(repository, objectMapper, 24, 100, 1000, 200);
+        reiniciado.cargarFiltro();
+
+        Foto resultado = reiniciado.ejecutar("foto", "persistida", SOLICITUD, Foto.class, () -> fail("No debe volver a ejecutarse"));
+
+        assertEquals(7, resultado.getIdFoto());
+    }
+
+    @Test
+    void ejecutar_noAlmacenaErroresParaPermitirReintentos() {
+        assertThrows(IllegalArgumentException.class, () -> idempotenciaService.ejecutar("foto", "error", SOLICITUD, Foto.class, () -> {
+            throw new IllegalArgumentException("La URL de la foto es un campo obligatorio.");
+        }));
+
+        verify(repository).deleteById("foto:error");
+
+        Foto reintento = idempotenciaService.ejecutar("foto", "error", SOLICITUD, Foto.class, () -> nuevaFoto(3));
+        assertEquals(3, reintento.getIdFoto());
+    }
+
+    @Test
+    void ejecutar_claveReservadaPorOtraInstanciaRetornaSuResultadoSinEjecutar() throws Exception {
+        Foto original = nuevaFoto(9);
+        when(repository.reservar(eq("foto:compartida"), anyString(), any())).thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+        when(repository.findById("foto:compartida"))
+                .thenReturn(Optional.of(new ClaveIdempotencia("foto:compartida", "", LocalDateTime.now(), huella)))
+                .thenReturn(Optional.of(new ClaveIdempotencia("foto:compartida", objectMapper.writeValueAsString(original),
+                        LocalDateTime.now(), huella)));
+
+        Foto resultado = idempotenciaService.ejecutar("foto", "compartida", SOLICITUD, Foto.class, () -> fail("No debe volver a ejecutarse"));
+
+        assertEquals(9, resultado.getIdFoto());
+        verify(repository, never()).completar(anyString(), anyString());
+    }
+
+    @Test
+    void ejecutar_claveEnCursoEnOtraInstanciaFallaAlAgotarLaEspera() {
+        when(repository.reservar(eq("foto:lenta"), anyString(), any())).thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+        when(repository.findById("foto:lenta"))
+                .thenReturn(Optional.of(new ClaveIdempotencia("foto:lenta", "", LocalDateTime.now(), huella)));
+
+        assertThrows(IllegalStateException.class,
+                () -> idempotenciaService.ejecutar("foto", "lenta", SOLICITUD, Foto.class, () -> fail("No debe volver a ejecutarse")));
+    }
+
+    @Test
+    void ejecutar_claveVencidaSinPurgarSeVuelveAReservar() {
+        when(repository.reservar(eq("foto:vieja"), anyString(), any()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"))
+                .thenReturn(1);
+        when(repository.deleteVencida(eq("foto:vieja"), any())).thenReturn(1);
+
+        Foto resultado = idempotenciaService.ejecutar("foto", "vieja", SOLICITUD, Foto.class, () -> nuevaFoto(4));
+
+        assertEquals(4, resultado.getIdFoto());
+        verify(repository, times(2)).reservar(eq("foto:vieja"), anyString(), any());
+    }
+
+    @Test
+    void ejecutar_rechazaLaClaveReutilizadaConOtraSolicitud() {
+        Foto otra = new Foto(0, "http://api.ejemplo.com/fotos/otra.jpg", null, "Fachada");
+        idempotenciaService.ejecutar("foto", "reutilizada", SOLICITUD, Foto.class, () -> nuevaFoto(1));
+
+        assertThrows(ClaveIdempotenciaReutilizadaException.class, () -> idempotenciaService.ejecutar("foto", "reutilizada", otra,
+                Foto.class, () -> fail("No debe ejecutarse")));
+        assertEquals(1, idempotenciaService.ejecutar("foto", "reutilizada", SOLICITUD, Foto.class,
+                () -> fail("No debe volver a ejecutarse")).getIdFoto());
+    }
+
+    @Test
+    void ejecutar_rechazaLaClaveQueOtraInstanciaProcesoConOtraSolicitud() throws Exception {
+        when(repository.reservar(eq("foto:ajena"), anyString(), any())).thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+        when(repository.findById("foto:ajena")).thenReturn(Optional.of(new ClaveIdempotencia("foto:ajena",
+                objectMapper.writeValueAsString(nuevaFoto(5)), LocalDateTime.now(), "0".repeat(64))));
+
+        assertThrows(ClaveIdempotenciaReutilizadaException.class, () -> idempotenciaService.ejecutar("foto", "ajena", SOLICITUD,
+                Foto.class, () -> fail("No debe ejecutarse")));
+    }
+
+    @Test
+    void huella_dependeDelContenidoDeLaSolicitud() {
+        Foto igual = new Foto(0, "http://api.ejemplo.com/fotos/nueva.jpg", null, "Fachada");
+        Foto distinta = new Foto(0, "http://api.ejemplo.com/fotos/nueva.jpg", null, "Patio");
+
+        assertEquals(64, huella.length());
+        assertEquals(huella, idempotenciaService.huella(igual));
+        assertNotEquals(huella, idempotenciaService.huella(distinta));
+    }
+}
@@ -0,0 +1,98 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+import com.SAFE_Rescue.API_Registros.dto.ResultadoImportacion;
+import com.SAFE_Rescue.API_Registros.dto.ResultadoLote;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class ImportacionHistorialServiceTest {
+
+    private static final String LINEA_VALIDA =
+            "{\"estado\":{\"idEstado\":1},\"categoria\":{\"idCategoria\":1},\"fechaHistorial\":\"2024-01-01T10:00:00\",\"detalle\":\"Registro importado\"}";
+
+    private HistorialService historialService;
+    private ImportacionHistorialService importacionService;
+    private final List<Integer> tamanosBloque = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        historialService = mock(HistorialService.class);
+        when(historialService.saveBloqueImportacion(anyList(), anyList(), anyList())).thenAnswer(inv -> {
+            List<Historial> bloque = inv.getArgument(0);
+            tamanosBloque.add(bloque.size());
+            return bloque.size();
+        });
+        importacionService = new ImportacionHistorialService(historialService,
+                new ObjectMapper().registerModule(new JavaTimeModule()), 2, 10);
+    }
+
+    private static ByteArrayInputStream ndjson(String... lineas) {
+        return new ByteArrayInputStream(String.join("\n", lineas).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importar_guardaEnBloquesYReportaLineasInvalidas() throws Exception {
+        ResultadoImportacion resultado = importacionService.importar(
+                ndjson(LINEA_VALIDA, "", "{no es json", LINEA_VALIDA, LINEA_VALIDA), false);
+
+        assertEquals(4, resultado.getLineasLeidas());
+        assertEquals(3, resultado.getInsertados());
+        assertEquals(1, resultado.getRechazados());
+        assertEquals(3, resultado.getErrores().get(0).getIndice());
+        assertEquals(List.of(2, 1), tamanosBloque);
+    }
+
+    @Test
+    void importar_descomprimeGzip() throws Exception {
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+            gzip.write((LINEA_VALIDA + "\n" + LINEA_VALIDA + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        ResultadoImportacion resultado = importacionService.importar(new ByteArrayInputStream(comprimido.toByteArray()), true);
+
+        assertEquals(2, resultado.getInsertados());
+        assertEquals(0, resultado.getRechazados());
+    }
+
+    @Test
+    void importar_bloqueConErrorDeIntegridadSeRechazaCompletoYContinua() throws Exception {
+        when(historialService.saveBloqueImportacion(anyList(), anyList(), anyList()))
+                .thenThrow(new IllegalArgumentException("Error de integridad de datos"))
+                .thenReturn(1);
+
+        ResultadoImportacion resultado = importacionService.importar(ndjson(LINEA_VALIDA, LINEA_VALIDA, LINEA_VALIDA), false);
+
+        assertEquals(1, resultado.getInsertados());
+        assertEquals(2, resultado.getRechazados());
+        assertEquals(List.of(1L, 2L), resultado.getErrores().stream().map(ResultadoLote.ErrorLote::getIndice).toList());
+    }
+
+    @Test
+    void importar_limitaElDetalleDeRechazos() throws Exception {
+        String[] lineas = new String[25];
+        Arrays.fill(lineas, "{");
+
+        ResultadoImportacion resultado = importacionService.importar(ndjson(lineas), false);
+
+        assertEquals(25, resultado.getRechazados());
+        assertEquals(10, resultado.getErrores().size());
+        verify(historialService, never()).saveBloqueImportacion(any(), any(), any());
+    }
+}
@@ -0,0 +1,56 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParticionHistorialServiceTest {
+
+    private static final YearMonth ACTUAL = YearMonth.of(2025, 11);
+
+    @Test
+    void definicion_usaElInicioDelMesSiguienteComoLimiteExclusivo() {
+        assertEquals("p202502", ParticionHistorialService.nombre(YearMonth.of(2025, 2)));
+        assertEquals("PARTITION p202502 VALUES LESS THAN ('2025-03-01 00:00:00')",
+                ParticionHistorialService.definicion(YearMonth.of(2025, 2)));
+        assertEquals("PARTITION p202512 VALUES LESS THAN ('2026-01-01 00:00:00')",
+                ParticionHistorialService.definicion(YearMonth.of(2025, 12)));
+    }
+
+    @Test
+    void mesesPorCrear_continuaDesdeLaUltimaParticionHastaLosMesesAdelantados() {
+        assertEquals(List.of(YearMonth.of(2025, 12), YearMonth.of(2026, 1), YearMonth.of(2026, 2)),
+                ParticionHistorialService.mesesPorCrear(List.of(YearMonth.of(2025, 10), YearMonth.of(2025, 11)), ACTUAL, 3));
+    }
+
+    @Test
+    void mesesPorCrear_noCreaNadaSiYaEstanCubiertos() {
+        assertEquals(List.of(), ParticionHistorialService.mesesPorCrear(
+                List.of(YearMonth.of(2025, 12), YearMonth.of(2026, 1), YearMonth.of(2026, 2)), ACTUAL, 3));
+    }
+
+    @Test
+    void mesesPorCrear_sinParticionesComienzaEnElMesActual() {
+        assertEquals(List.of(ACTUAL, ACTUAL.plusMonths(1)), ParticionHistorialService.mesesPorCrear(List.of(), ACTUAL, 1));
+    }
+
+    @Test
+    void mesesPorSeparar_separaLosMesesAnterioresALaRetencion() {
+        List<YearMonth> existentes = List.of(YearMonth.of(2025, 6), YearMonth.of(2025, 7), YearMonth.of(2025, 8),
+                YearMonth.of(2025, 9), YearMonth.of(2025, 10), YearMonth.of(2025, 11), YearMonth.of(2025, 12));
+
+        assertEquals(List.of(YearMonth.of(2025, 6), YearMonth.of(2025, 7)),
+                ParticionHistorialService.mesesPorSeparar(existentes, ACTUAL, 3));
+    }
+
+    @Test
+    void mesesPorSeparar_conservaSiempreLaUltimaParticion() {
+        List<YearMonth> existentes = List.of(YearMonth.of(2024, 1), YearMonth.of(2024, 2));
+
+        assertEquals(List.of(YearMonth.of(2024, 1)), ParticionHistorialService.mesesPorSeparar(existentes, ACTUAL, 1));
+        assertEquals(List.of(), ParticionHistorialService.mesesPorSeparar(List.of(YearMonth.of(2024, 1)), ACTUAL, 1));
+    }
+}
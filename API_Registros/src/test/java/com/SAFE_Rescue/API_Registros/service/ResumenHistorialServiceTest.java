@@ -0,0 +1,144 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+import com.SAFE_Rescue.API_Registros.archivo.AlmacenArchivoHistorial;
+import com.SAFE_Rescue.API_Registros.dto.PuntoResumen;
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.modelo.ResumenHistorial;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import com.SAFE_Rescue.API_Registros.repository.ResumenHistorialRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ResumenHistorialServiceTest {
+
+    private static final LocalDateTime DIA = LocalDateTime.of(2025, 3, 10, 0, 0);
+
+    private ResumenHistorialRepository resumenHistorialRepository;
+    private HistorialRepository historialRepository;
+    private ResumenHistorialService resumenHistorialService;
+
+    @BeforeEach
+    void setUp() {
+        resumenHistorialRepository = mock(ResumenHistorialRepository.class);
+        historialRepository = mock(HistorialRepository.class);
+        resumenHistorialService = new ResumenHistorialService(resumenHistorialRepository, historialRepository,
+                mock(AlmacenArchivoHistorial.class), mock(PlatformTransactionManager.class), 48);
+    }
+
+    private static Historial historial(int id, LocalDateTime fecha) {
+        Historial h = new Historial();
+        h.setIdHistorial(id);
+        h.setFechaHistorial(fecha);
+        h.setEstado(new Estado(1, "Activo", null));
+        h.setCategoria(new Categoria(1, "Incendio", null));
+        h.setDetalle("Evento " + id);
+        return h;
+    }
+
+    private static ResumenHistorial resumen(LocalDateTime inicio, int estado, int categoria, long cantidad) {
+        return new ResumenHistorial(new ResumenHistorial.Clave(ResumenHistorial.Granularidad.HORA, inicio, estado, categoria), cantidad);
+    }
+
+    @Test
+    void consultar_sumaLasDimensionesNoAgrupadasYOmiteIntervalosEnCero() {
+        when(resumenHistorialRepository.buscar(ResumenHistorial.Granularidad.HORA, DIA, DIA.plusDays(1), null, null)).thenReturn(List.of(
+                resumen(DIA, 1, 1, 3),
+                resumen(DIA, 2, 1, 4),
+                resumen(DIA, 1, 2, 5),
+                resumen(DIA.plusHours(1), 1, 1, 0)));
+
+        List<PuntoResumen> puntos = resumenHistorialService.consultar(ResumenHistorial.Granularidad.HORA,
+                DIA.plusMinutes(30), DIA.plusDays(1), null, null, false, true);
+
+        assertEquals(List.of(new PuntoResumen(DIA, null, 1, 7), new PuntoResumen(DIA, null, 2, 5)), puntos);
+    }
+
+    @Test
+    void consultar_rechazaRangosConDemasiadosIntervalos() {
+        assertThrows(IllegalArgumentException.class, () -> resumenHistorialService.consultar(ResumenHistorial.Granularidad.HORA,
+                DIA, DIA.plusDays(3), null, null, true, true));
+        assertThrows(IllegalArgumentException.class, () -> resumenHistorialService.consultar(ResumenHistorial.Granularidad.DIA,
+                DIA, DIA, null, null, true, true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconstruir_reemplazaCadaDiaConLosConteosDeTodasLasGranularidades() {
+        when(historialRepository.findFechaMinima()).thenReturn(DIA.minusDays(30));
+        when(historialRepository.contarPorMinuto(DIA, DIA.plusDays(1))).thenReturn(List.of(
+                new Object[]{2025, 3, 10, 8, 15, 1, 1, 2L},
+                new Object[]{2025, 3, 10, 8, 40, 1, 1, 3L}));
+
+        long contabilizados = resumenHistorialService.reconstruir(DIA.plusHours(5), DIA.plusDays(1));
+
+        assertEquals(5, contabilizados);
+        verify(resumenHistorialRepository).eliminarEntre(DIA, DIA.plusDays(1));
+        ArgumentCaptor<Map<ResumenHistorial.Clave, Long>> conteos = ArgumentCaptor.forClass(Map.class);
+        verify(resumenHistorialRepository).sumar(conteos.capture());
+        assertEquals(Map.of(
+                new ResumenHistorial.Clave(ResumenHistorial.Granularidad.MINUTO, DIA.plusHours(8).plusMinutes(15), 1, 1), 2L,
+                new ResumenHistorial.Clave(ResumenHistorial.Granularidad.MINUTO, DIA.plusHours(8).plusMinutes(40), 1, 1), 3L,
+                new ResumenHistorial.Clave(ResumenHistorial.Granularidad.HORA, DIA.plusHours(8), 1, 1), 5L,
+                new ResumenHistorial.Clave(ResumenHistorial.Granularidad.DIA, DIA, 1, 1), 5L), conteos.getValue());
+        verify(historialRepository, never()).contarPorMinuto(eq(DIA.plusDays(1)), any());
+    }
+
+    @Test
+    void reconstruir_noBorraLosResumenesDeDiasAnterioresAlRegistroMasAntiguo() {
+        when(historialRepository.findFechaMinima()).thenReturn(DIA.plusHours(9));
+        when(historialRepository.contarPorMinuto(any(), any())).thenReturn(List.of());
+
+        resumenHistorialService.reconstruir(DIA.minusDays(5), DIA.plusDays(1));
+
+        verify(resumenHistorialRepository).eliminarEntre(DIA, DIA.plusDays(1));
+        verify(resumenHistorialRepository, never()).eliminarEntre(eq(DIA.minusDays(1)), any());
+        verify(resumenHistorialRepository, times(1)).eliminarEntre(any(), any());
+    }
+
+    @Test
+    void reconstruir_conLaTablaVaciaNoModificaLosResumenes() {
+        assertEquals(0, resumenHistorialService.reconstruir(DIA.minusDays(5), DIA.plusDays(1)));
+
+        verifyNoInteractions(resumenHistorialRepository);
+    }
+
+    @Test
+    void reconstruir_conservaLosConteosDelDiaArchivadoEnParte(@TempDir Path directorio) throws Exception {
+        // El corte de retención cayó a media mañana: DIA quedó archivado hasta las 09:00 y el resto sigue en la tabla.
+        AlmacenArchivoHistorial almacen = new AlmacenArchivoHistorial(historialRepository, directorio.toString(), 2);
+        almacen.confirmar(almacen.escribirPendiente(List.of(historial(1, DIA.plusHours(8)), historial(2, DIA.plusHours(9)))));
+        when(historialRepository.findFechaMinima()).thenReturn(DIA.plusHours(10));
+        when(historialRepository.contarPorMinuto(any(), any())).thenReturn(List.of());
+        ResumenHistorialService servicio = new ResumenHistorialService(resumenHistorialRepository, historialRepository,
+                almacen, mock(PlatformTransactionManager.class), 48);
+
+        servicio.reconstruir(DIA, DIA.plusDays(2));
+        servicio.reconstruir(null, DIA.plusDays(2));
+
+        verify(resumenHistorialRepository, never()).eliminarEntre(eq(DIA), any());
+        verify(historialRepository, never()).contarPorMinuto(eq(DIA), any());
+        verify(resumenHistorialRepository, times(2)).eliminarEntre(DIA.plusDays(1), DIA.plusDays(2));
+        verify(resumenHistorialRepository, times(2)).eliminarEntre(any(), any());
+    }
+
+    @Test
+    void reconstruir_rechazaUnRangoInvertido() {
+        assertThrows(IllegalArgumentException.class, () -> resumenHistorialService.reconstruir(DIA.plusDays(2), DIA));
+
+        verifyNoInteractions(resumenHistorialRepository);
+    }
+}
@@ -0,0 +1,138 @@
+package com.SAFE_Rescue.API_Registros.service;
+
+import com.SAFE_Rescue.API_Registros.archivo.AlmacenArchivoHistorial;
+import com.SAFE_Rescue.API_Registros.archivo.FormatoArchivoHistorial;
+import com.SAFE_Rescue.API_Registros.modelo.Categoria;
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.modelo.Historial;
+import com.SAFE_Rescue.API_Registros.repository.HistorialRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Cubre los puntos en que el archivado puede interrumpirse: tras escribir el archivo pendiente,
+ * tras eliminar los registros de la base de datos y antes de confirmar el archivo.
+ */
+public class RetencionHistorialServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2020, 5, 4, 10, 0);
+
+    @TempDir
+    Path directorio;
+
+    private HistorialRepository historialRepository;
+    private JdbcTemplate jdbcTemplate;
+    private List<Historial> bloque;
+
+    @BeforeEach
+    void setUp() {
+        historialRepository = mock(HistorialRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        bloque = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Historial h = new Historial();
+            h.setIdHistorial(100 + i);
+            h.setFechaHistorial(BASE.plusHours(i));
+            h.setEstado(new Estado(1, "Activo", "Registro activo"));
+            h.setCategoria(new Categoria(1, "Incendio", null));
+            h.setDetalle("Evento " + (100 + i));
+            bloque.add(h);
+        }
+        when(historialRepository.findAnterioresA(any(), any(Limit.class))).thenReturn(bloque).thenReturn(List.of());
+    }
+
+    private AlmacenArchivoHistorial almacen() throws Exception {
+        AlmacenArchivoHistorial almacen = new AlmacenArchivoHistorial(historialRepository, directorio.toString(), 2);
+        almacen.cargar();
+        return almacen;
+    }
+
+    private RetencionHistorialService retencion(AlmacenArchivoHistorial almacen) {
+        return new RetencionHistorialService(historialRepository, almacen, jdbcTemplate,
+                mock(PlatformTransactionManager.class), 365, 1000);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void alEliminar(Throwable error) {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(error);
+    }
+
+    private List<String> archivos() throws Exception {
+        try (var listado = Files.list(directorio)) {
+            return listado.map(p -> p.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    void archivarVencidos_escribeEliminaYConfirma() throws Exception {
+        AlmacenArchivoHistorial almacen = almacen();
+
+        assertEquals(20, retencion(almacen).archivarVencidos());
+
+        assertEquals(List.of("historial-2020-05-04-100.hca"), archivos());
+        assertEquals("Evento 107", almacen.buscarPorId(107).orElseThrow().getDetalle());
+    }
+
+    @Test
+    void archivarVencidos_siLaEliminacionFallaDescartaElPendiente() throws Exception {
+        alEliminar(new QueryTimeoutException("Tiempo de espera agotado"));
+
+        assertThrows(QueryTimeoutException.class, () -> retencion(almacen()).archivarVencidos());
+
+        assertEquals(List.of(), archivos());
+    }
+
+    @Test
+    void caidaAntesDeEliminar_alReiniciarDescartaElPendiente() throws Exception {
+        alEliminar(new CaidaSimulada());
+        assertThrows(CaidaSimulada.class, () -> retencion(almacen()).archivarVencidos());
+        assertEquals(List.of("historial-2020-05-04-100.pendiente"), archivos());
+        when(historialRepository.existsById(100)).thenReturn(true);
+
+        AlmacenArchivoHistorial reiniciado = almacen();
+
+        assertEquals(List.of(), archivos());
+        assertTrue(reiniciado.buscarPorId(107).isEmpty());
+    }
+
+    @Test
+    void caidaTrasEliminarAntesDeConfirmar_alReiniciarConfirmaElPendiente() throws Exception {
+        AlmacenArchivoHistorial almacen = spy(almacen());
+        doThrow(new CaidaSimulada()).when(almacen).confirmar(any(FormatoArchivoHistorial.Indice.class));
+        assertThrows(CaidaSimulada.class, () -> retencion(almacen).archivarVencidos());
+        verify(jdbcTemplate).batchUpdate(anyString(), eq(bloque), anyInt(), any());
+        assertEquals(List.of("historial-2020-05-04-100.pendiente"), archivos());
+        when(historialRepository.existsById(100)).thenReturn(false);
+
+        AlmacenArchivoHistorial reiniciado = almacen();
+
+        assertEquals(List.of("historial-2020-05-04-100.hca"), archivos());
+        assertEquals("Evento 119", reiniciado.buscarPorId(119).orElseThrow().getDetalle());
+    }
+
+    /**
+     * Simula la detención del proceso: al ser un {@link Error}, el servicio no alcanza a descartar el pendiente.
+     */
+    private static class CaidaSimulada extends Error {
+    }
+}
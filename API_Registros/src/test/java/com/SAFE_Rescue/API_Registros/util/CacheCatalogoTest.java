@@ -0,0 +1,93 @@
+package com.SAFE_Rescue.API_Registros.util;
+
+import com.SAFE_Rescue.API_Registros.modelo.Estado;
+import com.SAFE_Rescue.API_Registros.repository.EstadoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class CacheCatalogoTest {
+
+    private final Estado activo = new Estado(1, "Activo", null);
+    private final Estado inactivo = new Estado(2, "Inactivo", null);
+
+    private EstadoRepository repositorio;
+    private SimpleMeterRegistry metricas;
+    private CacheCatalogo<Estado> cache;
+
+    @BeforeEach
+    void setUp() {
+        repositorio = mock(EstadoRepository.class);
+        metricas = new SimpleMeterRegistry();
+        cache = new CacheCatalogo<>("estado", repositorio::findById, repositorio::findByNombre, repositorio::findAllById,
+                Estado::getIdEstado, Duration.ZERO, metricas);
+    }
+
+    private double contador(String resultado) {
+        return metricas.get("registros.catalogo.cache").tag("resultado", resultado).counter().count();
+    }
+
+    @Test
+    void porId_consultaElRepositorioSoloEnElPrimerFallo() {
+        when(repositorio.findById(1)).thenReturn(Optional.of(activo));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Optional.of(activo), cache.porId(1));
+        }
+
+        verify(repositorio, times(1)).findById(1);
+        assertEquals(4, contador("acierto"));
+        assertEquals(1, contador("fallo"));
+    }
+
+    @Test
+    void resultadosVacios_noSeGuardan() {
+        when(repositorio.findById(3)).thenReturn(Optional.empty());
+        when(repositorio.findByNombre("Pendiente")).thenReturn(List.of());
+
+        cache.porId(3);
+        cache.porId(3);
+        cache.porNombre("Pendiente");
+        cache.porNombre("Pendiente");
+
+        verify(repositorio, times(2)).findById(3);
+        verify(repositorio, times(2)).findByNombre("Pendiente");
+    }
+
+    @Test
+    void invalidar_descartaIdsYNombres() {
+        when(repositorio.findById(1)).thenReturn(Optional.of(activo)).thenReturn(Optional.of(new Estado(1, "Vigente", null)));
+        when(repositorio.findByNombre("Activo")).thenReturn(List.of(activo)).thenReturn(List.of());
+
+        cache.porId(1);
+        cache.porNombre("Activo");
+        cache.invalidar();
+
+        assertEquals("Vigente", cache.porId(1).orElseThrow().getNombre());
+        assertTrue(cache.porNombre("Activo").isEmpty());
+    }
+
+    @Test
+    void porIds_consultaSoloLosFaltantesYLosGuarda() {
+        when(repositorio.findById(1)).thenReturn(Optional.of(activo));
+        when(repositorio.findAllById(anyCollection())).thenReturn(List.of(inactivo));
+
+        cache.porId(1);
+        List<Estado> encontrados = cache.porIds(Set.of(1, 2, 9));
+
+        assertEquals(Set.of(activo, inactivo), Set.copyOf(encontrados));
+        verify(repositorio).findAllById(argThat(ids -> Set.copyOf((Collection<?>) ids).equals(Set.of(2, 9))));
+        assertEquals(Optional.of(inactivo), cache.porId(2));
+        verify(repositorio, never()).findById(2);
+    }
+}
@@ -0,0 +1,92 @@
+package com.SAFE_Rescue.API_Registros.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class DataSourceLimitadoTest {
+
+    private DataSource destino;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        destino = mock(DataSource.class);
+        when(destino.getConnection()).thenAnswer(invocacion -> mock(Connection.class));
+    }
+
+    @Test
+    void hilosVirtuales_nuncaSuperanElLimiteDeConexiones() throws Exception {
+        DataSourceLimitado limitado = new DataSourceLimitado(destino, 4, Duration.ofSeconds(30));
+        AtomicInteger abiertas = new AtomicInteger();
+        AtomicInteger maximoObservado = new AtomicInteger();
+
+        List<Future<?>> tareas = new ArrayList<>();
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1_000; i++) {
+                tareas.add(hilos.submit(() -> {
+                    try (Connection conexion = limitado.getConnection()) {
+                        maximoObservado.accumulateAndGet(abiertas.incrementAndGet(), Math::max);
+                        Thread.sleep(1);
+                        abiertas.decrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+
+        assertTrue(maximoObservado.get() <= 4, "máximo observado: " + maximoObservado.get());
+        assertEquals(0, limitado.enUso());
+        verify(destino, times(1_000)).getConnection();
+    }
+
+    @Test
+    void esperaAgotada_lanzaExcepcionTransitoriaHastaQueSeCierraUnaConexion() throws Exception {
+        DataSourceLimitado limitado = new DataSourceLimitado(destino, 1, Duration.ofMillis(50));
+        SimpleMeterRegistry metricas = new SimpleMeterRegistry();
+        limitado.bindTo(metricas);
+
+        Connection primera = limitado.getConnection();
+        assertThrows(SQLTransientConnectionException.class, limitado::getConnection);
+        assertEquals(1, metricas.get("registros.bd.concurrencia.rechazos").functionCounter().count());
+
+        primera.close();
+        primera.close();
+        assertEquals(0, limitado.enUso());
+
+        Connection segunda = limitado.getConnection();
+        assertEquals(1, limitado.enUso());
+        assertNotSame(primera, segunda);
+        assertNotNull(((ConnectionProxy) segunda).getTargetConnection());
+    }
+
+    @Test
+    void aperturaFallida_devuelveElPermiso() throws Exception {
+        when(destino.getConnection()).thenThrow(new SQLException("sin conexión"));
+        DataSourceLimitado limitado = new DataSourceLimitado(destino, 1, Duration.ofMillis(50));
+
+        assertThrows(SQLException.class, limitado::getConnection);
+        assertThrows(SQLException.class, limitado::getConnection);
+
+        assertEquals(0, limitado.enUso());
+        verify(destino, times(2)).getConnection();
+    }
+}
@@ -0,0 +1,82 @@
+package com.SAFE_Rescue.API_Registros.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.CountingMode;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.core.instrument.Clock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FormatoPrometheusTest {
+
+    private SimpleMeterRegistry registro;
+
+    @BeforeEach
+    void setUp() {
+        registro = new SimpleMeterRegistry(new SimpleConfig() {
+            @Override
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public CountingMode mode() {
+                return CountingMode.CUMULATIVE;
+            }
+        }, Clock.SYSTEM);
+    }
+
+    @Test
+    void contador_terminaEnTotalYEscapaLasEtiquetas() {
+        Counter.builder("registros.importaciones").tag("origen", "a\"b\\c").register(registro).increment(3);
+
+        String salida = FormatoPrometheus.escribir(registro);
+
+        assertTrue(salida.contains("# TYPE registros_importaciones_total counter\n"), salida);
+        assertTrue(salida.contains("registros_importaciones_total{origen=\"a\\\"b\\\\c\"} 3\n"), salida);
+    }
+
+    @Test
+    void temporizadorConSlo_publicaHistogramaAcumuladoEnSegundos() {
+        Timer timer = Timer.builder("registros.servicio")
+                .tag("method", "buscar")
+                .serviceLevelObjectives(Duration.ofMillis(10), Duration.ofMillis(100))
+                .register(registro);
+        timer.record(Duration.ofMillis(5));
+        timer.record(Duration.ofMillis(50));
+        timer.record(Duration.ofMillis(500));
+
+        String salida = FormatoPrometheus.escribir(registro);
+
+        assertTrue(salida.contains("# TYPE registros_servicio_seconds histogram\n"), salida);
+        assertTrue(salida.contains("registros_servicio_seconds_bucket{method=\"buscar\",le=\"0.01\"} 1\n"), salida);
+        assertTrue(salida.contains("registros_servicio_seconds_bucket{method=\"buscar\",le=\"0.1\"} 2\n"), salida);
+        assertTrue(salida.contains("registros_servicio_seconds_bucket{method=\"buscar\",le=\"+Inf\"} 3\n"), salida);
+        assertTrue(salida.contains("registros_servicio_seconds_count{method=\"buscar\"} 3\n"), salida);
+        assertTrue(salida.contains("registros_servicio_seconds_sum{method=\"buscar\"} 0.555\n"), salida);
+        assertTrue(salida.contains("registros_servicio_seconds_max{method=\"buscar\"} 0.5\n"), salida);
+    }
+
+    @Test
+    void medidorConUnidad_agregaLaUnidadYUnaSolaLineaTypePorFamilia() {
+        AtomicInteger pendientes = new AtomicInteger(7);
+        Gauge.builder("registros.bd.concurrencia.espera", pendientes, AtomicInteger::get).baseUnit("threads")
+                .tag("pool", "a").register(registro);
+        Gauge.builder("registros.bd.concurrencia.espera", pendientes, AtomicInteger::get).baseUnit("threads")
+                .tag("pool", "b").register(registro);
+
+        String salida = FormatoPrometheus.escribir(registro);
+
+        assertEquals(1, salida.split("# TYPE registros_bd_concurrencia_espera_threads gauge", -1).length - 1, salida);
+        assertTrue(salida.contains("registros_bd_concurrencia_espera_threads{pool=\"a\"} 7\n"), salida);
+        assertTrue(salida.contains("registros_bd_concurrencia_espera_threads{pool=\"b\"} 7\n"), salida);
+    }
+}